@@ -2,6 +2,9 @@ var gulp = require('gulp');
 var cleanCSS = require('gulp-clean-css');
 var uglify = require('gulp-uglify');
 var less = require('gulp-less');
+var concat = require('gulp-concat');
+var gzip = require('gulp-gzip');
+var brotli = require('gulp-brotli');
 
 var paths = {
     "css"    : "src/css/*",
@@ -13,6 +16,29 @@ var paths = {
     "dist"   : "target/dist/"
 };
 
+// Module declarations must come before the controllers and components registered on them
+var bundle = [
+    "src/scripts/app.js",
+    "src/scripts/infrastructure/infrastructure.js",
+    "src/scripts/*/!(*.controller|*.component).js",
+    paths.js
+];
+
+// Text assets served with a precompressed .gz and .br sibling
+var compressible = {
+    "dist"   : paths.dist + "**/*.{js,css,html,svg}",
+    "vendor" : "bower_components/**/*.min.{js,css}"
+};
+
+var built = ['minify-css', 'minify-js', 'bundle-js', 'less', 'copy-fonts', 'copy-html'];
+
+// Compressed siblings sit next to their original in the packaged public/ folder
+function precompress(src, base, compressor) {
+    return gulp.src(src, {base: base})
+        .pipe(compressor)
+        .pipe(gulp.dest(paths.dist));
+}
+
 gulp.task('minify-css', function() {
     return gulp.src(paths.css)
         .pipe(cleanCSS())
@@ -25,6 +51,13 @@ gulp.task('minify-js', function() {
         .pipe(gulp.dest(paths.dist + 'scripts/'));
 });
 
+gulp.task('bundle-js', function() {
+    return gulp.src(bundle)
+        .pipe(concat('petclinic.min.js'))
+        .pipe(uglify())
+        .pipe(gulp.dest(paths.dist + 'scripts/'));
+});
+
 gulp.task('less', function () {
     return gulp.src(paths.less)
         .pipe(less())
@@ -46,5 +79,22 @@ gulp.task('copy-images', function() {
         .pipe(gulp.dest(paths.dist + 'images/'))
 });
 
-gulp.task('default', ['minify-css', 'minify-js', 'less',
-          'copy-fonts', 'copy-html', 'copy-images'], function() {});
+gulp.task('gzip', built, function() {
+    return precompress(compressible.dist, paths.dist, gzip({gzipOptions: {level: 9}}));
+});
+
+gulp.task('gzip-vendor', function() {
+    return precompress(compressible.vendor, 'bower_components', gzip({gzipOptions: {level: 9}}));
+});
+
+gulp.task('brotli', built, function() {
+    return precompress(compressible.dist, paths.dist, brotli.compress({quality: 11}));
+});
+
+gulp.task('brotli-vendor', function() {
+    return precompress(compressible.vendor, 'bower_components', brotli.compress({quality: 11}));
+});
+
+gulp.task('default', ['minify-css', 'minify-js', 'bundle-js', 'less',
+          'copy-fonts', 'copy-html', 'copy-images',
+          'gzip', 'gzip-vendor', 'brotli', 'brotli-vendor'], function() {});
@@ -0,0 +1,43 @@
+'use strict';
+
+/**
+ * Server-sent events of the changes of an owner or a pet.
+ *
+ * The listener is called with the change, or without argument when changes were missed (the server dropped some for
+ * a slow browser, or the connection was lost and reopened): the view should then be reloaded.
+ */
+angular.module('infrastructure')
+    .factory('LiveFeed', ['$rootScope', function ($rootScope) {
+        return {
+            subscribe: function (params, listener) {
+                var query = Object.keys(params).map(function (name) {
+                    return name + '=' + encodeURIComponent(params[name]);
+                }).join('&');
+                var source = new EventSource('feed' + (query ? '?' + query : ''));
+                var opened = false;
+
+                source.addEventListener('change', function (message) {
+                    $rootScope.$apply(function () {
+                        listener(JSON.parse(message.data));
+                    });
+                });
+                source.addEventListener('resync', function () {
+                    $rootScope.$apply(function () {
+                        listener();
+                    });
+                });
+                source.addEventListener('open', function () {
+                    if (opened) {
+                        $rootScope.$apply(function () {
+                            listener();
+                        });
+                    }
+                    opened = true;
+                });
+
+                return function unsubscribe() {
+                    source.close();
+                };
+            }
+        };
+    }]);
@@ -1,10 +1,22 @@
 'use strict';
 
 angular.module('ownerDetails')
-    .controller('OwnerDetailsController', ['$http', '$stateParams', function ($http, $stateParams) {
+    .controller('OwnerDetailsController', ['$http', '$stateParams', 'LiveFeed', function ($http, $stateParams, LiveFeed) {
         var self = this;
+        var unsubscribe;
 
-        $http.get('owners/' + $stateParams.ownerId).then(function (resp) {
-            self.owner = resp.data;
-        });
+        function load() {
+            $http.get('owners/' + $stateParams.ownerId).then(function (resp) {
+                self.owner = resp.data;
+            });
+        }
+
+        self.$onInit = function () {
+            load();
+            unsubscribe = LiveFeed.subscribe({ownerId: $stateParams.ownerId}, load);
+        };
+
+        self.$onDestroy = function () {
+            unsubscribe();
+        };
     }]);
@@ -1,16 +1,32 @@
 'use strict';
 
 angular.module('visits')
-    .controller('VisitsController', ['$http', '$state', '$stateParams', '$filter', function ($http, $state, $stateParams, $filter) {
+    .controller('VisitsController', ['$http', '$state', '$stateParams', '$filter', 'LiveFeed', function ($http, $state, $stateParams, $filter, LiveFeed) {
         var self = this;
         var petId = $stateParams.petId || 0;
         var url = "owners/" + ($stateParams.ownerId || 0) + "/pets/" + petId + "/visits";
+        var unsubscribe;
         self.date = new Date();
         self.desc = "";
 
-        $http.get(url).then(function (resp) {
-            self.visits = resp.data;
-        });
+        function load() {
+            $http.get(url).then(function (resp) {
+                self.visits = resp.data;
+            });
+        }
+
+        self.$onInit = function () {
+            load();
+            unsubscribe = LiveFeed.subscribe({petId: petId}, function (change) {
+                if (!change || change.type === 'VISIT') {
+                    load();
+                }
+            });
+        };
+
+        self.$onDestroy = function () {
+            unsubscribe();
+        };
 
         self.submit = function () {
             var data = {
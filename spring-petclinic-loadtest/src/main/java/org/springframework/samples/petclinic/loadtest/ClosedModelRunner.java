@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Closed-model load: each of the <code>connections</code> clients of the {@link Scenario} sends its next request as
+ * soon as the previous one is answered, so that as many connections are open and busy at once.
+ * <p>
+ * Ten thousand blocking clients would take ten thousand threads, so the requests are sent by a non-blocking
+ * Reactor Netty client, with one pooled connection per client. The throughput then tells how many requests the
+ * server answers with that many connections; the response time is measured from the actual send.
+ */
+class ClosedModelRunner implements AutoCloseable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String VISIT = "{\"date\":\"2019-01-01\",\"description\":\"load test\"}";
+
+    private final Scenario scenario;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient client;
+
+    private final int ownerCount;
+
+    private final List<int[]> pets;
+
+    private final SplittableRandom random;
+
+    /**
+     * @param ownerCount owners in the database, whose identifiers go from 1 to ownerCount
+     * @param pets sample of owner and pet identifier pairs
+     */
+    ClosedModelRunner(Scenario scenario, String baseUrl, int ownerCount, List<int[]> pets) {
+        this.scenario = scenario;
+        this.connectionProvider = ConnectionProvider.fixed("loadtest", scenario.getConnections(), TIMEOUT.toMillis());
+        this.client = HttpClient.create(this.connectionProvider)
+            .tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) TIMEOUT.toMillis()))
+            .baseUrl(baseUrl)
+            .headers(headers -> headers
+                .set(HttpHeaderNames.ACCEPT, "application/json")
+                .set(HttpHeaderNames.CONTENT_TYPE, "application/json"));
+        this.ownerCount = ownerCount;
+        this.pets = pets;
+        this.random = new SplittableRandom(scenario.getSeed());
+    }
+
+    /**
+     * Runs the clients for the given duration, then waits for their last request.
+     *
+     * @param rampUpSeconds seconds over which the start of the clients is spread, so that the server does not
+     *                      receive all the connections at once
+     * @return the statistics per endpoint
+     */
+    Map<Endpoint, EndpointStats> run(int seconds, int rampUpSeconds) {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : this.scenario.getMix().keySet()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        int connections = this.scenario.getConnections();
+        long rampUpNanos = TimeUnit.SECONDS.toNanos(rampUpSeconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Flux.range(0, connections)
+            .flatMap(client -> {
+                SplittableRandom clientRandom = this.random.split();
+                return Mono.delay(Duration.ofNanos(rampUpNanos * client / connections))
+                    .thenMany(Mono.defer(() -> send(clientRandom, stats))
+                        .repeat(() -> System.nanoTime() < deadline));
+            }, connections)
+            .blockLast();
+        return stats;
+    }
+
+    private Mono<Boolean> send(SplittableRandom random, Map<Endpoint, EndpointStats> stats) {
+        Endpoint endpoint = this.scenario.nextEndpoint(random);
+        String path = path(endpoint, random);
+        long sent = System.nanoTime();
+        HttpClient.ResponseReceiver<?> request = endpoint.isWrite()
+            ? this.client.post().uri(path).send(ByteBufFlux.fromString(Mono.just(VISIT)))
+            : this.client.get().uri(path);
+        return request
+            // Reading the whole body releases its buffers and the connection
+            .responseSingle((response, body) -> body.asByteArray()
+                .then(Mono.just(response.status().code() < 400)))
+            .timeout(TIMEOUT)
+            .onErrorReturn(false)
+            .doOnNext(success -> stats.get(endpoint).record(sent, sent, System.nanoTime(), success));
+    }
+
+    private String path(Endpoint endpoint, SplittableRandom random) {
+        if (endpoint == Endpoint.OWNER) {
+            return endpoint.path(1 + random.nextInt(this.ownerCount), 0);
+        }
+        int[] pet = this.pets.get(random.nextInt(this.pets.size()));
+        return endpoint.path(pet[0], pet[1]);
+    }
+
+    @Override
+    public void close() {
+        this.connectionProvider.dispose();
+    }
+
+}
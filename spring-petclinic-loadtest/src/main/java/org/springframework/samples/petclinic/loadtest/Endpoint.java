@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+/**
+ * REST endpoints exercised by the load test, with the key naming them in the scenario mix.
+ */
+public enum Endpoint {
+
+    OWNERS_LIST("owners-list", "GET", "/owners/list"),
+
+    OWNER("owner", "GET", "/owners/{ownerId}"),
+
+    PET("pet", "GET", "/owners/*/pets/{petId}"),
+
+    VETS("vets", "GET", "/vets"),
+
+    PET_TYPES("pet-types", "GET", "/petTypes"),
+
+    VISITS("visits", "GET", "/owners/{ownerId}/pets/{petId}/visits"),
+
+    VISIT_CREATE("visit-create", "POST", "/owners/{ownerId}/pets/{petId}/visits");
+
+    private final String key;
+
+    private final String method;
+
+    private final String template;
+
+    Endpoint(String key, String method, String template) {
+        this.key = key;
+        this.method = method;
+        this.template = template;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the method and path template, used as endpoint name in the report
+     */
+    public String getLabel() {
+        return method + " " + template;
+    }
+
+    public boolean isWrite() {
+        return !"GET".equals(method);
+    }
+
+    String path(int ownerId, int petId) {
+        return template.replace("*", "{ownerId}").replace("{ownerId}", Integer.toString(ownerId))
+            .replace("{petId}", Integer.toString(petId));
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + key + ", expecting one of owners-list, owner, pet, "
+            + "vets, pet-types, visits, visit-create");
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of the requests of one endpoint, in microseconds.
+ * <p>
+ * The response time is measured from the moment the request was scheduled by the open model, not from the moment it
+ * was actually sent: the time spent waiting for a connection or behind slower requests is part of it, so the
+ * percentiles are corrected for coordinated omission. The service time, measured from the actual send, is recorded
+ * as well to show the size of the correction.
+ */
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram responseTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final Histogram serviceTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final LongAdder errors = new LongAdder();
+
+    void record(long scheduledNanos, long sentNanos, long completedNanos, boolean success) {
+        this.responseTimes.recordValue(micros(completedNanos - scheduledNanos));
+        this.serviceTimes.recordValue(micros(completedNanos - sentNanos));
+        if (!success) {
+            this.errors.increment();
+        }
+    }
+
+    long getRequests() {
+        return this.responseTimes.getTotalCount();
+    }
+
+    long getErrors() {
+        return this.errors.sum();
+    }
+
+    /**
+     * @param seconds measurement duration
+     * @return the statistics as written in the report, latencies in milliseconds
+     */
+    Map<String, Object> describe(double seconds) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("requests", getRequests());
+        description.put("errors", getErrors());
+        description.put("throughput", round(getRequests() / seconds));
+        description.put("responseTime", percentiles(this.responseTimes));
+        description.put("serviceTime", percentiles(this.serviceTimes));
+        return description;
+    }
+
+    void add(EndpointStats other) {
+        this.responseTimes.add(other.responseTimes);
+        this.serviceTimes.add(other.serviceTimes);
+        this.errors.add(other.getErrors());
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("mean", millis(histogram.getMean()));
+        percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal blocking HTTP client over {@link HttpURLConnection}, whose keep-alive cache reuses the connections.
+ */
+class HttpClient {
+
+    private static final int TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(30);
+
+    private static final byte[] VISIT = "{\"date\":\"2019-01-01\",\"description\":\"load test\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final String baseUrl;
+
+    HttpClient(String baseUrl, int maxConnections) {
+        this.baseUrl = baseUrl;
+        // Connections kept alive per destination, 5 by default
+        System.setProperty("http.maxConnections", Integer.toString(maxConnections));
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Sends the request and reads the whole response body.
+     *
+     * @return the response status
+     */
+    int send(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if ("POST".equals(method)) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(VISIT.length);
+            try (OutputStream body = connection.getOutputStream()) {
+                body.write(VISIT);
+            }
+        }
+        int status = connection.getResponseCode();
+        // Draining the body lets the connection go back to the keep-alive cache
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (body != null) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) >= 0) {
+                    // discard
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * @return the response body of a GET request, or <code>null</code> if the status is not 200
+     */
+    String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json");
+        if (connection.getResponseCode() != 200) {
+            connection.disconnect();
+            return null;
+        }
+        try (InputStream body = connection.getInputStream()) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) >= 0) {
+                content.write(buffer, 0, read);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
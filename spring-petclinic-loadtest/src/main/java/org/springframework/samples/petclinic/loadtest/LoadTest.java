@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test of the REST API: starts the server with a synthetic dataset, warms it up, runs the {@link Scenario} and
+ * writes a JSON report with the throughput and the response time percentiles of each endpoint.
+ * <p>
+ * Run with <code>./mvnw -pl spring-petclinic-loadtest exec:java -Dexec.args="--rate=200 --duration=120"</code>
+ * after packaging the server. Two reports of the same scenario can be compared between releases.
+ */
+public class LoadTest {
+
+    private static final int SAMPLED_OWNERS = 500;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.parse(args);
+        if (scenario.getBaseUrl() != null) {
+            run(scenario, scenario.getBaseUrl(), scenario.getOwners());
+        } else {
+            try (ServerProcess server = ServerProcess.start(scenario)) {
+                run(scenario, server.getBaseUrl(), ServerProcess.SEED_OWNERS + scenario.getOwners());
+            }
+        }
+    }
+
+    private static void run(Scenario scenario, String baseUrl, int ownerCount) throws Exception {
+        HttpClient client = new HttpClient(baseUrl, scenario.getConcurrency());
+        List<int[]> pets = samplePets(client, ownerCount, scenario.getSeed());
+        OpenModelRunner runner = new OpenModelRunner(scenario, client, ownerCount, pets);
+
+        System.out.println("Warming up " + baseUrl + " for " + scenario.getWarmup() + " s");
+        runner.run(scenario.getWarmup());
+        System.out.println("Measuring " + scenario.getRate() + " requests/s for " + scenario.getDuration() + " s");
+        Instant startedAt = Instant.now();
+        Map<Endpoint, EndpointStats> stats = runner.run(scenario.getDuration());
+
+        Map<String, Object> report = report(scenario, startedAt, stats);
+        File file = new File(scenario.getReport());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        printSummary(stats, scenario.getDuration());
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Collects the pets of random owners, used by the pet and visit requests.
+     */
+    static List<int[]> samplePets(HttpClient client, int ownerCount, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<int[]> pets = new ArrayList<>();
+        for (int i = 0; i < Math.min(SAMPLED_OWNERS, ownerCount); i++) {
+            String owner = client.get("/owners/" + (1 + random.nextInt(ownerCount)));
+            if (owner != null) {
+                JsonNode json = mapper.readTree(owner);
+                for (JsonNode pet : json.path("pets")) {
+                    pets.add(new int[]{json.path("id").asInt(), pet.path("id").asInt()});
+                }
+            }
+        }
+        if (pets.isEmpty()) {
+            throw new IllegalStateException("No pet found among " + SAMPLED_OWNERS + " random owners");
+        }
+        return pets;
+    }
+
+    static Map<String, Object> report(Scenario scenario, Instant startedAt, Map<Endpoint, EndpointStats> stats) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("java", System.getProperty("java.version"));
+        report.put("scenario", scenario.describe());
+        EndpointStats total = new EndpointStats();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            endpoints.put(entry.getKey().getLabel(), entry.getValue().describe(scenario.getDuration()));
+            total.add(entry.getValue());
+        }
+        report.put("total", total.describe(scenario.getDuration()));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<Endpoint, EndpointStats> stats, int seconds) {
+        System.out.printf("%-45s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms",
+            "p99 ms", "p999 ms");
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            Map<String, Object> description = entry.getValue().describe(seconds);
+            Map<String, Object> responseTime = (Map<String, Object>) description.get("responseTime");
+            System.out.printf("%-45s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", entry.getKey().getLabel(),
+                description.get("requests"), description.get("errors"), description.get("throughput"),
+                responseTime.get("p50"), responseTime.get("p99"), responseTime.get("p999"));
+        }
+    }
+
+}
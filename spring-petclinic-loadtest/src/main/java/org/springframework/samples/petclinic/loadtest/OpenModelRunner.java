@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the requests of a {@link Scenario} at a constant arrival rate.
+ * <p>
+ * A single dispatcher thread schedules the requests at fixed intervals and hands them to a pool of
+ * <code>concurrency</code> workers. When the server slows down, the requests queue up instead of being sent later:
+ * the arrival rate stays constant and the queueing time is measured, as it would be by real users.
+ */
+class OpenModelRunner {
+
+    private final Scenario scenario;
+
+    private final HttpClient client;
+
+    private final int ownerCount;
+
+    private final List<int[]> pets;
+
+    private final SplittableRandom random;
+
+    /**
+     * @param ownerCount owners in the database, whose identifiers go from 1 to ownerCount
+     * @param pets sample of owner and pet identifier pairs
+     */
+    OpenModelRunner(Scenario scenario, HttpClient client, int ownerCount, List<int[]> pets) {
+        this.scenario = scenario;
+        this.client = client;
+        this.ownerCount = ownerCount;
+        this.pets = pets;
+        this.random = new SplittableRandom(scenario.getSeed());
+    }
+
+    /**
+     * Runs the scenario for the given duration, then waits for the requests in flight.
+     *
+     * @return the statistics per endpoint
+     */
+    Map<Endpoint, EndpointStats> run(int seconds) throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : this.scenario.getMix().keySet()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        AtomicInteger workers = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(this.scenario.getConcurrency(),
+            this.scenario.getConcurrency(), 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "loadtest-" + workers.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.prestartAllCoreThreads();
+
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / this.scenario.getRate();
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long offset = (long) (i * intervalNanos);
+            if (offset >= durationNanos) {
+                break;
+            }
+            long scheduled = start + offset;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = this.scenario.nextEndpoint(this.random);
+            String path = path(endpoint);
+            EndpointStats endpointStats = stats.get(endpoint);
+            executor.execute(() -> send(endpoint, path, scheduled, endpointStats));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        return stats;
+    }
+
+    private String path(Endpoint endpoint) {
+        if (endpoint == Endpoint.OWNER) {
+            return endpoint.path(1 + this.random.nextInt(this.ownerCount), 0);
+        }
+        int[] pet = this.pets.get(this.random.nextInt(this.pets.size()));
+        return endpoint.path(pet[0], pet[1]);
+    }
+
+    private void send(Endpoint endpoint, String path, long scheduled, EndpointStats stats) {
+        long sent = System.nanoTime();
+        boolean success;
+        try {
+            success = this.client.send(endpoint.getMethod(), path) < 400;
+        } catch (IOException ex) {
+            success = false;
+        }
+        stats.record(scheduled, sent, System.nanoTime(), success);
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Open-model load scenario: requests are sent at a constant arrival rate, whatever the response times, and spread over
+ * the endpoints according to their weight in the mix.
+ * <p>
+ * Parsed from <code>--name=value</code> arguments:
+ * <ul>
+ * <li><code>--rate</code>: requests per second (100)</li>
+ * <li><code>--warmup</code> and <code>--duration</code>: seconds of warm-up, not reported, and of measurement (10, 60)</li>
+ * <li><code>--mix</code>: weight of each endpoint, for instance <code>owner:30,pet:20,visit-create:5</code></li>
+ * <li><code>--concurrency</code>: maximum number of requests in flight (64)</li>
+ * <li><code>--connections</code>: clients of the closed-model {@link StackComparison}, each one sending its next
+ * request on its own connection as soon as the previous one is answered (10000)</li>
+ * <li><code>--owners</code>: owners of the synthetic dataset loaded by the server (10000)</li>
+ * <li><code>--seed</code>: seed of the dataset and of the request sequence (42)</li>
+ * <li><code>--jar</code>: server jar to start (<code>../spring-petclinic-server/target/petclinic.jar</code>)</li>
+ * <li><code>--jvm-args</code>: options of the server JVM, separated by spaces</li>
+ * <li><code>--base-url</code>: URL of an already running server, instead of starting the jar. <code>--owners</code> is
+ * then the number of owners in its database</li>
+ * <li><code>--report</code>: JSON report file (<code>target/loadtest-report.json</code>)</li>
+ * </ul>
+ */
+public class Scenario {
+
+    private static final String DEFAULT_MIX =
+        "owners-list:1,owner:30,pet:20,vets:10,pet-types:10,visits:20,visit-create:9";
+
+    private double rate = 100;
+
+    private int warmup = 10;
+
+    private int duration = 60;
+
+    private Map<Endpoint, Integer> mix;
+
+    private int totalWeight;
+
+    private int concurrency = 64;
+
+    private int connections = 10000;
+
+    private int owners = 10000;
+
+    private long seed = 42;
+
+    private String jar = "../spring-petclinic-server/target/petclinic.jar";
+
+    private String jvmArgs = "";
+
+    private String baseUrl;
+
+    private String report = "target/loadtest-report.json";
+
+    Scenario() {
+        setMix(parseMix(DEFAULT_MIX));
+    }
+
+    public static Scenario parse(String... args) {
+        Scenario scenario = new Scenario();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expecting --name=value arguments: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "rate":
+                    scenario.rate = Double.parseDouble(value);
+                    break;
+                case "warmup":
+                    scenario.warmup = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    scenario.duration = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    scenario.setMix(parseMix(value));
+                    break;
+                case "concurrency":
+                    scenario.concurrency = Integer.parseInt(value);
+                    break;
+                case "connections":
+                    scenario.connections = Integer.parseInt(value);
+                    break;
+                case "owners":
+                    scenario.owners = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    scenario.seed = Long.parseLong(value);
+                    break;
+                case "jar":
+                    scenario.jar = value;
+                    break;
+                case "jvm-args":
+                    scenario.jvmArgs = value;
+                    break;
+                case "base-url":
+                    scenario.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "report":
+                    scenario.report = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        if (scenario.rate <= 0 || scenario.duration <= 0 || scenario.concurrency <= 0 || scenario.connections <= 0) {
+            throw new IllegalArgumentException("The rate, duration, concurrency and connections must be positive");
+        }
+        return scenario;
+    }
+
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split(":");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expecting endpoint:weight in the mix: " + entry);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in the mix: " + entry);
+            }
+            weights.merge(Endpoint.fromKey(keyAndWeight[0]), weight, Integer::sum);
+        }
+        return weights;
+    }
+
+    private void setMix(Map<Endpoint, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (total == 0) {
+            throw new IllegalArgumentException("The mix has no endpoint with a positive weight");
+        }
+        this.mix = mix;
+        this.totalWeight = total;
+    }
+
+    /**
+     * Draws the endpoint of the next request according to the mix.
+     */
+    Endpoint nextEndpoint(SplittableRandom random) {
+        int draw = random.nextInt(this.totalWeight);
+        for (Map.Entry<Endpoint, Integer> entry : this.mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable: the weights sum to " + this.totalWeight);
+    }
+
+    /**
+     * @return the scenario as written in the report
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("rate", rate);
+        description.put("warmup", warmup);
+        description.put("duration", duration);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((endpoint, weight) -> weights.put(endpoint.getKey(), weight));
+        description.put("mix", weights);
+        description.put("concurrency", concurrency);
+        description.put("connections", connections);
+        description.put("owners", owners);
+        description.put("seed", seed);
+        description.put("jvmArgs", Arrays.asList(getJvmArgs()));
+        description.put("baseUrl", baseUrl);
+        return description;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getWarmup() {
+        return warmup;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public Map<Endpoint, Integer> getMix() {
+        return mix;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public int getOwners() {
+        return owners;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getJar() {
+        return jar;
+    }
+
+    public String[] getJvmArgs() {
+        return jvmArgs.trim().isEmpty() ? new String[0] : jvmArgs.trim().split("\\s+");
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+}
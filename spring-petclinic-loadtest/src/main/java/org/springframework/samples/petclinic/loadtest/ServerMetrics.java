@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Memory and threads of the server JVM, read from its Micrometer metrics under <code>/manage/metrics</code> every
+ * second while {@link #start() started}.
+ */
+class ServerMetrics implements AutoCloseable {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient client;
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "server-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<double[]> samples = new ArrayList<>();
+
+    ServerMetrics(HttpClient client) {
+        this.client = client;
+    }
+
+    void start() {
+        this.sampler.scheduleAtFixedRate(() -> {
+            try {
+                double[] sample = {value("jvm.memory.used"), value("jvm.threads.live")};
+                synchronized (this.samples) {
+                    this.samples.add(sample);
+                }
+            } catch (IOException ex) {
+                // skipped, the server is too busy to answer within the timeout
+            }
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Clears the samples taken so far.
+     */
+    void reset() {
+        synchronized (this.samples) {
+            this.samples.clear();
+        }
+    }
+
+    /**
+     * @return the mean of the memory used by the heap and non-heap areas, in bytes
+     */
+    double getMemoryUsed() {
+        synchronized (this.samples) {
+            return this.samples.stream().mapToDouble(sample -> sample[0]).average().orElse(Double.NaN);
+        }
+    }
+
+    /**
+     * @return the maximum number of live threads
+     */
+    int getThreads() {
+        synchronized (this.samples) {
+            return (int) this.samples.stream().mapToDouble(sample -> sample[1]).max().orElse(0);
+        }
+    }
+
+    private double value(String metric) throws IOException {
+        String body = this.client.get("/manage/metrics/" + metric);
+        if (body == null) {
+            throw new IOException("Metric " + metric + " not found");
+        }
+        for (JsonNode measurement : mapper.readTree(body).path("measurements")) {
+            if ("VALUE".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        throw new IOException("No value in " + body);
+    }
+
+    @Override
+    public void close() {
+        this.sampler.shutdownNow();
+    }
+
+}
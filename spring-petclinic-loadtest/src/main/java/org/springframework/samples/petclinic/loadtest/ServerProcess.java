@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Petclinic server started from its jar on a free port, with the synthetic dataset of the scenario.
+ * Its logs go to <code>target/loadtest-server.log</code>.
+ */
+class ServerProcess implements AutoCloseable {
+
+    /**
+     * Owners of the seed data, before the synthetic ones
+     */
+    static final int SEED_OWNERS = 10;
+
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    private final Process process;
+
+    private final String baseUrl;
+
+    private ServerProcess(Process process, int port) {
+        this.process = process;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    /**
+     * @param arguments additional application arguments, such as <code>--spring.profiles.active</code>
+     */
+    static ServerProcess start(Scenario scenario, String... arguments) throws IOException, InterruptedException {
+        File jar = new File(scenario.getJar());
+        if (!jar.isFile()) {
+            throw new IllegalStateException(jar.getAbsolutePath() + " not found: package spring-petclinic-server first");
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(Arrays.asList(scenario.getJvmArgs()));
+        command.add("-jar");
+        command.add(jar.getAbsolutePath());
+        command.add("--server.port=" + port);
+        command.add("--petclinic.dataset.owners=" + scenario.getOwners());
+        command.add("--petclinic.dataset.seed=" + scenario.getSeed());
+        command.addAll(Arrays.asList(arguments));
+        File log = new File("target/loadtest-server.log");
+        log.getParentFile().mkdirs();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log)
+            .start();
+        ServerProcess server = new ServerProcess(process, port);
+        server.awaitReady(SEED_OWNERS + scenario.getOwners());
+        return server;
+    }
+
+    /**
+     * The synthetic dataset is loaded once the web server is started, then the owner summaries are rebuilt and the
+     * warm-up replays requests: waits for the last owner, then for <code>/manage/health</code> to answer UP rather
+     * than OUT_OF_SERVICE, so that the measurement starts on an idle server.
+     */
+    private void awaitReady(int lastOwnerId) throws InterruptedException {
+        HttpClient client = new HttpClient(this.baseUrl, 1);
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < STARTUP_TIMEOUT_NANOS) {
+            if (!this.process.isAlive()) {
+                throw new IllegalStateException("The server exited with " + this.process.exitValue()
+                    + ", see target/loadtest-server.log");
+            }
+            try {
+                if (client.get("/owners/" + lastOwnerId) != null && client.get("/manage/health") != null) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // not started yet
+            }
+            Thread.sleep(500);
+        }
+        close();
+        throw new IllegalStateException("The server was not ready within 30 minutes");
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        this.process.destroy();
+        try {
+            if (!this.process.waitFor(30, TimeUnit.SECONDS)) {
+                this.process.destroyForcibly();
+            }
+        } catch (InterruptedException ex) {
+            this.process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
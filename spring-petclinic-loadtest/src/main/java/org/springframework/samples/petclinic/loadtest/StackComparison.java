@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Side-by-side load test of the servlet stack (Spring MVC on Tomcat) and of the reactive stack (Spring WebFlux on
+ * Netty, the <code>reactive</code> profile of the server): starts the server jar with each stack in turn, opens
+ * <code>--connections</code> busy connections with a {@link ClosedModelRunner} and writes the throughput, the
+ * response times, the threads and the memory used per connection of both stacks to
+ * <code>target/stack-comparison.json</code>.
+ * <p>
+ * The memory per connection is the growth of the heap and non-heap memory used, averaged over the measurement, from
+ * the idle server to the loaded one, divided by the number of connections. It includes the garbage of the requests
+ * in flight, which is what the heap must make room for. Use the same fixed heap for both stacks, for instance
+ * <code>./mvnw -pl spring-petclinic-loadtest exec:java@stack-comparison -Dexec.args="--connections=10000
+ * --jvm-args='-Xms2g -Xmx2g'"</code>. Ten thousand connections need as many file descriptors on both sides:
+ * raise <code>ulimit -n</code> first.
+ */
+public class StackComparison {
+
+    private static final int IDLE_SAMPLING_SECONDS = 5;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    enum Stack {
+
+        SERVLET("servlet"),
+
+        REACTIVE("reactive", "--spring.profiles.active=hsqldb,prod,reactive");
+
+        private final String key;
+
+        private final String[] arguments;
+
+        Stack(String key, String... arguments) {
+            this.key = key;
+            this.arguments = arguments;
+        }
+
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.parse(args);
+        if (scenario.getBaseUrl() != null) {
+            throw new IllegalArgumentException("The comparison starts the server jar with each stack: no --base-url");
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().toString());
+        report.put("java", System.getProperty("java.version"));
+        report.put("scenario", scenario.describe());
+        Map<String, Map<String, Object>> stacks = new LinkedHashMap<>();
+        for (Stack stack : Stack.values()) {
+            stacks.put(stack.key, run(scenario, stack));
+        }
+        report.put("stacks", stacks);
+
+        File file = new File("target/stack-comparison.json");
+        file.getParentFile().mkdirs();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        printSummary(stacks);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static Map<String, Object> run(Scenario scenario, Stack stack) throws Exception {
+        int connections = scenario.getConnections();
+        String[] arguments = new String[stack.arguments.length + 1];
+        System.arraycopy(stack.arguments, 0, arguments, 0, stack.arguments.length);
+        // Tomcat accepts 10000 connections by default, the metrics of the server need one more
+        arguments[stack.arguments.length] = "--server.tomcat.max-connections=" + (connections + 100);
+
+        System.out.println("Starting the " + stack.key + " stack");
+        try (ServerProcess server = ServerProcess.start(scenario, arguments);
+             ServerMetrics metrics = new ServerMetrics(new HttpClient(server.getBaseUrl(), 4))) {
+            int ownerCount = ServerProcess.SEED_OWNERS + scenario.getOwners();
+            List<int[]> pets = LoadTest.samplePets(new HttpClient(server.getBaseUrl(), 4), ownerCount,
+                scenario.getSeed());
+
+            metrics.start();
+            TimeUnit.SECONDS.sleep(IDLE_SAMPLING_SECONDS);
+            Map<String, Object> idle = describe(metrics);
+            double idleMemory = metrics.getMemoryUsed();
+
+            Map<Endpoint, EndpointStats> stats;
+            try (ClosedModelRunner runner = new ClosedModelRunner(scenario, server.getBaseUrl(), ownerCount, pets)) {
+                System.out.println("Opening " + connections + " connections over " + scenario.getWarmup() + " s");
+                runner.run(scenario.getWarmup(), scenario.getWarmup());
+                metrics.reset();
+                System.out.println("Measuring " + connections + " connections for " + scenario.getDuration() + " s");
+                stats = runner.run(scenario.getDuration(), 0);
+            }
+
+            EndpointStats total = new EndpointStats();
+            stats.values().forEach(total::add);
+            Map<String, Object> result = new LinkedHashMap<>(total.describe(scenario.getDuration()));
+            result.put("idle", idle);
+            result.put("load", describe(metrics));
+            result.put("memoryPerConnectionKb", round((metrics.getMemoryUsed() - idleMemory) / connections / 1024));
+            return result;
+        }
+    }
+
+    private static Map<String, Object> describe(ServerMetrics metrics) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("memoryUsedMb", round(metrics.getMemoryUsed() / 1024 / 1024));
+        description.put("threads", metrics.getThreads());
+        return description;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Map<String, Object>> stacks) {
+        System.out.printf("%-28s", "");
+        stacks.keySet().forEach(stack -> System.out.printf(" %12s", stack));
+        System.out.println();
+        printRow(stacks, "requests/s", result -> result.get("throughput"));
+        printRow(stacks, "errors", result -> result.get("errors"));
+        printRow(stacks, "p50 ms", result -> ((Map<String, Object>) result.get("serviceTime")).get("p50"));
+        printRow(stacks, "p99 ms", result -> ((Map<String, Object>) result.get("serviceTime")).get("p99"));
+        printRow(stacks, "threads under load", result -> ((Map<String, Object>) result.get("load")).get("threads"));
+        printRow(stacks, "memory used idle MB", result -> ((Map<String, Object>) result.get("idle"))
+            .get("memoryUsedMb"));
+        printRow(stacks, "memory used under load MB", result -> ((Map<String, Object>) result.get("load"))
+            .get("memoryUsedMb"));
+        printRow(stacks, "memory per connection KB", result -> result.get("memoryPerConnectionKb"));
+    }
+
+    private static void printRow(Map<String, Map<String, Object>> stacks, String label,
+                                 Function<Map<String, Object>, Object> value) {
+        System.out.printf("%-28s", label);
+        stacks.values().forEach(result -> System.out.printf(" %12s", value.apply(result)));
+        System.out.println();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScenarioTests {
+
+    @Test
+    public void shouldParseArguments() {
+        Scenario scenario = Scenario.parse("--rate=250", "--duration=30", "--mix=owner:3,visit-create:1",
+            "--base-url=http://localhost:8080/", "--jvm-args=-Xmx512m  -XX:+UseG1GC");
+
+        assertThat(scenario.getRate()).isEqualTo(250);
+        assertThat(scenario.getDuration()).isEqualTo(30);
+        assertThat(scenario.getWarmup()).isEqualTo(10);
+        assertThat(scenario.getMix()).containsOnlyKeys(Endpoint.OWNER, Endpoint.VISIT_CREATE);
+        assertThat(scenario.getBaseUrl()).isEqualTo("http://localhost:8080");
+        assertThat(scenario.getJvmArgs()).containsExactly("-Xmx512m", "-XX:+UseG1GC");
+    }
+
+    @Test
+    public void shouldRejectUnknownEndpoint() {
+        assertThatThrownBy(() -> Scenario.parse("--mix=owners:1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown endpoint owners");
+    }
+
+    @Test
+    public void shouldDrawEndpointsAccordingToTheMix() {
+        Scenario scenario = Scenario.parse("--mix=owner:3,vets:1,pet-types:0");
+        SplittableRandom random = new SplittableRandom(1);
+        Map<Endpoint, Integer> draws = new EnumMap<>(Endpoint.class);
+        for (int i = 0; i < 40000; i++) {
+            draws.merge(scenario.nextEndpoint(random), 1, Integer::sum);
+        }
+
+        assertThat(draws).containsOnlyKeys(Endpoint.OWNER, Endpoint.VETS);
+        assertThat(draws.get(Endpoint.OWNER)).isBetween(29000, 31000);
+    }
+
+    @Test
+    public void shouldExpandPaths() {
+        assertThat(Endpoint.PET.path(3, 7)).isEqualTo("/owners/3/pets/7");
+        assertThat(Endpoint.VISITS.path(3, 7)).isEqualTo("/owners/3/pets/7/visits");
+        assertThat(Endpoint.PET.getLabel()).isEqualTo("GET /owners/*/pets/{petId}");
+    }
+
+}
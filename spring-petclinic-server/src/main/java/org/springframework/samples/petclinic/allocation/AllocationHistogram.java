@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.allocation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes allocated per call, in buckets of powers of two: bucket <code>i</code> counts the calls having allocated
+ * less than <code>2^i</code> bytes and at least <code>2^(i-1)</code>.
+ */
+final class AllocationHistogram {
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder totalBytes = new LongAdder();
+
+    private final AtomicLong maxBytes = new AtomicLong();
+
+    private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+
+    AllocationHistogram() {
+        for (int bucket = 0; bucket < this.buckets.length; bucket++) {
+            this.buckets[bucket] = new LongAdder();
+        }
+    }
+
+    void record(long bytes) {
+        this.calls.increment();
+        this.totalBytes.add(bytes);
+        this.maxBytes.accumulateAndGet(bytes, Math::max);
+        this.buckets[Long.SIZE - Long.numberOfLeadingZeros(bytes)].increment();
+    }
+
+    long getTotalBytes() {
+        return this.totalBytes.sum();
+    }
+
+    /**
+     * The percentiles are the upper bounds of their buckets, within a factor of two of the exact values.
+     */
+    Map<String, Object> getReport() {
+        long[] counts = new long[this.buckets.length];
+        long calls = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = this.buckets[bucket].sum();
+            calls += counts[bucket];
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("calls", calls);
+        report.put("totalBytes", getTotalBytes());
+        report.put("meanBytes", calls > 0 ? getTotalBytes() / calls : 0);
+        report.put("p50Bytes", percentile(counts, calls, 0.5));
+        report.put("p99Bytes", percentile(counts, calls, 0.99));
+        report.put("maxBytes", this.maxBytes.get());
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                histogram.put("<" + upperBound(bucket), counts[bucket]);
+            }
+        }
+        report.put("histogram", histogram);
+        return report;
+    }
+
+    private static long percentile(long[] counts, long calls, double percentile) {
+        long rank = (long) Math.ceil(calls * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank && seen > 0) {
+                return upperBound(bucket);
+            }
+        }
+        return 0;
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket < Long.SIZE - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.allocation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Histograms of the bytes allocated per call, by endpoint or method. The bytes are read from the allocation counter
+ * of the current thread, which HotSpot maintains anyway: a reading costs no allocation, and the calls of the
+ * other threads are not counted.
+ */
+public class AllocationProfiler {
+
+    private final ThreadMXBean threadMXBean;
+
+    private final Map<String, AllocationHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException when the JVM does not count the allocations of the threads
+     */
+    public AllocationProfiler() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof ThreadMXBean)
+            || !((ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("The JVM does not count the bytes allocated by the threads");
+        }
+        this.threadMXBean = (ThreadMXBean) threadMXBean;
+        this.threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread
+     */
+    public long allocatedBytes() {
+        return this.threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @param start the {@link #allocatedBytes()} at the start of the call
+     */
+    public void record(String name, long start) {
+        long bytes = allocatedBytes() - start;
+        this.histograms.computeIfAbsent(name, key -> new AllocationHistogram()).record(Math.max(bytes, 0));
+    }
+
+    /**
+     * @return the histograms by endpoint or method, the ones having allocated the most in total first
+     */
+    public Map<String, Object> getReport() {
+        List<Map.Entry<String, AllocationHistogram>> entries = new ArrayList<>(this.histograms.entrySet());
+        entries.sort(Comparator.comparingLong(
+            (Map.Entry<String, AllocationHistogram> entry) -> entry.getValue().getTotalBytes()).reversed());
+        Map<String, Object> report = new LinkedHashMap<>();
+        entries.forEach(entry -> report.put(entry.getKey(), entry.getValue().getReport()));
+        return report;
+    }
+
+    public void reset() {
+        this.histograms.clear();
+    }
+
+}
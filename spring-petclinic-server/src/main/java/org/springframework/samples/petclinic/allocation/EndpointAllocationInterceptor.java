@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.allocation;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Profiles the allocations of the requests handled by the REST resources, named by their method and path pattern
+ * like <code>GET /owners/list</code>. Includes the allocations of the serialization of the response.
+ */
+public class EndpointAllocationInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = EndpointAllocationInterceptor.class.getName() + ".start";
+
+    private final AllocationProfiler profiler;
+
+    public EndpointAllocationInterceptor(AllocationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isResource(handler)) {
+            request.setAttribute(START_ATTRIBUTE, this.profiler.allocatedBytes());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            this.profiler.record(request.getMethod() + " " + pattern, (Long) start);
+        }
+    }
+
+    private static boolean isResource(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        Class<?> beanType = ((HandlerMethod) handler).getBeanType();
+        return beanType.getPackage().getName().equals("org.springframework.samples.petclinic.web")
+            && beanType.getSimpleName().endsWith("Resource");
+    }
+
+}
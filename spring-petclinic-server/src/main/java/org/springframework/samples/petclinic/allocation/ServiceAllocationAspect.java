@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.allocation;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Profiles the allocations of each method of the <code>ClinicService</code>, named like
+ * <code>ClinicService.findOwnerDetails</code>. Includes the allocations of the transaction and of the cache lookups.
+ */
+@Aspect
+public class ServiceAllocationAspect {
+
+    private final AllocationProfiler profiler;
+
+    public ServiceAllocationAspect(AllocationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Around("execution(* org.springframework.samples.petclinic.service.ClinicService.*(..))")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = this.profiler.allocatedBytes();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            this.profiler.record("ClinicService." + joinPoint.getSignature().getName(), start);
+        }
+    }
+
+}
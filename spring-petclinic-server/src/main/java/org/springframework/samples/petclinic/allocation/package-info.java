@@ -0,0 +1,7 @@
+/**
+ *
+ * Opt-in profiling of the memory allocated by the REST endpoints and the ClinicService methods, from the allocation
+ * counters of the threads, aggregated into histograms of bytes per call served under /manage/allocations.
+ *
+ */
+package org.springframework.samples.petclinic.allocation;
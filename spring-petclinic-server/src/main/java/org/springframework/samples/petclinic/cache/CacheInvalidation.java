@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.cache;
+
+import java.time.Instant;
+
+/**
+ * Invalidation of a cache key, or of the whole cache, as written to the invalidation log.
+ */
+class CacheInvalidation {
+
+    private final long id;
+
+    private final String cacheName;
+
+    private final String key;
+
+    private final String nodeId;
+
+    private final Instant createdAt;
+
+    CacheInvalidation(long id, String cacheName, String key, String nodeId, Instant createdAt) {
+        this.id = id;
+        this.cacheName = cacheName;
+        this.key = key;
+        this.nodeId = nodeId;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the position of the invalidation in the log, 0 before it is written
+     */
+    long getId() {
+        return this.id;
+    }
+
+    String getCacheName() {
+        return this.cacheName;
+    }
+
+    /**
+     * @return the encoded key, or <code>null</code> when the whole cache is invalidated
+     */
+    String getKey() {
+        return this.key;
+    }
+
+    /**
+     * @return the instance whose change caused the invalidation
+     */
+    String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * @return when the change was committed
+     */
+    Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return this.id + ": " + this.cacheName + " " + (this.key == null ? "*" : this.key) + " from " + this.nodeId;
+    }
+
+}
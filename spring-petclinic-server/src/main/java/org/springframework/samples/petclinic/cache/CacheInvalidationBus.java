@@ -0,0 +1,348 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Keeps the caches of the instances sharing the database coherent.
+ * <p>
+ * An invalidation is applied to the local cache once the transaction making the change commits, then written to
+ * the <code>cache_invalidations</code> table by the next {@link #publish()}: the invalidations of the same cache
+ * are coalesced in between, and written in a single batch. Every instance {@link #receive() reads} the invalidations
+ * of the others and applies them to its own caches, evicting each key or clearing each cache once per batch.
+ * <p>
+ * Ids are allocated when the invalidations are inserted, so, as for the outbox, the reader stops before a gap until
+ * the invalidation following it is older than the gap timeout. An instance stopping between a commit and the next
+ * publication loses its invalidations: the expiry of the cache entries remains the bound of their staleness.
+ * <p>
+ * Only keys of type {@link String}, {@link Integer} or {@link Long} are sent; caches with other keys, such as the
+ * keys generated for the JCache annotations, are invalidated as a whole. The time from the commit to the eviction
+ * on another instance is published as the <code>petclinic.cache.invalidations.propagation</code> timer, which
+ * assumes that the clocks of the instances are synchronized.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Log logger = LogFactory.getLog(CacheInvalidationBus.class);
+
+    private final CacheInvalidationLog log;
+
+    private final CacheManager cacheManager;
+
+    private final String nodeId;
+
+    private final int batchSize;
+
+    private final Duration gapTimeout;
+
+    private final Duration retention;
+
+    private final Counter published;
+
+    private final Counter received;
+
+    private final Timer propagation;
+
+    /**
+     * Invalidations committed but not published yet, by cache
+     */
+    private final Map<String, PendingInvalidations> pending = new LinkedHashMap<>();
+
+    /**
+     * Id of the last invalidation read, -1 before the first read
+     */
+    private long position = -1;
+
+    private Clock clock = Clock.systemUTC();
+
+    CacheInvalidationBus(CacheInvalidationLog log, CacheManager cacheManager, MeterRegistry meterRegistry,
+                         PetclinicProperties properties) {
+        PetclinicProperties.CacheInvalidation cacheInvalidation = properties.getCacheInvalidation();
+        this.log = log;
+        this.cacheManager = cacheManager;
+        this.nodeId = StringUtils.hasText(cacheInvalidation.getNodeId()) ? cacheInvalidation.getNodeId()
+            : UUID.randomUUID().toString();
+        this.batchSize = cacheInvalidation.getBatchSize();
+        this.gapTimeout = cacheInvalidation.getGapTimeout();
+        this.retention = cacheInvalidation.getRetention();
+        this.published = Counter.builder("petclinic.cache.invalidations.published")
+            .description("Cache invalidations written for the other instances").register(meterRegistry);
+        this.received = Counter.builder("petclinic.cache.invalidations.received")
+            .description("Cache invalidations of the other instances applied").register(meterRegistry);
+        this.propagation = Timer.builder("petclinic.cache.invalidations.propagation")
+            .description("Time from the commit of a change to the invalidation of the caches of another instance")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        logger.info("Cache invalidations of this instance are sent as node " + this.nodeId);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * Evicts the key from the cache of every instance, once the current transaction commits.
+     *
+     * @param key a {@link String}, {@link Integer} or {@link Long}
+     */
+    public void invalidate(String cacheName, Object key) {
+        String encodedKey = encodeKey(key);
+        afterCommit(() -> invalidated(cacheName, key, encodedKey));
+    }
+
+    /**
+     * Clears the cache of every instance, once the current transaction commits.
+     */
+    public void invalidateAll(String cacheName) {
+        afterCommit(() -> invalidated(cacheName, null, null));
+    }
+
+    private void afterCommit(Runnable invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+
+    private void invalidated(String cacheName, Object key, String encodedKey) {
+        evict(cacheName, key);
+        Instant committedAt = this.clock.instant();
+        synchronized (this.pending) {
+            this.pending.computeIfAbsent(cacheName, name -> new PendingInvalidations()).add(encodedKey, committedAt);
+        }
+    }
+
+    /**
+     * Writes the invalidations committed since the last publication, which are kept for the next one if the
+     * database is not available.
+     */
+    public void publish() {
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        synchronized (this.pending) {
+            this.pending.forEach((cacheName, pendingInvalidations) ->
+                pendingInvalidations.addTo(invalidations, cacheName, this.nodeId));
+            this.pending.clear();
+        }
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        try {
+            this.log.append(invalidations);
+            this.published.increment(invalidations.size());
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to publish " + invalidations.size() + " cache invalidations, retrying at the next "
+                + "publication", ex);
+            synchronized (this.pending) {
+                for (CacheInvalidation invalidation : invalidations) {
+                    this.pending.computeIfAbsent(invalidation.getCacheName(), name -> new PendingInvalidations())
+                        .add(invalidation.getKey(), invalidation.getCreatedAt());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the next batch of invalidations of the other instances. The first call only reads the current end of
+     * the log: the caches of a starting instance hold nothing older.
+     */
+    public synchronized void receive() {
+        if (this.position < 0) {
+            this.position = this.log.findLastId();
+            return;
+        }
+        List<CacheInvalidation> invalidations = this.log.findInvalidationsAfter(this.position, this.batchSize);
+        int deliverable = deliverableInvalidations(invalidations, this.clock.instant());
+        Set<String> clearedCaches = new LinkedHashSet<>();
+        Map<String, Set<Object>> evictedKeys = new LinkedHashMap<>();
+        List<CacheInvalidation> applied = new ArrayList<>();
+        for (CacheInvalidation invalidation : invalidations.subList(0, deliverable)) {
+            if (this.nodeId.equals(invalidation.getNodeId())) {
+                continue;
+            }
+            Object key = invalidation.getKey() == null ? null : decodeKey(invalidation.getKey());
+            if (key == null) {
+                clearedCaches.add(invalidation.getCacheName());
+            } else {
+                evictedKeys.computeIfAbsent(invalidation.getCacheName(), name -> new LinkedHashSet<>()).add(key);
+            }
+            applied.add(invalidation);
+        }
+        clearedCaches.forEach(cacheName -> evict(cacheName, null));
+        evictedKeys.forEach((cacheName, keys) -> {
+            if (!clearedCaches.contains(cacheName)) {
+                keys.forEach(key -> evict(cacheName, key));
+            }
+        });
+        Instant appliedAt = this.clock.instant();
+        for (CacheInvalidation invalidation : applied) {
+            this.propagation.record(Duration.between(invalidation.getCreatedAt(), appliedAt));
+        }
+        this.received.increment(applied.size());
+        if (deliverable > 0) {
+            this.position = invalidations.get(deliverable - 1).getId();
+        }
+    }
+
+    /**
+     * @return the number of invalidations before the first recent gap
+     */
+    private int deliverableInvalidations(List<CacheInvalidation> invalidations, Instant now) {
+        long expectedId = this.position + 1;
+        for (int i = 0; i < invalidations.size(); i++) {
+            CacheInvalidation invalidation = invalidations.get(i);
+            if (invalidation.getId() != expectedId && invalidation.getCreatedAt().plus(this.gapTimeout).isAfter(now)) {
+                return i;
+            }
+            expectedId = invalidation.getId() + 1;
+        }
+        return invalidations.size();
+    }
+
+    /**
+     * Deletes the invalidations older than the retention.
+     */
+    public void cleanUp() {
+        int deleted = this.log.deleteInvalidations(this.clock.instant().minus(this.retention));
+        if (deleted > 0) {
+            logger.debug("Deleted " + deleted + " cache invalidations");
+        }
+    }
+
+    /**
+     * @param key the key to evict, or <code>null</code> to clear the whole cache
+     */
+    private void evict(String cacheName, Object key) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    static String encodeKey(Object key) {
+        if (key instanceof String) {
+            return "s:" + key;
+        } else if (key instanceof Integer) {
+            return "i:" + key;
+        } else if (key instanceof Long) {
+            return "l:" + key;
+        }
+        throw new IllegalArgumentException("Only String, Integer and Long cache keys can be invalidated, not " + key
+            + ": invalidate the whole cache instead");
+    }
+
+    /**
+     * @return the key, or <code>null</code> if it was encoded by a newer version: the whole cache is then cleared
+     */
+    static Object decodeKey(String encodedKey) {
+        if (encodedKey.length() < 2) {
+            return null;
+        }
+        String value = encodedKey.substring(2);
+        try {
+            switch (encodedKey.substring(0, 2)) {
+                case "s:":
+                    return value;
+                case "i:":
+                    return Integer.valueOf(value);
+                case "l:":
+                    return Long.valueOf(value);
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Invalidations of one cache waiting for the next publication: once the whole cache is invalidated, its keys
+     * no longer need to be.
+     */
+    private static class PendingInvalidations {
+
+        private final Set<String> keys = new LinkedHashSet<>();
+
+        private boolean all;
+
+        private Instant committedAt;
+
+        void add(String encodedKey, Instant committedAt) {
+            if (encodedKey == null) {
+                this.all = true;
+                this.keys.clear();
+            } else if (!this.all) {
+                this.keys.add(encodedKey);
+            }
+            if (this.committedAt == null || committedAt.isBefore(this.committedAt)) {
+                this.committedAt = committedAt;
+            }
+        }
+
+        /**
+         * Adds the invalidations to write, dated from the first commit so that the propagation time is not
+         * underestimated.
+         */
+        void addTo(List<CacheInvalidation> invalidations, String cacheName, String nodeId) {
+            if (this.all) {
+                invalidations.add(new CacheInvalidation(0, cacheName, null, nodeId, this.committedAt));
+            } else {
+                for (String key : this.keys) {
+                    invalidations.add(new CacheInvalidation(0, cacheName, key, nodeId, this.committedAt));
+                }
+            }
+        }
+    }
+
+}
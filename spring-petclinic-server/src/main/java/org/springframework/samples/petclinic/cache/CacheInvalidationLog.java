@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.cache;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The <code>cache_invalidations</code> table, shared by the instances of the application through the database.
+ */
+@Repository
+class CacheInvalidationLog {
+
+    private static final RowMapper<CacheInvalidation> INVALIDATION_MAPPER = (rs, rowNum) -> new CacheInvalidation(
+        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getTimestamp(5).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CacheInvalidationLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes the invalidations in a single batch.
+     */
+    void append(List<CacheInvalidation> invalidations) {
+        this.jdbcTemplate.batchUpdate(
+            "INSERT INTO cache_invalidations (cache_name, cache_key, node_id, created_at) VALUES (?, ?, ?, ?)",
+            invalidations, invalidations.size(), (ps, invalidation) -> {
+                ps.setString(1, invalidation.getCacheName());
+                ps.setString(2, invalidation.getKey());
+                ps.setString(3, invalidation.getNodeId());
+                ps.setTimestamp(4, Timestamp.from(invalidation.getCreatedAt()));
+            });
+    }
+
+    /**
+     * @return the first invalidations following the given id, in order
+     */
+    List<CacheInvalidation> findInvalidationsAfter(long id, int limit) {
+        return this.jdbcTemplate.query("SELECT id, cache_name, cache_key, node_id, created_at "
+            + "FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT ?", INVALIDATION_MAPPER, id, limit);
+    }
+
+    /**
+     * @return the id of the last invalidation, or 0 if the log is empty
+     */
+    long findLastId() {
+        return this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+    }
+
+    /**
+     * @return the number of invalidations deleted
+     */
+    int deleteInvalidations(Instant createdBefore) {
+        return this.jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+            Timestamp.from(createdBefore));
+    }
+
+}
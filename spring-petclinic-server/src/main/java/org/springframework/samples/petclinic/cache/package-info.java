@@ -0,0 +1,7 @@
+/**
+ *
+ * Coherence of the caches between the instances of the application: the invalidations of each instance are written
+ * to a table of the shared database, read by the other instances, and applied to their own caches.
+ *
+ */
+package org.springframework.samples.petclinic.cache;
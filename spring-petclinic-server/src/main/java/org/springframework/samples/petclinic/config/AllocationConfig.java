@@ -0,0 +1,49 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.allocation.AllocationProfiler;
+import org.springframework.samples.petclinic.allocation.AllocationsEndpoint;
+import org.springframework.samples.petclinic.allocation.EndpointAllocationInterceptor;
+import org.springframework.samples.petclinic.allocation.ServiceAllocationAspect;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Allocation profiling of the servlet stack, when <code>petclinic.allocation.enabled=true</code>: the bytes
+ * allocated per call of each REST endpoint and <code>ClinicService</code> method, under
+ * <code>/manage/allocations</code>.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "petclinic.allocation", name = "enabled", havingValue = "true")
+public class AllocationConfig {
+
+    @Bean
+    public AllocationProfiler allocationProfiler() {
+        return new AllocationProfiler();
+    }
+
+    @Bean
+    public ServiceAllocationAspect serviceAllocationAspect(AllocationProfiler allocationProfiler) {
+        return new ServiceAllocationAspect(allocationProfiler);
+    }
+
+    @Bean
+    public WebMvcConfigurer endpointAllocationConfigurer(AllocationProfiler allocationProfiler) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new EndpointAllocationInterceptor(allocationProfiler));
+            }
+        };
+    }
+
+    @Bean
+    public AllocationsEndpoint allocationsEndpoint(AllocationProfiler allocationProfiler) {
+        return new AllocationsEndpoint(allocationProfiler);
+    }
+
+}
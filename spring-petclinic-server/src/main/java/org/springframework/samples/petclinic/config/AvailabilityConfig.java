@@ -0,0 +1,33 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.scheduling.AppointmentScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Reloads the availability index every <code>petclinic.availability.reload-interval</code>, the first load being
+ * done when the application is ready.
+ */
+@Configuration
+@EnableScheduling
+public class AvailabilityConfig implements SchedulingConfigurer {
+
+    private final AppointmentScheduler appointmentScheduler;
+
+    private final PetclinicProperties properties;
+
+    public AvailabilityConfig(AppointmentScheduler appointmentScheduler, PetclinicProperties properties) {
+        this.appointmentScheduler = appointmentScheduler;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        long interval = this.properties.getAvailability().getReloadInterval().toMillis();
+        taskRegistrar.addFixedDelayTask(new IntervalTask(this.appointmentScheduler::reloadIndex, interval, interval));
+    }
+
+}
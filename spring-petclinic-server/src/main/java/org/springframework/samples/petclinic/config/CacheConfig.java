@@ -25,9 +25,12 @@ public class CacheConfig {
                 .newCacheConfigurationBuilder(Object.class, Object.class,
                     ResourcePoolsBuilder.newResourcePoolsBuilder()
                         .heap(100, EntryUnit.ENTRIES))
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(java.time.Duration.ofSeconds(60)))
+                // Only bounds the staleness of the invalidations lost by a stopping instance, see CacheInvalidationBus
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(java.time.Duration.ofMinutes(10)))
                 .build();
             cacheManager.createCache("vets", Eh107Configuration.fromEhcacheCacheConfiguration(config));
+            // Reference data: the pet types only change with the database scripts
+            cacheManager.createCache("petTypes", Eh107Configuration.fromEhcacheCacheConfiguration(config));
         };
     }
 
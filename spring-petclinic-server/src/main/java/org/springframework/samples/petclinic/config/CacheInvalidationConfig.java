@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.cache.CacheInvalidationBus;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Publishes the cache invalidations of this instance and applies those of the others every
+ * <code>petclinic.cache-invalidation.poll-interval</code>, and deletes the old ones hourly.
+ */
+@Configuration
+@EnableScheduling
+public class CacheInvalidationConfig implements SchedulingConfigurer {
+
+    private static final Duration CLEAN_UP_INTERVAL = Duration.ofHours(1);
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final PetclinicProperties properties;
+
+    public CacheInvalidationConfig(CacheInvalidationBus cacheInvalidationBus, PetclinicProperties properties) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        long pollInterval = this.properties.getCacheInvalidation().getPollInterval().toMillis();
+        taskRegistrar.addFixedDelayTask(this.cacheInvalidationBus::publish, pollInterval);
+        taskRegistrar.addFixedDelayTask(this.cacheInvalidationBus::receive, pollInterval);
+        taskRegistrar.addFixedDelayTask(this.cacheInvalidationBus::cleanUp, CLEAN_UP_INTERVAL.toMillis());
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.springframework.samples.petclinic.config;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.dataset.DatasetGenerator;
+
+/**
+ * Loads a synthetic dataset at startup when <code>petclinic.dataset.owners</code> is set, for instance
+ * <code>java -jar petclinic.jar --spring.profiles.active=mysql,prod --petclinic.dataset.owners=1000000
+ * --petclinic.dataset.exit-after-load=true</code>
+ */
+@Configuration
+public class DatasetConfig {
+
+    private static final Log logger = LogFactory.getLog(DatasetConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.dataset", name = "owners")
+    public ApplicationRunner datasetLoader(PetclinicProperties properties, DataSource dataSource,
+                                          ConfigurableApplicationContext context) {
+        return args -> {
+            PetclinicProperties.Dataset dataset = properties.getDataset();
+            DatasetGenerator generator = new DatasetGenerator(dataset.getSeed());
+            generator.setOwners(dataset.getOwners());
+            generator.setPetsPerOwner(dataset.getPetsPerOwner());
+            generator.setVisitsPerPet(dataset.getVisitsPerPet());
+            generator.setVets(dataset.getVets());
+            long start = System.currentTimeMillis();
+            DatasetGenerator.Counts counts = generator.load(dataSource);
+            logger.info("Loaded " + counts + " in " + (System.currentTimeMillis() - start) + " ms");
+            if (dataset.isExitAfterLoad()) {
+                System.exit(SpringApplication.exit(context));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.springframework.samples.petclinic.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.samples.petclinic.web.json.PetclinicJsonModule;
+
+/**
+ * Jackson customizations of the REST resources.
+ * <p>
+ * Besides JSON, every resource negotiates CBOR (<code>application/cbor</code>) and Smile
+ * (<code>application/x-jackson-smile</code>) for high-volume consumers, in both directions. The binary mappers are
+ * created from the Spring Boot builder so they share the <code>spring.jackson.*</code> settings and modules.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registers the handwritten domain serializers when <code>petclinic.json.serializers=streaming</code>.
+     * Spring Boot adds every {@link Module} bean to the auto-configured mappers.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.json", name = "serializers", havingValue = "streaming")
+    public Module petclinicJsonModule() {
+        return new PetclinicJsonModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+}
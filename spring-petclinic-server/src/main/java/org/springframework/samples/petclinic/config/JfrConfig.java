@@ -0,0 +1,62 @@
+package org.springframework.samples.petclinic.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.jfr.CacheEventsBeanPostProcessor;
+import org.springframework.samples.petclinic.jfr.FlightRecordingEndpoint;
+import org.springframework.samples.petclinic.jfr.FlightRecordings;
+import org.springframework.samples.petclinic.jfr.PetclinicEvents;
+import org.springframework.samples.petclinic.jfr.RepositoryEventsAspect;
+import org.springframework.samples.petclinic.jfr.RestEventsFilter;
+
+/**
+ * Java Flight Recorder events of the application, on the JVMs having the <code>jdk.jfr</code> module, unless
+ * <code>petclinic.jfr.enabled=false</code>. Record them with <code>-XX:StartFlightRecording</code>, or with the
+ * continuous recording of <code>petclinic.jfr.continuous=true</code>, and dump them through <code>/manage/jfr</code>.
+ */
+@Configuration
+@ConditionalOnClass(name = "jdk.jfr.FlightRecorder")
+@ConditionalOnProperty(prefix = "petclinic.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfig {
+
+    @Bean
+    public static CacheEventsBeanPostProcessor cacheEventsBeanPostProcessor() {
+        return new CacheEventsBeanPostProcessor();
+    }
+
+    @Bean
+    public RepositoryEventsAspect repositoryEventsAspect() {
+        return new RepositoryEventsAspect();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<RestEventsFilter> restEventsFilter() {
+        return new FilterRegistrationBean<>(new RestEventsFilter());
+    }
+
+    @Bean(destroyMethod = "stopContinuousRecording")
+    public FlightRecordings flightRecordings(PetclinicProperties properties) throws IOException {
+        PetclinicProperties.Jfr jfr = properties.getJfr();
+        PetclinicEvents.register();
+        FlightRecordings recordings = new FlightRecordings(Paths.get(jfr.getDumpDirectory() != null
+            ? jfr.getDumpDirectory() : System.getProperty("java.io.tmpdir")));
+        if (jfr.isContinuous()) {
+            recordings.startContinuousRecording(jfr.getMaxAge(), jfr.getMaxSize().toBytes());
+        }
+        return recordings;
+    }
+
+    @Bean
+    public FlightRecordingEndpoint flightRecordingEndpoint(FlightRecordings flightRecordings) {
+        return new FlightRecordingEndpoint(flightRecordings);
+    }
+
+}
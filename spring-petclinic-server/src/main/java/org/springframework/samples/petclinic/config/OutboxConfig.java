@@ -0,0 +1,36 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.outbox.OutboxRelay;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Polls the outbox every <code>petclinic.outbox.poll-interval</code>, and deletes the old events hourly.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig implements SchedulingConfigurer {
+
+    private static final Duration CLEAN_UP_INTERVAL = Duration.ofHours(1);
+
+    private final OutboxRelay outboxRelay;
+
+    private final PetclinicProperties properties;
+
+    public OutboxConfig(OutboxRelay outboxRelay, PetclinicProperties properties) {
+        this.outboxRelay = outboxRelay;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this.outboxRelay::relay,
+            this.properties.getOutbox().getPollInterval().toMillis());
+        taskRegistrar.addFixedDelayTask(this.outboxRelay::cleanUp, CLEAN_UP_INTERVAL.toMillis());
+    }
+
+}
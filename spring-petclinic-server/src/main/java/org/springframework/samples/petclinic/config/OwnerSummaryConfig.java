@@ -0,0 +1,47 @@
+package org.springframework.samples.petclinic.config;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.summary.OwnerSummaryEndpoint;
+import org.springframework.samples.petclinic.summary.OwnerSummaryRebuild;
+import org.springframework.samples.petclinic.summary.OwnerSummaryRebuildHealthIndicator;
+import org.springframework.samples.petclinic.summary.OwnerSummaryStore;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
+import org.springframework.samples.petclinic.tenancy.TenantRoutingDataSource;
+
+/**
+ * Rebuilds the owner summaries of every shard when the application is ready, unless
+ * <code>petclinic.owner-summary.rebuild-at-startup=false</code>, and on demand under
+ * <code>/manage/ownersummaries</code>. The health under <code>/manage/health</code> stays out of service until the
+ * startup rebuild is done.
+ */
+@Configuration
+public class OwnerSummaryConfig {
+
+    @Bean
+    public OwnerSummaryEndpoint ownerSummaryEndpoint(OwnerSummaryStore store,
+                                                     ObjectProvider<TenantRoutingDataSource> tenantRoutingDataSource) {
+        TenantRoutingDataSource dataSource = tenantRoutingDataSource.getIfAvailable();
+        return new OwnerSummaryEndpoint(store, dataSource == null
+            ? Collections.singleton(ShardRouting.DEFAULT_SHARD) : dataSource.getShardNames());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.owner-summary", name = "rebuild-at-startup", havingValue = "true",
+        matchIfMissing = true)
+    public OwnerSummaryRebuild ownerSummaryRebuild(OwnerSummaryEndpoint endpoint) {
+        return new OwnerSummaryRebuild(endpoint);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.owner-summary", name = "rebuild-at-startup", havingValue = "true",
+        matchIfMissing = true)
+    public OwnerSummaryRebuildHealthIndicator ownerSummaryRebuildHealthIndicator(OwnerSummaryRebuild rebuild) {
+        return new OwnerSummaryRebuildHealthIndicator(rebuild);
+    }
+
+}
@@ -15,7 +15,15 @@
  */
 package org.springframework.samples.petclinic.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Typesafe custom configuration.
@@ -39,4 +47,899 @@ public class PetclinicProperties {
     public void setDatabase(String database) {
         this.database = database;
     }
+
+    private final Json json = new Json();
+
+    public Json getJson() {
+        return json;
+    }
+
+    private final Resources resources = new Resources();
+
+    public Resources getResources() {
+        return resources;
+    }
+
+    private final Startup startup = new Startup();
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    private final Dataset dataset = new Dataset();
+
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    private final Statistics statistics = new Statistics();
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    private final Outbox outbox = new Outbox();
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    private final Feed feed = new Feed();
+
+    public Feed getFeed() {
+        return feed;
+    }
+
+    private final Reactive reactive = new Reactive();
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    private final Tenancy tenancy = new Tenancy();
+
+    public Tenancy getTenancy() {
+        return tenancy;
+    }
+
+    private final Statements statements = new Statements();
+
+    public Statements getStatements() {
+        return statements;
+    }
+
+    private final Tracing tracing = new Tracing();
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    private final Jfr jfr = new Jfr();
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    private final Allocation allocation = new Allocation();
+
+    public Allocation getAllocation() {
+        return allocation;
+    }
+
+    private final WarmUp warmUp = new WarmUp();
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    private final OwnerSummary ownerSummary = new OwnerSummary();
+
+    public OwnerSummary getOwnerSummary() {
+        return ownerSummary;
+    }
+
+    private final Batch batch = new Batch();
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    private final Availability availability = new Availability();
+
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public static class Json {
+
+        /**
+         * Serializers of the domain objects: Jackson bean serializers (reflective) or handwritten ones (streaming)
+         */
+        private String serializers = "reflective";
+
+        public String getSerializers() {
+            return serializers;
+        }
+
+        public void setSerializers(String serializers) {
+            this.serializers = serializers;
+        }
+    }
+
+    public static class Resources {
+
+        /**
+         * Whether the index page loads the bundled client scripts or one script per AngularJS component
+         */
+        private boolean bundled = true;
+
+        public boolean isBundled() {
+            return bundled;
+        }
+
+        public void setBundled(boolean bundled) {
+            this.bundled = bundled;
+        }
+    }
+
+    public static class Startup {
+
+        /**
+         * Whether the application beans are created on first use rather than during the startup
+         */
+        private boolean lazyInitialization;
+
+        /**
+         * Whether the application stops after serving one /vets request, to record the class-data-sharing class list
+         */
+        private boolean exitAfterReady;
+
+        public boolean isLazyInitialization() {
+            return lazyInitialization;
+        }
+
+        public void setLazyInitialization(boolean lazyInitialization) {
+            this.lazyInitialization = lazyInitialization;
+        }
+
+        public boolean isExitAfterReady() {
+            return exitAfterReady;
+        }
+
+        public void setExitAfterReady(boolean exitAfterReady) {
+            this.exitAfterReady = exitAfterReady;
+        }
+    }
+
+    public static class Dataset {
+
+        /**
+         * Number of synthetic owners loaded at startup, none when unset
+         */
+        private int owners;
+
+        /**
+         * Average number of pets of a synthetic owner
+         */
+        private double petsPerOwner = 3;
+
+        /**
+         * Average number of visits of a synthetic pet
+         */
+        private double visitsPerPet = 6.67;
+
+        /**
+         * Number of synthetic vets
+         */
+        private int vets = 50;
+
+        /**
+         * Seed of the generator: the same seed and sizes always give the same dataset
+         */
+        private long seed = 42;
+
+        /**
+         * Whether the application stops once the dataset is loaded
+         */
+        private boolean exitAfterLoad;
+
+        public int getOwners() {
+            return owners;
+        }
+
+        public void setOwners(int owners) {
+            this.owners = owners;
+        }
+
+        public double getPetsPerOwner() {
+            return petsPerOwner;
+        }
+
+        public void setPetsPerOwner(double petsPerOwner) {
+            this.petsPerOwner = petsPerOwner;
+        }
+
+        public double getVisitsPerPet() {
+            return visitsPerPet;
+        }
+
+        public void setVisitsPerPet(double visitsPerPet) {
+            this.visitsPerPet = visitsPerPet;
+        }
+
+        public int getVets() {
+            return vets;
+        }
+
+        public void setVets(int vets) {
+            this.vets = vets;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public boolean isExitAfterLoad() {
+            return exitAfterLoad;
+        }
+
+        public void setExitAfterLoad(boolean exitAfterLoad) {
+            this.exitAfterLoad = exitAfterLoad;
+        }
+    }
+
+    public static class Statistics {
+
+        /**
+         * Delay between two checkpoints of the visit counters to the database
+         */
+        private Duration checkpointInterval = Duration.ofMinutes(5);
+
+        public Duration getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(Duration checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+    }
+
+    public static class Outbox {
+
+        /**
+         * Delay between two polls of the outbox by the relay
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Maximum number of events dispatched at once to a subscriber
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the relay waits for the event of a missing id, which may belong to a transaction not yet
+         * committed, before skipping it
+         */
+        private Duration gapTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long the events are kept once dispatched to every subscriber
+         */
+        private Duration retention = Duration.ofDays(1);
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getGapTimeout() {
+            return gapTimeout;
+        }
+
+        public void setGapTimeout(Duration gapTimeout) {
+            this.gapTimeout = gapTimeout;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class Feed {
+
+        /**
+         * Number of events buffered for each subscriber; when a slow subscriber overflows it, the oldest events are
+         * dropped and the subscriber is told to reload
+         */
+        private int bufferSize = 32;
+
+        /**
+         * Maximum number of subscribers connected at once
+         */
+        private int maxSubscribers = 1000;
+
+        /**
+         * Delay between two comments sent to keep idle connections open and detect the closed ones
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+    }
+
+    public static class Reactive {
+
+        /**
+         * Threads running the blocking JDBC calls of the reactive stack, at most one per pooled connection
+         */
+        private int dataAccessThreads = 10;
+
+        public int getDataAccessThreads() {
+            return dataAccessThreads;
+        }
+
+        public void setDataAccessThreads(int dataAccessThreads) {
+            this.dataAccessThreads = dataAccessThreads;
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        /**
+         * Name of this instance in the invalidations it sends, unique among the instances sharing the database;
+         * random when unset
+         */
+        private String nodeId;
+
+        /**
+         * Delay between two publications of the invalidations of this instance, and between two reads of the
+         * invalidations of the others
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Maximum number of invalidations read at once
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the invalidation of a missing id, which may belong to a transaction not yet committed, is waited
+         * for before being skipped
+         */
+        private Duration gapTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long the invalidations are kept in the database
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getGapTimeout() {
+            return gapTimeout;
+        }
+
+        public void setGapTimeout(Duration gapTimeout) {
+            this.gapTimeout = gapTimeout;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class Tenancy {
+
+        /**
+         * Whether the clinics are spread over the shards below, the others keeping the default datasource
+         */
+        private boolean enabled;
+
+        /**
+         * Request header naming the clinic of the request; requests without it are served by the default shard
+         */
+        private String header = "X-Clinic-Id";
+
+        /**
+         * Shard of each clinic, by clinic id; the shard of the default datasource is named default
+         */
+        private Map<String, String> tenants = new LinkedHashMap<>();
+
+        /**
+         * Datasources of the shards besides the default one, by shard name
+         */
+        private Map<String, Shard> shards = new LinkedHashMap<>();
+
+        /**
+         * How long a report spanning all the clinics waits for the answers of the shards
+         */
+        private Duration fanOutTimeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public void setHeader(String header) {
+            this.header = header;
+        }
+
+        public Map<String, String> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(Map<String, String> tenants) {
+            this.tenants = tenants;
+        }
+
+        public Map<String, Shard> getShards() {
+            return shards;
+        }
+
+        public void setShards(Map<String, Shard> shards) {
+            this.shards = shards;
+        }
+
+        public Duration getFanOutTimeout() {
+            return fanOutTimeout;
+        }
+
+        public void setFanOutTimeout(Duration fanOutTimeout) {
+            this.fanOutTimeout = fanOutTimeout;
+        }
+
+        public static class Shard {
+
+            /**
+             * JDBC URL of the database of the shard
+             */
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            /**
+             * Whether the schema and data scripts of spring.datasource are run on the shard at startup
+             */
+            private boolean initialize;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public boolean isInitialize() {
+                return initialize;
+            }
+
+            public void setInitialize(boolean initialize) {
+                this.initialize = initialize;
+            }
+        }
+    }
+
+    public static class Statements {
+
+        /**
+         * Whether the SQL statements of each request are counted and reported in its response headers
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of runs of the same statement within a request above which it is logged as a suspected N+1 query
+         */
+        private int repeatThreshold = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRepeatThreshold() {
+            return repeatThreshold;
+        }
+
+        public void setRepeatThreshold(int repeatThreshold) {
+            this.repeatThreshold = repeatThreshold;
+        }
+    }
+
+    public static class Tracing {
+
+        /**
+         * Whether the sampled requests are traced and their traces served under /manage/traces
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of the requests traced, from 0 to 1; can be changed at runtime through /manage/traces
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * Duration from which a traced request is kept among the slowest; can be changed at runtime through
+         * /manage/traces
+         */
+        private Duration slowThreshold = Duration.ofMillis(200);
+
+        /**
+         * Number of most recent traces kept
+         */
+        private int recentTraces = 100;
+
+        /**
+         * Number of slowest traces kept
+         */
+        private int slowestTraces = 20;
+
+        /**
+         * Maximum number of spans kept in a trace, the others being only counted
+         */
+        private int maxSpans = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public int getRecentTraces() {
+            return recentTraces;
+        }
+
+        public void setRecentTraces(int recentTraces) {
+            this.recentTraces = recentTraces;
+        }
+
+        public int getSlowestTraces() {
+            return slowestTraces;
+        }
+
+        public void setSlowestTraces(int slowestTraces) {
+            this.slowestTraces = slowestTraces;
+        }
+
+        public int getMaxSpans() {
+            return maxSpans;
+        }
+
+        public void setMaxSpans(int maxSpans) {
+            this.maxSpans = maxSpans;
+        }
+    }
+
+    public static class Jfr {
+
+        /**
+         * Whether the REST requests, repository calls and cache lookups emit Java Flight Recorder events
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether the application starts a continuous recording with the settings of jfr/petclinic.jfc
+         */
+        private boolean continuous;
+
+        /**
+         * How long the events of the continuous recording are kept
+         */
+        private Duration maxAge = Duration.ofHours(6);
+
+        /**
+         * Maximum size of the continuous recording on disk
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(250);
+
+        /**
+         * Directory of the recordings dumped through /manage/jfr, the temporary directory when unset
+         */
+        private String dumpDirectory;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isContinuous() {
+            return continuous;
+        }
+
+        public void setContinuous(boolean continuous) {
+            this.continuous = continuous;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public String getDumpDirectory() {
+            return dumpDirectory;
+        }
+
+        public void setDumpDirectory(String dumpDirectory) {
+            this.dumpDirectory = dumpDirectory;
+        }
+    }
+
+    public static class Allocation {
+
+        /**
+         * Whether the bytes allocated by each REST endpoint and ClinicService method are profiled, under
+         * /manage/allocations
+         */
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class WarmUp {
+
+        /**
+         * Whether the instance warms up before its health reports it up
+         */
+        private boolean enabled;
+
+        /**
+         * Number of pooled connections opened by the warm-up, at most the maximum size of the pool
+         */
+        private int connections = 10;
+
+        /**
+         * Paths of the requests replayed, in equal numbers; {ownerId} and {petId} are those of random pets
+         */
+        private List<String> paths = new ArrayList<>(
+            Arrays.asList("/vets", "/petTypes", "/owners/{ownerId}", "/owners/{ownerId}/pets/{petId}"));
+
+        /**
+         * Number of requests replayed
+         */
+        private int requests = 2000;
+
+        /**
+         * Number of requests replayed at once
+         */
+        private int threads = 4;
+
+        /**
+         * Time budget of the warm-up, after which the instance is reported up anyway
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public void setRequests(int requests) {
+            this.requests = requests;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class OwnerSummary {
+
+        /**
+         * Whether the owner_summary table is rebuilt from the owners, pets and visits when the application is ready
+         */
+        private boolean rebuildAtStartup = true;
+
+        public boolean isRebuildAtStartup() {
+            return rebuildAtStartup;
+        }
+
+        public void setRebuildAtStartup(boolean rebuildAtStartup) {
+            this.rebuildAtStartup = rebuildAtStartup;
+        }
+    }
+
+    public static class Batch {
+
+        /**
+         * Maximum number of ids read by one request to /owners, /pets or /vets with an ids parameter
+         */
+        private int maxIds = 100;
+
+        public int getMaxIds() {
+            return maxIds;
+        }
+
+        public void setMaxIds(int maxIds) {
+            this.maxIds = maxIds;
+        }
+    }
+
+    public static class Availability {
+
+        /**
+         * Delay between two reloads of the availability index, which read again the vets and their working hours
+         */
+        private Duration reloadInterval = Duration.ofMinutes(10);
+
+        public Duration getReloadInterval() {
+            return reloadInterval;
+        }
+
+        public void setReloadInterval(Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+        }
+    }
 }
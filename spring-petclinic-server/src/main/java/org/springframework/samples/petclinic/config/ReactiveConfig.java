@@ -0,0 +1,65 @@
+package org.springframework.samples.petclinic.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.web.SparseFieldsetWebFilter;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Reactive stack of the <code>reactive</code> profile: Spring WebFlux on Netty, whose few event loop threads serve
+ * every connection. The JDBC calls of the {@link org.springframework.samples.petclinic.service.ReactiveClinicService}
+ * block, so they run on a dedicated scheduler instead of the event loops.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Netty rather than the reactive adapter of Tomcat, which Spring Boot would pick as it is on the classpath for
+     * the servlet stack.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Bounded: more threads than pooled connections would only wait for a connection.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler dataAccessScheduler(PetclinicProperties properties) {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "data-access-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Schedulers.fromExecutorService(
+            Executors.newFixedThreadPool(properties.getReactive().getDataAccessThreads(), threadFactory));
+    }
+
+    @Bean
+    public SparseFieldsetWebFilter sparseFieldsetWebFilter(ObjectMapper objectMapper) {
+        return new SparseFieldsetWebFilter(objectMapper);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> indexRoute() {
+        return route(GET("/"), request -> ServerResponse.ok().contentType(MediaType.TEXT_HTML).render("index"));
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.springframework.samples.petclinic.config;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.startup.StartupEndpoint;
+import org.springframework.samples.petclinic.startup.StartupTimeline;
+
+/**
+ * Fast-start mode, see the <code>fast-start</code> Maven profile.
+ * <p>
+ * <code>petclinic.startup.lazy-initialization=true</code> defers the creation of the application beans to their
+ * first use. <code>petclinic.startup.exit-after-ready=true</code> serves one <code>/vets</code> request then stops the
+ * JVM: it is the training run recording the classes to put in the class-data-sharing archive.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Log logger = LogFactory.getLog(StartupConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.startup", name = "lazy-initialization", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyInitializationBeanFactoryPostProcessor() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnBean(StartupTimeline.class)
+    public StartupEndpoint startupEndpoint(StartupTimeline timeline) {
+        return new StartupEndpoint(timeline);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petclinic.startup", name = "exit-after-ready", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> exitAfterReady() {
+        return event -> {
+            String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", "8080");
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/vets")
+                    .openConnection();
+                logger.info("Training request GET /vets: " + connection.getResponseCode());
+                connection.disconnect();
+            } catch (IOException ex) {
+                logger.warn("Training request GET /vets failed", ex);
+            }
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.samples.petclinic.sql.StatementCountingBeanPostProcessor;
+import org.springframework.samples.petclinic.sql.StatementCountingFilter;
+
+/**
+ * Counts the SQL statements of each request unless <code>petclinic.statements.enabled=false</code>: see the
+ * <code>X-SQL-Statements</code> and <code>X-SQL-Time</code> response headers, and the warnings of the
+ * <code>StatementCountingFilter</code> logger for the suspected N+1 queries.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "petclinic.statements", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementsConfig {
+
+    @Bean
+    public static StatementCountingBeanPostProcessor statementCountingBeanPostProcessor() {
+        return new StatementCountingBeanPostProcessor();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<StatementCountingFilter> statementCountingFilter(PetclinicProperties properties) {
+        FilterRegistrationBean<StatementCountingFilter> registration = new FilterRegistrationBean<>(
+            new StatementCountingFilter(properties.getStatements().getRepeatThreshold()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+}
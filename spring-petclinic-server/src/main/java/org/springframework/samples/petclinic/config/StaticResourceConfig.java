@@ -0,0 +1,80 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.ResourceProperties;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.samples.petclinic.web.assets.PrecompressedResourceHttpRequestHandler;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.CachingResourceTransformer;
+import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceTransformer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * Serves the client module in place of the Spring Boot static resource mapping (<code>spring.resources.add-mappings=false</code>).
+ * <p>
+ * The <code>spring.resources.*</code> locations, cache and chain settings still apply. On top of them, the
+ * <code>.br</code> and <code>.gz</code> siblings produced by the client build are served to browsers accepting
+ * those encodings, so assets are never compressed on the fly, and content-versioned URLs are immutable.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StaticResourceConfig {
+
+    @Bean
+    public PrecompressedResourceHttpRequestHandler staticResourceHandler(ResourceProperties resourceProperties) {
+        PrecompressedResourceHttpRequestHandler handler = new PrecompressedResourceHttpRequestHandler();
+        handler.setLocationValues(Arrays.asList(resourceProperties.getStaticLocations()));
+
+        ResourceProperties.Cache cache = resourceProperties.getCache();
+        CacheControl cacheControl = cache.getCachecontrol().toHttpCacheControl();
+        Duration period = cache.getPeriod();
+        if (cacheControl != null) {
+            handler.setCacheControl(cacheControl);
+        } else if (period != null) {
+            handler.setCacheSeconds((int) period.getSeconds());
+        }
+
+        ResourceProperties.Chain chain = resourceProperties.getChain();
+        ResourceProperties.Content content = chain.getStrategy().getContent();
+        List<ResourceResolver> resolvers = new ArrayList<>();
+        List<ResourceTransformer> transformers = new ArrayList<>();
+        if (chain.isCache()) {
+            ConcurrentMapCache resourceCache = new ConcurrentMapCache("static-resources");
+            resolvers.add(new CachingResourceResolver(resourceCache));
+            transformers.add(new CachingResourceTransformer(resourceCache));
+        }
+        resolvers.add(new EncodedResourceResolver());
+        if (content.isEnabled()) {
+            resolvers.add(new VersionResourceResolver().addContentVersionStrategy(content.getPaths()));
+            transformers.add(new CssLinkResourceTransformer());
+        }
+        resolvers.add(new PathResourceResolver());
+        handler.setResourceResolvers(resolvers);
+        handler.setResourceTransformers(transformers);
+        return handler;
+    }
+
+    @Bean
+    public SimpleUrlHandlerMapping staticResourceHandlerMapping(PrecompressedResourceHttpRequestHandler staticResourceHandler) {
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping();
+        mapping.setUrlMap(Collections.singletonMap("/**", staticResourceHandler));
+        mapping.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return mapping;
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.statistics.StatisticsService;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Checkpoints the clinic statistics every <code>petclinic.statistics.checkpoint-interval</code>.
+ */
+@Configuration
+@EnableScheduling
+public class StatisticsConfig implements SchedulingConfigurer {
+
+    private final StatisticsService statisticsService;
+
+    private final PetclinicProperties properties;
+
+    public StatisticsConfig(StatisticsService statisticsService, PetclinicProperties properties) {
+        this.statisticsService = statisticsService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        long interval = this.properties.getStatistics().getCheckpointInterval().toMillis();
+        taskRegistrar.addFixedDelayTask(this.statisticsService::checkpoint, interval);
+    }
+
+}
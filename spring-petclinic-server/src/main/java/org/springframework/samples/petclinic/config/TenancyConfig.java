@@ -0,0 +1,110 @@
+package org.springframework.samples.petclinic.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.samples.petclinic.tenancy.CrossClinicReports;
+import org.springframework.samples.petclinic.tenancy.ShardFanOut;
+import org.springframework.samples.petclinic.tenancy.ShardRoutingAspect;
+import org.springframework.samples.petclinic.tenancy.TenantFilter;
+import org.springframework.samples.petclinic.tenancy.TenantRoutingDataSource;
+
+/**
+ * Spreads the clinics over several databases when <code>petclinic.tenancy.enabled</code> is set, for instance
+ * <code>--petclinic.tenancy.enabled=true --petclinic.tenancy.shards.east.url=jdbc:hsqldb:mem:east
+ * --petclinic.tenancy.shards.east.initialize=true --petclinic.tenancy.tenants.boston=east</code>
+ * <p>
+ * The requests naming a clinic in the <code>X-Clinic-Id</code> header reach the database of its shard through the
+ * calls of the <code>ClinicService</code>; the others, the reactive stack and the background tasks keep the default
+ * datasource configured by <code>spring.datasource</code>.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "petclinic.tenancy", name = "enabled", havingValue = "true")
+public class TenancyConfig {
+
+    @Bean
+    @Primary
+    public TenantRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                              PetclinicProperties properties, ApplicationContext context) {
+        DataSource defaultShard = dataSourceProperties.initializeDataSourceBuilder().build();
+        Map<String, DataSource> otherShards = new LinkedHashMap<>();
+        properties.getTenancy().getShards().forEach((name, shard) -> {
+            DataSource dataSource = DataSourceBuilder.create(context.getClassLoader())
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+            if (shard.isInitialize()) {
+                initialize(dataSource, dataSourceProperties, context);
+            }
+            otherShards.put(name, dataSource);
+        });
+        TenantRoutingDataSource dataSource = new TenantRoutingDataSource(defaultShard, otherShards);
+        properties.getTenancy().getTenants().forEach((tenant, shard) -> {
+            if (!dataSource.getShardNames().contains(shard)) {
+                throw new IllegalStateException("Clinic " + tenant + " is mapped to the unknown shard " + shard);
+            }
+        });
+        return dataSource;
+    }
+
+    /**
+     * The default shard is initialized by Spring Boot from the same scripts.
+     */
+    private static void initialize(DataSource dataSource, DataSourceProperties dataSourceProperties,
+                                   ApplicationContext context) {
+        List<String> scripts = new ArrayList<>();
+        if (dataSourceProperties.getSchema() != null) {
+            scripts.addAll(dataSourceProperties.getSchema());
+        }
+        if (dataSourceProperties.getData() != null) {
+            scripts.addAll(dataSourceProperties.getData());
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        scripts.forEach(script -> populator.addScript(context.getResource(script)));
+        populator.setSqlScriptEncoding(dataSourceProperties.getSqlScriptEncoding() == null ? null
+            : dataSourceProperties.getSqlScriptEncoding().name());
+        DatabasePopulatorUtils.execute(populator, dataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(PetclinicProperties properties) {
+        PetclinicProperties.Tenancy tenancy = properties.getTenancy();
+        FilterRegistrationBean<TenantFilter> registration =
+            new FilterRegistrationBean<>(new TenantFilter(tenancy.getHeader(), tenancy.getTenants()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect() {
+        return new ShardRoutingAspect();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardFanOut shardFanOut(TenantRoutingDataSource dataSource, PetclinicProperties properties) {
+        return new ShardFanOut(dataSource.getShardNames(), properties.getTenancy().getFanOutTimeout());
+    }
+
+    @Bean
+    public CrossClinicReports crossClinicReports(ShardFanOut shardFanOut, TenantRoutingDataSource dataSource) {
+        return new CrossClinicReports(shardFanOut, new JdbcTemplate(dataSource));
+    }
+
+}
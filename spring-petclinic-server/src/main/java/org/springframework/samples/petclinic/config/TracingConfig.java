@@ -0,0 +1,58 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.samples.petclinic.tracing.FlightRecorder;
+import org.springframework.samples.petclinic.tracing.TracesEndpoint;
+import org.springframework.samples.petclinic.tracing.TracingAspect;
+import org.springframework.samples.petclinic.tracing.TracingFilter;
+import org.springframework.samples.tracing.SerializationTracingAdvice;
+
+/**
+ * Traces a sample of the requests of the servlet stack unless <code>petclinic.tracing.enabled=false</code>. The
+ * recent and slowest traces are served under <code>/manage/traces</code>, where the sample rate and the slow
+ * threshold can also be changed.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "petclinic.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public FlightRecorder flightRecorder(PetclinicProperties properties) {
+        PetclinicProperties.Tracing tracing = properties.getTracing();
+        return new FlightRecorder(tracing.getRecentTraces(), tracing.getSlowestTraces(), tracing.getMaxSpans(),
+            tracing.getSampleRate(), tracing.getSlowThreshold());
+    }
+
+    /**
+     * Among the first filters, so that the trace covers the work of the others.
+     */
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(FlightRecorder flightRecorder) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(
+            new TracingFilter(flightRecorder));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public TracingAspect tracingAspect() {
+        return new TracingAspect();
+    }
+
+    @Bean
+    public SerializationTracingAdvice serializationTracingAdvice() {
+        return new SerializationTracingAdvice();
+    }
+
+    @Bean
+    public TracesEndpoint tracesEndpoint(FlightRecorder flightRecorder) {
+        return new TracesEndpoint(flightRecorder);
+    }
+
+}
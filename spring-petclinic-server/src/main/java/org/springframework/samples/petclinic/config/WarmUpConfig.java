@@ -0,0 +1,33 @@
+package org.springframework.samples.petclinic.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.warmup.WarmUp;
+import org.springframework.samples.petclinic.warmup.WarmUpHealthIndicator;
+
+/**
+ * Warm-up of the instance once started, when <code>petclinic.warm-up.enabled=true</code>. Its health, under
+ * <code>/manage/health</code>, stays out of service until the warm-up is done or out of time: Spring Boot 2.1 having
+ * no readiness probe of its own, the load balancers check that health.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "petclinic.warm-up", name = "enabled", havingValue = "true")
+public class WarmUpConfig {
+
+    @Bean
+    public WarmUp warmUp(DataSource dataSource, ClinicService clinicService, PetclinicProperties properties) {
+        PetclinicProperties.WarmUp warmUp = properties.getWarmUp();
+        return new WarmUp(dataSource, clinicService, warmUp.getConnections(), warmUp.getPaths(),
+            warmUp.getRequests(), warmUp.getThreads(), warmUp.getTimeout());
+    }
+
+    @Bean
+    public WarmUpHealthIndicator warmUpHealthIndicator(WarmUp warmUp) {
+        return new WarmUpHealthIndicator(warmUp);
+    }
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.dataset;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * Generates a synthetic clinic of any size, appended to the reference data of the schema (pet types and specialties)
+ * and to the rows already present.
+ * <p>
+ * The dataset only depends on the seed and the sizes: the same generator always produces the same rows. Names and
+ * cities follow a long-tailed distribution, the number of pets per owner is geometric and the number of visits per pet
+ * follows a Pareto distribution, so that a few pets concentrate most of the visits. For instance 1,000,000 owners
+ * with the default ratios give about 3,000,000 pets and 20,000,000 visits.
+ */
+public class DatasetGenerator {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Dates are relative to a fixed day rather than today, so that the dataset is reproducible.
+     */
+    private static final long REFERENCE_DAY;
+
+    static {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(2019, Calendar.JANUARY, 1);
+        REFERENCE_DAY = calendar.getTimeInMillis();
+    }
+
+    private static final int MAX_VISITS_PER_PET = 500;
+
+    private static final double PARETO_SHAPE = 1.5;
+
+    private static final Distribution FIRST_NAMES = new Distribution(
+        "James", 332, "Mary", 291, "John", 327, "Patricia", 107, "Robert", 314, "Jennifer", 151, "Michael", 434,
+        "Linda", 103, "William", 237, "Elizabeth", 163, "David", 360, "Barbara", 102, "Richard", 126, "Susan", 93,
+        "Joseph", 194, "Jessica", 121, "Thomas", 135, "Sarah", 131, "Charles", 106, "Karen", 98, "Christopher", 203,
+        "Nancy", 72, "Daniel", 191, "Lisa", 87, "Matthew", 158, "Margaret", 75, "Anthony", 112, "Betty", 52,
+        "Mark", 109, "Sandra", 69, "Donald", 73, "Ashley", 85, "Steven", 84, "Emily", 84, "Paul", 82, "Donna", 62,
+        "Andrew", 102, "Michelle", 75, "Joshua", 115, "Carol", 51, "Kenneth", 73, "Amanda", 74, "Kevin", 76,
+        "Melissa", 61, "Brian", 78, "Deborah", 49, "George", 67, "Stephanie", 60, "Edward", 59, "Rebecca", 50,
+        "Ronald", 55, "Sharon", 46, "Timothy", 61, "Laura", 51, "Jason", 80, "Cynthia", 41, "Jeffrey", 57,
+        "Kathleen", 41, "Ryan", 72, "Amy", 48, "Jacob", 81, "Angela", 43, "Gary", 46, "Shirley", 34, "Eduardo", 12,
+        "Maria", 88, "Carlos", 25, "Jean", 31, "Peter", 45, "Harold", 30, "Helen", 40, "Rafael", 10, "Sofia", 35,
+        "Noah", 40, "Olivia", 45, "Liam", 38, "Emma", 50, "Lucas", 22, "Mia", 30, "Hannah", 33, "Ethan", 36);
+
+    private static final Distribution LAST_NAMES = new Distribution(
+        "Smith", 2442, "Johnson", 1933, "Williams", 1625, "Brown", 1437, "Jones", 1425, "Garcia", 1166,
+        "Miller", 1161, "Davis", 1116, "Rodriguez", 1094, "Martinez", 1060, "Hernandez", 1043, "Lopez", 874,
+        "Gonzalez", 841, "Wilson", 801, "Anderson", 784, "Thomas", 756, "Taylor", 751, "Moore", 724,
+        "Jackson", 708, "Martin", 702, "Lee", 693, "Perez", 681, "Thompson", 664, "White", 660, "Harris", 624,
+        "Sanchez", 612, "Clark", 562, "Ramirez", 557, "Lewis", 531, "Robinson", 529, "Walker", 523, "Young", 484,
+        "Allen", 482, "King", 465, "Wright", 458, "Scott", 439, "Torres", 437, "Nguyen", 437, "Hill", 434,
+        "Flores", 433, "Green", 430, "Adams", 427, "Nelson", 424, "Baker", 419, "Hall", 407, "Rivera", 389,
+        "Campbell", 386, "Mitchell", 385, "Carter", 376, "Roberts", 376, "Franklin", 172, "Coleman", 232,
+        "Black", 185, "Schroeder", 45, "Estaban", 5, "McTavish", 3, "Escobito", 2, "Rodriquez", 15,
+        "Leary", 12, "Douglas", 150, "Ortega", 105, "Stevens", 201, "Jenkins", 263, "Kowalski", 30, "Novak", 25,
+        "Schmidt", 120, "Muller", 40, "Larsen", 35, "Olsen", 60, "Dubois", 10, "Rossi", 15, "Kim", 280,
+        "Patel", 190, "Chen", 180, "Singh", 170, "Khan", 80, "Cohen", 95, "Murphy", 308, "Kelly", 263);
+
+    private static final Distribution CITIES = new Distribution(
+        "Madison", 269, "Milwaukee", 577, "Green Bay", 105, "Kenosha", 99, "Racine", 77, "Appleton", 75,
+        "Waukesha", 72, "Eau Claire", 69, "Oshkosh", 67, "Janesville", 64, "West Allis", 60, "La Crosse", 52,
+        "Sheboygan", 48, "Wauwatosa", 48, "Fond du Lac", 43, "New Berlin", 40, "Wausau", 39, "Brookfield", 39,
+        "Beloit", 37, "Greenfield", 37, "Franklin", 36, "Oak Creek", 36, "Manitowoc", 33, "West Bend", 32,
+        "Sun Prairie", 34, "Superior", 27, "Stevens Point", 26, "Neenah", 26, "Fitchburg", 29, "Muskego", 25,
+        "Middleton", 20, "Monona", 8, "McFarland", 9, "Windsor", 8, "Waunakee", 14, "Verona", 13, "Stoughton", 13,
+        "Oregon", 10, "Cottage Grove", 7, "DeForest", 10);
+
+    private static final Distribution STREETS = new Distribution(
+        "Main", 30, "Oak", 20, "Maple", 18, "Park", 18, "Pine", 15, "Cedar", 14, "Elm", 13, "Washington", 12,
+        "Lake", 12, "Hill", 11, "Liberty", 9, "Cardinal", 6, "Commerce", 6, "Friendly", 3, "Fair", 5,
+        "Blackhawk", 4, "Independence", 7, "University", 8, "Johnson", 7, "Mineral Point", 4, "Monroe", 6,
+        "Regent", 4, "Atwood", 3, "Williamson", 3, "Gorham", 3, "Spring", 10, "Sunset", 9, "Highland", 8);
+
+    private static final Distribution STREET_TYPES = new Distribution(
+        "St.", 40, "Ave.", 25, "Rd.", 12, "Blvd.", 6, "Dr.", 10, "La.", 4, "Way", 5, "Trail", 3, "Ct.", 4);
+
+    private static final Distribution PET_NAMES = new Distribution(
+        "Bella", 120, "Max", 115, "Luna", 110, "Charlie", 100, "Lucy", 95, "Cooper", 80, "Bailey", 75,
+        "Daisy", 75, "Sadie", 65, "Lola", 60, "Buddy", 60, "Molly", 60, "Stella", 55, "Tucker", 50, "Bear", 50,
+        "Zoe", 50, "Duke", 45, "Harley", 45, "Maggie", 45, "Jax", 40, "Bentley", 40, "Milo", 45, "Oliver", 55,
+        "Chloe", 40, "Leo", 50, "Kitty", 35, "Simba", 35, "Tiger", 30, "Smokey", 30, "Oreo", 30, "Pepper", 28,
+        "Coco", 30, "Ginger", 25, "Shadow", 28, "Rosy", 12, "Basil", 10, "Iggy", 5, "George", 15, "Samantha", 12,
+        "Jewel", 8, "Sly", 4, "Lucky", 20, "Mulligan", 3, "Freddy", 8, "Nibbles", 6, "Peanut", 18, "Rocky", 35,
+        "Gizmo", 15, "Pumpkin", 16, "Ziggy", 8, "Kiwi", 10, "Sunny", 12, "Rex", 14, "Spike", 10, "Noodle", 6);
+
+    /**
+     * Weights of the pet types, by identifier in the seed data: cat, dog, lizard, snake, bird and hamster. The types
+     * added after the seed data are weighted as rare.
+     */
+    private static final int[] TYPE_WEIGHTS = {38, 45, 2, 2, 8, 5};
+
+    private static final Distribution DESCRIPTIONS = new Distribution(
+        "annual checkup", 300, "rabies shot", 160, "vaccination booster", 150, "dental cleaning", 60,
+        "flea treatment", 50, "skin allergy", 40, "ear infection", 45, "limping", 30, "vomiting", 35,
+        "diarrhea", 30, "weight check", 40, "neutered", 15, "spayed", 15, "microchip", 20, "nail trim", 35,
+        "x-ray", 12, "blood test", 25, "eye infection", 15, "wound care", 18, "post-surgery follow-up", 20,
+        "broken leg", 4, "tooth extraction", 8, "behavioral consultation", 6, "senior wellness exam", 20);
+
+    private static final String[] VET_SURNAME_SUFFIXES = {"", "-Clark", "-Reyes", "-Ward"};
+
+    private final long seed;
+
+    private int owners = 1000;
+
+    private double petsPerOwner = 3;
+
+    private double visitsPerPet = 6.67;
+
+    private int vets = 50;
+
+    public DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public int getOwners() {
+        return owners;
+    }
+
+    /**
+     * @param owners number of owners to generate
+     */
+    public void setOwners(int owners) {
+        this.owners = owners;
+    }
+
+    public double getPetsPerOwner() {
+        return petsPerOwner;
+    }
+
+    /**
+     * @param petsPerOwner average number of pets of an owner, at least 1
+     */
+    public void setPetsPerOwner(double petsPerOwner) {
+        if (petsPerOwner < 1) {
+            throw new IllegalArgumentException("An owner has at least one pet: " + petsPerOwner);
+        }
+        this.petsPerOwner = petsPerOwner;
+    }
+
+    public double getVisitsPerPet() {
+        return visitsPerPet;
+    }
+
+    /**
+     * @param visitsPerPet average number of visits of a pet
+     */
+    public void setVisitsPerPet(double visitsPerPet) {
+        this.visitsPerPet = visitsPerPet;
+    }
+
+    public int getVets() {
+        return vets;
+    }
+
+    /**
+     * @param vets number of vets to generate
+     */
+    public void setVets(int vets) {
+        this.vets = vets;
+    }
+
+    /**
+     * Bulk loads the dataset into the <code>hsqldb</code> or <code>mysql</code> schema.
+     *
+     * @see JdbcDatasetWriter
+     */
+    public Counts load(DataSource dataSource) {
+        try (JdbcDatasetWriter writer = new JdbcDatasetWriter(dataSource)) {
+            return generate(writer);
+        }
+    }
+
+    public Counts generate(DatasetWriter writer) {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        Counts counts = new Counts();
+
+        List<Integer> specialtyIds = writer.ids("specialties");
+        int vetId = writer.firstId("vets");
+        int workingHoursId = writer.firstId("working_hours");
+        for (int i = 0; i < this.vets; i++, vetId++) {
+            String lastName = LAST_NAMES.next(random)
+                + VET_SURNAME_SUFFIXES[random.nextInt(VET_SURNAME_SUFFIXES.length)];
+            writer.vet(vetId, FIRST_NAMES.next(random), lastName);
+            counts.vets++;
+            // Two vets out of three have specialties
+            if (!specialtyIds.isEmpty() && random.nextInt(3) > 0) {
+                int specialties = 1 + random.nextInt(Math.min(3, specialtyIds.size()));
+                int first = random.nextInt(specialtyIds.size());
+                for (int s = 0; s < specialties; s++) {
+                    writer.vetSpecialty(vetId, specialtyIds.get((first + s) % specialtyIds.size()));
+                }
+            }
+            // Two periods of four hours on five consecutive days, starting between 7:00 and 10:00
+            LocalTime start = LocalTime.of(7 + random.nextInt(4), 0);
+            int firstDay = random.nextInt(3);
+            for (int day = firstDay; day < firstDay + 5; day++) {
+                writer.workingHours(workingHoursId++, vetId, DayOfWeek.of(1 + day), start, start.plusHours(4));
+                writer.workingHours(workingHoursId++, vetId, DayOfWeek.of(1 + day), start.plusHours(5),
+                    start.plusHours(9));
+            }
+        }
+
+        List<Integer> typeIds = writer.ids("types");
+        if (typeIds.isEmpty()) {
+            throw new IllegalStateException("The types table is empty: load the seed data first");
+        }
+        Distribution types = typeDistribution(typeIds);
+        double extraPetProbability = 1 / this.petsPerOwner;
+        double visitScale = paretoScale(this.visitsPerPet);
+
+        int ownerId = writer.firstId("owners");
+        int petId = writer.firstId("pets");
+        int visitId = writer.firstId("visits");
+        for (int i = 0; i < this.owners; i++, ownerId++) {
+            writer.owner(ownerId, FIRST_NAMES.next(random), LAST_NAMES.next(random), address(random),
+                CITIES.next(random), telephone(random));
+            counts.owners++;
+
+            // Geometric number of pets, at least one
+            int pets = 1;
+            while (random.nextDouble() >= extraPetProbability) {
+                pets++;
+            }
+            for (int p = 0; p < pets; p++, petId++) {
+                long birthDay = REFERENCE_DAY - DAY * (30 + random.nextInt(15 * 365));
+                writer.pet(petId, PET_NAMES.next(random), new Date(birthDay), types.nextId(random), ownerId);
+                counts.pets++;
+
+                // Pareto distributed number of visits, randomly rounded to keep the average
+                double pareto = visitScale / Math.pow(1 - random.nextDouble(), 1 / PARETO_SHAPE);
+                int visits = (int) Math.min(MAX_VISITS_PER_PET, pareto + random.nextDouble());
+                long ageInDays = (REFERENCE_DAY - birthDay) / DAY;
+                for (int v = 0; v < visits; v++, visitId++) {
+                    long visitDay = birthDay + DAY * (1 + random.nextLong(ageInDays));
+                    writer.visit(visitId, petId, new Date(visitDay), DESCRIPTIONS.next(random));
+                    counts.visits++;
+                }
+            }
+        }
+        writer.flush();
+        return counts;
+    }
+
+    /**
+     * @return the scale of the Pareto distribution whose average, once capped to {@link #MAX_VISITS_PER_PET}, is the
+     * given one
+     */
+    private static double paretoScale(double average) {
+        double scale = average * (PARETO_SHAPE - 1) / PARETO_SHAPE;
+        for (int i = 0; i < 20 && scale < MAX_VISITS_PER_PET; i++) {
+            double cappedAverage = (scale * PARETO_SHAPE
+                - Math.pow(scale, PARETO_SHAPE) * Math.pow(MAX_VISITS_PER_PET, 1 - PARETO_SHAPE)) / (PARETO_SHAPE - 1);
+            scale *= average / cappedAverage;
+        }
+        return scale;
+    }
+
+    private static String address(SplittableRandom random) {
+        return (1 + random.nextInt(9999)) + " " + STREETS.next(random) + " " + STREET_TYPES.next(random);
+    }
+
+    private static String telephone(SplittableRandom random) {
+        return "608555" + String.format("%04d", random.nextInt(10000));
+    }
+
+    private static Distribution typeDistribution(List<Integer> typeIds) {
+        Object[] weights = new Object[typeIds.size() * 2];
+        for (int i = 0; i < typeIds.size(); i++) {
+            Integer id = typeIds.get(i);
+            weights[2 * i] = id;
+            weights[2 * i + 1] = id >= 1 && id <= TYPE_WEIGHTS.length ? TYPE_WEIGHTS[id - 1] : 1;
+        }
+        return new Distribution(weights);
+    }
+
+    /**
+     * Number of rows generated per table.
+     */
+    public static class Counts {
+
+        private int vets;
+
+        private int owners;
+
+        private int pets;
+
+        private int visits;
+
+        public int getVets() {
+            return vets;
+        }
+
+        public int getOwners() {
+            return owners;
+        }
+
+        public int getPets() {
+            return pets;
+        }
+
+        public int getVisits() {
+            return visits;
+        }
+
+        @Override
+        public String toString() {
+            return vets + " vets, " + owners + " owners, " + pets + " pets, " + visits + " visits";
+        }
+    }
+
+    /**
+     * Weighted choice among values, by binary search of the cumulative weights.
+     */
+    private static final class Distribution {
+
+        private final Object[] values;
+
+        private final long[] cumulativeWeights;
+
+        /**
+         * @param valuesAndWeights alternating values and their integer weights
+         */
+        private Distribution(Object... valuesAndWeights) {
+            int size = valuesAndWeights.length / 2;
+            this.values = new Object[size];
+            this.cumulativeWeights = new long[size];
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                this.values[i] = valuesAndWeights[2 * i];
+                total += (Integer) valuesAndWeights[2 * i + 1];
+                this.cumulativeWeights[i] = total;
+            }
+        }
+
+        private Object nextValue(SplittableRandom random) {
+            long target = random.nextLong(this.cumulativeWeights[this.cumulativeWeights.length - 1]);
+            int index = Arrays.binarySearch(this.cumulativeWeights, target + 1);
+            return this.values[index >= 0 ? index : -index - 1];
+        }
+
+        private String next(SplittableRandom random) {
+            return (String) nextValue(random);
+        }
+
+        private int nextId(SplittableRandom random) {
+            return (Integer) nextValue(random);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.dataset;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Destination of the rows produced by a {@link DatasetGenerator}, in foreign key order: vets with their specialties
+ * and working hours, then each owner followed by its pets and their visits.
+ */
+public interface DatasetWriter {
+
+    /**
+     * @param table name of the table
+     * @return the first identifier free in the table, the generated rows use the following ones
+     */
+    int firstId(String table);
+
+    /**
+     * @param table name of a reference table: <code>types</code> or <code>specialties</code>
+     * @return the identifiers of its rows
+     */
+    List<Integer> ids(String table);
+
+    void vet(int id, String firstName, String lastName);
+
+    void vetSpecialty(int vetId, int specialtyId);
+
+    void workingHours(int id, int vetId, DayOfWeek day, LocalTime start, LocalTime end);
+
+    void owner(int id, String firstName, String lastName, String address, String city, String telephone);
+
+    void pet(int id, String name, Date birthDate, int typeId, int ownerId);
+
+    void visit(int id, int petId, Date date, String description);
+
+    /**
+     * Writes the pending rows.
+     */
+    void flush();
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.dataset;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+/**
+ * Bulk loads the generated rows with multi-row <code>INSERT</code> statements of {@value #ROWS_PER_STATEMENT} rows,
+ * understood by both HSQLDB and MySQL.
+ * <p>
+ * Within a Spring managed transaction, as in a transactional test, the rows are written on the transaction connection
+ * and rolled back with it. Otherwise the writer commits every {@value #STATEMENTS_PER_COMMIT} statements. On MySQL
+ * the unique and foreign key checks are disabled for the session during the load.
+ */
+public class JdbcDatasetWriter implements DatasetWriter, AutoCloseable {
+
+    static final int ROWS_PER_STATEMENT = 500;
+
+    static final int STATEMENTS_PER_COMMIT = 50;
+
+    private final DataSource dataSource;
+
+    private final Connection connection;
+
+    private final boolean transactional;
+
+    private final boolean autoCommit;
+
+    private final boolean mysql;
+
+    private final SQLExceptionTranslator exceptionTranslator;
+
+    private final Table vets = new Table("vets", "id, first_name, last_name", 3);
+
+    private final Table vetSpecialties = new Table("vet_specialties", "vet_id, specialty_id", 2);
+
+    private final Table workingHours = new Table("working_hours", "id, vet_id, day_of_week, start_time, end_time", 5);
+
+    private final Table owners = new Table("owners", "id, first_name, last_name, address, city, telephone", 6);
+
+    private final Table pets = new Table("pets", "id, name, birth_date, type_id, owner_id", 5);
+
+    private final Table visits = new Table("visits", "id, pet_id, visit_date, description", 4);
+
+    private int uncommittedStatements;
+
+    public JdbcDatasetWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+        this.connection = DataSourceUtils.getConnection(dataSource);
+        this.transactional = DataSourceUtils.isConnectionTransactional(this.connection, dataSource);
+        try {
+            this.mysql = this.connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            this.autoCommit = this.connection.getAutoCommit();
+            if (!this.transactional && this.autoCommit) {
+                this.connection.setAutoCommit(false);
+            }
+            if (this.mysql) {
+                execute("SET unique_checks = 0, foreign_key_checks = 0");
+            }
+        } catch (SQLException ex) {
+            DataSourceUtils.releaseConnection(this.connection, dataSource);
+            throw this.exceptionTranslator.translate("Preparing the bulk load", null, ex);
+        }
+    }
+
+    @Override
+    public int firstId(String table) {
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1) + 1;
+        } catch (SQLException ex) {
+            throw this.exceptionTranslator.translate("Reading the last identifier of " + table, null, ex);
+        }
+    }
+
+    @Override
+    public List<Integer> ids(String table) {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM " + table + " ORDER BY id")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getInt(1));
+            }
+            return ids;
+        } catch (SQLException ex) {
+            throw this.exceptionTranslator.translate("Reading the identifiers of " + table, null, ex);
+        }
+    }
+
+    @Override
+    public void vet(int id, String firstName, String lastName) {
+        this.vets.add(id, firstName, lastName);
+    }
+
+    @Override
+    public void vetSpecialty(int vetId, int specialtyId) {
+        this.vetSpecialties.add(vetId, specialtyId);
+    }
+
+    @Override
+    public void workingHours(int id, int vetId, DayOfWeek day, LocalTime start, LocalTime end) {
+        this.workingHours.add(id, vetId, day.getValue(), Time.valueOf(start), Time.valueOf(end));
+    }
+
+    @Override
+    public void owner(int id, String firstName, String lastName, String address, String city, String telephone) {
+        this.owners.add(id, firstName, lastName, address, city, telephone);
+    }
+
+    @Override
+    public void pet(int id, String name, Date birthDate, int typeId, int ownerId) {
+        this.pets.add(id, name, new java.sql.Date(birthDate.getTime()), typeId, ownerId);
+    }
+
+    @Override
+    public void visit(int id, int petId, Date date, String description) {
+        this.visits.add(id, petId, new java.sql.Date(date.getTime()), description);
+    }
+
+    /**
+     * Writes the pending rows of every table, parents first, and commits unless in a Spring managed transaction.
+     */
+    @Override
+    public void flush() {
+        this.vets.flush();
+        this.vetSpecialties.flush();
+        this.workingHours.flush();
+        this.owners.flush();
+        this.pets.flush();
+        this.visits.flush();
+        commit();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (this.mysql) {
+                execute("SET unique_checks = 1, foreign_key_checks = 1");
+            }
+            if (!this.transactional) {
+                this.connection.rollback();
+                this.connection.setAutoCommit(this.autoCommit);
+            }
+        } catch (SQLException ex) {
+            throw this.exceptionTranslator.translate("Completing the bulk load", null, ex);
+        } finally {
+            DataSourceUtils.releaseConnection(this.connection, this.dataSource);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private void commit() {
+        if (this.transactional || this.uncommittedStatements == 0) {
+            return;
+        }
+        try {
+            this.connection.commit();
+            this.uncommittedStatements = 0;
+        } catch (SQLException ex) {
+            throw this.exceptionTranslator.translate("Committing the bulk load", null, ex);
+        }
+    }
+
+    /**
+     * Pending rows of a table, written once a statement is full. A full statement of the parent tables is written
+     * before the one of their children, so the foreign keys are satisfied without deferring the checks.
+     */
+    private final class Table {
+
+        private final String name;
+
+        private final int columns;
+
+        private final String fullInsert;
+
+        private final String columnList;
+
+        private final Object[] values;
+
+        private int rows;
+
+        private Table(String name, String columnList, int columns) {
+            this.name = name;
+            this.columnList = columnList;
+            this.columns = columns;
+            this.values = new Object[ROWS_PER_STATEMENT * columns];
+            this.fullInsert = insert(ROWS_PER_STATEMENT);
+        }
+
+        private void add(Object... row) {
+            if (this.rows == ROWS_PER_STATEMENT) {
+                flushParents(this);
+                write(this.fullInsert);
+            }
+            System.arraycopy(row, 0, this.values, this.rows * this.columns, this.columns);
+            this.rows++;
+        }
+
+        private void flush() {
+            if (this.rows > 0) {
+                write(this.rows == ROWS_PER_STATEMENT ? this.fullInsert : insert(this.rows));
+            }
+        }
+
+        private String insert(int rows) {
+            StringBuilder row = new StringBuilder("(?");
+            for (int i = 1; i < this.columns; i++) {
+                row.append(", ?");
+            }
+            row.append(')');
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(this.name)
+                .append(" (").append(this.columnList).append(") VALUES ").append(row);
+            for (int i = 1; i < rows; i++) {
+                sql.append(", ").append(row);
+            }
+            return sql.toString();
+        }
+
+        private void write(String sql) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < this.rows * this.columns; i++) {
+                    statement.setObject(i + 1, this.values[i]);
+                }
+                statement.executeUpdate();
+            } catch (SQLException ex) {
+                throw exceptionTranslator.translate("Bulk insert into " + this.name, null, ex);
+            }
+            Arrays.fill(this.values, null);
+            this.rows = 0;
+            if (++uncommittedStatements >= STATEMENTS_PER_COMMIT) {
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending rows of the tables referenced by the given one.
+     */
+    private void flushParents(Table table) {
+        if (table == this.vetSpecialties || table == this.workingHours) {
+            this.vets.flush();
+        } else if (table == this.pets) {
+            this.owners.flush();
+        } else if (table == this.visits) {
+            this.owners.flush();
+            this.pets.flush();
+        }
+    }
+
+}
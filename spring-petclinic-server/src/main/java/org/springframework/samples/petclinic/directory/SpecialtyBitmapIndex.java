@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.directory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+
+/**
+ * In-memory index of the vets by specialty.
+ * <p>
+ * Each specialty has a bitmap of the ids of its vets, so a filter on several specialties is a few word-wide AND or
+ * OR operations, and the vets come out ordered by id for paging. Vets and specialties are put and removed one at a
+ * time, as they change in the database.
+ */
+public class SpecialtyBitmapIndex {
+
+    private final Map<Integer, Vet> vets = new HashMap<>();
+
+    private final BitSet allVets = new BitSet();
+
+    private final Map<Integer, BitSet> vetsBySpecialty = new HashMap<>();
+
+    /**
+     * Specialties of each vet, to clear its bits when it changes
+     */
+    private final Map<Integer, int[]> specialtiesByVet = new HashMap<>();
+
+    private final Map<String, Integer> specialtyIds = new HashMap<>();
+
+    private final Map<Integer, String> specialtyNames = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or renames a specialty.
+     */
+    public void putSpecialty(int id, String name) {
+        this.lock.writeLock().lock();
+        try {
+            String previousName = this.specialtyNames.put(id, name);
+            if (previousName != null) {
+                this.specialtyIds.remove(previousName);
+            }
+            this.specialtyIds.put(name, id);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSpecialty(int id) {
+        this.lock.writeLock().lock();
+        try {
+            String name = this.specialtyNames.remove(id);
+            if (name != null) {
+                this.specialtyIds.remove(name);
+            }
+            this.vetsBySpecialty.remove(id);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a vet, or replaces it and its specialties.
+     */
+    public void putVet(Vet vet) {
+        int vetId = vet.getId();
+        List<Specialty> specialties = vet.getSpecialties();
+        int[] specialtyIds = new int[specialties.size()];
+        this.lock.writeLock().lock();
+        try {
+            clearSpecialties(vetId);
+            for (int i = 0; i < specialtyIds.length; i++) {
+                Specialty specialty = specialties.get(i);
+                specialtyIds[i] = specialty.getId();
+                if (!this.specialtyNames.containsKey(specialty.getId())) {
+                    this.specialtyNames.put(specialty.getId(), specialty.getName());
+                    this.specialtyIds.put(specialty.getName(), specialty.getId());
+                }
+                this.vetsBySpecialty.computeIfAbsent(specialty.getId(), id -> new BitSet()).set(vetId);
+            }
+            this.specialtiesByVet.put(vetId, specialtyIds);
+            this.vets.put(vetId, vet);
+            this.allVets.set(vetId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void removeVet(int vetId) {
+        this.lock.writeLock().lock();
+        try {
+            clearSpecialties(vetId);
+            this.specialtiesByVet.remove(vetId);
+            this.vets.remove(vetId);
+            this.allVets.clear(vetId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void clearSpecialties(int vetId) {
+        int[] previousSpecialties = this.specialtiesByVet.get(vetId);
+        if (previousSpecialties != null) {
+            for (int specialtyId : previousSpecialties) {
+                BitSet vets = this.vetsBySpecialty.get(specialtyId);
+                if (vets != null) {
+                    vets.clear(vetId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the vets having the given specialties.
+     *
+     * @param specialties names of the specialties, every vet if empty
+     * @param matchAll whether the vets must have all the specialties, or any of them
+     * @param pageable page of the vets, ordered by id
+     * @return the page of vets, and their total number
+     */
+    public Page<Vet> findVets(Collection<String> specialties, boolean matchAll, Pageable pageable) {
+        this.lock.readLock().lock();
+        try {
+            BitSet matching = match(specialties, matchAll);
+            List<Vet> content = new ArrayList<>(pageable.getPageSize());
+            int vetId = matching.nextSetBit(0);
+            for (long skipped = 0; vetId >= 0 && skipped < pageable.getOffset(); skipped++) {
+                vetId = matching.nextSetBit(vetId + 1);
+            }
+            while (vetId >= 0 && content.size() < pageable.getPageSize()) {
+                content.add(this.vets.get(vetId));
+                vetId = matching.nextSetBit(vetId + 1);
+            }
+            return new PageImpl<>(content, pageable, matching.cardinality());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(Collection<String> specialties, boolean matchAll) {
+        if (specialties.isEmpty()) {
+            return this.allVets;
+        }
+        BitSet matching = null;
+        for (String specialty : specialties) {
+            Integer specialtyId = this.specialtyIds.get(specialty);
+            BitSet vets = specialtyId == null ? null : this.vetsBySpecialty.get(specialtyId);
+            if (vets == null) {
+                if (matchAll) {
+                    return new BitSet();
+                }
+            } else if (matching == null) {
+                matching = (BitSet) vets.clone();
+            } else if (matchAll) {
+                matching.and(vets);
+            } else {
+                matching.or(vets);
+            }
+        }
+        return matching == null ? new BitSet() : matching;
+    }
+
+}
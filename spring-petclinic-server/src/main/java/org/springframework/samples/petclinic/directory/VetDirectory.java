@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.directory;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.cache.CacheInvalidationBus;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.repository.VetRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds the vets by specialty.
+ * <p>
+ * The searches only read the {@link SpecialtyBitmapIndex}, loaded from the database when the application is ready,
+ * then updated whenever a vet or a specialty is committed. It only holds the vets of the default shard.
+ */
+@Service
+public class VetDirectory {
+
+    private static final Log logger = LogFactory.getLog(VetDirectory.class);
+
+    private final VetRepository vetRepository;
+
+    private volatile SpecialtyBitmapIndex index;
+
+    public VetDirectory(VetRepository vetRepository, EntityManagerFactory entityManagerFactory,
+                        CacheInvalidationBus cacheInvalidationBus) {
+        this.vetRepository = vetRepository;
+        VetIndexingListener listener = new VetIndexingListener(this, cacheInvalidationBus);
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, listener);
+        listeners.appendListeners(EventType.POST_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_DELETE, listener);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+    }
+
+    /**
+     * Loads the index before the first search.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        index();
+    }
+
+    private SpecialtyBitmapIndex index() {
+        SpecialtyBitmapIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = load();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private SpecialtyBitmapIndex load() {
+        long start = System.currentTimeMillis();
+        SpecialtyBitmapIndex index = new SpecialtyBitmapIndex();
+        int vets = 0;
+        for (Vet vet : this.vetRepository.findAll()) {
+            index.putVet(vet);
+            vets++;
+        }
+        logger.info("Indexed " + vets + " vets in " + (System.currentTimeMillis() - start) + " ms");
+        return index;
+    }
+
+    /**
+     * @see SpecialtyBitmapIndex#findVets(Collection, boolean, Pageable)
+     */
+    public Page<Vet> findVets(Collection<String> specialties, boolean matchAll, Pageable pageable) {
+        return index().findVets(specialties, matchAll, pageable);
+    }
+
+    void vetSaved(Vet vet) {
+        SpecialtyBitmapIndex index = this.index;
+        if (index != null) {
+            index.putVet(vet);
+        }
+    }
+
+    void vetRemoved(Vet vet) {
+        SpecialtyBitmapIndex index = this.index;
+        if (index != null) {
+            index.removeVet(vet.getId());
+        }
+    }
+
+    void specialtySaved(Specialty specialty) {
+        SpecialtyBitmapIndex index = this.index;
+        if (index != null) {
+            index.putSpecialty(specialty.getId(), specialty.getName());
+        }
+    }
+
+    void specialtyRemoved(Specialty specialty) {
+        SpecialtyBitmapIndex index = this.index;
+        if (index != null) {
+            index.removeSpecialty(specialty.getId());
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.directory;
+
+import java.util.function.Consumer;
+
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.samples.petclinic.cache.CacheInvalidationBus;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate listener updating the {@link VetDirectory} once the changes of the vets and specialties are committed,
+ * and invalidating the <code>vets</code> cache of every instance.
+ * <p>
+ * A vet whose specialties changed is not dirty itself, so the changes of its specialty collection are listened to
+ * as well.
+ */
+class VetIndexingListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+    PostCollectionRecreateEventListener, PostCollectionUpdateEventListener {
+
+    private static final String VETS_CACHE = "vets";
+
+    private final VetDirectory vetDirectory;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    VetIndexingListener(VetDirectory vetDirectory, CacheInvalidationBus cacheInvalidationBus) {
+        this.vetDirectory = vetDirectory;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Vet) {
+            afterCommit(directory -> directory.vetRemoved((Vet) entity));
+            this.cacheInvalidationBus.invalidateAll(VETS_CACHE);
+        } else if (entity instanceof Specialty) {
+            afterCommit(directory -> directory.specialtyRemoved((Specialty) entity));
+            this.cacheInvalidationBus.invalidateAll(VETS_CACHE);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof Vet) {
+            saved(event.getAffectedOwnerOrNull());
+        }
+    }
+
+    private void saved(Object entity) {
+        if (entity instanceof Vet) {
+            afterCommit(directory -> directory.vetSaved((Vet) entity));
+            this.cacheInvalidationBus.invalidateAll(VETS_CACHE);
+        } else if (entity instanceof Specialty) {
+            afterCommit(directory -> directory.specialtySaved((Specialty) entity));
+            this.cacheInvalidationBus.invalidateAll(VETS_CACHE);
+        }
+    }
+
+    private void afterCommit(Consumer<VetDirectory> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    update.accept(vetDirectory);
+                }
+            });
+        } else {
+            update.accept(this.vetDirectory);
+        }
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Directory of the vets: the vets of every specialty are indexed in memory as bitmaps, kept in sync with the
+ * database, to filter the vets without joining their specialties.
+ *
+ */
+package org.springframework.samples.petclinic.directory;
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.feed;
+
+import org.springframework.samples.petclinic.outbox.OutboxEvent;
+
+/**
+ * Change streamed to the browsers, with the owner and pet it belongs to so that they can filter it.
+ */
+public class FeedEvent {
+
+    private final long id;
+
+    private final OutboxEvent.AggregateType type;
+
+    private final int aggregateId;
+
+    private final OutboxEvent.EventType eventType;
+
+    private final int ownerId;
+
+    private final Integer petId;
+
+    public FeedEvent(long id, OutboxEvent.AggregateType type, int aggregateId, OutboxEvent.EventType eventType,
+                     int ownerId, Integer petId) {
+        this.id = id;
+        this.type = type;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.ownerId = ownerId;
+        this.petId = petId;
+    }
+
+    /**
+     * @return the id of the outbox event
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public OutboxEvent.AggregateType getType() {
+        return this.type;
+    }
+
+    public int getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public OutboxEvent.EventType getEventType() {
+        return this.eventType;
+    }
+
+    public int getOwnerId() {
+        return this.ownerId;
+    }
+
+    /**
+     * @return the id of the pet, or <code>null</code> for a change of the owner
+     */
+    public Integer getPetId() {
+        return this.petId;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.feed;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Connection of a browser to the live feed, with the events waiting to be sent to it.
+ * <p>
+ * Events are queued by the outbox relay and sent by a task of the executor, so a slow browser never blocks the
+ * relay. The queue is a ring buffer: once full, the oldest event is dropped and the browser is sent a
+ * <code>resync</code> event instead of the events it missed, telling it to reload what it displays.
+ */
+class FeedSubscription {
+
+    private final SseEmitter emitter;
+
+    private final Integer ownerId;
+
+    private final Integer petId;
+
+    private final Executor executor;
+
+    private final FeedEvent[] buffer;
+
+    private int head;
+
+    private int size;
+
+    private boolean resync;
+
+    private boolean heartbeat;
+
+    private boolean sending;
+
+    private volatile boolean closed;
+
+    FeedSubscription(SseEmitter emitter, Integer ownerId, Integer petId, int bufferSize, Executor executor) {
+        this.emitter = emitter;
+        this.ownerId = ownerId;
+        this.petId = petId;
+        this.executor = executor;
+        this.buffer = new FeedEvent[bufferSize];
+    }
+
+    SseEmitter getEmitter() {
+        return this.emitter;
+    }
+
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    void close() {
+        this.closed = true;
+    }
+
+    /**
+     * @return whether the event belongs to the owner or the pet followed
+     */
+    boolean matches(FeedEvent event) {
+        return (this.ownerId == null || this.ownerId == event.getOwnerId())
+            && (this.petId == null || this.petId.equals(event.getPetId()));
+    }
+
+    void offer(FeedEvent event) {
+        synchronized (this) {
+            if (this.size == this.buffer.length) {
+                this.buffer[this.head] = null;
+                this.head = (this.head + 1) % this.buffer.length;
+                this.size--;
+                this.resync = true;
+            }
+            this.buffer[(this.head + this.size) % this.buffer.length] = event;
+            this.size++;
+        }
+        scheduleSending();
+    }
+
+    /**
+     * Sends a comment, unless events are waiting to be sent.
+     */
+    void heartbeat() {
+        synchronized (this) {
+            this.heartbeat = true;
+        }
+        scheduleSending();
+    }
+
+    private void scheduleSending() {
+        synchronized (this) {
+            if (this.sending || this.closed) {
+                return;
+            }
+            this.sending = true;
+        }
+        this.executor.execute(this::send);
+    }
+
+    private void send() {
+        while (!this.closed) {
+            SseEmitter.SseEventBuilder message;
+            synchronized (this) {
+                if (this.resync) {
+                    message = SseEmitter.event().name("resync").data("");
+                    clear();
+                } else if (this.size > 0) {
+                    FeedEvent event = this.buffer[this.head];
+                    this.buffer[this.head] = null;
+                    this.head = (this.head + 1) % this.buffer.length;
+                    this.size--;
+                    message = SseEmitter.event().id(String.valueOf(event.getId())).name("change")
+                        .data(event, MediaType.APPLICATION_JSON);
+                } else if (this.heartbeat) {
+                    message = SseEmitter.event().comment("heartbeat");
+                } else {
+                    this.sending = false;
+                    return;
+                }
+                this.heartbeat = false;
+            }
+            try {
+                this.emitter.send(message);
+            } catch (IOException | IllegalStateException ex) {
+                // The browser went away, or the emitter timed out: the container completes the emitter
+                this.closed = true;
+            }
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < this.buffer.length; i++) {
+            this.buffer[i] = null;
+        }
+        this.head = 0;
+        this.size = 0;
+        this.resync = false;
+    }
+
+}
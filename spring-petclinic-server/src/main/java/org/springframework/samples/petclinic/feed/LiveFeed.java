@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.feed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.outbox.OutboxEvent;
+import org.springframework.samples.petclinic.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the outbox events of the owners, pets and visits to the connected browsers.
+ * <p>
+ * The owner and pet of each event are looked up once per batch, and only when a browser is connected. Events are
+ * then queued for the subscriptions following their owner or pet, and sent by a small pool of threads, apart from the
+ * outbox relay.
+ */
+@Component
+public class LiveFeed implements OutboxSubscriber {
+
+    /**
+     * Browsers reconnect once the stream times out
+     */
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final PetclinicProperties.Feed properties;
+
+    private final List<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService executor;
+
+    public LiveFeed(NamedParameterJdbcTemplate jdbcTemplate, PetclinicProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.getFeed();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+            task -> {
+                Thread thread = new Thread(task, "live-feed-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        long heartbeatInterval = this.properties.getHeartbeatInterval().toMillis();
+        this.executor.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval, heartbeatInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+        this.subscriptions.forEach(subscription -> subscription.getEmitter().complete());
+    }
+
+    /**
+     * Opens a stream of the changes of the given owner or pet, or of every change if both are <code>null</code>.
+     */
+    public SseEmitter subscribe(Integer ownerId, Integer petId) {
+        if (this.subscriptions.size() >= this.properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(TIMEOUT);
+        FeedSubscription subscription = new FeedSubscription(emitter, ownerId, petId,
+            this.properties.getBufferSize(), this.executor);
+        this.subscriptions.add(subscription);
+        Runnable unsubscribe = () -> {
+            subscription.close();
+            this.subscriptions.remove(subscription);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(ex -> unsubscribe.run());
+        return emitter;
+    }
+
+    int getSubscriberCount() {
+        return this.subscriptions.size();
+    }
+
+    @Override
+    public String getName() {
+        return "live-feed";
+    }
+
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        this.subscriptions.removeIf(FeedSubscription::isClosed);
+        if (this.subscriptions.isEmpty()) {
+            return;
+        }
+        for (FeedEvent event : toFeedEvents(events)) {
+            for (FeedSubscription subscription : this.subscriptions) {
+                if (subscription.matches(event)) {
+                    subscription.offer(event);
+                }
+            }
+        }
+    }
+
+    private void heartbeat() {
+        this.subscriptions.forEach(FeedSubscription::heartbeat);
+    }
+
+    /**
+     * Looks up the owner and pet of the events.
+     */
+    private List<FeedEvent> toFeedEvents(List<OutboxEvent> events) {
+        List<Integer> visitIds = new ArrayList<>();
+        List<Integer> petIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.getAggregateType() == OutboxEvent.AggregateType.VISIT) {
+                visitIds.add(event.getAggregateId());
+            } else if (event.getAggregateType() == OutboxEvent.AggregateType.PET) {
+                petIds.add(event.getAggregateId());
+            }
+        }
+        Map<Integer, int[]> visits = new HashMap<>();
+        if (!visitIds.isEmpty()) {
+            this.jdbcTemplate.query("SELECT visits.id, visits.pet_id, pets.owner_id FROM visits "
+                    + "JOIN pets ON pets.id = visits.pet_id WHERE visits.id IN (:ids)",
+                Collections.singletonMap("ids", visitIds),
+                rs -> {
+                    visits.put(rs.getInt(1), new int[]{rs.getInt(2), rs.getInt(3)});
+                });
+        }
+        Map<Integer, Integer> petOwners = new HashMap<>();
+        if (!petIds.isEmpty()) {
+            this.jdbcTemplate.query("SELECT id, owner_id FROM pets WHERE id IN (:ids)",
+                Collections.singletonMap("ids", petIds), rs -> {
+                    petOwners.put(rs.getInt(1), rs.getInt(2));
+                });
+        }
+        List<FeedEvent> feedEvents = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            int id = event.getAggregateId();
+            switch (event.getAggregateType()) {
+                case OWNER:
+                    feedEvents.add(feedEvent(event, id, null));
+                    break;
+                case PET:
+                    if (petOwners.containsKey(id)) {
+                        feedEvents.add(feedEvent(event, petOwners.get(id), id));
+                    }
+                    break;
+                case VISIT:
+                    int[] visit = visits.get(id);
+                    if (visit != null) {
+                        feedEvents.add(feedEvent(event, visit[1], visit[0]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return feedEvents;
+    }
+
+    private static FeedEvent feedEvent(OutboxEvent event, int ownerId, Integer petId) {
+        return new FeedEvent(event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(),
+            ownerId, petId);
+    }
+
+}
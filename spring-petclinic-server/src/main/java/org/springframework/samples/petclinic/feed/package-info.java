@@ -0,0 +1,6 @@
+/**
+ *
+ * Live feed: the outbox events of the owners, pets and visits, streamed to the browsers as server-sent events.
+ *
+ */
+package org.springframework.samples.petclinic.feed;
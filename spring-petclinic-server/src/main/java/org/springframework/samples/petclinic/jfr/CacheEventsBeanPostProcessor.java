@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Proxies the cache managers, keeping their class, so that the lookups of their caches emit a
+ * {@link CacheLookupEvent}. The caches keep their class too, which the cache metrics rely on.
+ */
+public class CacheEventsBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Log logger = LogFactory.getLog(CacheEventsBeanPostProcessor.class);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CacheManager)) {
+            return bean;
+        }
+        Map<Cache, Cache> proxies = new ConcurrentHashMap<>();
+        Object proxy = proxy(bean, (MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof Cache && invocation.getMethod().getName().equals("getCache")) {
+                return proxies.computeIfAbsent((Cache) result, CacheEventsBeanPostProcessor::recordLookups);
+            }
+            return result;
+        });
+        if (proxy == null) {
+            logger.warn("Lookups of the caches of " + beanName + " not recorded");
+            return bean;
+        }
+        return proxy;
+    }
+
+    /**
+     * Records the lookups by {@link Cache#get(Object)}, which the JCache annotations use.
+     */
+    private static Cache recordLookups(Cache cache) {
+        Cache proxy = (Cache) proxy(cache, (MethodInterceptor) invocation -> {
+            if (!invocation.getMethod().getName().equals("get") || invocation.getArguments().length != 1) {
+                return invocation.proceed();
+            }
+            CacheLookupEvent event = new CacheLookupEvent();
+            if (!event.isEnabled()) {
+                return invocation.proceed();
+            }
+            event.begin();
+            Object result = invocation.proceed();
+            event.end();
+            if (event.shouldCommit()) {
+                event.cache = cache.getName();
+                event.key = String.valueOf(invocation.getArguments()[0]);
+                event.hit = result != null;
+                event.commit();
+            }
+            return result;
+        });
+        return proxy != null ? proxy : cache;
+    }
+
+    private static Object proxy(Object target, MethodInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        try {
+            return proxyFactory.getProxy(target.getClass().getClassLoader());
+        } catch (AopConfigException ex) {
+            logger.debug("Cannot proxy " + target.getClass().getName(), ex);
+            return null;
+        }
+    }
+
+}
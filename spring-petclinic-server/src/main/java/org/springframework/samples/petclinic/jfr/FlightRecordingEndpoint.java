@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Exposes the {@link FlightRecordings} under <code>/manage/jfr</code>: the running recordings, and a POST dumping
+ * their events into a file of the dump directory, to open in JDK Mission Control.
+ */
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private final FlightRecordings recordings;
+
+    public FlightRecordingEndpoint(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    @ReadOperation
+    public Map<String, Object> recordings() {
+        return this.recordings.getRecordings();
+    }
+
+    /**
+     * @return the file and its size, or an empty map when no recording is running
+     */
+    @WriteOperation
+    public Map<String, Object> dump() {
+        Map<String, Object> dump = new LinkedHashMap<>();
+        try {
+            Path file = this.recordings.dump();
+            if (file != null) {
+                dump.put("file", file.toAbsolutePath().toString());
+                dump.put("size", Files.size(file));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot dump the recordings", ex);
+        }
+        return dump;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * The continuous recording of the application, and the dumps of the recordings running in the JVM, whether started
+ * here or by <code>-XX:StartFlightRecording</code>.
+ * <p>
+ * The continuous recording combines the default settings of the JDK with those of the petclinic events in
+ * <code>jfr/petclinic.jfc</code>, and keeps the events of the last hours on disk.
+ */
+public class FlightRecordings {
+
+    static final String SETTINGS = "jfr/petclinic.jfc";
+
+    private static final Log logger = LogFactory.getLog(FlightRecordings.class);
+
+    private static final DateTimeFormatter DUMP_NAME = DateTimeFormatter.ofPattern("'petclinic-'yyyyMMdd-HHmmss'.jfr'");
+
+    private final Path dumpDirectory;
+
+    private Recording continuousRecording;
+
+    public FlightRecordings(Path dumpDirectory) {
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    public synchronized void startContinuousRecording(Duration maxAge, long maxSize) throws IOException {
+        if (this.continuousRecording != null) {
+            return;
+        }
+        Map<String, String> settings = new HashMap<>();
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(),
+            StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(Configuration.create(reader).getSettings());
+        } catch (ParseException ex) {
+            throw new IOException("Invalid recording settings " + SETTINGS, ex);
+        }
+        Recording recording = new Recording(settings);
+        recording.setName("petclinic");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize);
+        recording.start();
+        this.continuousRecording = recording;
+        logger.info("Continuous recording started, keeping " + maxAge + " and at most " + maxSize + " bytes");
+    }
+
+    public synchronized void stopContinuousRecording() {
+        if (this.continuousRecording != null) {
+            this.continuousRecording.close();
+            this.continuousRecording = null;
+        }
+    }
+
+    /**
+     * @return the recordings running in the JVM, by name
+     */
+    public Map<String, Object> getRecordings() {
+        Map<String, Object> recordings = new HashMap<>();
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            Map<String, Object> description = new HashMap<>();
+            description.put("id", recording.getId());
+            description.put("state", recording.getState());
+            description.put("start", recording.getStartTime());
+            description.put("maxAge", recording.getMaxAge());
+            description.put("maxSize", recording.getMaxSize());
+            description.put("toDisk", recording.isToDisk());
+            recordings.put(recording.getName(), description);
+        }
+        return recordings;
+    }
+
+    /**
+     * Dumps the events of all the running recordings into a new file of the dump directory.
+     *
+     * @return the file, <code>null</code> when no recording is running
+     */
+    public Path dump() throws IOException {
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return null;
+            }
+            Files.createDirectories(this.dumpDirectory);
+            Path file = this.dumpDirectory.resolve(DUMP_NAME.format(LocalDateTime.now()));
+            snapshot.dump(file);
+            return file;
+        }
+    }
+
+}
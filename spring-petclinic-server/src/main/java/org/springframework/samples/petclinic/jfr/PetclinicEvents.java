@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * The custom event types. Registered at startup, so that the recordings list them and apply their settings before
+ * the first events.
+ */
+public final class PetclinicEvents {
+
+    static final String PREFIX = "org.springframework.samples.petclinic.";
+
+    static final List<Class<? extends Event>> TYPES = Arrays.asList(
+        RestRequestEvent.class, RepositoryCallEvent.class, CacheLookupEvent.class);
+
+    private PetclinicEvents() {
+    }
+
+    public static void register() {
+        TYPES.forEach(FlightRecorder::register);
+    }
+
+}
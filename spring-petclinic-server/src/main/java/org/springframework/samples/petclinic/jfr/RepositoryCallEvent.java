@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A call of a Spring Data repository, with the entity it names and the number of entities it returns.
+ */
+@Name(PetclinicEvents.PREFIX + "RepositoryCall")
+@Label("Repository Call")
+@Category({"Petclinic", "Repository"})
+@Description("Call of a Spring Data repository")
+@StackTrace(false)
+@Threshold("10 ms")
+class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Entity Id")
+    @Description("Id of the entity given to the method, 0 when none")
+    long entityId;
+
+    @Label("Rows")
+    @Description("Number of entities returned, -1 for the methods returning nothing")
+    int rows;
+
+}
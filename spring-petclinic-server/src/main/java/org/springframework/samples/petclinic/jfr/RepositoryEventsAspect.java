@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Emits a {@link RepositoryCallEvent} for the calls of the repositories lasting longer than its threshold. When the
+ * event is disabled, a call costs a check of its state.
+ */
+@Aspect
+public class RepositoryEventsAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.samples.petclinic.repository.*Repository+.*(..))")
+    public Object recordCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = joinPoint.proceed();
+        event.end();
+        if (event.shouldCommit()) {
+            event.repository = repositoryName(joinPoint.getTarget());
+            event.method = joinPoint.getSignature().getName();
+            event.entityId = entityId(joinPoint.getArgs());
+            event.rows = ((MethodSignature) joinPoint.getSignature()).getReturnType() == void.class ? -1
+                : rows(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * The Spring Data proxy of the repository implements its interface, where the inherited methods of a
+     * <code>JpaRepository</code> would only name the latter.
+     */
+    private String repositoryName(Object target) {
+        return this.repositoryNames.computeIfAbsent(target.getClass(), targetClass ->
+            Proxy.isProxyClass(targetClass) ? AopProxyUtils.proxiedUserInterfaces(target)[0].getSimpleName()
+                : ClassUtils.getUserClass(targetClass).getSimpleName());
+    }
+
+    private static long entityId(Object[] arguments) {
+        if (arguments.length == 0) {
+            return 0;
+        }
+        Object argument = arguments[0];
+        if (argument instanceof Number) {
+            return ((Number) argument).longValue();
+        }
+        if (argument instanceof BaseEntity && ((BaseEntity) argument).getId() != null) {
+            return ((BaseEntity) argument).getId();
+        }
+        return 0;
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return result != null ? 1 : 0;
+    }
+
+}
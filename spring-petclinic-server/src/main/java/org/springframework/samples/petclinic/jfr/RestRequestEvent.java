@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A request served by the REST resources, named by the method and the path pattern.
+ */
+@Name(PetclinicEvents.PREFIX + "RestRequest")
+@Label("REST Request")
+@Category({"Petclinic", "Web"})
+@Description("Request served by a REST resource")
+@StackTrace(false)
+@Threshold("20 ms")
+class RestRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    @Description("Path pattern of the handler, the URI when no handler matched")
+    String path;
+
+    @Label("Status")
+    int status;
+
+}
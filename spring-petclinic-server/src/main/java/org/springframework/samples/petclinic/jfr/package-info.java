@@ -0,0 +1,8 @@
+/**
+ *
+ * Java Flight Recorder events of the REST requests, the repository calls and the cache lookups, above thresholds
+ * keeping their overhead negligible, and the continuous recording of the application along with its dump through
+ * /manage/jfr.
+ *
+ */
+package org.springframework.samples.petclinic.jfr;
@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.beans.support.MutableSortDefinition;
 import org.springframework.beans.support.PropertyComparator;
 
@@ -29,6 +30,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Version;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -63,6 +65,14 @@ public class Pet extends NamedEntity {
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "pet", fetch = FetchType.EAGER)
     private Set<Visit> visits;
 
+    /**
+     * Incremented by every update, see the <code>PATCH</code> of <code>PetResource</code>
+     */
+    @Version
+    @Column(name = "version")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer version;
+
 
     public void setBirthDate(Date birthDate) {
         this.birthDate = birthDate;
@@ -80,7 +90,18 @@ public class Pet extends NamedEntity {
         return this.type;
     }
 
-    protected void setOwner(Owner owner) {
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets the owner without adding the pet to its pets, which may not be loaded.
+     */
+    public void setOwner(Owner owner) {
         this.owner = owner;
     }
 
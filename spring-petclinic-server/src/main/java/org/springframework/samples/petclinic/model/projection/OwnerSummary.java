@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model.projection;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Projection of an {@link org.springframework.samples.petclinic.model.Owner} as displayed in the owner list:
+ * contact information, pet names, number of pets and date of the last visit only.
+ */
+public class OwnerSummary {
+
+    private final Integer id;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final String address;
+
+    private final String city;
+
+    private final String telephone;
+
+    private final List<PetSummary> pets = new ArrayList<>();
+
+    private final int petCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private final Date lastVisitDate;
+
+    public OwnerSummary(Integer id, String firstName, String lastName, String address, String city, String telephone,
+                        int petCount, Date lastVisitDate) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.address = address;
+        this.city = city;
+        this.telephone = telephone;
+        this.petCount = petCount;
+        this.lastVisitDate = lastVisitDate;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getTelephone() {
+        return telephone;
+    }
+
+    public List<PetSummary> getPets() {
+        return pets;
+    }
+
+    public void addPet(PetSummary pet) {
+        this.pets.add(pet);
+    }
+
+    /**
+     * @return the number of pets of the owner, which may list fewer of them when they are very many
+     */
+    public int getPetCount() {
+        return petCount;
+    }
+
+    /**
+     * @return the date of the last visit of a pet of the owner, <code>null</code> when none
+     */
+    public Date getLastVisitDate() {
+        return lastVisitDate;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.samples.petclinic.model.PetType;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Projection of a {@link org.springframework.samples.petclinic.model.Pet} with its type and owner name.
+ * The visit history is only attached when the pet is read as part of an {@link OwnerDetails}.
+ *
+ * @author Juergen Hoeller
+ * @author Ken Krebs
+ * @author Arjen Poutsma
+ */
+public class PetDetails {
+
+    private final Integer id;
+
+    private final Integer version;
+
+    private final Integer ownerId;
+
+    private final String name;
+
+    private final String owner;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private final Date birthDate;
+
+    private final PetType type;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<VisitDetails> visits;
+
+    public PetDetails(Integer id, Integer version, Integer ownerId, String name, String ownerFirstName,
+                      String ownerLastName, Date birthDate, Integer typeId, String typeName) {
+        this.id = id;
+        this.version = version;
+        this.ownerId = ownerId;
+        this.name = name;
+        this.owner = ownerFirstName + " " + ownerLastName;
+        this.birthDate = birthDate;
+        this.type = new PetType();
+        this.type.setId(typeId);
+        this.type.setName(typeName);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public Integer getOwnerId() {
+        return ownerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Date getBirthDate() {
+        return birthDate;
+    }
+
+    public PetType getType() {
+        return type;
+    }
+
+    public List<VisitDetails> getVisits() {
+        return visits;
+    }
+
+    public void setVisits(List<VisitDetails> visits) {
+        this.visits = visits;
+    }
+}
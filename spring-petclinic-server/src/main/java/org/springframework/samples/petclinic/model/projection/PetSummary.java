@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Projection of a {@link org.springframework.samples.petclinic.model.Pet} as listed next to its owner.
+ */
+public class PetSummary {
+
+    private final Integer id;
+
+    private final Integer ownerId;
+
+    private final String name;
+
+    public PetSummary(Integer id, Integer ownerId, String name) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public Integer getOwnerId() {
+        return ownerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
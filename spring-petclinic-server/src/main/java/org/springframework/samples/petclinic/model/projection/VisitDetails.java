@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model.projection;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Date;
+
+/**
+ * Projection of a {@link org.springframework.samples.petclinic.model.Visit} as displayed in a pet visit history.
+ */
+public class VisitDetails {
+
+    private final Integer id;
+
+    private final Integer petId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private final Date date;
+
+    private final String description;
+
+    public VisitDetails(Integer id, Integer petId, Date date, String description) {
+        this.id = id;
+        this.petId = petId;
+        this.date = date;
+        this.description = description;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public Integer getPetId() {
+        return petId;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
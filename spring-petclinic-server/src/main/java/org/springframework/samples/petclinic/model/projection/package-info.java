@@ -0,0 +1,8 @@
+
+/**
+ *
+ * Read-only projections of the PetClinic business objects, populated directly by JPQL constructor expressions.
+ * They never hold managed entities, so they can be serialized once the persistence context has been closed.
+ *
+ */
+package org.springframework.samples.petclinic.model.projection;
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.outbox;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.AggregateType;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.EventType;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The outbox table: events are appended in the transaction of the change they describe, so that they are committed
+ * or rolled back with it, and read by the {@link OutboxRelay} in the order of their ids.
+ */
+@Repository
+public class Outbox {
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(rs.getLong(1),
+        AggregateType.valueOf(rs.getString(2)), rs.getInt(3), EventType.valueOf(rs.getString(4)),
+        rs.getTimestamp(5).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Outbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(AggregateType aggregateType, int aggregateId, EventType eventType) {
+        this.jdbcTemplate.update(
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, created_at) VALUES (?, ?, ?, ?)",
+            aggregateType.name(), aggregateId, eventType.name(), Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * @return the first events following the given id, in order
+     */
+    public List<OutboxEvent> findEventsAfter(long eventId, int limit) {
+        return this.jdbcTemplate.query("SELECT id, aggregate_type, aggregate_id, event_type, created_at "
+            + "FROM outbox_events WHERE id > ? ORDER BY id LIMIT ?", EVENT_MAPPER, eventId, limit);
+    }
+
+    /**
+     * @return the id of the last event, or 0 if the outbox is empty
+     */
+    public long findLastEventId() {
+        return this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM outbox_events", Long.class);
+    }
+
+    /**
+     * @return the id of the last event processed by the subscriber, or <code>null</code> for a new subscriber
+     */
+    public Long findOffset(String subscriber) {
+        List<Long> offsets = this.jdbcTemplate.queryForList(
+            "SELECT last_event_id FROM outbox_offsets WHERE subscriber = ?", Long.class, subscriber);
+        return offsets.isEmpty() ? null : offsets.get(0);
+    }
+
+    public void saveOffset(String subscriber, long lastEventId) {
+        int updated = this.jdbcTemplate.update("UPDATE outbox_offsets SET last_event_id = ? WHERE subscriber = ?",
+            lastEventId, subscriber);
+        if (updated == 0) {
+            this.jdbcTemplate.update("INSERT INTO outbox_offsets (subscriber, last_event_id) VALUES (?, ?)",
+                subscriber, lastEventId);
+        }
+    }
+
+    /**
+     * Deletes the events up to the given id created before the given instant.
+     *
+     * @return the number of events deleted
+     */
+    public int deleteEvents(long upToEventId, Instant createdBefore) {
+        return this.jdbcTemplate.update("DELETE FROM outbox_events WHERE id <= ? AND created_at < ?", upToEventId,
+            Timestamp.from(createdBefore));
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.outbox;
+
+import java.time.Instant;
+
+/**
+ * Change of an aggregate, as appended to the outbox. It only identifies the aggregate: subscribers needing its
+ * state read it.
+ */
+public class OutboxEvent {
+
+    public enum AggregateType {
+        OWNER, PET, VISIT, APPOINTMENT
+    }
+
+    public enum EventType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final long id;
+
+    private final AggregateType aggregateType;
+
+    private final int aggregateId;
+
+    private final EventType eventType;
+
+    private final Instant createdAt;
+
+    public OutboxEvent(long id, AggregateType aggregateType, int aggregateId, EventType eventType, Instant createdAt) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the position of the event in the outbox
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public AggregateType getAggregateType() {
+        return this.aggregateType;
+    }
+
+    public int getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public EventType getEventType() {
+        return this.eventType;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return this.id + ": " + this.aggregateType + " " + this.aggregateId + " " + this.eventType;
+    }
+
+}
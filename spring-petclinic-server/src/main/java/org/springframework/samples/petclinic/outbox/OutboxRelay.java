@@ -0,0 +1,201 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays the outbox events to the {@link OutboxSubscriber} beans.
+ * <p>
+ * Each subscriber has its own position in the outbox, saved once it processed a batch, and starts at the end of
+ * the outbox the first time. A subscriber failing gets the same events again at the next poll, and the following
+ * events are not delivered to it before.
+ * <p>
+ * Ids are allocated when the events are inserted, so a transaction committing after another may leave a gap for a
+ * while: the relay stops before a gap until the event following it is older than the gap timeout, after which the
+ * missing id is assumed to be rolled back.
+ * <p>
+ * The lag of each subscriber is published as the <code>petclinic.outbox.lag.events</code> and
+ * <code>petclinic.outbox.lag.seconds</code> gauges.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Log logger = LogFactory.getLog(OutboxRelay.class);
+
+    private final Outbox outbox;
+
+    private final ObjectProvider<OutboxSubscriber> subscribers;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSize;
+
+    private final Duration gapTimeout;
+
+    private final Duration retention;
+
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    public OutboxRelay(Outbox outbox, ObjectProvider<OutboxSubscriber> subscribers, MeterRegistry meterRegistry,
+                       PetclinicProperties properties) {
+        this.outbox = outbox;
+        this.subscribers = subscribers;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = properties.getOutbox().getBatchSize();
+        this.gapTimeout = properties.getOutbox().getGapTimeout();
+        this.retention = properties.getOutbox().getRetention();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Delivers the next batch of events to every subscriber.
+     */
+    public synchronized void relay() {
+        List<OutboxSubscriber> subscribers = this.subscribers.orderedStream().collect(Collectors.toList());
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long lastEventId = this.outbox.findLastEventId();
+        for (OutboxSubscriber subscriber : subscribers) {
+            Position position = this.positions.computeIfAbsent(subscriber.getName(), this::loadPosition);
+            if (position.offset < lastEventId) {
+                relay(subscriber, position, lastEventId);
+            } else {
+                position.lagEvents = 0;
+                position.lagSeconds = 0;
+            }
+        }
+    }
+
+    private void relay(OutboxSubscriber subscriber, Position position, long lastEventId) {
+        Instant now = this.clock.instant();
+        List<OutboxEvent> events = this.outbox.findEventsAfter(position.offset, this.batchSize);
+        List<OutboxEvent> deliverable = events.subList(0, deliverableEvents(position.offset, events, now));
+        if (!deliverable.isEmpty()) {
+            try {
+                subscriber.onEvents(deliverable);
+                position.offset = deliverable.get(deliverable.size() - 1).getId();
+                this.outbox.saveOffset(subscriber.getName(), position.offset);
+                position.delivered.increment(deliverable.size());
+            } catch (Exception ex) {
+                logger.warn("Subscriber " + subscriber.getName() + " failed to process events "
+                    + deliverable.get(0).getId() + " to " + deliverable.get(deliverable.size() - 1).getId()
+                    + ", retrying at the next poll", ex);
+            }
+        }
+        position.lagEvents = lastEventId - position.offset;
+        OutboxEvent nextEvent = events.stream().filter(event -> event.getId() > position.offset).findFirst()
+            .orElse(null);
+        position.lagSeconds = nextEvent == null ? 0
+            : Math.max(0, Duration.between(nextEvent.getCreatedAt(), now).toMillis() / 1000.0);
+    }
+
+    /**
+     * @return the number of events before the first recent gap
+     */
+    private int deliverableEvents(long offset, List<OutboxEvent> events, Instant now) {
+        long expectedId = offset + 1;
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            if (event.getId() != expectedId && event.getCreatedAt().plus(this.gapTimeout).isAfter(now)) {
+                return i;
+            }
+            expectedId = event.getId() + 1;
+        }
+        return events.size();
+    }
+
+    private Position loadPosition(String subscriber) {
+        Long offset = this.outbox.findOffset(subscriber);
+        if (offset == null) {
+            offset = this.outbox.findLastEventId();
+            this.outbox.saveOffset(subscriber, offset);
+        }
+        Position position = new Position(offset,
+            Counter.builder("petclinic.outbox.events").tag("subscriber", subscriber)
+                .description("Outbox events delivered").register(this.meterRegistry));
+        Gauge.builder("petclinic.outbox.lag.events", position, p -> p.lagEvents).tag("subscriber", subscriber)
+            .description("Outbox events not delivered yet").register(this.meterRegistry);
+        Gauge.builder("petclinic.outbox.lag.seconds", position, p -> p.lagSeconds).tag("subscriber", subscriber)
+            .description("Age of the oldest outbox event not delivered yet").register(this.meterRegistry);
+        return position;
+    }
+
+    /**
+     * Deletes the events delivered to every subscriber, once older than the retention.
+     */
+    public synchronized void cleanUp() {
+        long upToEventId = this.outbox.findLastEventId();
+        List<OutboxSubscriber> subscribers = this.subscribers.orderedStream().collect(Collectors.toList());
+        for (OutboxSubscriber subscriber : subscribers) {
+            Position position = this.positions.get(subscriber.getName());
+            if (position == null) {
+                return;
+            }
+            upToEventId = Math.min(upToEventId, position.offset);
+        }
+        int deleted = this.outbox.deleteEvents(upToEventId, this.clock.instant().minus(this.retention));
+        if (deleted > 0) {
+            logger.info("Deleted " + deleted + " outbox events");
+        }
+    }
+
+    /**
+     * @return the id of the last event delivered to the subscriber, or <code>null</code> if unknown
+     */
+    Long getOffset(String subscriber) {
+        Position position = this.positions.get(subscriber);
+        return position == null ? null : position.offset;
+    }
+
+    private static class Position {
+
+        private volatile long offset;
+
+        private volatile long lagEvents;
+
+        private volatile double lagSeconds;
+
+        private final Counter delivered;
+
+        Position(long offset, Counter delivered) {
+            this.offset = offset;
+            this.delivered = delivered;
+        }
+    }
+
+}
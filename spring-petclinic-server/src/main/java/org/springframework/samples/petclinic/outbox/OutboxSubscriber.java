@@ -0,0 +1,36 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the outbox events, declared as a bean.
+ * <p>
+ * Events are delivered at least once, in the order of the outbox, hence in the order of the changes of each
+ * aggregate. A batch is delivered again, possibly with more events, until {@link #onEvents(List)} returns normally,
+ * and after a restart if the position of the subscriber was not saved yet.
+ */
+public interface OutboxSubscriber {
+
+    /**
+     * @return the name under which the position of the subscriber in the outbox is saved
+     */
+    String getName();
+
+    void onEvents(List<OutboxEvent> events) throws Exception;
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Transactional outbox: the changes of the owners, pets, visits and appointments are appended to the outbox table
+ * in the transaction that makes them, then relayed in order to the in-process subscribers.
+ *
+ */
+package org.springframework.samples.petclinic.outbox;
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.model.Appointment;
+import org.springframework.samples.petclinic.scheduling.Booking;
+
+/**
+ * Repository class for <code>Appointment</code> domain objects.
+ */
+public interface AppointmentRepository extends Repository<Appointment, Integer> {
+
+    /**
+     * Retrieve an {@link Appointment} from the data store by id.
+     * @param id the id to search for
+     * @return the {@link Appointment} if found
+     */
+    Optional<Appointment> findById(int id);
+
+    /**
+     * Save an {@link Appointment} to the data store, either inserting or updating it.
+     * @param appointment the {@link Appointment} to save
+     */
+    Appointment save(Appointment appointment);
+
+    void delete(Appointment appointment);
+
+    /**
+     * Retrieve the time span of the appointments ending after the given date, of every vet.
+     * @param since the date from which the appointments are needed
+     * @return a List of {@link Booking}s
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.scheduling.Booking(" +
+        "appointment.id, appointment.vet.id, appointment.start, appointment.end) " +
+        "FROM Appointment appointment WHERE appointment.end > :since")
+    List<Booking> findBookingsEndingAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Retrieve the time span of the given appointments.
+     * @param ids the appointment ids to search for
+     * @return a List of {@link Booking}s, without the appointments not found
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.scheduling.Booking(" +
+        "appointment.id, appointment.vet.id, appointment.start, appointment.end) " +
+        "FROM Appointment appointment WHERE appointment.id IN :ids")
+    List<Booking> findBookingsByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Count the appointments of a vet overlapping the given period.
+     * @param vetId the vet id to search for
+     * @param start the start of the period, inclusive
+     * @param end the end of the period, exclusive
+     * @return the number of overlapping appointments
+     */
+    @Query("SELECT COUNT(appointment) FROM Appointment appointment WHERE appointment.vet.id = :vetId " +
+        "AND appointment.start < :end AND appointment.end > :start")
+    long countOverlapping(@Param("vetId") int vetId, @Param("start") LocalDateTime start,
+                          @Param("end") LocalDateTime end);
+
+}
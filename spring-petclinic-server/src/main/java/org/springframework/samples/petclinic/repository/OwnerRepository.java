@@ -15,8 +15,15 @@
  */
 package org.springframework.samples.petclinic.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
 
 /**
  * Repository class for <code>Owner</code> domain objects All method names are compliant with Spring Data naming
@@ -27,4 +34,35 @@ import org.springframework.samples.petclinic.model.Owner;
  * @author Sam Brannen
  * @author Michael Isvy
  */
-public interface OwnerRepository extends JpaRepository<Owner, Integer> { }
+public interface OwnerRepository extends JpaRepository<Owner, Integer>, VersionedUpdateRepository {
+
+    /**
+     * Retrieve an {@link Owner} from the data store by id, with its pets fetched in the same statement
+     * so that the returned aggregate can be modified outside of a persistence context.
+     * @param id the id to search for
+     * @return the {@link Owner} if found
+     */
+    @Query("SELECT DISTINCT owner FROM Owner owner LEFT JOIN FETCH owner.pets WHERE owner.id = :id")
+    Optional<Owner> findWithPetsById(@Param("id") int id);
+
+    /**
+     * Retrieve the contact information of an {@link Owner}, without its pets.
+     * @param id the id to search for
+     * @return the {@link OwnerDetails} if found
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.OwnerDetails(" +
+        "owner.id, owner.version, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone) " +
+        "FROM Owner owner WHERE owner.id = :id")
+    Optional<OwnerDetails> findDetailsById(@Param("id") int id);
+
+    /**
+     * Retrieve the contact information of the {@link Owner}s having one of the given ids, without their pets.
+     * @param ids the ids to search for, at least one
+     * @return the {@link OwnerDetails} found, in no particular order
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.OwnerDetails(" +
+        "owner.id, owner.version, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone) " +
+        "FROM Owner owner WHERE owner.id IN :ids")
+    List<OwnerDetails> findDetailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+}
@@ -15,12 +15,15 @@
  */
 package org.springframework.samples.petclinic.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
 
 /**
  * Repository class for <code>Pet</code> domain objects All method names are compliant with Spring Data naming
@@ -31,7 +34,7 @@ import org.springframework.samples.petclinic.model.PetType;
  * @author Sam Brannen
  * @author Michael Isvy
  */
-public interface PetRepository extends Repository<Pet, Integer> {
+public interface PetRepository extends Repository<Pet, Integer>, VersionedUpdateRepository {
 
     /**
      * Retrieve all {@link PetType}s from the data store.
@@ -47,11 +50,71 @@ public interface PetRepository extends Repository<Pet, Integer> {
      */
     Pet findById(int id);
 
+    /**
+     * @param id the id to search for
+     * @return whether a {@link Pet} has this id
+     */
+    boolean existsById(int id);
+
+    /**
+     * @param id the id to search for
+     * @param ownerId the id of the owner the pet should belong to
+     * @return whether a {@link Pet} of this owner has this id
+     */
+    boolean existsByIdAndOwnerId(int id, int ownerId);
+
+    /**
+     * Retrieve a reference to a {@link Pet}, loaded on first access only.
+     * @param id the id of an existing pet
+     * @return the reference, to attach a new child to the pet
+     */
+    Pet getOne(Integer id);
+
     /**
      * Save a {@link Pet} to the data store, either inserting or updating it.
      * @param pet the {@link Pet} to save
      */
     void save(Pet pet);
 
+    /**
+     * Retrieve a {@link PetDetails} from the data store by pet id.
+     * @param id the id to search for
+     * @return the {@link PetDetails} if found
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.PetDetails(" +
+        "pet.id, pet.version, owner.id, pet.name, owner.firstName, owner.lastName, pet.birthDate, ptype.id, ptype.name) " +
+        "FROM Pet pet JOIN pet.owner owner JOIN pet.type ptype WHERE pet.id = :id")
+    PetDetails findDetailsById(@Param("id") int id);
+
+    /**
+     * Retrieve the {@link PetDetails} of all the pets of an owner.
+     * @param ownerId the owner id to search for
+     * @return a List of {@link PetDetails} ordered by pet name
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.PetDetails(" +
+        "pet.id, pet.version, owner.id, pet.name, owner.firstName, owner.lastName, pet.birthDate, ptype.id, ptype.name) " +
+        "FROM Pet pet JOIN pet.owner owner JOIN pet.type ptype WHERE owner.id = :ownerId ORDER BY LOWER(pet.name)")
+    List<PetDetails> findDetailsByOwnerId(@Param("ownerId") int ownerId);
+
+    /**
+     * Retrieve the {@link PetDetails} of the pets having one of the given ids.
+     * @param ids the ids to search for, at least one
+     * @return the {@link PetDetails} found, in no particular order
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.PetDetails(" +
+        "pet.id, pet.version, owner.id, pet.name, owner.firstName, owner.lastName, pet.birthDate, ptype.id, ptype.name) " +
+        "FROM Pet pet JOIN pet.owner owner JOIN pet.type ptype WHERE pet.id IN :ids")
+    List<PetDetails> findDetailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Retrieve the {@link PetDetails} of all the pets of several owners.
+     * @param ownerIds the owner ids to search for, at least one
+     * @return a List of {@link PetDetails} ordered by pet name
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.PetDetails(" +
+        "pet.id, pet.version, owner.id, pet.name, owner.firstName, owner.lastName, pet.birthDate, ptype.id, ptype.name) " +
+        "FROM Pet pet JOIN pet.owner owner JOIN pet.type ptype WHERE owner.id IN :ownerIds ORDER BY LOWER(pet.name)")
+    List<PetDetails> findDetailsByOwnerIdIn(@Param("ownerIds") Collection<Integer> ownerIds);
+
 }
 
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import java.util.Map;
+
+/**
+ * Repository fragment updating some attributes of a versioned entity without loading it.
+ */
+public interface VersionedUpdateRepository {
+
+    /**
+     * Update the given attributes of an entity in a single <code>UPDATE ... WHERE id = ? AND version = ?</code>
+     * statement, incrementing its version.
+     * @param entityType the entity class, declaring a <code>version</code> attribute
+     * @param id the id of the entity
+     * @param version the version the update applies to
+     * @param attributes the new values, by attribute name
+     * @return 1 if the entity was updated, 0 if it does not exist or has another version
+     */
+    int updateVersioned(Class<?> entityType, int id, int version, Map<String, Object> attributes);
+
+    /**
+     * Update the given attributes of an entity of the given parent, in a single
+     * <code>UPDATE ... WHERE id = ? AND parent_id = ? AND version = ?</code> statement, incrementing its version.
+     * @param parent the many-to-one attribute referencing the parent
+     * @param parentId the id of the parent
+     * @return 1 if the entity was updated, 0 if it does not exist, belongs to another parent or has another version
+     */
+    int updateVersioned(Class<?> entityType, int id, int version, Map<String, Object> attributes, String parent,
+                        int parentId);
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Criteria update of the attributes present only, so that the statement does not overwrite the others.
+ */
+class VersionedUpdateRepositoryImpl implements VersionedUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateVersioned(Class<?> entityType, int id, int version, Map<String, Object> attributes) {
+        return update(entityType, id, version, attributes, null, 0);
+    }
+
+    @Override
+    public int updateVersioned(Class<?> entityType, int id, int version, Map<String, Object> attributes,
+                               String parent, int parentId) {
+        return update(entityType, id, version, attributes, parent, parentId);
+    }
+
+    private <T> int update(Class<T> entityType, int id, int version, Map<String, Object> attributes, String parent,
+                           int parentId) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = builder.createCriteriaUpdate(entityType);
+        Root<T> entity = update.from(entityType);
+        attributes.forEach((name, value) -> update.set(name, value));
+        update.set(entity.<Integer>get("version"), builder.sum(entity.<Integer>get("version"), 1));
+        Predicate matches = builder.and(builder.equal(entity.get("id"), id),
+            builder.equal(entity.get("version"), version));
+        if (parent != null) {
+            // The foreign key column, without join
+            matches = builder.and(matches, builder.equal(entity.get(parent).get("id"), parentId));
+        }
+        update.where(matches);
+        return this.entityManager.createQuery(update).executeUpdate();
+    }
+
+}
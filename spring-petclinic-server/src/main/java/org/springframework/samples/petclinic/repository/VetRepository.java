@@ -16,9 +16,16 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Vet;
 
 /**
@@ -39,5 +46,23 @@ public interface VetRepository extends Repository<Vet, Integer> {
      */
     Collection<Vet> findAll() throws DataAccessException;
 
+    /**
+     * Retrieve a {@link Vet} and lock its row until the end of the transaction, to serialize the bookings of the vet
+     * across application instances.
+     * @param id the id to search for
+     * @return the {@link Vet} if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT vet FROM Vet vet WHERE vet.id = :id")
+    Optional<Vet> findAndLockById(@Param("id") int id);
+
+    /**
+     * Retrieve the {@link Vet}s having one of the given ids, with their specialties fetched in the same statement.
+     * @param ids the ids to search for, at least one
+     * @return the {@link Vet}s found, in no particular order
+     */
+    @Query("SELECT DISTINCT vet FROM Vet vet LEFT JOIN FETCH vet.specialties WHERE vet.id IN :ids")
+    List<Vet> findByIdIn(@Param("ids") Collection<Integer> ids);
+
 
 }
@@ -15,12 +15,16 @@
  */
 package org.springframework.samples.petclinic.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.BaseEntity;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
 
 /**
  * Repository class for <code>Visit</code> domain objects All method names are compliant with Spring Data naming
@@ -43,4 +47,34 @@ public interface VisitRepository extends Repository<Visit, Integer> {
 
     List<Visit> findByPetId(Integer petId);
 
+    /**
+     * Retrieve the visit history of a pet, most recent visit first.
+     * @param petId the pet id to search for
+     * @return a List of {@link VisitDetails}
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.VisitDetails(" +
+        "visit.id, visit.pet.id, visit.date, visit.description) " +
+        "FROM Visit visit WHERE visit.pet.id = :petId ORDER BY visit.date DESC")
+    List<VisitDetails> findDetailsByPetId(@Param("petId") int petId);
+
+    /**
+     * Retrieve the visit history of all the pets of an owner, most recent visit first.
+     * @param ownerId the owner id to search for
+     * @return a List of {@link VisitDetails}
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.VisitDetails(" +
+        "visit.id, pet.id, visit.date, visit.description) " +
+        "FROM Visit visit JOIN visit.pet pet WHERE pet.owner.id = :ownerId ORDER BY visit.date DESC")
+    List<VisitDetails> findDetailsByOwnerId(@Param("ownerId") int ownerId);
+
+    /**
+     * Retrieve the visit history of all the pets of several owners, most recent visit first.
+     * @param ownerIds the owner ids to search for, at least one
+     * @return a List of {@link VisitDetails}
+     */
+    @Query("SELECT NEW org.springframework.samples.petclinic.model.projection.VisitDetails(" +
+        "visit.id, pet.id, visit.date, visit.description) " +
+        "FROM Visit visit JOIN visit.pet pet WHERE pet.owner.id IN :ownerIds ORDER BY visit.date DESC")
+    List<VisitDetails> findDetailsByOwnerIdIn(@Param("ownerIds") Collection<Integer> ownerIds);
+
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Appointment;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.WorkingHours;
+import org.springframework.samples.petclinic.outbox.Outbox;
+import org.springframework.samples.petclinic.outbox.OutboxEvent;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.AggregateType;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.EventType;
+import org.springframework.samples.petclinic.outbox.OutboxSubscriber;
+import org.springframework.samples.petclinic.repository.AppointmentRepository;
+import org.springframework.samples.petclinic.repository.PetRepository;
+import org.springframework.samples.petclinic.repository.VetRepository;
+import org.springframework.samples.petclinic.repository.WorkingHoursRepository;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Books appointments with the vets and searches their free slots.
+ * <p>
+ * The searches only read the {@link AvailabilityIndex}, loaded from the database when the application is ready.
+ * A booking is serialized with the other bookings of the same vet, first in memory, then across application
+ * instances by locking the vet row while the overlapping appointments are counted and the new one is inserted. The
+ * index is updated once the transaction is committed.
+ * <p>
+ * Bookings and cancellations append an outbox event, through which the index of every instance follows the
+ * appointments of the others, up to <code>petclinic.outbox.poll-interval</code> late. The vets, specialties and
+ * working hours are only read again by the reload every <code>petclinic.availability.reload-interval</code>, so
+ * changes made directly in the database take up to that long to show. Until then a search may return slots that are
+ * no longer free, but a booking never overlaps another one: the overlaps are also checked in the database.
+ */
+@Service
+public class AppointmentScheduler implements OutboxSubscriber {
+
+    /**
+     * Appointments ended before now minus this duration are not loaded in the index
+     */
+    private static final Duration HISTORY = Duration.ofDays(1);
+
+    private static final Log logger = LogFactory.getLog(AppointmentScheduler.class);
+
+    private final VetRepository vetRepository;
+
+    private final WorkingHoursRepository workingHoursRepository;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final PetRepository petRepository;
+
+    private final Outbox outbox;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Replaced by the reloads, and only modified by the outbox events while holding the monitor of the scheduler,
+     * so that no event committed after a reload read the database is applied to the index it replaces
+     */
+    private volatile AvailabilityIndex index;
+
+    public AppointmentScheduler(VetRepository vetRepository, WorkingHoursRepository workingHoursRepository,
+                                AppointmentRepository appointmentRepository, PetRepository petRepository,
+                                Outbox outbox, PlatformTransactionManager transactionManager) {
+        this.vetRepository = vetRepository;
+        this.workingHoursRepository = workingHoursRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.petRepository = petRepository;
+        this.outbox = outbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Loads the index before the first search.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        index();
+    }
+
+    AvailabilityIndex index() {
+        AvailabilityIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = load();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Replaces the index by a new one loaded from the database.
+     */
+    public synchronized void reloadIndex() {
+        this.index = load();
+    }
+
+    @Override
+    public String getName() {
+        return "availability-index";
+    }
+
+    /**
+     * Applies the bookings and cancellations of every instance; those of this one are already indexed, and applying
+     * them again changes nothing.
+     */
+    @Override
+    public synchronized void onEvents(List<OutboxEvent> events) {
+        AvailabilityIndex index = this.index;
+        if (index == null) {
+            // Not loaded yet: the load reads the appointments of these events
+            return;
+        }
+        List<Integer> createdIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.getAggregateType() == AggregateType.APPOINTMENT && event.getEventType() == EventType.CREATED) {
+                createdIds.add(event.getAggregateId());
+            }
+        }
+        Map<Integer, Booking> created = createdIds.isEmpty() ? Collections.emptyMap()
+            : this.appointmentRepository.findBookingsByIds(createdIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        for (OutboxEvent event : events) {
+            if (event.getAggregateType() != AggregateType.APPOINTMENT) {
+                continue;
+            }
+            if (event.getEventType() == EventType.DELETED) {
+                index.removeBooking(event.getAggregateId());
+            } else if (created.containsKey(event.getAggregateId())) {
+                index.addBooking(created.get(event.getAggregateId()));
+            }
+        }
+    }
+
+    private AvailabilityIndex load() {
+        long start = System.currentTimeMillis();
+        AvailabilityIndex index = new AvailabilityIndex();
+        for (Vet vet : this.vetRepository.findAll()) {
+            index.putVet(vet.getId(), vet.getFirstName(), vet.getLastName(),
+                vet.getSpecialties().stream().map(Specialty::getName).collect(Collectors.toList()));
+        }
+        for (WorkingHours hours : this.workingHoursRepository.findAll()) {
+            index.addWorkingHours(hours.getVetId(), hours.getDayOfWeek(), hours.getStartTime(), hours.getEndTime());
+        }
+        List<Booking> bookings = this.appointmentRepository.findBookingsEndingAfter(LocalDateTime.now().minus(HISTORY));
+        bookings.forEach(index::addBooking);
+        logger.info("Indexed " + bookings.size() + " appointments in " + (System.currentTimeMillis() - start) + " ms");
+        return index;
+    }
+
+    /**
+     * @see AvailabilityIndex#findAvailability(String, LocalDateTime, LocalDateTime, Duration, int)
+     */
+    public List<AvailableSlot> findAvailability(String specialty, LocalDateTime from, LocalDateTime to,
+                                                Duration duration, int limit) {
+        return index().findAvailability(specialty, from, to, duration, limit);
+    }
+
+    /**
+     * Books an appointment within the working hours of the vet.
+     *
+     * @throws AppointmentConflictException if the vet is not working or already booked during the period
+     */
+    public Appointment book(int vetId, int petId, LocalDateTime start, LocalDateTime end, String description) {
+        VetSchedule schedule = index().getSchedule(vetId);
+        if (schedule == null) {
+            throw new ObjectRetrievalFailureException(Vet.class, vetId);
+        }
+        if (!schedule.isWithinWorkingHours(start, end)) {
+            throw new AppointmentConflictException("Vet " + vetId + " is not working from " + start + " to " + end);
+        }
+        synchronized (schedule.bookingMonitor) {
+            if (schedule.overlaps(start, end)) {
+                throw new AppointmentConflictException("Vet " + vetId + " is already booked from " + start
+                    + " to " + end);
+            }
+            Appointment appointment = this.transactionTemplate.execute(status -> {
+                Vet vet = this.vetRepository.findAndLockById(vetId)
+                    .orElseThrow(() -> new ObjectRetrievalFailureException(Vet.class, vetId));
+                // Booked through another application instance
+                if (this.appointmentRepository.countOverlapping(vetId, start, end) > 0) {
+                    throw new AppointmentConflictException("Vet " + vetId + " is already booked from " + start
+                        + " to " + end);
+                }
+                Pet pet = this.petRepository.findById(petId);
+                if (pet == null) {
+                    throw new ObjectRetrievalFailureException(Pet.class, petId);
+                }
+                Appointment newAppointment = new Appointment();
+                newAppointment.setVet(vet);
+                newAppointment.setPet(pet);
+                newAppointment.setStart(start);
+                newAppointment.setEnd(end);
+                newAppointment.setDescription(description);
+                Appointment saved = this.appointmentRepository.save(newAppointment);
+                if (ShardRouting.isDefaultShard()) {
+                    this.outbox.append(AggregateType.APPOINTMENT, saved.getId(), EventType.CREATED);
+                }
+                return saved;
+            });
+            schedule.add(new Booking(appointment.getId(), vetId, start, end));
+            return appointment;
+        }
+    }
+
+    /**
+     * Cancels an appointment with the vet, freeing its slot.
+     *
+     * @throws ObjectRetrievalFailureException if the vet has no appointment of this id
+     */
+    public void cancel(int vetId, int appointmentId) {
+        Booking booking = this.transactionTemplate.execute(status -> {
+            Appointment appointment = this.appointmentRepository.findById(appointmentId)
+                .filter(found -> found.getVet().getId() == vetId)
+                .orElseThrow(() -> new ObjectRetrievalFailureException(Appointment.class, appointmentId));
+            this.appointmentRepository.delete(appointment);
+            if (ShardRouting.isDefaultShard()) {
+                this.outbox.append(AggregateType.APPOINTMENT, appointmentId, EventType.DELETED);
+            }
+            return new Booking(appointment.getId(), appointment.getVet().getId(), appointment.getStart(),
+                appointment.getEnd());
+        });
+        index().removeBooking(booking);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the working hours and bookings of every vet, by specialty.
+ */
+public class AvailabilityIndex {
+
+    private static final Comparator<AvailableSlot> BY_START_THEN_VET =
+        Comparator.comparing(AvailableSlot::getStart).thenComparingInt(AvailableSlot::getVetId);
+
+    private final Map<Integer, VetSchedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Schedules of the vets by specialty name, replaced rather than modified when a vet is added
+     */
+    private final Map<String, List<VetSchedule>> schedulesBySpecialty = new ConcurrentHashMap<>();
+
+    /**
+     * Indexed bookings by appointment id, to remove a booking knowing only its id
+     */
+    private final Map<Integer, Booking> bookingsById = new ConcurrentHashMap<>();
+
+    public synchronized void putVet(int vetId, String firstName, String lastName, Collection<String> specialties) {
+        VetSchedule schedule = new VetSchedule(vetId, firstName, lastName);
+        this.schedules.put(vetId, schedule);
+        for (String specialty : specialties) {
+            List<VetSchedule> vets = new ArrayList<>(this.schedulesBySpecialty.getOrDefault(specialty,
+                Collections.emptyList()));
+            vets.add(schedule);
+            this.schedulesBySpecialty.put(specialty, vets);
+        }
+    }
+
+    public void addWorkingHours(int vetId, DayOfWeek day, LocalTime start, LocalTime end) {
+        VetSchedule schedule = this.schedules.get(vetId);
+        if (schedule != null) {
+            schedule.addWorkingHours(day, start, end);
+        }
+    }
+
+    public void addBooking(Booking booking) {
+        VetSchedule schedule = this.schedules.get(booking.getVetId());
+        if (schedule != null) {
+            schedule.add(booking);
+            this.bookingsById.put(booking.getId(), booking);
+        }
+    }
+
+    public void removeBooking(Booking booking) {
+        VetSchedule schedule = this.schedules.get(booking.getVetId());
+        if (schedule != null) {
+            schedule.remove(booking);
+            this.bookingsById.remove(booking.getId());
+        }
+    }
+
+    /**
+     * Removes the booking of the given appointment, if indexed.
+     */
+    public void removeBooking(int appointmentId) {
+        Booking booking = this.bookingsById.get(appointmentId);
+        if (booking != null) {
+            removeBooking(booking);
+        }
+    }
+
+    /**
+     * @return the schedule of the vet, or <code>null</code> if the vet is unknown
+     */
+    VetSchedule getSchedule(int vetId) {
+        return this.schedules.get(vetId);
+    }
+
+    /**
+     * Finds the free slots of the vets having the given specialty.
+     *
+     * @param specialty name of the specialty, or <code>null</code> for every vet
+     * @param from start of the searched period
+     * @param to end of the searched period
+     * @param duration minimal duration of a slot
+     * @param limit maximum number of slots
+     * @return the earliest slots, ordered by start time then vet id
+     */
+    public List<AvailableSlot> findAvailability(String specialty, LocalDateTime from, LocalDateTime to,
+                                                Duration duration, int limit) {
+        Collection<VetSchedule> vets = specialty == null ? this.schedules.values()
+            : this.schedulesBySpecialty.getOrDefault(specialty, Collections.emptyList());
+        List<AvailableSlot> slots = new ArrayList<>();
+        // Day by day, so that the search stops as soon as the earliest slots are known
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to) && slots.size() < limit;
+             day = day.plusDays(1)) {
+            int previousDays = slots.size();
+            for (VetSchedule schedule : vets) {
+                schedule.findFreeSlots(day, from, to, duration, slots);
+            }
+            slots.subList(previousDays, slots.size()).sort(BY_START_THEN_VET);
+        }
+        return slots.size() > limit ? new ArrayList<>(slots.subList(0, limit)) : slots;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import java.time.LocalDateTime;
+
+/**
+ * Free period of a vet, within its working hours and between its appointments.
+ */
+public class AvailableSlot {
+
+    private final int vetId;
+
+    private final String vetFirstName;
+
+    private final String vetLastName;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    public AvailableSlot(int vetId, String vetFirstName, String vetLastName, LocalDateTime start, LocalDateTime end) {
+        this.vetId = vetId;
+        this.vetFirstName = vetFirstName;
+        this.vetLastName = vetLastName;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getVetId() {
+        return vetId;
+    }
+
+    public String getVetFirstName() {
+        return vetFirstName;
+    }
+
+    public String getVetLastName() {
+        return vetLastName;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time span of an appointment of a vet, as indexed in memory.
+ */
+public class Booking {
+
+    private final int id;
+
+    private final int vetId;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    public Booking(Integer id, Integer vetId, LocalDateTime start, LocalDateTime end) {
+        this.id = id;
+        this.vetId = vetId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getVetId() {
+        return vetId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+}
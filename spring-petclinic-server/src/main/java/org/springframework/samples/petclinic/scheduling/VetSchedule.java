@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Working hours and bookings of one vet.
+ * <p>
+ * The bookings of a vet never overlap, so a tree ordered by start time is an interval tree: the only booking that may
+ * overlap a period starting before its start is the one right before it. Conflict checks are O(log n), and listing
+ * the free slots of a period is O(log n + k) for k bookings in that period.
+ */
+class VetSchedule {
+
+    private final int vetId;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    /**
+     * Working hours by ISO day of the week, sorted by start time
+     */
+    private final List<List<LocalTime[]>> workingHours = new ArrayList<>(8);
+
+    private final NavigableMap<LocalDateTime, Booking> bookings = new TreeMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Serializes the bookings of the vet, held while the appointment is checked and stored in the database, while the
+     * read lock only guards the in-memory tree.
+     */
+    final Object bookingMonitor = new Object();
+
+    VetSchedule(int vetId, String firstName, String lastName) {
+        this.vetId = vetId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        for (int day = 0; day <= 7; day++) {
+            this.workingHours.add(new ArrayList<>(2));
+        }
+    }
+
+    int getVetId() {
+        return vetId;
+    }
+
+    void addWorkingHours(DayOfWeek day, LocalTime start, LocalTime end) {
+        this.lock.writeLock().lock();
+        try {
+            List<LocalTime[]> hours = this.workingHours.get(day.getValue());
+            hours.add(new LocalTime[]{start, end});
+            hours.sort((h1, h2) -> h1[0].compareTo(h2[0]));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether the period is within a single period of working hours
+     */
+    boolean isWithinWorkingHours(LocalDateTime start, LocalDateTime end) {
+        if (!start.toLocalDate().equals(end.toLocalDate()) || !start.isBefore(end)) {
+            return false;
+        }
+        this.lock.readLock().lock();
+        try {
+            for (LocalTime[] hours : this.workingHours.get(start.getDayOfWeek().getValue())) {
+                if (!start.toLocalTime().isBefore(hours[0]) && !end.toLocalTime().isAfter(hours[1])) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether a booking overlaps the period
+     */
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        this.lock.readLock().lock();
+        try {
+            // The last booking starting before the end of the period overlaps it if it ends after its start
+            Map.Entry<LocalDateTime, Booking> last = this.bookings.lowerEntry(end);
+            return last != null && last.getValue().getEnd().isAfter(start);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    void add(Booking booking) {
+        this.lock.writeLock().lock();
+        try {
+            this.bookings.put(booking.getStart(), booking);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Booking booking) {
+        this.lock.writeLock().lock();
+        try {
+            Booking current = this.bookings.get(booking.getStart());
+            if (current != null && current.getId() == booking.getId()) {
+                this.bookings.remove(booking.getStart());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the free slots of at least the given duration on the given day, between the two dates.
+     */
+    void findFreeSlots(LocalDate day, LocalDateTime from, LocalDateTime to, Duration duration,
+                       List<AvailableSlot> slots) {
+        List<LocalTime[]> dayHours = this.workingHours.get(day.getDayOfWeek().getValue());
+        if (dayHours.isEmpty()) {
+            return;
+        }
+        this.lock.readLock().lock();
+        try {
+            for (LocalTime[] hours : dayHours) {
+                LocalDateTime start = max(day.atTime(hours[0]), from);
+                LocalDateTime end = min(day.atTime(hours[1]), to);
+                if (start.isBefore(end)) {
+                    findFreeSlotsWithin(start, end, duration, slots);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void findFreeSlotsWithin(LocalDateTime start, LocalDateTime end, Duration duration,
+                                     List<AvailableSlot> slots) {
+        LocalDateTime free = start;
+        Map.Entry<LocalDateTime, Booking> previous = this.bookings.lowerEntry(start);
+        if (previous != null && previous.getValue().getEnd().isAfter(free)) {
+            free = previous.getValue().getEnd();
+        }
+        for (Booking booking : this.bookings.subMap(start, true, end, false).values()) {
+            addIfLongEnough(free, booking.getStart(), duration, slots);
+            free = max(free, booking.getEnd());
+        }
+        addIfLongEnough(free, end, duration, slots);
+    }
+
+    private void addIfLongEnough(LocalDateTime start, LocalDateTime end, Duration duration, List<AvailableSlot> slots) {
+        if (!start.plus(duration).isAfter(end)) {
+            slots.add(new AvailableSlot(this.vetId, this.firstName, this.lastName, start, end));
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime date1, LocalDateTime date2) {
+        return date1.isAfter(date2) ? date1 : date2;
+    }
+
+    private static LocalDateTime min(LocalDateTime date1, LocalDateTime date2) {
+        return date1.isBefore(date2) ? date1 : date2;
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Appointment scheduling: the bookings and working hours of every vet are indexed in memory, kept in sync with the
+ * database, to search free slots without querying it.
+ *
+ */
+package org.springframework.samples.petclinic.scheduling;
@@ -16,12 +16,17 @@
 package org.springframework.samples.petclinic.service;
 
 import java.util.Collection;
+import java.util.Map;
 
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
 
 
 /**
@@ -39,12 +44,75 @@ public interface ClinicService {
 
     void savePet(Pet pet);
 
+    /**
+     * Adds a new pet to the owner, referenced rather than loaded with its pets.
+     * @throws org.springframework.orm.ObjectRetrievalFailureException if there is no such owner
+     */
+    void addPet(int ownerId, Pet pet);
+
     void saveVisit(Visit visit);
 
+    /**
+     * Adds a new visit to the pet, referenced rather than loaded with its visit history.
+     * @throws org.springframework.orm.ObjectRetrievalFailureException if there is no such pet
+     */
+    void addVisit(int petId, Visit visit);
+
     Collection<Vet> findVets();
 
     void saveOwner(Owner owner);
 
     Collection<Owner> findAll();
 
+    Collection<OwnerSummary> findOwnerSummaries();
+
+    /**
+     * @return the owners whose last name starts with the given prefix, by last name
+     */
+    Collection<OwnerSummary> findOwnerSummariesByLastName(String lastName);
+
+    OwnerDetails findOwnerDetailsById(int id);
+
+    /**
+     * @param withPets   whether to load the pets of the owner, left empty otherwise
+     * @param withVisits whether to load the visits of those pets, left empty otherwise
+     */
+    OwnerDetails findOwnerDetailsById(int id, boolean withPets, boolean withVisits);
+
+    PetDetails findPetDetailsById(int id);
+
+    /**
+     * Reads several owners with one statement per entity type.
+     * @param ids the ids to search for
+     * @return the owners found by id, without the ids of no owner
+     */
+    Map<Integer, OwnerDetails> findOwnerDetailsByIds(Collection<Integer> ids, boolean withPets, boolean withVisits);
+
+    /**
+     * @return the pets found by id, without the ids of no pet
+     */
+    Map<Integer, PetDetails> findPetDetailsByIds(Collection<Integer> ids);
+
+    /**
+     * @return the vets found by id, with their specialties, without the ids of no vet
+     */
+    Map<Integer, Vet> findVetsByIds(Collection<Integer> ids);
+
+    Collection<VisitDetails> findVisitsByPetId(int petId);
+
+    /**
+     * Updates the given attributes of an owner without loading it.
+     * @return the new version of the owner
+     * @throws VersionConflictException if the owner was updated since the given version
+     */
+    int patchOwner(int id, int version, Map<String, Object> attributes);
+
+    /**
+     * Updates the given attributes of a pet of the owner without loading it.
+     * @return the new version of the pet
+     * @throws VersionConflictException if the pet was updated since the given version
+     * @throws org.springframework.orm.ObjectRetrievalFailureException if the owner has no pet of this id
+     */
+    int patchPet(int ownerId, int id, int version, Map<String, Object> attributes);
+
 }
@@ -17,20 +17,42 @@ package org.springframework.samples.petclinic.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.*;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import org.springframework.samples.petclinic.outbox.Outbox;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.AggregateType;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.EventType;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
 import org.springframework.samples.petclinic.repository.PetRepository;
 import org.springframework.samples.petclinic.repository.VetRepository;
 import org.springframework.samples.petclinic.repository.VisitRepository;
+import org.springframework.samples.petclinic.statistics.StatisticsService;
+import org.springframework.samples.petclinic.summary.OwnerSummaryStore;
+import org.springframework.samples.petclinic.tenancy.ShardCacheKeyGenerator;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.cache.annotation.CacheResult;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Mostly used as a facade for all Petclinic controllers
  * Also a placeholder for @Transactional and @Cacheable annotations
+ * <p>
+ * When the clinics are sharded, the outbox and the statistics only follow the changes of the default shard.
+ * <p>
+ * The writes lock the owner first, then flush the persistence context and refresh the owner summary within their
+ * transaction.
  *
  * @author Michael Isvy
  */
@@ -41,17 +63,24 @@ public class ClinicServiceImpl implements ClinicService {
     private final VetRepository vetRepository;
     private final OwnerRepository ownerRepository;
     private final VisitRepository visitRepository;
+    private final StatisticsService statisticsService;
+    private final Outbox outbox;
+    private final OwnerSummaryStore ownerSummaryStore;
 
     @Autowired
-    public ClinicServiceImpl(PetRepository petRepository, VetRepository vetRepository, OwnerRepository ownerRepository, VisitRepository visitRepository) {
+    public ClinicServiceImpl(PetRepository petRepository, VetRepository vetRepository, OwnerRepository ownerRepository, VisitRepository visitRepository, StatisticsService statisticsService, Outbox outbox, OwnerSummaryStore ownerSummaryStore) {
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
         this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
+        this.statisticsService = statisticsService;
+        this.outbox = outbox;
+        this.ownerSummaryStore = ownerSummaryStore;
     }
 
     @Override
     @Transactional(readOnly = true)
+    @CacheResult(cacheName = "petTypes", cacheKeyGenerator = ShardCacheKeyGenerator.class)
     public Collection<PetType> findPetTypes() throws DataAccessException {
         return petRepository.findPetTypes();
     }
@@ -59,7 +88,7 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional(readOnly = true)
     public Owner findOwnerById(int id) throws DataAccessException {
-        return ownerRepository.findById(id).get();
+        return ownerRepository.findWithPetsById(id).get();
     }
 
     @Transactional(readOnly = true)
@@ -70,17 +99,51 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void saveOwner(Owner owner) throws DataAccessException {
+        EventType eventType = owner.isNew() ? EventType.CREATED : EventType.UPDATED;
+        if (!owner.isNew()) {
+            ownerSummaryStore.lockOwner(owner.getId());
+        }
         ownerRepository.save(owner);
+        refreshOwnerSummary(owner.getId());
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.OWNER, owner.getId(), eventType);
+            statisticsService.ownerSaved(owner);
+        }
     }
 
 
     @Override
     @Transactional
     public void saveVisit(Visit visit) throws DataAccessException {
+        boolean newVisit = visit.isNew();
+        ownerSummaryStore.lockOwnerOfPet(visit.getPet().getId());
         visitRepository.save(visit);
+        refreshOwnerSummaryOfPet(visit.getPet().getId());
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.VISIT, visit.getId(), newVisit ? EventType.CREATED : EventType.UPDATED);
+            if (newVisit) {
+                statisticsService.visitSaved(visit);
+            }
+        }
     }
 
 
+    @Override
+    @Transactional
+    public void addVisit(int petId, Visit visit) throws DataAccessException {
+        ownerSummaryStore.lockOwnerOfPet(petId);
+        if (!petRepository.existsById(petId)) {
+            throw new ObjectRetrievalFailureException(Pet.class, petId);
+        }
+        visit.setPet(petRepository.getOne(petId));
+        visitRepository.save(visit);
+        refreshOwnerSummaryOfPet(petId);
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.VISIT, visit.getId(), EventType.CREATED);
+            statisticsService.visitSaved(visit.getId(), petId, visit);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Pet findPetById(int id) throws DataAccessException {
@@ -90,15 +153,203 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void savePet(Pet pet) throws DataAccessException {
+        EventType eventType = pet.isNew() ? EventType.CREATED : EventType.UPDATED;
+        if (pet.isNew()) {
+            ownerSummaryStore.lockOwner(pet.getOwner().getId());
+        } else {
+            ownerSummaryStore.lockOwnerOfPet(pet.getId());
+        }
         petRepository.save(pet);
+        refreshOwnerSummary(pet.getOwner().getId());
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.PET, pet.getId(), eventType);
+            statisticsService.petSaved(pet);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void addPet(int ownerId, Pet pet) throws DataAccessException {
+        ownerSummaryStore.lockOwner(ownerId);
+        if (!ownerRepository.existsById(ownerId)) {
+            throw new ObjectRetrievalFailureException(Owner.class, ownerId);
+        }
+        pet.setOwner(ownerRepository.getOne(ownerId));
+        petRepository.save(pet);
+        refreshOwnerSummary(ownerId);
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.PET, pet.getId(), EventType.CREATED);
+            statisticsService.petSaved(pet.getId(), ownerId, pet.getType().getId());
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    @CacheResult(cacheName = "vets")
+    @CacheResult(cacheName = "vets", cacheKeyGenerator = ShardCacheKeyGenerator.class)
     public Collection<Vet> findVets() throws DataAccessException {
         return vetRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<OwnerSummary> findOwnerSummaries() throws DataAccessException {
+        return ownerSummaryStore.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<OwnerSummary> findOwnerSummariesByLastName(String lastName) throws DataAccessException {
+        return ownerSummaryStore.findByLastName(lastName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OwnerDetails findOwnerDetailsById(int id) throws DataAccessException {
+        return findOwnerDetailsById(id, true, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OwnerDetails findOwnerDetailsById(int id, boolean withPets, boolean withVisits)
+        throws DataAccessException {
+        OwnerDetails owner = ownerRepository.findDetailsById(id)
+            .orElseThrow(() -> new ObjectRetrievalFailureException(Owner.class, id));
+        if (!withPets) {
+            return owner;
+        }
+        Map<Integer, List<VisitDetails>> visitsByPet = new HashMap<>();
+        if (withVisits) {
+            for (VisitDetails visit : visitRepository.findDetailsByOwnerId(id)) {
+                visitsByPet.computeIfAbsent(visit.getPetId(), petId -> new ArrayList<>()).add(visit);
+            }
+        }
+        for (PetDetails pet : petRepository.findDetailsByOwnerId(id)) {
+            pet.setVisits(visitsByPet.getOrDefault(pet.getId(), new ArrayList<>()));
+            owner.addPet(pet);
+        }
+        return owner;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PetDetails findPetDetailsById(int id) throws DataAccessException {
+        PetDetails pet = petRepository.findDetailsById(id);
+        if (pet == null) {
+            throw new ObjectRetrievalFailureException(Pet.class, id);
+        }
+        return pet;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, OwnerDetails> findOwnerDetailsByIds(Collection<Integer> ids, boolean withPets,
+                                                            boolean withVisits) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, OwnerDetails> owners = new HashMap<>();
+        for (OwnerDetails owner : ownerRepository.findDetailsByIdIn(ids)) {
+            owners.put(owner.getId(), owner);
+        }
+        if (!withPets || owners.isEmpty()) {
+            return owners;
+        }
+        Map<Integer, List<VisitDetails>> visitsByPet = new HashMap<>();
+        if (withVisits) {
+            for (VisitDetails visit : visitRepository.findDetailsByOwnerIdIn(owners.keySet())) {
+                visitsByPet.computeIfAbsent(visit.getPetId(), petId -> new ArrayList<>()).add(visit);
+            }
+        }
+        for (PetDetails pet : petRepository.findDetailsByOwnerIdIn(owners.keySet())) {
+            pet.setVisits(visitsByPet.getOrDefault(pet.getId(), new ArrayList<>()));
+            owners.get(pet.getOwnerId()).addPet(pet);
+        }
+        return owners;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, PetDetails> findPetDetailsByIds(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, PetDetails> pets = new HashMap<>();
+        for (PetDetails pet : petRepository.findDetailsByIdIn(ids)) {
+            pets.put(pet.getId(), pet);
+        }
+        return pets;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Vet> findVetsByIds(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, Vet> vets = new HashMap<>();
+        for (Vet vet : vetRepository.findByIdIn(ids)) {
+            vets.put(vet.getId(), vet);
+        }
+        return vets;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<VisitDetails> findVisitsByPetId(int petId) throws DataAccessException {
+        return visitRepository.findDetailsByPetId(petId);
+    }
+
+    @Override
+    @Transactional
+    public int patchOwner(int id, int version, Map<String, Object> attributes) throws DataAccessException {
+        ownerSummaryStore.lockOwner(id);
+        if (ownerRepository.updateVersioned(Owner.class, id, version, attributes) == 0) {
+            throw updateFailure(Owner.class, id, version, ownerRepository.existsById(id));
+        }
+        ownerSummaryStore.refresh(id);
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.OWNER, id, EventType.UPDATED);
+            if (attributes.containsKey("city")) {
+                statisticsService.ownerSaved(id, (String) attributes.get("city"));
+            }
+        }
+        return version + 1;
+    }
+
+    @Override
+    @Transactional
+    public int patchPet(int ownerId, int id, int version, Map<String, Object> attributes) throws DataAccessException {
+        ownerSummaryStore.lockOwnerOfPet(id);
+        if (petRepository.updateVersioned(Pet.class, id, version, attributes, "owner", ownerId) == 0) {
+            throw updateFailure(Pet.class, id, version, petRepository.existsByIdAndOwnerId(id, ownerId));
+        }
+        ownerSummaryStore.refresh(ownerId);
+        if (ShardRouting.isDefaultShard()) {
+            outbox.append(AggregateType.PET, id, EventType.UPDATED);
+            if (attributes.containsKey("type")) {
+                statisticsService.petSaved(id, ownerId, ((PetType) attributes.get("type")).getId());
+            }
+        }
+        return version + 1;
+    }
+
+    private void refreshOwnerSummary(int ownerId) {
+        ownerRepository.flush();
+        ownerSummaryStore.refresh(ownerId);
+    }
+
+    private void refreshOwnerSummaryOfPet(int petId) {
+        ownerRepository.flush();
+        ownerSummaryStore.refreshByPetId(petId);
+    }
+
+    private static DataAccessException updateFailure(Class<?> entityType, int id, int version, boolean exists) {
+        if (!exists) {
+            return new ObjectRetrievalFailureException(entityType, id);
+        }
+        return new VersionConflictException(entityType.getSimpleName() + " " + id + " is no longer at version "
+            + version);
+    }
+
 
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link ReactiveClinicService} running the blocking {@link ClinicService} on the data access scheduler, so that its
+ * JDBC calls never hold an event loop thread. The transactions, caches and change events of the servlet stack are
+ * thereby kept as they are.
+ * <p>
+ * No R2DBC driver is released for the databases of this version, so the calls still hold one of the
+ * <code>petclinic.reactive.data-access-threads</code> threads while they wait for the database: the number of
+ * concurrent connections of the web server is no longer tied to them, the database throughput is.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OffloadingReactiveClinicService implements ReactiveClinicService {
+
+    private final ClinicService clinicService;
+
+    private final Scheduler dataAccessScheduler;
+
+    public OffloadingReactiveClinicService(ClinicService clinicService,
+                                           @Qualifier("dataAccessScheduler") Scheduler dataAccessScheduler) {
+        this.clinicService = clinicService;
+        this.dataAccessScheduler = dataAccessScheduler;
+    }
+
+    @Override
+    public Flux<PetType> findPetTypes() {
+        return many(clinicService::findPetTypes);
+    }
+
+    @Override
+    public Mono<Owner> findOwnerById(int id) {
+        return one(() -> clinicService.findOwnerById(id));
+    }
+
+    @Override
+    public Mono<Pet> findPetById(int id) {
+        return one(() -> clinicService.findPetById(id));
+    }
+
+    @Override
+    public Mono<Void> savePet(Pet pet) {
+        return run(() -> clinicService.savePet(pet));
+    }
+
+    @Override
+    public Mono<Void> addPet(int ownerId, Pet pet) {
+        return run(() -> clinicService.addPet(ownerId, pet));
+    }
+
+    @Override
+    public Mono<Void> saveVisit(Visit visit) {
+        return run(() -> clinicService.saveVisit(visit));
+    }
+
+    @Override
+    public Mono<Void> addVisit(int petId, Visit visit) {
+        return run(() -> clinicService.addVisit(petId, visit));
+    }
+
+    @Override
+    public Flux<Vet> findVets() {
+        return many(clinicService::findVets);
+    }
+
+    @Override
+    public Mono<Void> saveOwner(Owner owner) {
+        return run(() -> clinicService.saveOwner(owner));
+    }
+
+    @Override
+    public Flux<Owner> findAll() {
+        return many(clinicService::findAll);
+    }
+
+    @Override
+    public Flux<OwnerSummary> findOwnerSummaries() {
+        return many(clinicService::findOwnerSummaries);
+    }
+
+    @Override
+    public Flux<OwnerSummary> findOwnerSummariesByLastName(String lastName) {
+        return many(() -> clinicService.findOwnerSummariesByLastName(lastName));
+    }
+
+    @Override
+    public Mono<OwnerDetails> findOwnerDetailsById(int id) {
+        return one(() -> clinicService.findOwnerDetailsById(id));
+    }
+
+    @Override
+    public Mono<OwnerDetails> findOwnerDetailsById(int id, boolean withPets, boolean withVisits) {
+        return one(() -> clinicService.findOwnerDetailsById(id, withPets, withVisits));
+    }
+
+    @Override
+    public Mono<PetDetails> findPetDetailsById(int id) {
+        return one(() -> clinicService.findPetDetailsById(id));
+    }
+
+    @Override
+    public Mono<Map<Integer, OwnerDetails>> findOwnerDetailsByIds(Collection<Integer> ids, boolean withPets,
+                                                                  boolean withVisits) {
+        return one(() -> clinicService.findOwnerDetailsByIds(ids, withPets, withVisits));
+    }
+
+    @Override
+    public Mono<Map<Integer, PetDetails>> findPetDetailsByIds(Collection<Integer> ids) {
+        return one(() -> clinicService.findPetDetailsByIds(ids));
+    }
+
+    @Override
+    public Mono<Map<Integer, Vet>> findVetsByIds(Collection<Integer> ids) {
+        return one(() -> clinicService.findVetsByIds(ids));
+    }
+
+    @Override
+    public Flux<VisitDetails> findVisitsByPetId(int petId) {
+        return many(() -> clinicService.findVisitsByPetId(petId));
+    }
+
+    private <T> Mono<T> one(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(this.dataAccessScheduler);
+    }
+
+    private <T> Flux<T> many(Callable<? extends Collection<T>> call) {
+        return one(call).flatMapIterable(collection -> collection);
+    }
+
+    private Mono<Void> run(Runnable call) {
+        return Mono.<Void>fromRunnable(call).subscribeOn(this.dataAccessScheduler);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ClinicService} of the reactive stack: the same operations, whose results are published once available
+ * instead of being waited for by the calling thread.
+ */
+public interface ReactiveClinicService {
+
+    Flux<PetType> findPetTypes();
+
+    Mono<Owner> findOwnerById(int id);
+
+    Mono<Pet> findPetById(int id);
+
+    Mono<Void> savePet(Pet pet);
+
+    Mono<Void> addPet(int ownerId, Pet pet);
+
+    Mono<Void> saveVisit(Visit visit);
+
+    Mono<Void> addVisit(int petId, Visit visit);
+
+    Flux<Vet> findVets();
+
+    Mono<Void> saveOwner(Owner owner);
+
+    Flux<Owner> findAll();
+
+    Flux<OwnerSummary> findOwnerSummaries();
+
+    Flux<OwnerSummary> findOwnerSummariesByLastName(String lastName);
+
+    Mono<OwnerDetails> findOwnerDetailsById(int id);
+
+    Mono<OwnerDetails> findOwnerDetailsById(int id, boolean withPets, boolean withVisits);
+
+    Mono<PetDetails> findPetDetailsById(int id);
+
+    Mono<Map<Integer, OwnerDetails>> findOwnerDetailsByIds(Collection<Integer> ids, boolean withPets,
+                                                           boolean withVisits);
+
+    Mono<Map<Integer, PetDetails>> findPetDetailsByIds(Collection<Integer> ids);
+
+    Mono<Map<Integer, Vet>> findVetsByIds(Collection<Integer> ids);
+
+    Flux<VisitDetails> findVisitsByPetId(int petId);
+
+}
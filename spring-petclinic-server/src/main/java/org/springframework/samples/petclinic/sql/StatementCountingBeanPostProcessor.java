@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.samples.petclinic.tracing.Tracer;
+
+/**
+ * Proxies the datasources, keeping their class, so that the statements of their connections are recorded by the
+ * {@link StatementLog} of the thread running them. Hibernate and the <code>JdbcTemplate</code> are counted alike.
+ * The connection requests and the statements are also the pool and JDBC spans of the traced requests.
+ */
+public class StatementCountingBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Log logger = LogFactory.getLog(StatementCountingBeanPostProcessor.class);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            if (!invocation.getMethod().getName().equals("getConnection")) {
+                return invocation.proceed();
+            }
+            int span = Tracer.enter(Tracer.POOL, beanName);
+            try {
+                return countStatements((Connection) invocation.proceed());
+            } finally {
+                Tracer.exit(span);
+            }
+        });
+        try {
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        } catch (AopConfigException ex) {
+            logger.warn("Statements of datasource " + beanName + " not counted: " + ex.getMessage());
+            return bean;
+        }
+    }
+
+    /**
+     * The proxies are equal to themselves only, their targets not knowing them.
+     */
+    static Connection countStatements(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingBeanPostProcessor.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, arguments) -> {
+                if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                    return proxy == arguments[0];
+                }
+                Object result = invoke(connection, method, arguments);
+                if (result instanceof Statement) {
+                    String sql = method.getName().startsWith("prepare") ? (String) arguments[0] : null;
+                    return countStatements((Statement) result, sql);
+                }
+                return result;
+            });
+    }
+
+    private static Statement countStatements(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        InvocationHandler handler = (proxy, method, arguments) -> {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == arguments[0];
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, arguments);
+            }
+            String sql = preparedSql;
+            if (sql == null && arguments != null && arguments.length > 0 && arguments[0] instanceof String) {
+                sql = (String) arguments[0];
+            }
+            int span = Tracer.enter(Tracer.JDBC, sql);
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, arguments);
+            } finally {
+                StatementLog.record(sql, System.nanoTime() - start);
+                Tracer.exit(span);
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(StatementCountingBeanPostProcessor.class.getClassLoader(),
+            new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.sql;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the statements of each request: their number and time are sent in the response headers, written when the
+ * body starts, and the statements run more than <code>petclinic.statements.repeat-threshold</code> times are logged
+ * as suspected N+1 queries of the endpoint.
+ */
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-SQL-Statements";
+
+    public static final String TIME_HEADER = "X-SQL-Time";
+
+    private static final Log logger = LogFactory.getLog(StatementCountingFilter.class);
+
+    private final int repeatThreshold;
+
+    public StatementCountingFilter(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        StatementLog log = StatementLog.start();
+        StatementHeadersResponse statementHeadersResponse = new StatementHeadersResponse(response, log);
+        try {
+            filterChain.doFilter(request, statementHeadersResponse);
+            statementHeadersResponse.writeHeaders();
+        } finally {
+            log.stop();
+        }
+        Map<String, Integer> repeated = log.getRepeatedStatements(this.repeatThreshold);
+        if (!repeated.isEmpty() && logger.isWarnEnabled()) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+            repeated.forEach((shape, count) ->
+                logger.warn("Suspected N+1 queries: " + endpoint + " ran " + count + " times " + shape));
+        }
+    }
+
+    /**
+     * Writes the headers before the body, which commits the response.
+     */
+    private static class StatementHeadersResponse extends HttpServletResponseWrapper {
+
+        private final StatementLog log;
+
+        private boolean headersWritten;
+
+        StatementHeadersResponse(HttpServletResponse response, StatementLog log) {
+            super(response);
+            this.log = log;
+        }
+
+        void writeHeaders() {
+            if (this.headersWritten || isCommitted()) {
+                return;
+            }
+            this.headersWritten = true;
+            setHeader(COUNT_HEADER, String.valueOf(this.log.getCount()));
+            setHeader(TIME_HEADER, String.valueOf(this.log.getTime().toMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.sql;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The SQL statements run by the current thread since the log was started, counted by shape: the statement with its
+ * literals and the lengths of its <code>IN</code> lists erased.
+ * <p>
+ * Logs nest: a statement is counted by the current log and by those started before it on the thread.
+ */
+public final class StatementLog {
+
+    private static final ThreadLocal<StatementLog> current = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final StatementLog parent;
+
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+
+    private int count;
+
+    private long nanos;
+
+    private StatementLog(StatementLog parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts counting the statements of the current thread, until {@link #stop()}.
+     */
+    public static StatementLog start() {
+        StatementLog log = new StatementLog(current.get());
+        current.set(log);
+        return log;
+    }
+
+    /**
+     * @return the innermost log of the current thread, <code>null</code> when none is started
+     */
+    public static StatementLog current() {
+        return current.get();
+    }
+
+    public void stop() {
+        if (this.parent == null) {
+            current.remove();
+        } else {
+            current.set(this.parent);
+        }
+    }
+
+    static void record(String sql, long nanos) {
+        StatementLog log = current.get();
+        if (log == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (; log != null; log = log.parent) {
+            log.count++;
+            log.nanos += nanos;
+            log.countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = LITERAL.matcher(shape).replaceAll("?");
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the time spent executing the statements, fetching the rows of the queries excepted
+     */
+    public Duration getTime() {
+        return Duration.ofNanos(this.nanos);
+    }
+
+    /**
+     * @return the number of statements of each shape, in the order they were first run
+     */
+    public Map<String, Integer> getStatements() {
+        return Collections.unmodifiableMap(this.countsByShape);
+    }
+
+    /**
+     * @return the shapes run more than the given number of times, with their number of statements
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        this.countsByShape.forEach((shape, shapeCount) -> {
+            if (shapeCount > threshold) {
+                repeated.put(shape, shapeCount);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public String toString() {
+        return this.count + " statements in " + getTime().toMillis() + " ms " + this.countsByShape;
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Counting of the SQL statements run by each thread: every request reports its statements and their time in its
+ * response headers, and the statements repeated within a request, the shape of the N+1 problem, are logged.
+ *
+ */
+package org.springframework.samples.petclinic.sql;
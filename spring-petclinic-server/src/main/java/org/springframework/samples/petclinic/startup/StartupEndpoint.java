@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.startup;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Exposes the {@link StartupTimeline} report under <code>/manage/startup</code>.
+ */
+@Endpoint(id = "startup")
+public class StartupEndpoint {
+
+    private final StartupTimeline timeline;
+
+    public StartupEndpoint(StartupTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    @ReadOperation
+    public Map<String, Object> startup() {
+        return this.timeline.getReport();
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationContextInitializedEvent;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+/**
+ * Records how long each startup phase takes, from the JVM start up to the first request served.
+ * <p>
+ * Registered through <code>META-INF/spring.factories</code> so that it sees the events published before the
+ * application context exists. Once the context is prepared, the timeline registers itself as the
+ * <code>startupTimeline</code> bean, together with a {@link StartupTimingBeanPostProcessor} measuring the
+ * datasource and JPA bootstrap. The report is logged when the application is ready, completed by the first request,
+ * and exposed by the <code>/manage/startup</code> endpoint.
+ */
+public class StartupTimeline implements ApplicationListener<ApplicationEvent> {
+
+    static final String DATASOURCE_PHASE = "datasource-init";
+
+    static final String JPA_PHASE = "jpa-bootstrap";
+
+    private static final int SLOWEST_BEANS = 10;
+
+    private static final Log logger = LogFactory.getLog(StartupTimeline.class);
+
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private final List<BeanTiming> beans = new ArrayList<>();
+
+    private volatile String firstRequest;
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            milestone("application-starting");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            milestone("environment-prepared");
+        } else if (event instanceof ApplicationContextInitializedEvent) {
+            milestone("context-initialized");
+        } else if (event instanceof ApplicationPreparedEvent) {
+            milestone("context-prepared");
+            ConfigurableApplicationContext context = ((ApplicationPreparedEvent) event).getApplicationContext();
+            context.getBeanFactory().registerSingleton("startupTimeline", this);
+            context.getBeanFactory().addBeanPostProcessor(new StartupTimingBeanPostProcessor(this));
+        } else if (event instanceof WebServerInitializedEvent) {
+            milestone("web-server-started");
+        } else if (event instanceof ContextRefreshedEvent) {
+            milestone("context-refreshed");
+        } else if (event instanceof ApplicationStartedEvent) {
+            milestone("application-started");
+        } else if (event instanceof ApplicationReadyEvent) {
+            milestone("application-ready");
+            logger.info("Startup timeline: " + getReport());
+        } else if (event instanceof ServletRequestHandledEvent) {
+            firstRequest((ServletRequestHandledEvent) event);
+        }
+    }
+
+    private void firstRequest(ServletRequestHandledEvent event) {
+        if (this.firstRequest != null || event.getFailureCause() != null || event.getStatusCode() >= 400) {
+            return;
+        }
+        long elapsed = now();
+        synchronized (this) {
+            if (this.firstRequest != null) {
+                return;
+            }
+            this.firstRequest = event.getMethod() + " " + event.getRequestUrl();
+            this.milestones.put("first-request", elapsed);
+        }
+        logger.info("First request " + event.getMethod() + " " + event.getRequestUrl() + " served " + elapsed
+            + " ms after JVM start");
+    }
+
+    /**
+     * @return the elapsed milliseconds since the JVM start
+     */
+    long now() {
+        return System.currentTimeMillis() - this.jvmStartTime;
+    }
+
+    synchronized void milestone(String name) {
+        this.milestones.putIfAbsent(name, now());
+    }
+
+    synchronized void phase(String name, long durationMillis) {
+        this.phases.merge(name, durationMillis, Long::sum);
+    }
+
+    synchronized void bean(String beanName, String type, long durationMillis) {
+        this.beans.add(new BeanTiming(beanName, type, durationMillis));
+    }
+
+    /**
+     * @return the milestones, in milliseconds since the JVM start, the phase durations and the slowest bean
+     * initializations, in milliseconds
+     */
+    public synchronized Map<String, Object> getReport() {
+        List<BeanTiming> slowest = new ArrayList<>(this.beans);
+        slowest.sort((b1, b2) -> Long.compare(b2.duration, b1.duration));
+        List<Map<String, Object>> slowestBeans = new ArrayList<>();
+        for (BeanTiming bean : slowest.subList(0, Math.min(SLOWEST_BEANS, slowest.size()))) {
+            Map<String, Object> timing = new LinkedHashMap<>();
+            timing.put("bean", bean.name);
+            timing.put("type", bean.type);
+            timing.put("duration", bean.duration);
+            slowestBeans.add(timing);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("milestones", new LinkedHashMap<>(this.milestones));
+        report.put("phases", new LinkedHashMap<>(this.phases));
+        report.put("slowestBeans", Collections.unmodifiableList(slowestBeans));
+        if (this.firstRequest != null) {
+            report.put("firstRequest", this.firstRequest);
+        }
+        return report;
+    }
+
+    private static final class BeanTiming {
+
+        private final String name;
+
+        private final String type;
+
+        private final long duration;
+
+        private BeanTiming(String name, String type, long duration) {
+            this.name = name;
+            this.type = type;
+            this.duration = duration;
+        }
+    }
+
+}
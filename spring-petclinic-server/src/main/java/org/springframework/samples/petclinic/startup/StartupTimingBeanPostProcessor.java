@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.startup;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Measures the initialization of every bean, and attributes the datasource and JPA ones to their startup phase.
+ * <p>
+ * With <code>spring.data.jpa.repositories.bootstrap-mode=deferred</code>, Hibernate is bootstrapped on a background
+ * executor: its duration is then measured by decorating that executor.
+ */
+class StartupTimingBeanPostProcessor implements BeanPostProcessor {
+
+    private final StartupTimeline timeline;
+
+    private final Map<String, Long> initStartTimes = new ConcurrentHashMap<>();
+
+    StartupTimingBeanPostProcessor(StartupTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractEntityManagerFactoryBean) {
+            AbstractEntityManagerFactoryBean factoryBean = (AbstractEntityManagerFactoryBean) bean;
+            if (factoryBean.getBootstrapExecutor() != null) {
+                factoryBean.setBootstrapExecutor(new TimedBootstrapExecutor(factoryBean.getBootstrapExecutor()));
+            }
+        }
+        this.initStartTimes.put(beanName, System.nanoTime());
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long start = this.initStartTimes.remove(beanName);
+        if (start == null) {
+            return bean;
+        }
+        long duration = (System.nanoTime() - start) / 1_000_000;
+        this.timeline.bean(beanName, bean.getClass().getName(), duration);
+        if (bean instanceof DataSource || bean.getClass().getName().contains("DataSourceInitializer")) {
+            this.timeline.phase(StartupTimeline.DATASOURCE_PHASE, duration);
+        } else if (bean instanceof AbstractEntityManagerFactoryBean || bean instanceof EntityManagerFactory) {
+            this.timeline.phase(StartupTimeline.JPA_PHASE, duration);
+        }
+        return bean;
+    }
+
+    private class TimedBootstrapExecutor implements AsyncTaskExecutor {
+
+        private final AsyncTaskExecutor delegate;
+
+        TimedBootstrapExecutor(AsyncTaskExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            this.delegate.execute(timed(task));
+        }
+
+        @Override
+        public void execute(Runnable task, long startTimeout) {
+            this.delegate.execute(timed(task), startTimeout);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return this.delegate.submit(timed(task));
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return this.delegate.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    timeline.phase(StartupTimeline.JPA_PHASE, (System.nanoTime() - start) / 1_000_000);
+                }
+            });
+        }
+
+        private Runnable timed(Runnable task) {
+            return () -> {
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    timeline.phase(StartupTimeline.JPA_PHASE, (System.nanoTime() - start) / 1_000_000);
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Visit counters of the clinic, per day, pet type, city and owner.
+ * <p>
+ * Only the visits per day and per pet are counted; the visits of a pet are added to its type, its owner and the
+ * city of its owner, and moved when the pet or the owner changes. Every query reads counters already aggregated, so
+ * its cost depends on the number of days, pet types, cities or owners returned, not on the number of visits.
+ */
+public class ClinicStatistics {
+
+    /**
+     * Number of owners ranked by visits
+     */
+    static final int TOP_OWNERS = 100;
+
+    private final IntLongHashMap visitsByDay = new IntLongHashMap();
+
+    private final IntLongHashMap visitsByPet;
+
+    private final IntLongHashMap petTypes;
+
+    private final IntLongHashMap petOwners;
+
+    private final IntLongHashMap ownerCities;
+
+    private final IntLongHashMap visitsByPetType = new IntLongHashMap();
+
+    private final IntLongHashMap visitsByOwner;
+
+    private final IntLongHashMap visitsByCity = new IntLongHashMap();
+
+    private final Map<Integer, String> petTypeNames = new HashMap<>();
+
+    private final Map<String, Integer> cityIds = new HashMap<>();
+
+    private final List<String> cityNames = new ArrayList<>();
+
+    /**
+     * Owners with the most visits, in decreasing order of visits
+     */
+    private final int[] topOwners = new int[TOP_OWNERS];
+
+    private int topOwnersSize;
+
+    private long totalVisits;
+
+    private int lastVisitId;
+
+    /**
+     * Id up to which the visits were counted when loading the counters
+     */
+    private int loadedVisitId;
+
+    private long modifications;
+
+    public ClinicStatistics() {
+        this(16, 16);
+    }
+
+    /**
+     * @param expectedOwners number of owners to size the counters for
+     * @param expectedPets number of pets to size the counters for
+     */
+    public ClinicStatistics(int expectedOwners, int expectedPets) {
+        this.visitsByPet = new IntLongHashMap(expectedPets);
+        this.petTypes = new IntLongHashMap(expectedPets);
+        this.petOwners = new IntLongHashMap(expectedPets);
+        this.ownerCities = new IntLongHashMap(expectedOwners);
+        this.visitsByOwner = new IntLongHashMap(expectedOwners);
+    }
+
+    public synchronized void putPetType(int typeId, String name) {
+        this.petTypeNames.put(typeId, name);
+    }
+
+    /**
+     * Records the city of an owner, moving the visits of its pets if it moved.
+     */
+    public synchronized void ownerSaved(int ownerId, String city) {
+        int cityId = cityId(city);
+        if (this.ownerCities.containsKey(ownerId)) {
+            int previousCityId = (int) this.ownerCities.get(ownerId);
+            if (previousCityId != cityId) {
+                long visits = this.visitsByOwner.get(ownerId);
+                this.visitsByCity.add(previousCityId, -visits);
+                this.visitsByCity.add(cityId, visits);
+            }
+        }
+        this.ownerCities.put(ownerId, cityId);
+        this.modifications++;
+    }
+
+    /**
+     * Records the type and owner of a pet, moving its visits if they changed.
+     */
+    public synchronized void petSaved(int petId, int ownerId, int typeId) {
+        long visits = this.visitsByPet.get(petId);
+        if (this.petOwners.containsKey(petId)) {
+            if (this.petOwners.get(petId) == ownerId && this.petTypes.get(petId) == typeId) {
+                return;
+            }
+            addDerivedVisits(petId, -visits);
+        }
+        this.petTypes.put(petId, typeId);
+        this.petOwners.put(petId, ownerId);
+        addDerivedVisits(petId, visits);
+        this.modifications++;
+    }
+
+    /**
+     * Counts a new visit, unless it was already counted when loading the counters.
+     */
+    public synchronized void visitSaved(int visitId, int petId, LocalDate date) {
+        if (visitId <= this.loadedVisitId) {
+            return;
+        }
+        addVisits(petId, 1);
+        if (date != null) {
+            addVisitsOn(date, 1);
+        }
+        this.lastVisitId = Math.max(this.lastVisitId, visitId);
+    }
+
+    /**
+     * Adds visits to a pet, once its owner is known.
+     */
+    public synchronized void addVisits(int petId, long visits) {
+        this.visitsByPet.add(petId, visits);
+        addDerivedVisits(petId, visits);
+        this.totalVisits += visits;
+        this.modifications++;
+    }
+
+    public synchronized void addVisitsOn(LocalDate date, long visits) {
+        this.visitsByDay.add((int) date.toEpochDay(), visits);
+        this.modifications++;
+    }
+
+    private void addDerivedVisits(int petId, long visits) {
+        if (visits == 0 || !this.petOwners.containsKey(petId)) {
+            return;
+        }
+        int ownerId = (int) this.petOwners.get(petId);
+        this.visitsByPetType.add((int) this.petTypes.get(petId), visits);
+        long ownerVisits = this.visitsByOwner.add(ownerId, visits);
+        if (this.ownerCities.containsKey(ownerId)) {
+            this.visitsByCity.add((int) this.ownerCities.get(ownerId), visits);
+        }
+        if (visits > 0) {
+            rankOwner(ownerId, ownerVisits, true);
+        } else {
+            rankAllOwners();
+        }
+    }
+
+    private void rankOwner(int ownerId, long visits, boolean mayBeRanked) {
+        int position = -1;
+        for (int i = 0; mayBeRanked && i < this.topOwnersSize && position < 0; i++) {
+            if (this.topOwners[i] == ownerId) {
+                position = i;
+            }
+        }
+        if (position < 0) {
+            if (this.topOwnersSize < TOP_OWNERS) {
+                position = this.topOwnersSize++;
+            } else if (visits > this.visitsByOwner.get(this.topOwners[TOP_OWNERS - 1])) {
+                position = TOP_OWNERS - 1;
+            } else {
+                return;
+            }
+            this.topOwners[position] = ownerId;
+        }
+        while (position > 0 && this.visitsByOwner.get(this.topOwners[position - 1]) < visits) {
+            this.topOwners[position] = this.topOwners[position - 1];
+            this.topOwners[--position] = ownerId;
+        }
+    }
+
+    /**
+     * Ranks the owners again, when an owner lost visits and may leave the top.
+     */
+    private void rankAllOwners() {
+        this.topOwnersSize = 0;
+        this.visitsByOwner.forEach((ownerId, visits) -> {
+            if (visits > 0) {
+                rankOwner(ownerId, visits, false);
+            }
+        });
+    }
+
+    private int cityId(String city) {
+        Integer cityId = this.cityIds.get(city);
+        if (cityId == null) {
+            cityId = this.cityNames.size();
+            this.cityNames.add(city);
+            this.cityIds.put(city, cityId);
+        }
+        return cityId;
+    }
+
+    public synchronized long getTotalVisits() {
+        return this.totalVisits;
+    }
+
+    /**
+     * @return the id of the last visit counted
+     */
+    public synchronized int getLastVisitId() {
+        return this.lastVisitId;
+    }
+
+    /**
+     * Marks the visits up to the given id as counted, once the counters are loaded from the database.
+     */
+    public synchronized void loaded(int lastVisitId) {
+        this.lastVisitId = Math.max(this.lastVisitId, lastVisitId);
+        this.loadedVisitId = this.lastVisitId;
+    }
+
+    /**
+     * @return a number increased by every change of the counters
+     */
+    public synchronized long getModifications() {
+        return this.modifications;
+    }
+
+    /**
+     * @return the visits of every day of the period, both included
+     */
+    public synchronized Map<LocalDate, Long> getVisitsByDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> visits = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            visits.put(day, this.visitsByDay.get((int) day.toEpochDay()));
+        }
+        return visits;
+    }
+
+    /**
+     * @return the visits by name of pet type, in decreasing order of visits
+     */
+    public synchronized Map<String, Long> getVisitsByPetType() {
+        Map<String, Long> visits = new HashMap<>();
+        this.visitsByPetType.forEach((typeId, typeVisits) ->
+            visits.put(this.petTypeNames.getOrDefault(typeId, String.valueOf(typeId)), typeVisits));
+        return sortByDecreasingVisits(visits);
+    }
+
+    /**
+     * @return the visits by city, in decreasing order of visits
+     */
+    public synchronized Map<String, Long> getVisitsByCity() {
+        Map<String, Long> visits = new HashMap<>();
+        this.visitsByCity.forEach((cityId, cityVisits) -> visits.put(this.cityNames.get(cityId), cityVisits));
+        return sortByDecreasingVisits(visits);
+    }
+
+    /**
+     * @param limit maximum number of owners, at most {@value #TOP_OWNERS}
+     * @return the owners with the most visits, in decreasing order of visits
+     */
+    public synchronized List<OwnerVisits> getTopOwners(int limit) {
+        List<OwnerVisits> owners = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, this.topOwnersSize); i++) {
+            owners.add(new OwnerVisits(this.topOwners[i], this.visitsByOwner.get(this.topOwners[i])));
+        }
+        return owners;
+    }
+
+    /**
+     * Reads the counters of visits by day and by pet, from which the others are derived.
+     *
+     * @return the id of the last visit counted
+     */
+    synchronized int forEachCounter(IntLongHashMap.Entry visitsByDay, IntLongHashMap.Entry visitsByPet) {
+        this.visitsByDay.forEach(visitsByDay);
+        this.visitsByPet.forEach(visitsByPet);
+        return this.lastVisitId;
+    }
+
+    private static Map<String, Long> sortByDecreasingVisits(Map<String, Long> visits) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        visits.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+}
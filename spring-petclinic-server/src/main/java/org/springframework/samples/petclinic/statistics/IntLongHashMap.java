@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map of <code>int</code> keys to <code>long</code> values, without boxing: two arrays and
+ * linear probing. Absent keys have a value of zero.
+ */
+final class IntLongHashMap {
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    IntLongHashMap() {
+        this(16);
+    }
+
+    IntLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new long[capacity];
+        Arrays.fill(this.keys, FREE);
+    }
+
+    long get(int key) {
+        int slot = find(key);
+        return this.keys[slot] == FREE ? 0 : this.values[slot];
+    }
+
+    boolean containsKey(int key) {
+        return this.keys[find(key)] != FREE;
+    }
+
+    void put(int key, long value) {
+        int slot = find(key);
+        if (this.keys[slot] == FREE) {
+            insert(slot, key, value);
+        } else {
+            this.values[slot] = value;
+        }
+    }
+
+    /**
+     * @return the new value of the key
+     */
+    long add(int key, long delta) {
+        int slot = find(key);
+        if (this.keys[slot] == FREE) {
+            insert(slot, key, delta);
+            return delta;
+        }
+        return this.values[slot] += delta;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void forEach(Entry action) {
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != FREE) {
+                action.accept(this.keys[slot], this.values[slot]);
+            }
+        }
+    }
+
+    private int find(int key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Unsupported key " + key);
+        }
+        int mask = this.keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (this.keys[slot] != FREE && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, int key, long value) {
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size * 2 > this.keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = this.keys;
+        long[] oldValues = this.values;
+        this.keys = new int[oldKeys.length * 2];
+        this.values = new long[oldKeys.length * 2];
+        Arrays.fill(this.keys, FREE);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE) {
+                int newSlot = find(oldKeys[slot]);
+                this.keys[newSlot] = oldKeys[slot];
+                this.values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    interface Entry {
+
+        void accept(int key, long value);
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+/**
+ * Number of visits of the pets of an owner.
+ */
+public class OwnerVisits {
+
+    private final int ownerId;
+
+    private final long visits;
+
+    public OwnerVisits(int ownerId, long visits) {
+        this.ownerId = ownerId;
+        this.visits = visits;
+    }
+
+    public int getOwnerId() {
+        return this.ownerId;
+    }
+
+    public long getVisits() {
+        return this.visits;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Maintains the {@link ClinicStatistics} as owners, pets and visits are saved.
+ * <p>
+ * The counters are loaded when the application is ready; the changes committed meanwhile are applied once they are
+ * loaded. Each change is counted after its transaction commits, and the counters are checkpointed periodically and
+ * when the application stops.
+ */
+@Service
+public class StatisticsService {
+
+    private static final Log logger = LogFactory.getLog(StatisticsService.class);
+
+    private final StatisticsStore statisticsStore;
+
+    private volatile ClinicStatistics statistics;
+
+    /**
+     * Changes committed while the counters are loaded
+     */
+    private final List<Consumer<ClinicStatistics>> pendingChanges = new ArrayList<>();
+
+    private final Object loadMonitor = new Object();
+
+    private long checkpointModifications;
+
+    public StatisticsService(StatisticsStore statisticsStore) {
+        this.statisticsStore = statisticsStore;
+    }
+
+    /**
+     * Loads the counters before the first query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this.loadMonitor) {
+            if (this.statistics != null) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            ClinicStatistics statistics = this.statisticsStore.load();
+            synchronized (this.pendingChanges) {
+                this.pendingChanges.forEach(change -> change.accept(statistics));
+                this.pendingChanges.clear();
+                this.statistics = statistics;
+            }
+            logger.info("Loaded the statistics of " + statistics.getTotalVisits() + " visits in "
+                + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Saves the counters if they changed since the last checkpoint.
+     */
+    @PreDestroy
+    public synchronized void checkpoint() {
+        ClinicStatistics statistics = this.statistics;
+        if (statistics == null) {
+            return;
+        }
+        long modifications = statistics.getModifications();
+        if (modifications != this.checkpointModifications) {
+            this.statisticsStore.save(statistics);
+            this.checkpointModifications = modifications;
+        }
+    }
+
+    public void ownerSaved(Owner owner) {
+        ownerSaved(owner.getId(), owner.getCity());
+    }
+
+    public void ownerSaved(int ownerId, String city) {
+        afterCommit(statistics -> statistics.ownerSaved(ownerId, city));
+    }
+
+    public void petSaved(Pet pet) {
+        petSaved(pet.getId(), pet.getOwner().getId(), pet.getType().getId());
+    }
+
+    public void petSaved(int petId, int ownerId, int typeId) {
+        afterCommit(statistics -> statistics.petSaved(petId, ownerId, typeId));
+    }
+
+    public void visitSaved(Visit visit) {
+        visitSaved(visit.getId(), visit.getPet().getId(), visit);
+    }
+
+    /**
+     * @param petId the id of the pet of the visit, whose reference may be an uninitialized proxy
+     */
+    public void visitSaved(int visitId, int petId, Visit visit) {
+        LocalDate date = visit.getDate() == null ? null : new Date(visit.getDate().getTime()).toLocalDate();
+        afterCommit(statistics -> statistics.visitSaved(visitId, petId, date));
+    }
+
+    public Map<LocalDate, Long> getVisitsByDay(LocalDate from, LocalDate to) {
+        return statistics().getVisitsByDay(from, to);
+    }
+
+    public Map<String, Long> getVisitsByPetType() {
+        return statistics().getVisitsByPetType();
+    }
+
+    public Map<String, Long> getVisitsByCity() {
+        return statistics().getVisitsByCity();
+    }
+
+    public List<OwnerVisits> getTopOwners(int limit) {
+        return statistics().getTopOwners(limit);
+    }
+
+    public long getTotalVisits() {
+        return statistics().getTotalVisits();
+    }
+
+    private ClinicStatistics statistics() {
+        if (this.statistics == null) {
+            load();
+        }
+        return this.statistics;
+    }
+
+    private void afterCommit(Consumer<ClinicStatistics> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<ClinicStatistics> change) {
+        ClinicStatistics statistics = this.statistics;
+        if (statistics == null) {
+            synchronized (this.pendingChanges) {
+                statistics = this.statistics;
+                if (statistics == null) {
+                    this.pendingChanges.add(change);
+                    return;
+                }
+            }
+        }
+        change.accept(statistics);
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads and checkpoints the {@link ClinicStatistics}.
+ * <p>
+ * Only the visits by day and by pet are stored, with the id of the last visit counted. At startup they are restored
+ * and the visits inserted since are added, while the pet types, pet owners and owner cities are read from their
+ * tables, so that the other counters reflect the current pets and owners. Without checkpoint, the visits are counted
+ * by the database once.
+ */
+@Repository
+public class StatisticsStore {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StatisticsStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ClinicStatistics load() {
+        return this.transactionTemplate.execute(status -> {
+            ClinicStatistics statistics = new ClinicStatistics(
+                this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners", Integer.class),
+                this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets", Integer.class));
+            this.jdbcTemplate.query("SELECT id, name FROM types",
+                rs -> statistics.putPetType(rs.getInt(1), rs.getString(2)));
+            this.jdbcTemplate.query("SELECT id, city FROM owners",
+                rs -> statistics.ownerSaved(rs.getInt(1), rs.getString(2)));
+            this.jdbcTemplate.query("SELECT id, owner_id, type_id FROM pets",
+                rs -> statistics.petSaved(rs.getInt(1), rs.getInt(2), rs.getInt(3)));
+
+            List<Integer> checkpoint = this.jdbcTemplate.queryForList(
+                "SELECT last_visit_id FROM stats_checkpoint WHERE id = 1", Integer.class);
+            int lastVisitId;
+            if (checkpoint.isEmpty()) {
+                lastVisitId = this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM visits",
+                    Integer.class);
+                this.jdbcTemplate.query("SELECT visit_date, COUNT(*) FROM visits WHERE id <= ? GROUP BY visit_date",
+                    rs -> addVisitsOn(statistics, rs.getDate(1), rs.getLong(2)), lastVisitId);
+                this.jdbcTemplate.query("SELECT pet_id, COUNT(*) FROM visits WHERE id <= ? GROUP BY pet_id",
+                    rs -> statistics.addVisits(rs.getInt(1), rs.getLong(2)), lastVisitId);
+            } else {
+                lastVisitId = checkpoint.get(0);
+                this.jdbcTemplate.query("SELECT visit_date, visits FROM stats_visits_per_day",
+                    rs -> addVisitsOn(statistics, rs.getDate(1), rs.getLong(2)));
+                this.jdbcTemplate.query("SELECT pet_id, visits FROM stats_visits_per_pet",
+                    rs -> statistics.addVisits(rs.getInt(1), rs.getLong(2)));
+                this.jdbcTemplate.query("SELECT id, pet_id, visit_date FROM visits WHERE id > ?",
+                    rs -> statistics.visitSaved(rs.getInt(1), rs.getInt(2), toLocalDate(rs.getDate(3))), lastVisitId);
+            }
+            statistics.loaded(lastVisitId);
+            return statistics;
+        });
+    }
+
+    /**
+     * Replaces the checkpoint by the current counters.
+     */
+    public void save(ClinicStatistics statistics) {
+        List<Object[]> visitsByDay = new ArrayList<>();
+        List<Object[]> visitsByPet = new ArrayList<>();
+        int lastVisitId = statistics.forEachCounter(
+            (day, visits) -> visitsByDay.add(new Object[]{Date.valueOf(LocalDate.ofEpochDay(day)), visits}),
+            (petId, visits) -> visitsByPet.add(new Object[]{petId, visits}));
+        this.transactionTemplate.execute(status -> {
+            this.jdbcTemplate.update("DELETE FROM stats_checkpoint");
+            this.jdbcTemplate.update("DELETE FROM stats_visits_per_day");
+            this.jdbcTemplate.update("DELETE FROM stats_visits_per_pet");
+            this.jdbcTemplate.batchUpdate("INSERT INTO stats_visits_per_day (visit_date, visits) VALUES (?, ?)",
+                visitsByDay, BATCH_SIZE, (ps, row) -> {
+                    ps.setDate(1, (Date) row[0]);
+                    ps.setLong(2, (Long) row[1]);
+                });
+            this.jdbcTemplate.batchUpdate("INSERT INTO stats_visits_per_pet (pet_id, visits) VALUES (?, ?)",
+                visitsByPet, BATCH_SIZE, (ps, row) -> {
+                    ps.setInt(1, (Integer) row[0]);
+                    ps.setLong(2, (Long) row[1]);
+                });
+            this.jdbcTemplate.update("INSERT INTO stats_checkpoint (id, last_visit_id, saved_at) VALUES (1, ?, ?)",
+                lastVisitId, new Timestamp(System.currentTimeMillis()));
+            return null;
+        });
+    }
+
+    private static void addVisitsOn(ClinicStatistics statistics, Date date, long visits) {
+        if (date != null) {
+            statistics.addVisitsOn(date.toLocalDate(), visits);
+        }
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+}
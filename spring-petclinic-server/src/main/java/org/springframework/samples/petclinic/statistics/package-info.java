@@ -0,0 +1,7 @@
+/**
+ *
+ * Clinic statistics: visit counters maintained in memory as visits, pets and owners are committed, checkpointed to
+ * the database and restored from it at startup.
+ *
+ */
+package org.springframework.samples.petclinic.statistics;
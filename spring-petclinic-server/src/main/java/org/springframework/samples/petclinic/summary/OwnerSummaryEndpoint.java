@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.summary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
+
+/**
+ * Rebuilds the <code>owner_summary</code> table of every shard on a POST to <code>/manage/ownersummaries</code>,
+ * answering the number of owners summarized by shard.
+ */
+@Endpoint(id = "ownersummaries")
+public class OwnerSummaryEndpoint {
+
+    private static final Log logger = LogFactory.getLog(OwnerSummaryEndpoint.class);
+
+    private final OwnerSummaryStore store;
+
+    private final List<String> shards = new ArrayList<>();
+
+    public OwnerSummaryEndpoint(OwnerSummaryStore store, Iterable<String> shards) {
+        this.store = store;
+        shards.forEach(this.shards::add);
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        Map<String, Integer> owners = new LinkedHashMap<>();
+        for (String shard : this.shards) {
+            long start = System.currentTimeMillis();
+            int summarized = ShardRouting.callOn(shard, this.store::rebuild);
+            logger.info("Owner summaries of shard " + shard + " rebuilt: " + summarized + " owners in "
+                + (System.currentTimeMillis() - start) + " ms");
+            owners.put(shard, summarized);
+        }
+        return owners;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.summary;
+
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Rebuilds the owner summaries of every shard once the application is ready, before the other listeners of that
+ * event: the warm-up then replays the owner list and search on complete summaries.
+ */
+public class OwnerSummaryRebuild {
+
+    private final OwnerSummaryEndpoint endpoint;
+
+    private volatile Map<String, Integer> owners;
+
+    private volatile long duration;
+
+    public OwnerSummaryRebuild(OwnerSummaryEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void run() {
+        long start = System.currentTimeMillis();
+        Map<String, Integer> owners = this.endpoint.rebuild();
+        this.duration = System.currentTimeMillis() - start;
+        this.owners = owners;
+    }
+
+    public boolean isDone() {
+        return this.owners != null;
+    }
+
+    /**
+     * @return the number of owners summarized by shard, or <code>null</code> until done
+     */
+    public Map<String, Integer> getOwners() {
+        return this.owners;
+    }
+
+    public long getDuration() {
+        return this.duration;
+    }
+
+}
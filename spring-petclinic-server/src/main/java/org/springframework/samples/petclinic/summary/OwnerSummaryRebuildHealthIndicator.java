@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.summary;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Keeps the health of the instance out of service until its {@link OwnerSummaryRebuild} is done, so that the load
+ * balancer checking <code>/manage/health</code> does not send it owner searches missing owners.
+ */
+public class OwnerSummaryRebuildHealthIndicator implements HealthIndicator {
+
+    private final OwnerSummaryRebuild rebuild;
+
+    public OwnerSummaryRebuildHealthIndicator(OwnerSummaryRebuild rebuild) {
+        this.rebuild = rebuild;
+    }
+
+    @Override
+    public Health health() {
+        if (!this.rebuild.isDone()) {
+            return Health.outOfService().withDetail("done", false).build();
+        }
+        return Health.up().withDetail("done", true).withDetail("owners", this.rebuild.getOwners())
+            .withDetail("durationMillis", this.rebuild.getDuration()).build();
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.summary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetSummary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads and maintains the <code>owner_summary</code> table, one row per owner with its contact information, the
+ * names of its pets, its number of pets and the date of its last visit.
+ * <p>
+ * The list and the search by last name read that table alone, in the order of its primary key and of its
+ * <code>(last_name, owner_id)</code> index. The rows are refreshed in the transactions changing owners, pets and
+ * visits, and rebuilt from the owners, pets and visits tables by ranges of owner ids.
+ * <p>
+ * Both lock the rows of the owners before reading anything else, so that the summary of an owner is computed by one
+ * transaction at a time, each reading what the previous ones committed: under REPEATABLE READ the first read of a
+ * transaction fixes the snapshot of the following ones. Pet rows are always locked before their owner.
+ */
+@Repository
+public class OwnerSummaryStore {
+
+    /**
+     * Owners rebuilt per transaction
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Length of the <code>pets</code> column: the names past it are left out, but still counted
+     */
+    static final int MAX_PETS_LENGTH = 4000;
+
+    private static final String COLUMNS =
+        "owner_id, first_name, last_name, address, city, telephone, pets, pet_count, last_visit_date";
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OwnerSummaryStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return the summaries of all the owners, by owner id
+     */
+    public List<OwnerSummary> findAll() {
+        return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM owner_summary ORDER BY owner_id",
+            (rs, row) -> toOwnerSummary(rs));
+    }
+
+    /**
+     * @return the summaries of the owners whose last name starts with the given prefix, by last name then owner id
+     */
+    public List<OwnerSummary> findByLastName(String prefix) {
+        return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM owner_summary WHERE last_name LIKE ? ESCAPE '"
+                + LIKE_ESCAPE + "' ORDER BY last_name, owner_id",
+            (rs, row) -> toOwnerSummary(rs), escapeLike(prefix) + "%");
+    }
+
+    /**
+     * Locks the row of an owner until the end of the current transaction. Transactions refreshing the summary of the
+     * owner must call it before their first read.
+     */
+    public void lockOwner(int ownerId) {
+        this.jdbcTemplate.queryForList("SELECT id FROM owners WHERE id = ? FOR UPDATE", Integer.class, ownerId);
+    }
+
+    /**
+     * Locks the row of a pet, then the row of its owner, see {@link #lockOwner(int)}.
+     */
+    public void lockOwnerOfPet(int petId) {
+        this.jdbcTemplate.queryForList("SELECT owner_id FROM pets WHERE id = ? FOR UPDATE", Integer.class, petId)
+            .forEach(this::lockOwner);
+    }
+
+    /**
+     * Recomputes the summary of an owner, within the current transaction if any. The changes of the persistence
+     * context must have been flushed, and the owner locked by {@link #lockOwner(int)}.
+     */
+    public void refresh(int ownerId) {
+        rebuild(ownerId, ownerId);
+    }
+
+    /**
+     * Recomputes the summary of the owner of a pet, see {@link #refresh(int)}.
+     */
+    public void refreshByPetId(int petId) {
+        this.jdbcTemplate.queryForList("SELECT owner_id FROM pets WHERE id = ?", Integer.class, petId)
+            .forEach(this::refresh);
+    }
+
+    /**
+     * Recomputes the summaries of all the owners, one transaction per range of {@value #BATCH_SIZE} owner ids: the
+     * summaries stay readable meanwhile.
+     * @return the number of owners summarized
+     */
+    public int rebuild() {
+        int[] range = this.jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM owners", (rs, row) -> {
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[]{min, rs.getInt(2)};
+        });
+        if (range == null) {
+            this.jdbcTemplate.update("DELETE FROM owner_summary");
+            return 0;
+        }
+        this.jdbcTemplate.update("DELETE FROM owner_summary WHERE owner_id < ? OR owner_id > ?", range[0], range[1]);
+        int owners = 0;
+        for (long from = range[0]; from <= range[1]; from += BATCH_SIZE) {
+            owners += rebuild((int) from, (int) Math.min(from + BATCH_SIZE - 1, range[1]));
+        }
+        return owners;
+    }
+
+    private int rebuild(int fromId, int toId) {
+        return this.transactionTemplate.execute(status -> {
+            Map<Integer, Row> rows = new LinkedHashMap<>();
+            this.jdbcTemplate.query(
+                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id BETWEEN ? AND ?"
+                    + " FOR UPDATE",
+                rs -> {
+                    rows.put(rs.getInt(1), new Row(rs));
+                }, fromId, toId);
+            this.jdbcTemplate.query(
+                "SELECT owner_id, id, name FROM pets WHERE owner_id BETWEEN ? AND ? ORDER BY LOWER(name), id",
+                rs -> {
+                    Row row = rows.get(rs.getInt(1));
+                    if (row != null) {
+                        row.addPet(rs.getInt(2), rs.getString(3));
+                    }
+                }, fromId, toId);
+            this.jdbcTemplate.query("SELECT p.owner_id, MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id"
+                    + " WHERE p.owner_id BETWEEN ? AND ? GROUP BY p.owner_id",
+                rs -> {
+                    Row row = rows.get(rs.getInt(1));
+                    if (row != null) {
+                        row.lastVisitDate = rs.getDate(2);
+                    }
+                }, fromId, toId);
+
+            this.jdbcTemplate.update("DELETE FROM owner_summary WHERE owner_id BETWEEN ? AND ?", fromId, toId);
+            this.jdbcTemplate.batchUpdate("INSERT INTO owner_summary (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new ArrayList<>(rows.values()), BATCH_SIZE, (ps, row) -> {
+                    ps.setInt(1, row.ownerId);
+                    ps.setString(2, row.firstName);
+                    ps.setString(3, row.lastName);
+                    ps.setString(4, row.address);
+                    ps.setString(5, row.city);
+                    ps.setString(6, row.telephone);
+                    ps.setString(7, row.pets.toString());
+                    ps.setInt(8, row.petCount);
+                    ps.setObject(9, row.lastVisitDate, Types.DATE);
+                });
+            return rows.size();
+        });
+    }
+
+    private static OwnerSummary toOwnerSummary(ResultSet rs) throws SQLException {
+        int ownerId = rs.getInt(1);
+        Date lastVisitDate = rs.getDate(9);
+        OwnerSummary owner = new OwnerSummary(ownerId, rs.getString(2), rs.getString(3), rs.getString(4),
+            rs.getString(5), rs.getString(6), rs.getInt(8), lastVisitDate);
+        String pets = rs.getString(7);
+        if (pets != null && !pets.isEmpty()) {
+            for (String line : pets.split("\n")) {
+                int separator = line.indexOf(' ');
+                owner.addPet(new PetSummary(Integer.valueOf(line.substring(0, separator)), ownerId,
+                    line.substring(separator + 1)));
+            }
+        }
+        return owner;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static class Row {
+
+        private final int ownerId;
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String address;
+
+        private final String city;
+
+        private final String telephone;
+
+        /**
+         * One line per pet: its id, a space and its name
+         */
+        private final StringBuilder pets = new StringBuilder();
+
+        private int petCount;
+
+        private Date lastVisitDate;
+
+        Row(ResultSet rs) throws SQLException {
+            this.ownerId = rs.getInt(1);
+            this.firstName = rs.getString(2);
+            this.lastName = rs.getString(3);
+            this.address = rs.getString(4);
+            this.city = rs.getString(5);
+            this.telephone = rs.getString(6);
+        }
+
+        void addPet(int id, String name) {
+            this.petCount++;
+            String line = id + " " + (name == null ? "" : name);
+            if (this.pets.length() + line.length() + 1 > MAX_PETS_LENGTH) {
+                return;
+            }
+            if (this.pets.length() > 0) {
+                this.pets.append('\n');
+            }
+            this.pets.append(line);
+        }
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Owner summaries: the owner list denormalized into the <code>owner_summary</code> table, kept up to date by the
+ * writes of the <code>ClinicService</code> and rebuilt at startup or on demand.
+ *
+ */
+package org.springframework.samples.petclinic.summary;
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Reports spanning all the clinics, merged from the answers of the shards.
+ */
+public class CrossClinicReports {
+
+    private final ShardFanOut shardFanOut;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CrossClinicReports(ShardFanOut shardFanOut, JdbcTemplate jdbcTemplate) {
+        this.shardFanOut = shardFanOut;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the number of owners, pets and visits of each shard, and of all of them under <code>total</code>
+     */
+    public Map<String, Object> countRecords() {
+        Map<String, Map<String, Long>> shards = this.shardFanOut.onEachShard(() -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("owners", count("owners"));
+            counts.put("pets", count("pets"));
+            counts.put("visits", count("visits"));
+            return counts;
+        });
+        Map<String, Long> total = new LinkedHashMap<>();
+        shards.values().forEach(counts -> counts.forEach((table, count) -> total.merge(table, count, Long::sum)));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("shards", shards);
+        report.put("total", total);
+        return report;
+    }
+
+    private long count(String table) {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+
+import javax.cache.annotation.CacheInvocationParameter;
+import javax.cache.annotation.CacheKeyGenerator;
+import javax.cache.annotation.CacheKeyInvocationContext;
+import javax.cache.annotation.GeneratedCacheKey;
+
+/**
+ * Key of the JCache annotations naming the current shard along with the parameters, so that the shards share the
+ * caches without sharing their entries.
+ */
+public class ShardCacheKeyGenerator implements CacheKeyGenerator {
+
+    @Override
+    public GeneratedCacheKey generateCacheKey(CacheKeyInvocationContext<? extends Annotation> context) {
+        CacheInvocationParameter[] keyParameters = context.getKeyParameters();
+        Object[] parameters = new Object[keyParameters.length];
+        for (int i = 0; i < keyParameters.length; i++) {
+            parameters[i] = keyParameters[i].getValue();
+        }
+        return new ShardCacheKey(ShardRouting.getCurrentShard(), parameters);
+    }
+
+    private static final class ShardCacheKey implements GeneratedCacheKey {
+
+        private final String shard;
+
+        private final Object[] parameters;
+
+        ShardCacheKey(String shard, Object[] parameters) {
+            this.shard = shard;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ShardCacheKey)) {
+                return false;
+            }
+            ShardCacheKey key = (ShardCacheKey) other;
+            return this.shard.equals(key.shard) && Arrays.deepEquals(this.parameters, key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.shard.hashCode() + Arrays.deepHashCode(this.parameters);
+        }
+
+        @Override
+        public String toString() {
+            return this.shard + Arrays.deepToString(this.parameters);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Runs a query on every shard in parallel, for the reports spanning all the clinics.
+ */
+public class ShardFanOut {
+
+    private final List<String> shards;
+
+    private final Duration timeout;
+
+    private final ExecutorService executor;
+
+    public ShardFanOut(Iterable<String> shards, Duration timeout) {
+        this.shards = new ArrayList<>();
+        shards.forEach(this.shards::add);
+        this.timeout = timeout;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the result of the query on each shard, in the order of the shards
+     * @throws QueryTimeoutException if a shard did not answer within the timeout
+     */
+    public <T> Map<String, T> onEachShard(Supplier<T> query) {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : this.shards) {
+            futures.put(shard, this.executor.submit(() -> ShardRouting.callOn(shard, query)));
+        }
+        long deadline = System.nanoTime() + this.timeout.toNanos();
+        Map<String, T> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+                try {
+                    results.put(future.getKey(),
+                        future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException ex) {
+                    throw new QueryTimeoutException("Shard " + future.getKey() + " did not answer within "
+                        + this.timeout.toMillis() + " ms");
+                }
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", ex);
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+}
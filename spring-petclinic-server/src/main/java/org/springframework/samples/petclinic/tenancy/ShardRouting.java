@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard whose datasource the {@link TenantRoutingDataSource} uses on the current thread: the shard of the clinic
+ * during the calls of the <code>ClinicService</code>, the default shard otherwise.
+ */
+public final class ShardRouting {
+
+    /**
+     * The database of <code>spring.datasource</code>
+     */
+    public static final String DEFAULT_SHARD = "default";
+
+    private static final ThreadLocal<String> currentShard = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    public static String getCurrentShard() {
+        String shard = currentShard.get();
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+
+    public static boolean isDefaultShard() {
+        return DEFAULT_SHARD.equals(getCurrentShard());
+    }
+
+    /**
+     * Runs the call against the given shard, then routes back to the previous one.
+     */
+    public static <T> T callOn(String shard, Supplier<T> call) {
+        String previous = route(shard);
+        try {
+            return call.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static boolean isRouted() {
+        return currentShard.get() != null;
+    }
+
+    /**
+     * @return the previous shard, to {@link #restore(String) restore} afterwards
+     */
+    static String route(String shard) {
+        String previous = currentShard.get();
+        currentShard.set(shard);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous == null) {
+            currentShard.remove();
+        } else {
+            currentShard.set(previous);
+        }
+    }
+
+}
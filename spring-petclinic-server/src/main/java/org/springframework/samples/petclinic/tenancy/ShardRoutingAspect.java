@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Routes the calls of the <code>ClinicService</code> to the shard of the clinic of the request. Ordered before the
+ * transaction and cache interceptors, so that the transaction takes its connection from that shard and the cache
+ * key names it. A call already routed, by a {@link ShardFanOut}, keeps its shard.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+
+    @Around("execution(* org.springframework.samples.petclinic.service.ClinicService.*(..))")
+    public Object routeToTenantShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        String shard = TenantContext.getShard();
+        if (shard == null || ShardRouting.isRouted()) {
+            return joinPoint.proceed();
+        }
+        String previous = ShardRouting.route(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardRouting.restore(previous);
+        }
+    }
+
+}
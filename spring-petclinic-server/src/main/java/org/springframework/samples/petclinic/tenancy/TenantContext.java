@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+/**
+ * Clinic of the request being served, and its shard, as resolved by the {@link TenantFilter}.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> tenant = new ThreadLocal<>();
+
+    private static final ThreadLocal<String> shard = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return the clinic, or <code>null</code> outside of a request naming one
+     */
+    public static String getTenant() {
+        return tenant.get();
+    }
+
+    /**
+     * @return the shard of the clinic, or <code>null</code> outside of a request naming one
+     */
+    public static String getShard() {
+        return shard.get();
+    }
+
+    static void set(String tenantId, String shardName) {
+        tenant.set(tenantId);
+        shard.set(shardName);
+    }
+
+    static void clear() {
+        tenant.remove();
+        shard.remove();
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Resolves the clinic of each request from a header, <code>X-Clinic-Id</code> by default. The requests without it
+ * are served by the default shard; those naming an unknown clinic are rejected.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final String header;
+
+    private final Map<String, String> shardsByTenant;
+
+    public TenantFilter(String header, Map<String, String> shardsByTenant) {
+        this.header = header;
+        this.shardsByTenant = shardsByTenant;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        String tenant = request.getHeader(this.header);
+        if (tenant == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String shard = this.shardsByTenant.get(tenant);
+        if (shard == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown clinic " + tenant);
+            return;
+        }
+        TenantContext.set(tenant, shard);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Datasource of the {@link ShardRouting#getCurrentShard() current shard}. A shard that is not configured is an
+ * error rather than a fallback to the default shard, which would mix the data of the clinics.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+
+    /**
+     * @param otherShards datasources by shard name, the default shard excepted
+     */
+    public TenantRoutingDataSource(DataSource defaultShard, Map<String, DataSource> otherShards) {
+        if (otherShards.containsKey(ShardRouting.DEFAULT_SHARD)) {
+            throw new IllegalArgumentException("The shard name " + ShardRouting.DEFAULT_SHARD
+                + " is reserved to spring.datasource");
+        }
+        this.shards.put(ShardRouting.DEFAULT_SHARD, defaultShard);
+        this.shards.putAll(otherShards);
+        setTargetDataSources(new LinkedHashMap<>(this.shards));
+        setLenientFallback(false);
+    }
+
+    /**
+     * @return the names of the shards, the default one first
+     */
+    public Set<String> getShardNames() {
+        return Collections.unmodifiableSet(this.shards.keySet());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouting.getCurrentShard();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource dataSource : this.shards.values()) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+/**
+ *
+ * Clinics sharded over several databases: the clinic of each request is mapped to a shard, whose datasource serves
+ * the calls of the ClinicService, and the cross-clinic reports query every shard in parallel. The outbox and the
+ * in-memory views (statistics, directory, schedules) follow the default shard.
+ *
+ */
+package org.springframework.samples.petclinic.tenancy;
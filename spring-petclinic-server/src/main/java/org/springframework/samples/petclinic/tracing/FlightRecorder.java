@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the traces of the sampled requests: the most recent ones in a ring buffer, and the slowest ones above the
+ * slow threshold in a bounded heap. The sample rate and the slow threshold can be changed while running.
+ */
+public class FlightRecorder {
+
+    private static final Comparator<Trace> BY_DURATION = Comparator.comparingLong(Trace::getNanos);
+
+    private final int maxSpans;
+
+    private final AtomicReferenceArray<Trace> recent;
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final int slowestCapacity;
+
+    /**
+     * Fastest first, guarded by itself.
+     */
+    private final PriorityQueue<Trace> slowest;
+
+    private volatile double sampleRate;
+
+    private volatile long slowThresholdNanos;
+
+    public FlightRecorder(int recentCapacity, int slowestCapacity, int maxSpans, double sampleRate,
+                          Duration slowThreshold) {
+        this.recent = new AtomicReferenceArray<>(recentCapacity);
+        this.slowestCapacity = slowestCapacity;
+        this.slowest = new PriorityQueue<>(slowestCapacity + 1, BY_DURATION);
+        this.maxSpans = maxSpans;
+        setSampleRate(sampleRate);
+        setSlowThreshold(slowThreshold);
+    }
+
+    int getMaxSpans() {
+        return this.maxSpans;
+    }
+
+    boolean sample() {
+        double rate = this.sampleRate;
+        return rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    Trace record(TraceBuffer buffer, String name, int status) {
+        long id = this.recorded.incrementAndGet();
+        Trace trace = buffer.toTrace(id, name, status);
+        if (this.recent.length() > 0) {
+            this.recent.set((int) ((id - 1) % this.recent.length()), trace);
+        }
+        if (trace.getNanos() >= this.slowThresholdNanos && this.slowestCapacity > 0) {
+            synchronized (this.slowest) {
+                if (this.slowest.size() < this.slowestCapacity) {
+                    this.slowest.add(trace);
+                } else if (BY_DURATION.compare(trace, this.slowest.peek()) > 0) {
+                    this.slowest.poll();
+                    this.slowest.add(trace);
+                }
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * @return the traces in the ring buffer, the most recent first
+     */
+    public List<Trace> getRecentTraces() {
+        List<Trace> traces = new ArrayList<>(this.recent.length());
+        long last = this.recorded.get();
+        for (long id = last; id > 0 && id > last - this.recent.length(); id--) {
+            Trace trace = this.recent.get((int) ((id - 1) % this.recent.length()));
+            if (trace != null && trace.getId() == id) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * @return the slowest traces, the slowest first
+     */
+    public List<Trace> getSlowestTraces() {
+        List<Trace> traces;
+        synchronized (this.slowest) {
+            traces = new ArrayList<>(this.slowest);
+        }
+        traces.sort(BY_DURATION.reversed());
+        return traces;
+    }
+
+    /**
+     * @return the recorded trace with the given id, <code>null</code> when it is no longer kept
+     */
+    public Trace getTrace(long id) {
+        if (id > 0 && this.recent.length() > 0) {
+            Trace trace = this.recent.get((int) ((id - 1) % this.recent.length()));
+            if (trace != null && trace.getId() == id) {
+                return trace;
+            }
+        }
+        return getSlowestTraces().stream().filter(trace -> trace.getId() == id).findFirst().orElse(null);
+    }
+
+    public double getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * @param sampleRate the fraction of the requests traced, from 0 to 1
+     */
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate " + sampleRate + " not between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getSlowThreshold() {
+        return Duration.ofNanos(this.slowThresholdNanos);
+    }
+
+    /**
+     * Changing the threshold keeps the slowest traces already recorded.
+     */
+    public void setSlowThreshold(Duration slowThreshold) {
+        if (slowThreshold.isNegative()) {
+            throw new IllegalArgumentException("Slow threshold " + slowThreshold + " is negative");
+        }
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recorded trace of a request. The offsets and durations are in milliseconds.
+ */
+public class Trace {
+
+    private final long id;
+
+    private final String name;
+
+    private final int status;
+
+    private final Instant start;
+
+    private final long nanos;
+
+    private final List<Span> spans;
+
+    private final int droppedSpans;
+
+    Trace(long id, String name, int status, Instant start, long nanos, List<Span> spans, int droppedSpans) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.start = start;
+        this.nanos = nanos;
+        this.spans = Collections.unmodifiableList(spans);
+        this.droppedSpans = droppedSpans;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * @return the method and the path pattern of the request, such as <code>GET /owners/{ownerId}</code>
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public Instant getStart() {
+        return this.start;
+    }
+
+    public double getDuration() {
+        return toMillis(this.nanos);
+    }
+
+    long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * @return the spans in the order they started, each nested in the closest previous one of lower depth
+     */
+    public List<Span> getSpans() {
+        return this.spans;
+    }
+
+    /**
+     * @return the number of spans not kept, beyond <code>petclinic.tracing.max-spans</code>
+     */
+    public int getDroppedSpans() {
+        return this.droppedSpans;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    public static class Span {
+
+        private final String kind;
+
+        private final String name;
+
+        private final int depth;
+
+        private final long offsetNanos;
+
+        private final long nanos;
+
+        Span(String kind, String name, int depth, long offsetNanos, long nanos) {
+            this.kind = kind;
+            this.name = name;
+            this.depth = depth;
+            this.offsetNanos = offsetNanos;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return one of the kinds of the {@link Tracer}, such as <code>service</code> or <code>jdbc</code>
+         */
+        public String getKind() {
+            return this.kind;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public int getDepth() {
+            return this.depth;
+        }
+
+        /**
+         * @return the start of the span from the start of the request
+         */
+        public double getOffset() {
+            return toMillis(this.offsetNanos);
+        }
+
+        public double getDuration() {
+            return toMillis(this.nanos);
+        }
+    }
+
+}
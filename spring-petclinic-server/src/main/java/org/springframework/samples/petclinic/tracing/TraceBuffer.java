@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aspectj.lang.Signature;
+
+/**
+ * Spans of the request of a thread, in preallocated arrays: a span is a few array writes, and its name is rendered
+ * only when the trace is recorded. The spans beyond the capacity are counted but not kept.
+ */
+final class TraceBuffer {
+
+    private static final long OPEN = Long.MIN_VALUE;
+
+    private final String[] kinds;
+
+    private final Object[] names;
+
+    private final int[] depths;
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    private int size;
+
+    private int depth;
+
+    private int droppedSpans;
+
+    private long startTime;
+
+    private long start;
+
+    TraceBuffer(int capacity) {
+        this.kinds = new String[capacity];
+        this.names = new Object[capacity];
+        this.depths = new int[capacity];
+        this.starts = new long[capacity];
+        this.ends = new long[capacity];
+    }
+
+    int capacity() {
+        return this.names.length;
+    }
+
+    void reset() {
+        Arrays.fill(this.names, 0, this.size, null);
+        this.size = 0;
+        this.depth = 0;
+        this.droppedSpans = 0;
+        this.startTime = System.currentTimeMillis();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * @return the index of the span, -1 when the buffer is full
+     */
+    int enter(String kind, Object name) {
+        int spanDepth = this.depth++;
+        if (this.size == this.names.length) {
+            this.droppedSpans++;
+            return -1;
+        }
+        int span = this.size++;
+        this.kinds[span] = kind;
+        this.names[span] = name;
+        this.depths[span] = spanDepth;
+        this.ends[span] = OPEN;
+        this.starts[span] = System.nanoTime();
+        return span;
+    }
+
+    void exit(int span) {
+        if (span >= 0) {
+            this.ends[span] = System.nanoTime();
+        }
+        this.depth--;
+    }
+
+    /**
+     * The spans still open, such as the serialization of the response, end with the trace.
+     */
+    Trace toTrace(long id, String name, int status) {
+        long end = System.nanoTime();
+        List<Trace.Span> spans = new ArrayList<>(this.size);
+        for (int span = 0; span < this.size; span++) {
+            long spanEnd = this.ends[span] == OPEN ? end : this.ends[span];
+            spans.add(new Trace.Span(this.kinds[span], nameOf(this.names[span]), this.depths[span],
+                this.starts[span] - this.start, spanEnd - this.starts[span]));
+        }
+        return new Trace(id, name, status, Instant.ofEpochMilli(this.startTime), end - this.start, spans,
+            this.droppedSpans);
+    }
+
+    private static String nameOf(Object name) {
+        if (name instanceof Signature) {
+            Signature signature = (Signature) name;
+            return signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        }
+        if (name instanceof Class) {
+            return ((Class<?>) name).getSimpleName();
+        }
+        return String.valueOf(name);
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+/**
+ * Spans of the current thread, whose request is traced by the {@link TracingFilter}. Outside of a traced request,
+ * the spans cost a thread-local lookup.
+ * <pre>
+ * int span = Tracer.enter(Tracer.JDBC, sql);
+ * try {
+ *     ...
+ * } finally {
+ *     Tracer.exit(span);
+ * }
+ * </pre>
+ */
+public final class Tracer {
+
+    public static final String WEB = "web";
+
+    public static final String SERVICE = "service";
+
+    public static final String REPOSITORY = "repository";
+
+    public static final String POOL = "pool";
+
+    public static final String JDBC = "jdbc";
+
+    public static final String SERIALIZATION = "serialization";
+
+    /**
+     * Span of a thread whose request is not traced.
+     */
+    public static final int NOT_TRACED = -2;
+
+    private static final ThreadLocal<TraceBuffer> current = new ThreadLocal<>();
+
+    /**
+     * Reused by the requests of each thread, so that tracing allocates only the recorded traces.
+     */
+    private static final ThreadLocal<TraceBuffer> buffers = new ThreadLocal<>();
+
+    private Tracer() {
+    }
+
+    /**
+     * @param name the method, class or SQL statement of the span, rendered only if the trace is recorded
+     * @return the span to exit, {@link #NOT_TRACED} when the request of the thread is not traced
+     */
+    public static int enter(String kind, Object name) {
+        TraceBuffer trace = current.get();
+        return trace != null ? trace.enter(kind, name) : NOT_TRACED;
+    }
+
+    public static void exit(int span) {
+        if (span == NOT_TRACED) {
+            return;
+        }
+        TraceBuffer trace = current.get();
+        if (trace != null) {
+            trace.exit(span);
+        }
+    }
+
+    /**
+     * @return the trace of the current thread, <code>null</code> when a trace is already started
+     */
+    static TraceBuffer begin(int maxSpans) {
+        if (current.get() != null) {
+            return null;
+        }
+        TraceBuffer trace = buffers.get();
+        if (trace == null || trace.capacity() != maxSpans) {
+            trace = new TraceBuffer(maxSpans);
+            buffers.set(trace);
+        }
+        trace.reset();
+        current.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+}
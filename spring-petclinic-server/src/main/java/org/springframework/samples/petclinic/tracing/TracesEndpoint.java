@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Exposes the {@link FlightRecorder} under <code>/manage/traces</code>: the summaries of the recent and slowest
+ * traces, the spans of one trace under <code>/manage/traces/{id}</code>. A POST of <code>sampleRate</code> and
+ * <code>slowThresholdMillis</code> changes the settings.
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final FlightRecorder recorder;
+
+    public TracesEndpoint(FlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> traces() {
+        Map<String, Object> traces = settings();
+        traces.put("recent", summaries(this.recorder.getRecentTraces()));
+        traces.put("slowest", summaries(this.recorder.getSlowestTraces()));
+        return traces;
+    }
+
+    @ReadOperation
+    public Trace trace(@Selector long id) {
+        return this.recorder.getTrace(id);
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Double sampleRate, @Nullable Long slowThresholdMillis) {
+        try {
+            if (sampleRate != null) {
+                this.recorder.setSampleRate(sampleRate);
+            }
+            if (slowThresholdMillis != null) {
+                this.recorder.setSlowThreshold(Duration.ofMillis(slowThresholdMillis));
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+        return settings();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("sampleRate", this.recorder.getSampleRate());
+        settings.put("slowThresholdMillis", this.recorder.getSlowThreshold().toMillis());
+        return settings;
+    }
+
+    private static List<Map<String, Object>> summaries(List<Trace> traces) {
+        return traces.stream().map(trace -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", trace.getId());
+            summary.put("name", trace.getName());
+            summary.put("status", trace.getStatus());
+            summary.put("start", trace.getStart());
+            summary.put("duration", trace.getDuration());
+            summary.put("spans", trace.getSpans().size() + trace.getDroppedSpans());
+            return summary;
+        }).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Spans of the REST resources, the <code>ClinicService</code> and the repositories. Ordered right after the
+ * routing to the shards, so that the service spans include the transactions and the cache lookups.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingAspect {
+
+    @Around("execution(* org.springframework.samples.petclinic.web.*Resource.*(..))")
+    public Object traceResource(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracer.WEB, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.samples.petclinic.service.ClinicService.*(..))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracer.SERVICE, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.samples.petclinic.repository.*Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracer.REPOSITORY, joinPoint);
+    }
+
+    private Object trace(String kind, ProceedingJoinPoint joinPoint) throws Throwable {
+        int span = Tracer.enter(kind, joinPoint.getSignature());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Tracer.exit(span);
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+/**
+ *
+ * In-process tracing of the sampled requests: the time of each request is split into spans of the resources, the
+ * ClinicService, the repositories, the connection pool, the JDBC statements and the serialization of the response.
+ * The most recent and the slowest traces are kept in memory and served under /manage/traces.
+ *
+ */
+package org.springframework.samples.petclinic.tracing;
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Warms the instance up once the application is ready, on a thread of its own, within a time budget:
+ * <ol>
+ * <li>opens the given number of pooled connections at once,</li>
+ * <li>loads the caches of the vets and of the pet types,</li>
+ * <li>replays requests of the hot endpoints on the local server, spread evenly over the given paths, where
+ * <code>{ownerId}</code> and <code>{petId}</code> are replaced by those of random pets.</li>
+ * </ol>
+ * A failing or late warm-up is given up: the instance is then served cold rather than not at all.
+ */
+public class WarmUp {
+
+    public enum Phase {
+        PENDING, CONNECTIONS, CACHES, REQUESTS, DONE
+    }
+
+    private static final Log logger = LogFactory.getLog(WarmUp.class);
+
+    private static final int SAMPLED_PETS = 1000;
+
+    private final DataSource dataSource;
+
+    private final ClinicService clinicService;
+
+    private final int connections;
+
+    private final List<String> paths;
+
+    private final int requests;
+
+    private final int threads;
+
+    private final Duration timeout;
+
+    private final AtomicInteger requestsSent = new AtomicInteger();
+
+    private volatile Phase phase = Phase.PENDING;
+
+    private volatile boolean timedOut;
+
+    private volatile long duration;
+
+    public WarmUp(DataSource dataSource, ClinicService clinicService, int connections, List<String> paths,
+                  int requests, int threads, Duration timeout) {
+        this.dataSource = dataSource;
+        this.clinicService = clinicService;
+        this.connections = connections;
+        this.paths = paths;
+        this.requests = requests;
+        this.threads = threads;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(ApplicationReadyEvent event) {
+        String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+        Thread thread = new Thread(() -> run(port), "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param port the port of the local server, <code>null</code> not to replay any request
+     */
+    void run(String port) {
+        long start = System.currentTimeMillis();
+        long deadline = start + this.timeout.toMillis();
+        try {
+            this.phase = Phase.CONNECTIONS;
+            openConnections();
+            this.phase = Phase.CACHES;
+            this.clinicService.findVets();
+            this.clinicService.findPetTypes();
+            if (port != null && !this.paths.isEmpty() && this.requests > 0) {
+                this.phase = Phase.REQUESTS;
+                replayRequests(port, deadline);
+            }
+        } catch (RuntimeException | SQLException ex) {
+            logger.warn("Warm-up failed, the instance is served cold", ex);
+        } finally {
+            this.duration = System.currentTimeMillis() - start;
+            this.timedOut |= System.currentTimeMillis() > deadline;
+            this.phase = Phase.DONE;
+            logger.info("Warm-up " + (this.timedOut ? "timed out" : "done") + " in " + this.duration + " ms, "
+                + this.requestsSent.get() + " requests replayed");
+        }
+    }
+
+    /**
+     * Holds them all before releasing them, so that the pool opens as many.
+     */
+    private void openConnections() throws SQLException {
+        List<Connection> opened = new ArrayList<>(this.connections);
+        try {
+            for (int i = 0; i < this.connections; i++) {
+                opened.add(this.dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : opened) {
+                connection.close();
+            }
+        }
+    }
+
+    private void replayRequests(String port, long deadline) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+        jdbcTemplate.setMaxRows(SAMPLED_PETS);
+        List<int[]> pets = jdbcTemplate.query("SELECT owner_id, id FROM pets",
+            (resultSet, row) -> new int[] {resultSet.getInt(1), resultSet.getInt(2)});
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "warm-up-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < this.requests; i++) {
+                String path = this.paths.get(i % this.paths.size());
+                executor.execute(() -> {
+                    if (System.currentTimeMillis() > deadline) {
+                        this.timedOut = true;
+                        return;
+                    }
+                    replay(port, withIds(path, pets));
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS)) {
+                this.timedOut = true;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String withIds(String path, List<int[]> pets) {
+        if (pets.isEmpty() || path.indexOf('{') < 0) {
+            return path;
+        }
+        int[] pet = pets.get(ThreadLocalRandom.current().nextInt(pets.size()));
+        return path.replace("{ownerId}", Integer.toString(pet[0])).replace("{petId}", Integer.toString(pet[1]));
+    }
+
+    private void replay(String port, String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+                .openConnection();
+            connection.setRequestProperty("Accept", "application/json");
+            try (InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream()
+                : connection.getErrorStream()) {
+                if (body != null) {
+                    StreamUtils.drain(body);
+                }
+            }
+            this.requestsSent.incrementAndGet();
+        } catch (IOException ex) {
+            logger.debug("Warm-up request " + path + " failed", ex);
+        }
+    }
+
+    public Phase getPhase() {
+        return this.phase;
+    }
+
+    public int getRequestsSent() {
+        return this.requestsSent.get();
+    }
+
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * @return the duration of the warm-up in milliseconds, once done
+     */
+    public long getDuration() {
+        return this.duration;
+    }
+
+}
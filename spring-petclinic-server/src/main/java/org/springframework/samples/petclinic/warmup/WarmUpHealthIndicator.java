@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Keeps the health of the instance out of service until its {@link WarmUp} is done, so that the load balancer checking
+ * <code>/manage/health</code> only sends it traffic once warm.
+ */
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final WarmUp warmUp;
+
+    public WarmUpHealthIndicator(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    public Health health() {
+        WarmUp.Phase phase = this.warmUp.getPhase();
+        Health.Builder health = phase == WarmUp.Phase.DONE ? Health.up() : Health.outOfService();
+        health.withDetail("phase", phase).withDetail("requests", this.warmUp.getRequestsSent());
+        if (phase == WarmUp.Phase.DONE) {
+            health.withDetail("durationMillis", this.warmUp.getDuration())
+                .withDetail("timedOut", this.warmUp.isTimedOut());
+        }
+        return health.build();
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ *
+ * Warm-up of a freshly started instance: its connection pool is filled, its caches of the vets and of the reference
+ * data loaded, and a mix of the hot endpoints replayed to compile their code, before its health reports it ready.
+ *
+ */
+package org.springframework.samples.petclinic.warmup;
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Appointment;
+import org.springframework.samples.petclinic.scheduling.AppointmentScheduler;
+import org.springframework.samples.petclinic.scheduling.AvailableSlot;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Appointments with the vets and search of their free slots.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AppointmentResource extends AbstractResourceController {
+
+    private static final long MAX_SEARCH_DAYS = 92;
+
+    private static final int MAX_SLOTS = 1000;
+
+    private final AppointmentScheduler appointmentScheduler;
+
+    @Autowired
+    public AppointmentResource(AppointmentScheduler appointmentScheduler) {
+        this.appointmentScheduler = appointmentScheduler;
+    }
+
+    /**
+     * Free slots of at least <code>duration</code> minutes of the vets having the specialty, earliest first.
+     */
+    @GetMapping("/vets/availability")
+    public Collection<AvailableSlot> findAvailability(
+        @RequestParam(value = "specialty", required = false) String specialty,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestParam(value = "duration", defaultValue = "30") int duration,
+        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+
+        if (!from.isBefore(to) || ChronoUnit.DAYS.between(from, to) > MAX_SEARCH_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting from before to, at most " + MAX_SEARCH_DAYS + " days apart");
+        }
+        if (duration <= 0 || limit <= 0 || limit > MAX_SLOTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting a positive duration and a limit between 1 and " + MAX_SLOTS);
+        }
+        return this.appointmentScheduler.findAvailability(specialty, from, to, Duration.ofMinutes(duration), limit);
+    }
+
+    @PostMapping("/vets/{vetId}/appointments")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Appointment book(@PathVariable("vetId") int vetId, @Valid @RequestBody AppointmentRequest request) {
+        return this.appointmentScheduler.book(vetId, request.getPetId(), request.getStart(), request.getEnd(),
+            request.getDescription());
+    }
+
+    @DeleteMapping("/vets/{vetId}/appointments/{appointmentId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable("vetId") int vetId, @PathVariable("appointmentId") int appointmentId) {
+        try {
+            this.appointmentScheduler.cancel(vetId, appointmentId);
+        } catch (ObjectRetrievalFailureException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+    }
+
+    static class AppointmentRequest {
+
+        @NotNull
+        private Integer petId;
+
+        @NotNull
+        private LocalDateTime start;
+
+        @NotNull
+        private LocalDateTime end;
+
+        @Size(max = 255)
+        private String description;
+
+        public Integer getPetId() {
+            return petId;
+        }
+
+        public void setPetId(Integer petId) {
+            this.petId = petId;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalDateTime start) {
+            this.start = start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalDateTime end) {
+            this.end = end;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+
+}
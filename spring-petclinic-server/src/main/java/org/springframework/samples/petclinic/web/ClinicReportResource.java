@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.samples.petclinic.tenancy.CrossClinicReports;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports spanning all the clinics when they are sharded, queried on the shards in parallel.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "petclinic.tenancy", name = "enabled", havingValue = "true")
+public class ClinicReportResource extends AbstractResourceController {
+
+    private final CrossClinicReports crossClinicReports;
+
+    @Autowired
+    public ClinicReportResource(CrossClinicReports crossClinicReports) {
+        this.crossClinicReports = crossClinicReports;
+    }
+
+    @GetMapping("/reports/clinics")
+    public Map<String, Object> showClinicCounts() {
+        return this.crossClinicReports.countRecords();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * JSON merge patch (RFC 7396) of some attributes of an entity: the members present replace the attributes of the
+ * same name, the others are left unchanged. The <code>version</code> member names the version of the entity the
+ * patch applies to.
+ */
+final class MergePatch {
+
+    static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private static final String VERSION = "version";
+
+    private final int version;
+
+    private final Map<String, Object> attributes;
+
+    private MergePatch(int version, Map<String, Object> attributes) {
+        this.version = version;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Reads the patch through the given request type, whose bindings and constraints apply to the members present
+     * only.
+     * @param members the members which may be patched, properties of the request type
+     * @throws ResponseStatusException with a 400 status when the version is missing, or a member is unknown, removed
+     * or invalid
+     */
+    static MergePatch read(Map<String, Object> document, Class<?> requestType, List<String> members,
+                           ObjectMapper objectMapper, Validator validator) {
+        if (!(document.get(VERSION) instanceof Integer)) {
+            throw badRequest("Expecting the " + VERSION + " the patch applies to");
+        }
+        Map<String, Object> present = new LinkedHashMap<>(document);
+        int version = (Integer) present.remove(VERSION);
+        if (present.isEmpty()) {
+            throw badRequest("Expecting at least one of " + members);
+        }
+        present.forEach((member, value) -> {
+            if (!members.contains(member)) {
+                throw badRequest("Cannot patch " + member + ", expecting " + members);
+            }
+            if (value == null) {
+                throw badRequest("Cannot remove " + member);
+            }
+        });
+        Object request;
+        try {
+            request = objectMapper.convertValue(present, requestType);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid value in " + present.keySet(), ex);
+        }
+        BeanWrapper requestWrapper = new BeanWrapperImpl(request);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String member : present.keySet()) {
+            Set<ConstraintViolation<Object>> violations = validator.validateProperty(request, member);
+            if (!violations.isEmpty()) {
+                throw badRequest(member + " " + violations.iterator().next().getMessage());
+            }
+            attributes.put(member, requestWrapper.getPropertyValue(member));
+        }
+        return new MergePatch(version, attributes);
+    }
+
+    static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    /**
+     * @return the response to a patch, the new version to patch again
+     */
+    static Map<String, Object> patched(int id, int version) {
+        Map<String, Object> patched = new LinkedHashMap<>();
+        patched.put("id", id);
+        patched.put(VERSION, version);
+        return patched;
+    }
+
+    int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the values of the members present, by member name
+     */
+    Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Read of several entities by id in one request, answered in the order of the ids requested with one entry per id,
+ * telling whether an entity has this id.
+ */
+final class MultiGet {
+
+    static final String IDS_PARAMETER = "ids";
+
+    private MultiGet() {
+    }
+
+    /**
+     * @return the distinct ids requested, to read
+     * @throws org.springframework.web.server.ResponseStatusException if there is no id, more than the given maximum
+     *                                                                 or an empty one
+     */
+    static Set<Integer> distinct(List<Integer> ids, int maxIds) {
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            throw MergePatch.badRequest("Expecting between 1 and " + maxIds + " ids");
+        }
+        if (ids.contains(null)) {
+            throw MergePatch.badRequest("Expecting no empty id");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
+    /**
+     * @param found the entities read, by id
+     */
+    static <T> List<Entry<T>> inRequestOrder(List<Integer> ids, Map<Integer, T> found) {
+        List<Entry<T>> entries = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            entries.add(new Entry<>(id, found.get(id)));
+        }
+        return entries;
+    }
+
+    /**
+     * The entity having one of the ids requested, without value when there is none.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Entry<T> {
+
+        private final int id;
+
+        private final T value;
+
+        Entry(int id, T value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public boolean isFound() {
+            return value != null;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+
+}
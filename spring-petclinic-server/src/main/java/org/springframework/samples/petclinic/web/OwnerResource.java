@@ -15,23 +15,38 @@
  */
 package org.springframework.samples.petclinic.web;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
+import javax.validation.Validator;
 
 /**
  * @author Juergen Hoeller
@@ -40,14 +55,28 @@ import javax.validation.Valid;
  * @author Michael Isvy
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OwnerResource extends AbstractResourceController {
 
+    private static final List<String> PATCHABLE_MEMBERS =
+        Arrays.asList("firstName", "lastName", "address", "city", "telephone");
+
     private final ClinicService clinicService;
 
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int maxIds;
+
 
     @Autowired
-    public OwnerResource(ClinicService clinicService) {
+    public OwnerResource(ClinicService clinicService, ObjectMapper objectMapper, Validator validator,
+                         PetclinicProperties properties) {
         this.clinicService = clinicService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.maxIds = properties.getBatch().getMaxIds();
     }
 
     @InitBinder
@@ -69,19 +98,36 @@ public class OwnerResource extends AbstractResourceController {
     }
     
     /**
-     * Read single Owner
+     * Read single Owner, loading the pets and their visits only when the fields include them
      */
     @RequestMapping(value = "/owners/{ownerId}", method = RequestMethod.GET)
-    public Owner findOwner(@PathVariable("ownerId") int ownerId) {
-        return retrieveOwner(ownerId);
+    public OwnerDetails findOwner(@PathVariable("ownerId") int ownerId,
+                                  @RequestParam(value = "fields", defaultValue = "") SparseFieldset fields) {
+        return this.clinicService.findOwnerDetailsById(ownerId, fields.includes("pets"),
+            fields.includes("pets.visits"));
     }
     
     /**
-     * Read List of Owners
+     * Read several owners, in the order of the ids
+     */
+    @GetMapping(value = "/owners", params = MultiGet.IDS_PARAMETER)
+    public List<MultiGet.Entry<OwnerDetails>> findOwners(
+        @RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids,
+        @RequestParam(value = "fields", defaultValue = "") SparseFieldset fields) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return MultiGet.inRequestOrder(ids, this.clinicService.findOwnerDetailsByIds(distinct,
+            fields.includes("value.pets"), fields.includes("value.pets.visits")));
+    }
+
+    /**
+     * Read List of Owners, those whose last name starts with the given one if any
      */
     @GetMapping("/owners/list")
-    public Collection<Owner> findAll() {
-        return clinicService.findAll();
+    public Collection<OwnerSummary> findAll(@RequestParam(value = "lastName", required = false) String lastName) {
+        if (lastName == null || lastName.isEmpty()) {
+            return clinicService.findOwnerSummaries();
+        }
+        return clinicService.findOwnerSummariesByLastName(lastName);
     }
     
     /**
@@ -100,6 +146,23 @@ public class OwnerResource extends AbstractResourceController {
         return ownerModel;
     }
 
+    /**
+     * Update some attributes of an Owner, in a single statement guarded by the version of the patch
+     */
+    @PatchMapping(value = "/owners/{ownerId}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public Map<String, Object> patchOwner(@PathVariable("ownerId") int ownerId,
+                                          @RequestBody Map<String, Object> document) {
+        MergePatch patch = MergePatch.read(document, Owner.class, PATCHABLE_MEMBERS, this.objectMapper,
+            this.validator);
+        int version;
+        try {
+            version = this.clinicService.patchOwner(ownerId, patch.getVersion(), patch.getAttributes());
+        } catch (ObjectRetrievalFailureException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+        return MergePatch.patched(ownerId, version);
+    }
+
 
 
 }
@@ -16,19 +16,29 @@
 package org.springframework.samples.petclinic.web;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
-import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.Validator;
 import javax.validation.constraints.Size;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Juergen Hoeller
@@ -36,13 +46,26 @@ import java.util.Date;
  * @author Arjen Poutsma
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PetResource extends AbstractResourceController {
 
+    private static final List<String> PATCHABLE_MEMBERS = Arrays.asList("name", "birthDate", "typeId");
+
     private final ClinicService clinicService;
 
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int maxIds;
+
     @Autowired
-    public PetResource(ClinicService clinicService) {
+    public PetResource(ClinicService clinicService, ObjectMapper objectMapper, Validator validator,
+                       PetclinicProperties properties) {
         this.clinicService = clinicService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.maxIds = properties.getBatch().getMaxIds();
     }
 
     @GetMapping("/petTypes")
@@ -57,20 +80,19 @@ public class PetResource extends AbstractResourceController {
             @PathVariable("ownerId") int ownerId) {
 
         Pet pet = new Pet();
-        Owner owner = this.clinicService.findOwnerById(ownerId);
-        owner.addPet(pet);
-
-        save(pet, petRequest);
+        setAttributes(pet, petRequest);
+        clinicService.addPet(ownerId, pet);
     }
 
     @PutMapping("/owners/{ownerId}/pets/{petId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void processUpdateForm(@RequestBody PetRequest petRequest) {
-        save(clinicService.findPetById(petRequest.getId()), petRequest);
+        Pet pet = clinicService.findPetById(petRequest.getId());
+        setAttributes(pet, petRequest);
+        clinicService.savePet(pet);
     }
 
-    private void save(Pet pet, PetRequest petRequest) {
-
+    private void setAttributes(Pet pet, PetRequest petRequest) {
         pet.setName(petRequest.getName());
         pet.setBirthDate(petRequest.getBirthDate());
 
@@ -79,14 +101,44 @@ public class PetResource extends AbstractResourceController {
                 pet.setType(petType);
             }
         }
+    }
 
-        clinicService.savePet(pet);
+    /**
+     * Updates some attributes of a pet, in a single statement guarded by the version of the patch.
+     */
+    @PatchMapping(value = "/owners/{ownerId}/pets/{petId}",
+        consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public Map<String, Object> patchPet(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+                                        @RequestBody Map<String, Object> document) {
+        MergePatch patch = MergePatch.read(document, PetRequest.class, PATCHABLE_MEMBERS, this.objectMapper,
+            this.validator);
+        Map<String, Object> attributes = patch.getAttributes();
+        if (attributes.containsKey("typeId")) {
+            Object typeId = attributes.remove("typeId");
+            PetType type = clinicService.findPetTypes().stream()
+                .filter(petType -> petType.getId().equals(typeId))
+                .findFirst()
+                .orElseThrow(() -> MergePatch.badRequest("Unknown pet type " + typeId));
+            attributes.put("type", type);
+        }
+        int version;
+        try {
+            version = this.clinicService.patchPet(ownerId, petId, patch.getVersion(), attributes);
+        } catch (ObjectRetrievalFailureException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+        return MergePatch.patched(petId, version);
     }
 
     @GetMapping("/owners/*/pets/{petId}")
     public PetDetails findPet(@PathVariable("petId") int petId) {
-        Pet pet = this.clinicService.findPetById(petId);
-        return new PetDetails(pet);
+        return this.clinicService.findPetDetailsById(petId);
+    }
+
+    @GetMapping(value = "/pets", params = MultiGet.IDS_PARAMETER)
+    public List<MultiGet.Entry<PetDetails>> findPets(@RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return MultiGet.inRequestOrder(ids, this.clinicService.findPetDetailsByIds(distinct));
     }
 
     static class PetRequest {
@@ -130,42 +182,4 @@ public class PetResource extends AbstractResourceController {
         }
     }
 
-    static class PetDetails {
-
-        final int id;
-        final String name;
-        final String owner;
-        @DateTimeFormat(pattern = "yyyy-MM-dd")
-        final Date birthDate;
-        final PetType type;
-
-        PetDetails(Pet pet) {
-            this.id = pet.getId();
-            this.name = pet.getName();
-            this.owner = pet.getOwner().getFirstName() + " " + pet.getOwner().getLastName();
-            this.birthDate = pet.getBirthDate();
-            this.type = pet.getType();
-        }
-
-        public int getId() {
-            return id;
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public String getOwner() {
-            return owner;
-        }
-
-        public Date getBirthDate() {
-            return birthDate;
-        }
-
-        public PetType getType() {
-            return type;
-        }
-    }
-
 }
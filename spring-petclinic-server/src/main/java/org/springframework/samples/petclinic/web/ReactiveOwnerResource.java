@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+/**
+ * {@link OwnerResource} of the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOwnerResource extends AbstractResourceController {
+
+    private final ReactiveClinicService clinicService;
+
+    private final int maxIds;
+
+    public ReactiveOwnerResource(ReactiveClinicService clinicService, PetclinicProperties properties) {
+        this.clinicService = clinicService;
+        this.maxIds = properties.getBatch().getMaxIds();
+    }
+
+    @InitBinder
+    public void setAllowedFields(WebDataBinder dataBinder) {
+        dataBinder.setDisallowedFields("id");
+    }
+
+    @PostMapping("/owners")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Void> createOwner(@Valid @RequestBody Owner owner) {
+        return this.clinicService.saveOwner(owner);
+    }
+
+    @GetMapping("/owners/{ownerId}")
+    public Mono<OwnerDetails> findOwner(@PathVariable("ownerId") int ownerId,
+                                        @RequestParam(value = "fields", defaultValue = "") SparseFieldset fields) {
+        return this.clinicService.findOwnerDetailsById(ownerId, fields.includes("pets"),
+            fields.includes("pets.visits"));
+    }
+
+    @GetMapping(value = "/owners", params = MultiGet.IDS_PARAMETER)
+    public Mono<List<MultiGet.Entry<OwnerDetails>>> findOwners(
+        @RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids,
+        @RequestParam(value = "fields", defaultValue = "") SparseFieldset fields) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return this.clinicService.findOwnerDetailsByIds(distinct, fields.includes("value.pets"),
+            fields.includes("value.pets.visits")).map(owners -> MultiGet.inRequestOrder(ids, owners));
+    }
+
+    @GetMapping("/owners/list")
+    public Flux<OwnerSummary> findAll(@RequestParam(value = "lastName", required = false) String lastName) {
+        if (lastName == null || lastName.isEmpty()) {
+            return this.clinicService.findOwnerSummaries();
+        }
+        return this.clinicService.findOwnerSummariesByLastName(lastName);
+    }
+
+    @PutMapping("/owners/{ownerId}")
+    public Mono<Owner> updateOwner(@PathVariable("ownerId") int ownerId, @Valid @RequestBody Owner ownerRequest) {
+        return this.clinicService.findOwnerById(ownerId).flatMap(ownerModel -> {
+            ownerModel.setFirstName(ownerRequest.getFirstName());
+            ownerModel.setLastName(ownerRequest.getLastName());
+            ownerModel.setCity(ownerRequest.getCity());
+            ownerModel.setAddress(ownerRequest.getAddress());
+            ownerModel.setTelephone(ownerRequest.getTelephone());
+            return this.clinicService.saveOwner(ownerModel).thenReturn(ownerModel);
+        });
+    }
+
+}
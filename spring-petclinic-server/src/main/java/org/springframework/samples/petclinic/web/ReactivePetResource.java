@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.samples.petclinic.web.PetResource.PetRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link PetResource} of the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePetResource extends AbstractResourceController {
+
+    private final ReactiveClinicService clinicService;
+
+    private final int maxIds;
+
+    public ReactivePetResource(ReactiveClinicService clinicService, PetclinicProperties properties) {
+        this.clinicService = clinicService;
+        this.maxIds = properties.getBatch().getMaxIds();
+    }
+
+    @GetMapping("/petTypes")
+    Flux<PetType> getPetTypes() {
+        return this.clinicService.findPetTypes();
+    }
+
+    @PostMapping("/owners/{ownerId}/pets")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> processCreationForm(
+            @RequestBody PetRequest petRequest,
+            @PathVariable("ownerId") int ownerId) {
+
+        return setAttributes(new Pet(), petRequest).flatMap(pet -> this.clinicService.addPet(ownerId, pet));
+    }
+
+    @PutMapping("/owners/{ownerId}/pets/{petId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> processUpdateForm(@RequestBody PetRequest petRequest) {
+        return this.clinicService.findPetById(petRequest.getId())
+            .flatMap(pet -> setAttributes(pet, petRequest))
+            .flatMap(this.clinicService::savePet);
+    }
+
+    private Mono<Pet> setAttributes(Pet pet, PetRequest petRequest) {
+        pet.setName(petRequest.getName());
+        pet.setBirthDate(petRequest.getBirthDate());
+        return this.clinicService.findPetTypes()
+            .filter(petType -> petType.getId() == petRequest.getTypeId())
+            .doOnNext(pet::setType)
+            .then(Mono.just(pet));
+    }
+
+    @GetMapping("/owners/*/pets/{petId}")
+    public Mono<PetDetails> findPet(@PathVariable("petId") int petId) {
+        return this.clinicService.findPetDetailsById(petId);
+    }
+
+    @GetMapping(value = "/pets", params = MultiGet.IDS_PARAMETER)
+    public Mono<List<MultiGet.Entry<PetDetails>>> findPets(@RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return this.clinicService.findPetDetailsByIds(distinct).map(pets -> MultiGet.inRequestOrder(ids, pets));
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.directory.VetDirectory;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link VetResource} of the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveVetResource extends AbstractResourceController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveClinicService clinicService;
+
+    private final VetDirectory vetDirectory;
+
+    private final int maxIds;
+
+    public ReactiveVetResource(ReactiveClinicService clinicService, VetDirectory vetDirectory,
+                               PetclinicProperties properties) {
+        this.clinicService = clinicService;
+        this.vetDirectory = vetDirectory;
+        this.maxIds = properties.getBatch().getMaxIds();
+    }
+
+    @GetMapping("/vets")
+    public Mono<ResponseEntity<List<Vet>>> showResourcesVetList(
+        @RequestParam(value = "specialty", required = false) List<String> specialties,
+        @RequestParam(value = "match", defaultValue = "all") String match,
+        @RequestParam(value = "page", required = false) Integer page,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        if (specialties == null && page == null) {
+            return this.clinicService.findVets().collectList().map(ResponseEntity::ok);
+        }
+        if (!"all".equals(match) && !"any".equals(match)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expecting match=all or match=any"));
+        }
+        if ((page != null && page < 0) || size <= 0 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting a positive page and a size between 1 and " + MAX_PAGE_SIZE));
+        }
+        // The directory is an in-memory index, loaded once the application is ready: no blocking call here
+        return Mono.fromCallable(() -> this.vetDirectory.findVets(
+            specialties == null ? Collections.<String>emptyList() : specialties, "all".equals(match),
+            PageRequest.of(page == null ? 0 : page, size)))
+            .map(vets -> ResponseEntity.ok()
+                .header(VetResource.TOTAL_COUNT_HEADER, String.valueOf(vets.getTotalElements()))
+                .body(vets.getContent()));
+    }
+
+    @GetMapping(value = "/vets", params = MultiGet.IDS_PARAMETER)
+    public Mono<List<MultiGet.Entry<Vet>>> findVets(@RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return this.clinicService.findVetsByIds(distinct).map(vets -> MultiGet.inRequestOrder(ids, vets));
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+/**
+ * {@link VisitResource} of the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveVisitResource extends AbstractResourceController {
+
+    private final ReactiveClinicService clinicService;
+
+    public ReactiveVisitResource(ReactiveClinicService clinicService) {
+        this.clinicService = clinicService;
+    }
+
+    @PostMapping("/owners/{ownerId}/pets/{petId}/visits")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> create(
+            @Valid @RequestBody Visit visit,
+            @PathVariable("petId") int petId) {
+
+        return this.clinicService.addVisit(petId, visit);
+    }
+
+    @GetMapping("/owners/{ownerId}/pets/{petId}/visits")
+    public Flux<VisitDetails> visits(@PathVariable("petId") int petId) {
+        return this.clinicService.findVisitsByPetId(petId);
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Fields of a response requested by the <code>fields</code> query parameter, as a comma-separated list of paths such
+ * as <code>pets.name,pets.visits.date</code>. A path selects a member of the objects at its level, in the elements of
+ * the arrays too, and everything below that member.
+ * <p>
+ * An expression is compiled once into a tree of members, cached, and applied by a generator writing the requested
+ * members only. The objects and arrays along the paths are kept even without any requested member, so that a list
+ * keeps its length. The resources also ask which associations are {@link #includes(String) included} to avoid
+ * loading the others.
+ */
+public final class SparseFieldset {
+
+    /**
+     * The fieldset of a request without <code>fields</code> parameter
+     */
+    public static final SparseFieldset ALL = new SparseFieldset("", null);
+
+    private static final int MAX_CACHED = 256;
+
+    private static final ConcurrentMap<String, SparseFieldset> CACHE = new ConcurrentHashMap<>();
+
+    private static final Pattern MEMBER = Pattern.compile("[A-Za-z0-9_]+");
+
+    private final String expression;
+
+    /**
+     * <code>null</code> for {@link #ALL}
+     */
+    private final Member root;
+
+    private SparseFieldset(String expression, Member root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * Compiles an expression, or returns its cached compilation. Also the conversion of the <code>fields</code>
+     * request parameter.
+     * @throws IllegalArgumentException if a path is not made of member names separated by dots
+     */
+    public static SparseFieldset valueOf(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            return ALL;
+        }
+        SparseFieldset fieldset = CACHE.get(expression);
+        if (fieldset == null) {
+            fieldset = new SparseFieldset(expression, compile(expression));
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(expression, fieldset);
+            }
+        }
+        return fieldset;
+    }
+
+    private static Member compile(String expression) {
+        Member root = new Member();
+        for (String path : expression.split(",")) {
+            Member member = root;
+            for (String name : path.trim().split("\\.", -1)) {
+                if (!MEMBER.matcher(name).matches()) {
+                    throw new IllegalArgumentException("Invalid field path '" + path.trim() + "' in " + expression);
+                }
+                member = member.child(name);
+            }
+        }
+        return root;
+    }
+
+    public boolean isAll() {
+        return this.root == null;
+    }
+
+    /**
+     * @param path member names separated by dots
+     * @return whether the response includes the given path or some path below it
+     */
+    public boolean includes(String path) {
+        Member member = this.root;
+        for (String name : path.split("\\.")) {
+            if (member == null || member.isLeaf()) {
+                return true;
+            }
+            member = member.children.get(name);
+            if (member == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the value, serialized with the fields of this fieldset only
+     */
+    public Object apply(Object value) {
+        return this.root == null ? value : new Filtered(value, this.root);
+    }
+
+    /**
+     * @return a generator writing the fields of this fieldset only to the given one
+     */
+    public JsonGenerator filter(JsonGenerator generator) {
+        return this.root == null ? generator : new FilteringGenerator(generator, this.root);
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+
+    /**
+     * A member of the paths, whose own members are all included when it has none requested.
+     */
+    private static final class Member {
+
+        private final Map<String, Member> children = new LinkedHashMap<>();
+
+        Member child(String name) {
+            return this.children.computeIfAbsent(name, key -> new Member());
+        }
+
+        boolean isLeaf() {
+            return this.children.isEmpty();
+        }
+    }
+
+    /**
+     * A response body written through a {@link FilteringGenerator}, whatever its serializers.
+     */
+    private static final class Filtered implements JsonSerializable {
+
+        private final Object value;
+
+        private final Member root;
+
+        Filtered(Object value, Member root) {
+            this.value = value;
+            this.root = root;
+        }
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            serializers.defaultSerializeValue(this.value, new FilteringGenerator(gen, this.root));
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+
+    /**
+     * Passes the requested members to the target generator. The value of a member that is not requested, however
+     * deep, goes to a generator discarding it, until the next member or the end of the enclosing object.
+     */
+    private static final class FilteringGenerator extends JsonGeneratorDelegate {
+
+        private static final JsonFactory DISCARDING_FACTORY = new JsonFactory();
+
+        private static final Writer DISCARDING_WRITER = new Writer() {
+
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        private final JsonGenerator target;
+
+        private final Member root;
+
+        /**
+         * Member of each open object or array, whose members are requested
+         */
+        private final Deque<Member> levels = new ArrayDeque<>();
+
+        private final Deque<Boolean> arrays = new ArrayDeque<>();
+
+        /**
+         * Member of the field name written last
+         */
+        private Member member;
+
+        private JsonGenerator discarding;
+
+        FilteringGenerator(JsonGenerator target, Member root) {
+            // Copies through the write methods below rather than straight to the target
+            super(target, false);
+            this.target = target;
+            this.root = root;
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            if (isDiscarding()) {
+                if (!this.discarding.getOutputContext().inRoot()) {
+                    this.delegate.writeFieldName(name);
+                    return;
+                }
+                this.delegate = this.target;
+            }
+            Member level = this.levels.peek();
+            if (level.isLeaf()) {
+                this.member = level;
+            } else {
+                this.member = level.children.get(name);
+                if (this.member == null) {
+                    discard();
+                    return;
+                }
+            }
+            this.delegate.writeFieldName(name);
+        }
+
+        @Override
+        public void writeFieldName(SerializableString name) throws IOException {
+            writeFieldName(name.getValue());
+        }
+
+        @Override
+        public void writeFieldId(long id) throws IOException {
+            writeFieldName(Long.toString(id));
+        }
+
+        @Override
+        public void writeStartObject() throws IOException {
+            enter(false);
+            this.delegate.writeStartObject();
+        }
+
+        @Override
+        public void writeStartObject(Object forValue) throws IOException {
+            enter(false);
+            this.delegate.writeStartObject(forValue);
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            enter(true);
+            this.delegate.writeStartArray();
+        }
+
+        @Override
+        public void writeStartArray(int size) throws IOException {
+            enter(true);
+            this.delegate.writeStartArray(size);
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            leave();
+            this.delegate.writeEndObject();
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            leave();
+            this.delegate.writeEndArray();
+        }
+
+        private void enter(boolean array) {
+            if (isDiscarding()) {
+                return;
+            }
+            Member level;
+            if (this.levels.isEmpty()) {
+                level = this.root;
+            } else if (this.arrays.peek()) {
+                level = this.levels.peek();
+            } else {
+                level = this.member;
+            }
+            this.levels.push(level);
+            this.arrays.push(array);
+        }
+
+        private void leave() {
+            if (isDiscarding()) {
+                if (!this.discarding.getOutputContext().inRoot()) {
+                    return;
+                }
+                this.delegate = this.target;
+            }
+            this.levels.pop();
+            this.arrays.pop();
+        }
+
+        private boolean isDiscarding() {
+            return this.delegate != this.target;
+        }
+
+        private void discard() throws IOException {
+            if (this.discarding == null) {
+                this.discarding = DISCARDING_FACTORY.createGenerator(DISCARDING_WRITER);
+            }
+            this.delegate = this.discarding;
+        }
+    }
+
+}
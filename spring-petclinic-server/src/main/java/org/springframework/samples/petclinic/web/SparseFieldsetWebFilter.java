@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link SparseFieldsetAdvice} of the reactive stack, which has no advice on response bodies: the JSON written by
+ * the resources is copied through the {@link SparseFieldset} of the <code>fields</code> parameter.
+ */
+public class SparseFieldsetWebFilter implements WebFilter {
+
+    private final JsonFactory jsonFactory;
+
+    public SparseFieldsetWebFilter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        SparseFieldset fieldset;
+        try {
+            fieldset = SparseFieldset.valueOf(
+                exchange.getRequest().getQueryParams().getFirst(SparseFieldsetAdvice.FIELDS_PARAMETER));
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(MergePatch.badRequest(ex.getMessage()));
+        }
+        if (fieldset.isAll()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = new FilteringResponse(exchange.getResponse(), fieldset);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private class FilteringResponse extends ServerHttpResponseDecorator {
+
+        private final SparseFieldset fieldset;
+
+        FilteringResponse(ServerHttpResponse delegate, SparseFieldset fieldset) {
+            super(delegate);
+            this.fieldset = fieldset;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            MediaType contentType = getHeaders().getContentType();
+            if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                DataBuffer filtered = bufferFactory().allocateBuffer(buffer.readableByteCount());
+                try (JsonParser parser = jsonFactory.createParser(buffer.asInputStream());
+                     JsonGenerator generator = this.fieldset.filter(
+                         jsonFactory.createGenerator(filtered.asOutputStream()))) {
+                    while (parser.nextToken() != null) {
+                        generator.copyCurrentEvent(parser);
+                    }
+                } catch (IOException ex) {
+                    DataBufferUtils.release(filtered);
+                    return Mono.error(ex);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+                getHeaders().setContentLength(filtered.readableByteCount());
+                return super.writeWith(Mono.just(filtered));
+            });
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.statistics.OwnerVisits;
+import org.springframework.samples.petclinic.statistics.StatisticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Visit statistics of the clinic, read from counters maintained as visits are saved.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StatisticsResource extends AbstractResourceController {
+
+    private static final long MAX_DAYS = 366;
+
+    private static final int MAX_TOP_OWNERS = 100;
+
+    private final StatisticsService statisticsService;
+
+    @Autowired
+    public StatisticsResource(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> showStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("visits", this.statisticsService.getTotalVisits());
+        statistics.put("visitsByPetType", this.statisticsService.getVisitsByPetType());
+        statistics.put("visitsByCity", this.statisticsService.getVisitsByCity());
+        statistics.put("topOwners", this.statisticsService.getTopOwners(10));
+        return statistics;
+    }
+
+    /**
+     * Visits of every day of the period, both included.
+     */
+    @GetMapping("/stats/visits/days")
+    public Map<LocalDate, Long> showVisitsByDay(
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting from before to, at most " + MAX_DAYS + " days");
+        }
+        return this.statisticsService.getVisitsByDay(from, to);
+    }
+
+    @GetMapping("/stats/visits/pet-types")
+    public Map<String, Long> showVisitsByPetType() {
+        return this.statisticsService.getVisitsByPetType();
+    }
+
+    @GetMapping("/stats/visits/cities")
+    public Map<String, Long> showVisitsByCity() {
+        return this.statisticsService.getVisitsByCity();
+    }
+
+    @GetMapping("/stats/owners/top")
+    public List<OwnerVisits> showTopOwners(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > MAX_TOP_OWNERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting a limit between 1 and " + MAX_TOP_OWNERS);
+        }
+        return this.statisticsService.getTopOwners(limit);
+    }
+
+}
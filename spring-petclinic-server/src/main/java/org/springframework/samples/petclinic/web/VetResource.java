@@ -16,12 +16,26 @@
 package org.springframework.samples.petclinic.web;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.directory.VetDirectory;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
+import org.springframework.samples.petclinic.tenancy.TenantContext;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * @author Juergen Hoeller
@@ -30,17 +44,67 @@ import org.springframework.web.bind.annotation.RestController;
  * @author Arjen Poutsma
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class VetResource extends AbstractResourceController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ClinicService clinicService;
 
+    private final VetDirectory vetDirectory;
+
+    private final int maxIds;
+
     @Autowired
-    public VetResource(ClinicService clinicService) {
+    public VetResource(ClinicService clinicService, VetDirectory vetDirectory, PetclinicProperties properties) {
         this.clinicService = clinicService;
+        this.vetDirectory = vetDirectory;
+        this.maxIds = properties.getBatch().getMaxIds();
     }
 
+    /**
+     * All the vets, or a page of the vets having all (<code>match=all</code>) or any (<code>match=any</code>) of the
+     * given specialties, ordered by id. The total number of matching vets is returned in a header. The
+     * {@link VetDirectory} only indexes the vets of the default shard: the clinics of the other shards can only list
+     * all their vets.
+     */
     @GetMapping("/vets")
-    public Collection<Vet> showResourcesVetList() {
-        return this.clinicService.findVets();
+    public ResponseEntity<Collection<Vet>> showResourcesVetList(
+        @RequestParam(value = "specialty", required = false) List<String> specialties,
+        @RequestParam(value = "match", defaultValue = "all") String match,
+        @RequestParam(value = "page", required = false) Integer page,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        if (specialties == null && page == null) {
+            return ResponseEntity.ok(this.clinicService.findVets());
+        }
+        String shard = TenantContext.getShard();
+        if (shard != null && !ShardRouting.DEFAULT_SHARD.equals(shard)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "The vets of clinic " + TenantContext.getTenant() + " cannot be filtered by specialty or paged");
+        }
+        if (!"all".equals(match) && !"any".equals(match)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expecting match=all or match=any");
+        }
+        if ((page != null && page < 0) || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Expecting a positive page and a size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Page<Vet> vets = this.vetDirectory.findVets(specialties == null ? Collections.emptyList() : specialties,
+            "all".equals(match), PageRequest.of(page == null ? 0 : page, size));
+        return ResponseEntity.ok()
+            .header(TOTAL_COUNT_HEADER, String.valueOf(vets.getTotalElements()))
+            .body(vets.getContent());
+    }
+
+    /**
+     * Several vets, in the order of the ids
+     */
+    @GetMapping(value = "/vets", params = MultiGet.IDS_PARAMETER)
+    public List<MultiGet.Entry<Vet>> findVets(@RequestParam(MultiGet.IDS_PARAMETER) List<Integer> ids) {
+        Set<Integer> distinct = MultiGet.distinct(ids, this.maxIds);
+        return MultiGet.inRequestOrder(ids, this.clinicService.findVetsByIds(distinct));
     }
 }
@@ -16,8 +16,10 @@
 package org.springframework.samples.petclinic.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -28,6 +30,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 
+import java.util.Collection;
+
 /**
  * @author Juergen Hoeller
  * @author Ken Krebs
@@ -35,6 +39,7 @@ import javax.validation.Valid;
  * @author Michael Isvy
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class VisitResource extends AbstractResourceController {
 
     private final ClinicService clinicService;
@@ -50,12 +55,11 @@ public class VisitResource extends AbstractResourceController {
             @Valid @RequestBody Visit visit,
             @PathVariable("petId") int petId) {
 
-        clinicService.findPetById(petId).addVisit(visit);
-        clinicService.saveVisit(visit);
+        clinicService.addVisit(petId, visit);
     }
 
     @GetMapping("/owners/{ownerId}/pets/{petId}/visits")
-    public Object visits(@PathVariable("petId") int petId) {
-        return clinicService.findPetById(petId).getVisits();
+    public Collection<VisitDetails> visits(@PathVariable("petId") int petId) {
+        return clinicService.findVisitsByPetId(petId);
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.assets;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Serves the client assets, precompressed variants included, and marks content-versioned URLs as immutable.
+ * <p>
+ * A resource resolved through a content version carries its version as ETag: its URL changes whenever its content
+ * does, so browsers may keep it for a year without ever revalidating. Unversioned URLs, such as the AngularJS
+ * templates, keep the configured cache period.
+ */
+public class PrecompressedResourceHttpRequestHandler extends ResourceHttpRequestHandler {
+
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    public PrecompressedResourceHttpRequestHandler() {
+        setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter());
+    }
+
+    @Override
+    protected void setHeaders(HttpServletResponse response, Resource resource, MediaType mediaType) throws IOException {
+        super.setHeaders(response, resource, mediaType);
+        if (resource instanceof HttpResource && ((HttpResource) resource).getResponseHeaders().getETag() != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        }
+    }
+
+}
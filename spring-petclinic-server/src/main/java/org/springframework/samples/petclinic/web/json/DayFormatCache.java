@@ -0,0 +1,62 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.json;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Formats dates with the <code>yyyy-MM-dd</code> pattern used by visits, remembering the text of the dates
+ * already formatted. Clinic dates are whole days, so a few thousand entries cover most of the data set.
+ */
+final class DayFormatCache {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final ConcurrentMap<String, DayFormatCache> CACHES = new ConcurrentHashMap<>();
+
+    private final DateTimeFormatter formatter;
+
+    private final ConcurrentMap<Long, String> formatted = new ConcurrentHashMap<>();
+
+    private DayFormatCache(TimeZone timeZone) {
+        this.formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.ROOT).withZone(timeZone.toZoneId());
+    }
+
+    static DayFormatCache forTimeZone(TimeZone timeZone) {
+        return CACHES.computeIfAbsent(timeZone.getID(), id -> new DayFormatCache(timeZone));
+    }
+
+    String format(Date date) {
+        // java.sql.Date does not support toInstant(), hence the detour through the epoch millis
+        long millis = date.getTime();
+        String text = this.formatted.get(millis);
+        if (text == null) {
+            if (this.formatted.size() >= MAX_ENTRIES) {
+                this.formatted.clear();
+            }
+            text = this.formatter.format(Instant.ofEpochMilli(millis));
+            this.formatted.put(millis, text);
+        }
+        return text;
+    }
+
+}
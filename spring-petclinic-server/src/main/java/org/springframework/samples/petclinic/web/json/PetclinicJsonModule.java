@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+
+/**
+ * Jackson module replacing the reflective bean serializers of the PetClinic domain objects and projections
+ * by the handwritten {@link PetclinicSerializers}.
+ * <p>
+ * Enabled with <code>petclinic.json.serializers=streaming</code>.
+ */
+public class PetclinicJsonModule extends SimpleModule {
+
+    public PetclinicJsonModule() {
+        super("PetclinicJsonModule");
+        addSerializer(Owner.class, new PetclinicSerializers.OwnerSerializer());
+        addSerializer(Pet.class, new PetclinicSerializers.PetSerializer());
+        addSerializer(Visit.class, new PetclinicSerializers.VisitSerializer());
+        addSerializer(Vet.class, new PetclinicSerializers.VetSerializer());
+        addSerializer(Specialty.class, new PetclinicSerializers.SpecialtySerializer());
+        addSerializer(PetType.class, new PetclinicSerializers.PetTypeSerializer());
+        addSerializer(OwnerSummary.class, new PetclinicSerializers.OwnerSummarySerializer());
+        addSerializer(OwnerDetails.class, new PetclinicSerializers.OwnerDetailsSerializer());
+        addSerializer(PetDetails.class, new PetclinicSerializers.PetDetailsSerializer());
+        addSerializer(VisitDetails.class, new PetclinicSerializers.VisitDetailsSerializer());
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.json;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.samples.petclinic.model.NamedEntity;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.PetSummary;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+
+/**
+ * Handwritten serializers for the PetClinic domain objects and projections. They write straight to the
+ * {@link JsonGenerator} and produce the same document as the annotation-driven bean serializers.
+ *
+ * @see PetclinicJsonModule
+ */
+final class PetclinicSerializers {
+
+    private PetclinicSerializers() {
+    }
+
+    static void writeId(JsonGenerator gen, Integer id) throws IOException {
+        if (id == null) {
+            gen.writeNullField("id");
+        } else {
+            gen.writeNumberField("id", id);
+        }
+    }
+
+    static void writeVersion(JsonGenerator gen, Integer version) throws IOException {
+        if (version == null) {
+            gen.writeNullField("version");
+        } else {
+            gen.writeNumberField("version", version);
+        }
+    }
+
+    static void writeDate(JsonGenerator gen, String fieldName, Date date, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(fieldName);
+        if (date == null) {
+            gen.writeNull();
+        } else {
+            provider.defaultSerializeDateValue(date, gen);
+        }
+    }
+
+    static void writeDay(JsonGenerator gen, String fieldName, Date date, SerializerProvider provider) throws IOException {
+        if (date == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeStringField(fieldName, DayFormatCache.forTimeZone(provider.getTimeZone()).format(date));
+        }
+    }
+
+    static void writeNamed(JsonGenerator gen, String fieldName, NamedEntity named) throws IOException {
+        if (named == null) {
+            gen.writeNullField(fieldName);
+            return;
+        }
+        gen.writeFieldName(fieldName);
+        writeNamed(gen, named);
+    }
+
+    static void writeNamed(JsonGenerator gen, NamedEntity named) throws IOException {
+        gen.writeStartObject();
+        writeId(gen, named.getId());
+        gen.writeStringField("name", named.getName());
+        gen.writeEndObject();
+    }
+
+    static class NamedEntitySerializer<T extends NamedEntity> extends StdSerializer<T> {
+
+        NamedEntitySerializer(Class<T> type) {
+            super(type);
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeNamed(gen, value);
+        }
+    }
+
+    static class PetTypeSerializer extends NamedEntitySerializer<PetType> {
+
+        PetTypeSerializer() {
+            super(PetType.class);
+        }
+    }
+
+    static class SpecialtySerializer extends NamedEntitySerializer<Specialty> {
+
+        SpecialtySerializer() {
+            super(Specialty.class);
+        }
+    }
+
+    static class VisitSerializer extends StdSerializer<Visit> {
+
+        VisitSerializer() {
+            super(Visit.class);
+        }
+
+        @Override
+        public void serialize(Visit visit, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, visit.getId());
+            writeDay(gen, "date", visit.getDate(), provider);
+            gen.writeStringField("description", visit.getDescription());
+            gen.writeEndObject();
+        }
+    }
+
+    static class PetSerializer extends StdSerializer<Pet> {
+
+        private final VisitSerializer visitSerializer = new VisitSerializer();
+
+        PetSerializer() {
+            super(Pet.class);
+        }
+
+        @Override
+        public void serialize(Pet pet, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, pet.getId());
+            writeVersion(gen, pet.getVersion());
+            gen.writeStringField("name", pet.getName());
+            writeDate(gen, "birthDate", pet.getBirthDate(), provider);
+            writeNamed(gen, "type", pet.getType());
+            gen.writeArrayFieldStart("visits");
+            for (Visit visit : pet.getVisits()) {
+                this.visitSerializer.serialize(visit, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    static class OwnerSerializer extends StdSerializer<Owner> {
+
+        private final PetSerializer petSerializer = new PetSerializer();
+
+        OwnerSerializer() {
+            super(Owner.class);
+        }
+
+        @Override
+        public void serialize(Owner owner, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, owner.getId());
+            writeVersion(gen, owner.getVersion());
+            gen.writeStringField("firstName", owner.getFirstName());
+            gen.writeStringField("lastName", owner.getLastName());
+            gen.writeStringField("address", owner.getAddress());
+            gen.writeStringField("city", owner.getCity());
+            gen.writeStringField("telephone", owner.getTelephone());
+            gen.writeArrayFieldStart("pets");
+            for (Pet pet : owner.getPets()) {
+                this.petSerializer.serialize(pet, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    static class VetSerializer extends StdSerializer<Vet> {
+
+        VetSerializer() {
+            super(Vet.class);
+        }
+
+        @Override
+        public void serialize(Vet vet, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, vet.getId());
+            gen.writeStringField("firstName", vet.getFirstName());
+            gen.writeStringField("lastName", vet.getLastName());
+            List<Specialty> specialties = vet.getSpecialties();
+            gen.writeArrayFieldStart("specialties");
+            for (Specialty specialty : specialties) {
+                writeNamed(gen, specialty);
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("nrOfSpecialties", specialties.size());
+            gen.writeEndObject();
+        }
+    }
+
+    static class VisitDetailsSerializer extends StdSerializer<VisitDetails> {
+
+        VisitDetailsSerializer() {
+            super(VisitDetails.class);
+        }
+
+        @Override
+        public void serialize(VisitDetails visit, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, visit.getId());
+            writeDay(gen, "date", visit.getDate(), provider);
+            gen.writeStringField("description", visit.getDescription());
+            gen.writeEndObject();
+        }
+    }
+
+    static class PetDetailsSerializer extends StdSerializer<PetDetails> {
+
+        private final VisitDetailsSerializer visitSerializer = new VisitDetailsSerializer();
+
+        PetDetailsSerializer() {
+            super(PetDetails.class);
+        }
+
+        @Override
+        public void serialize(PetDetails pet, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, pet.getId());
+            writeVersion(gen, pet.getVersion());
+            gen.writeStringField("name", pet.getName());
+            gen.writeStringField("owner", pet.getOwner());
+            writeDate(gen, "birthDate", pet.getBirthDate(), provider);
+            writeNamed(gen, "type", pet.getType());
+            if (pet.getVisits() != null) {
+                gen.writeArrayFieldStart("visits");
+                for (VisitDetails visit : pet.getVisits()) {
+                    this.visitSerializer.serialize(visit, gen, provider);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OwnerSummarySerializer extends StdSerializer<OwnerSummary> {
+
+        OwnerSummarySerializer() {
+            super(OwnerSummary.class);
+        }
+
+        @Override
+        public void serialize(OwnerSummary owner, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, owner.getId());
+            gen.writeStringField("firstName", owner.getFirstName());
+            gen.writeStringField("lastName", owner.getLastName());
+            gen.writeStringField("address", owner.getAddress());
+            gen.writeStringField("city", owner.getCity());
+            gen.writeStringField("telephone", owner.getTelephone());
+            gen.writeArrayFieldStart("pets");
+            for (PetSummary pet : owner.getPets()) {
+                gen.writeStartObject();
+                writeId(gen, pet.getId());
+                gen.writeStringField("name", pet.getName());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("petCount", owner.getPetCount());
+            writeDay(gen, "lastVisitDate", owner.getLastVisitDate(), provider);
+            gen.writeEndObject();
+        }
+    }
+
+    static class OwnerDetailsSerializer extends StdSerializer<OwnerDetails> {
+
+        private final PetDetailsSerializer petSerializer = new PetDetailsSerializer();
+
+        OwnerDetailsSerializer() {
+            super(OwnerDetails.class);
+        }
+
+        @Override
+        public void serialize(OwnerDetails owner, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeId(gen, owner.getId());
+            writeVersion(gen, owner.getVersion());
+            gen.writeStringField("firstName", owner.getFirstName());
+            gen.writeStringField("lastName", owner.getLastName());
+            gen.writeStringField("address", owner.getAddress());
+            gen.writeStringField("city", owner.getCity());
+            gen.writeStringField("telephone", owner.getTelephone());
+            gen.writeArrayFieldStart("pets");
+            for (PetDetails pet : owner.getPets()) {
+                this.petSerializer.serialize(pet, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+}
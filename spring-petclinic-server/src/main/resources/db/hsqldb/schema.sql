@@ -1,3 +1,12 @@
+DROP TABLE owner_summary IF EXISTS;
+DROP TABLE cache_invalidations IF EXISTS;
+DROP TABLE outbox_offsets IF EXISTS;
+DROP TABLE outbox_events IF EXISTS;
+DROP TABLE stats_checkpoint IF EXISTS;
+DROP TABLE stats_visits_per_pet IF EXISTS;
+DROP TABLE stats_visits_per_day IF EXISTS;
+DROP TABLE appointments IF EXISTS;
+DROP TABLE working_hours IF EXISTS;
 DROP TABLE vet_specialties IF EXISTS;
 DROP TABLE vets IF EXISTS;
 DROP TABLE specialties IF EXISTS;
@@ -39,7 +48,8 @@ CREATE TABLE owners (
   last_name  VARCHAR(30),
   address    VARCHAR(255),
   city       VARCHAR(80),
-  telephone  VARCHAR(20)
+  telephone  VARCHAR(20),
+  version    INTEGER DEFAULT 0 NOT NULL
 );
 CREATE INDEX owners_last_name ON owners (last_name);
 
@@ -48,7 +58,8 @@ CREATE TABLE pets (
   name       VARCHAR(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
-  owner_id   INTEGER NOT NULL
+  owner_id   INTEGER NOT NULL,
+  version    INTEGER DEFAULT 0 NOT NULL
 );
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
@@ -62,3 +73,78 @@ CREATE TABLE visits (
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
 CREATE INDEX visits_pet_id ON visits (pet_id);
+
+CREATE TABLE working_hours (
+  id          INTEGER IDENTITY PRIMARY KEY,
+  vet_id      INTEGER NOT NULL,
+  day_of_week INTEGER NOT NULL,
+  start_time  TIME NOT NULL,
+  end_time    TIME NOT NULL
+);
+ALTER TABLE working_hours ADD CONSTRAINT fk_working_hours_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
+CREATE INDEX working_hours_vet_id ON working_hours (vet_id);
+
+CREATE TABLE appointments (
+  id          INTEGER IDENTITY PRIMARY KEY,
+  vet_id      INTEGER NOT NULL,
+  pet_id      INTEGER NOT NULL,
+  start_time  TIMESTAMP NOT NULL,
+  end_time    TIMESTAMP NOT NULL,
+  description VARCHAR(255)
+);
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
+CREATE INDEX appointments_vet_id_start_time ON appointments (vet_id, start_time);
+CREATE INDEX appointments_end_time ON appointments (end_time);
+
+CREATE TABLE stats_visits_per_day (
+  visit_date DATE PRIMARY KEY,
+  visits     BIGINT NOT NULL
+);
+
+CREATE TABLE stats_visits_per_pet (
+  pet_id INTEGER PRIMARY KEY,
+  visits BIGINT NOT NULL
+);
+
+CREATE TABLE stats_checkpoint (
+  id            INTEGER PRIMARY KEY,
+  last_visit_id INTEGER NOT NULL,
+  saved_at      TIMESTAMP NOT NULL
+);
+
+CREATE TABLE outbox_events (
+  id             BIGINT IDENTITY PRIMARY KEY,
+  aggregate_type VARCHAR(20) NOT NULL,
+  aggregate_id   INTEGER NOT NULL,
+  event_type     VARCHAR(20) NOT NULL,
+  created_at     TIMESTAMP NOT NULL
+);
+CREATE INDEX outbox_events_created_at ON outbox_events (created_at);
+
+CREATE TABLE outbox_offsets (
+  subscriber    VARCHAR(80) PRIMARY KEY,
+  last_event_id BIGINT NOT NULL
+);
+
+CREATE TABLE cache_invalidations (
+  id         BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) PRIMARY KEY,
+  cache_name VARCHAR(80) NOT NULL,
+  cache_key  VARCHAR(255),
+  node_id    VARCHAR(36) NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX cache_invalidations_created_at ON cache_invalidations (created_at);
+
+CREATE TABLE owner_summary (
+  owner_id        INTEGER PRIMARY KEY,
+  first_name      VARCHAR(30),
+  last_name       VARCHAR(30),
+  address         VARCHAR(255),
+  city            VARCHAR(80),
+  telephone       VARCHAR(20),
+  pets            VARCHAR(4000) NOT NULL,
+  pet_count       INTEGER NOT NULL,
+  last_visit_date DATE
+);
+CREATE INDEX owner_summary_last_name ON owner_summary (last_name, owner_id);
@@ -22,32 +22,84 @@ INSERT IGNORE INTO types VALUES (4, 'snake');
 INSERT IGNORE INTO types VALUES (5, 'bird');
 INSERT IGNORE INTO types VALUES (6, 'hamster');
 
-INSERT IGNORE INTO owners VALUES (1, 'George', 'Franklin', '110 W. Liberty St.', 'Madison', '6085551023');
-INSERT IGNORE INTO owners VALUES (2, 'Betty', 'Davis', '638 Cardinal Ave.', 'Sun Prairie', '6085551749');
-INSERT IGNORE INTO owners VALUES (3, 'Eduardo', 'Rodriquez', '2693 Commerce St.', 'McFarland', '6085558763');
-INSERT IGNORE INTO owners VALUES (4, 'Harold', 'Davis', '563 Friendly St.', 'Windsor', '6085553198');
-INSERT IGNORE INTO owners VALUES (5, 'Peter', 'McTavish', '2387 S. Fair Way', 'Madison', '6085552765');
-INSERT IGNORE INTO owners VALUES (6, 'Jean', 'Coleman', '105 N. Lake St.', 'Monona', '6085552654');
-INSERT IGNORE INTO owners VALUES (7, 'Jeff', 'Black', '1450 Oak Blvd.', 'Monona', '6085555387');
-INSERT IGNORE INTO owners VALUES (8, 'Maria', 'Escobito', '345 Maple St.', 'Madison', '6085557683');
-INSERT IGNORE INTO owners VALUES (9, 'David', 'Schroeder', '2749 Blackhawk Trail', 'Madison', '6085559435');
-INSERT IGNORE INTO owners VALUES (10, 'Carlos', 'Estaban', '2335 Independence La.', 'Waunakee', '6085555487');
+INSERT IGNORE INTO owners VALUES (1, 'George', 'Franklin', '110 W. Liberty St.', 'Madison', '6085551023', 0);
+INSERT IGNORE INTO owners VALUES (2, 'Betty', 'Davis', '638 Cardinal Ave.', 'Sun Prairie', '6085551749', 0);
+INSERT IGNORE INTO owners VALUES (3, 'Eduardo', 'Rodriquez', '2693 Commerce St.', 'McFarland', '6085558763', 0);
+INSERT IGNORE INTO owners VALUES (4, 'Harold', 'Davis', '563 Friendly St.', 'Windsor', '6085553198', 0);
+INSERT IGNORE INTO owners VALUES (5, 'Peter', 'McTavish', '2387 S. Fair Way', 'Madison', '6085552765', 0);
+INSERT IGNORE INTO owners VALUES (6, 'Jean', 'Coleman', '105 N. Lake St.', 'Monona', '6085552654', 0);
+INSERT IGNORE INTO owners VALUES (7, 'Jeff', 'Black', '1450 Oak Blvd.', 'Monona', '6085555387', 0);
+INSERT IGNORE INTO owners VALUES (8, 'Maria', 'Escobito', '345 Maple St.', 'Madison', '6085557683', 0);
+INSERT IGNORE INTO owners VALUES (9, 'David', 'Schroeder', '2749 Blackhawk Trail', 'Madison', '6085559435', 0);
+INSERT IGNORE INTO owners VALUES (10, 'Carlos', 'Estaban', '2335 Independence La.', 'Waunakee', '6085555487', 0);
 
-INSERT IGNORE INTO pets VALUES (1, 'Leo', '2000-09-07', 1, 1);
-INSERT IGNORE INTO pets VALUES (2, 'Basil', '2002-08-06', 6, 2);
-INSERT IGNORE INTO pets VALUES (3, 'Rosy', '2001-04-17', 2, 3);
-INSERT IGNORE INTO pets VALUES (4, 'Jewel', '2000-03-07', 2, 3);
-INSERT IGNORE INTO pets VALUES (5, 'Iggy', '2000-11-30', 3, 4);
-INSERT IGNORE INTO pets VALUES (6, 'George', '2000-01-20', 4, 5);
-INSERT IGNORE INTO pets VALUES (7, 'Samantha', '1995-09-04', 1, 6);
-INSERT IGNORE INTO pets VALUES (8, 'Max', '1995-09-04', 1, 6);
-INSERT IGNORE INTO pets VALUES (9, 'Lucky', '1999-08-06', 5, 7);
-INSERT IGNORE INTO pets VALUES (10, 'Mulligan', '1997-02-24', 2, 8);
-INSERT IGNORE INTO pets VALUES (11, 'Freddy', '2000-03-09', 5, 9);
-INSERT IGNORE INTO pets VALUES (12, 'Lucky', '2000-06-24', 2, 10);
-INSERT IGNORE INTO pets VALUES (13, 'Sly', '2002-06-08', 1, 10);
+INSERT IGNORE INTO pets VALUES (1, 'Leo', '2000-09-07', 1, 1, 0);
+INSERT IGNORE INTO pets VALUES (2, 'Basil', '2002-08-06', 6, 2, 0);
+INSERT IGNORE INTO pets VALUES (3, 'Rosy', '2001-04-17', 2, 3, 0);
+INSERT IGNORE INTO pets VALUES (4, 'Jewel', '2000-03-07', 2, 3, 0);
+INSERT IGNORE INTO pets VALUES (5, 'Iggy', '2000-11-30', 3, 4, 0);
+INSERT IGNORE INTO pets VALUES (6, 'George', '2000-01-20', 4, 5, 0);
+INSERT IGNORE INTO pets VALUES (7, 'Samantha', '1995-09-04', 1, 6, 0);
+INSERT IGNORE INTO pets VALUES (8, 'Max', '1995-09-04', 1, 6, 0);
+INSERT IGNORE INTO pets VALUES (9, 'Lucky', '1999-08-06', 5, 7, 0);
+INSERT IGNORE INTO pets VALUES (10, 'Mulligan', '1997-02-24', 2, 8, 0);
+INSERT IGNORE INTO pets VALUES (11, 'Freddy', '2000-03-09', 5, 9, 0);
+INSERT IGNORE INTO pets VALUES (12, 'Lucky', '2000-06-24', 2, 10, 0);
+INSERT IGNORE INTO pets VALUES (13, 'Sly', '2002-06-08', 1, 10, 0);
 
 INSERT IGNORE INTO visits VALUES (1, 7, '2010-03-04', 'rabies shot');
 INSERT IGNORE INTO visits VALUES (2, 8, '2011-03-04', 'rabies shot');
 INSERT IGNORE INTO visits VALUES (3, 8, '2009-06-04', 'neutered');
 INSERT IGNORE INTO visits VALUES (4, 7, '2008-09-04', 'spayed');
+
+INSERT IGNORE INTO working_hours VALUES (1, 1, 1, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (2, 1, 1, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (3, 1, 2, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (4, 1, 2, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (5, 1, 3, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (6, 1, 3, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (7, 1, 4, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (8, 1, 4, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (9, 1, 5, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (10, 1, 5, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (11, 2, 1, '09:00:00', '13:00:00');
+INSERT IGNORE INTO working_hours VALUES (12, 2, 1, '14:00:00', '18:00:00');
+INSERT IGNORE INTO working_hours VALUES (13, 2, 2, '09:00:00', '13:00:00');
+INSERT IGNORE INTO working_hours VALUES (14, 2, 2, '14:00:00', '18:00:00');
+INSERT IGNORE INTO working_hours VALUES (15, 2, 3, '09:00:00', '13:00:00');
+INSERT IGNORE INTO working_hours VALUES (16, 2, 3, '14:00:00', '18:00:00');
+INSERT IGNORE INTO working_hours VALUES (17, 2, 4, '09:00:00', '13:00:00');
+INSERT IGNORE INTO working_hours VALUES (18, 2, 4, '14:00:00', '18:00:00');
+INSERT IGNORE INTO working_hours VALUES (19, 2, 5, '09:00:00', '13:00:00');
+INSERT IGNORE INTO working_hours VALUES (20, 2, 5, '14:00:00', '18:00:00');
+INSERT IGNORE INTO working_hours VALUES (21, 3, 1, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (22, 3, 1, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (23, 3, 2, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (24, 3, 2, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (25, 3, 3, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (26, 3, 3, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (27, 3, 4, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (28, 3, 4, '13:00:00', '17:00:00');
+INSERT IGNORE INTO working_hours VALUES (29, 4, 2, '10:00:00', '14:00:00');
+INSERT IGNORE INTO working_hours VALUES (30, 4, 2, '15:00:00', '19:00:00');
+INSERT IGNORE INTO working_hours VALUES (31, 4, 3, '10:00:00', '14:00:00');
+INSERT IGNORE INTO working_hours VALUES (32, 4, 3, '15:00:00', '19:00:00');
+INSERT IGNORE INTO working_hours VALUES (33, 4, 4, '10:00:00', '14:00:00');
+INSERT IGNORE INTO working_hours VALUES (34, 4, 4, '15:00:00', '19:00:00');
+INSERT IGNORE INTO working_hours VALUES (35, 4, 5, '10:00:00', '14:00:00');
+INSERT IGNORE INTO working_hours VALUES (36, 4, 5, '15:00:00', '19:00:00');
+INSERT IGNORE INTO working_hours VALUES (37, 4, 6, '10:00:00', '14:00:00');
+INSERT IGNORE INTO working_hours VALUES (38, 4, 6, '15:00:00', '19:00:00');
+INSERT IGNORE INTO working_hours VALUES (39, 5, 1, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (40, 5, 2, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (41, 5, 3, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (42, 5, 4, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (43, 5, 5, '08:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (44, 6, 3, '09:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (45, 6, 3, '13:00:00', '16:00:00');
+INSERT IGNORE INTO working_hours VALUES (46, 6, 4, '09:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (47, 6, 4, '13:00:00', '16:00:00');
+INSERT IGNORE INTO working_hours VALUES (48, 6, 5, '09:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (49, 6, 5, '13:00:00', '16:00:00');
+INSERT IGNORE INTO working_hours VALUES (50, 6, 6, '09:00:00', '12:00:00');
+INSERT IGNORE INTO working_hours VALUES (51, 6, 6, '13:00:00', '16:00:00');
@@ -37,6 +37,7 @@ CREATE TABLE IF NOT EXISTS owners (
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(last_name)
 ) engine=InnoDB;
 
@@ -46,15 +47,107 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED NOT NULL,
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(name),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
 ) engine=InnoDB;
 
+-- Databases created before the version columns: MySQL has no ADD COLUMN IF NOT EXISTS
+SET @add_version = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE owners ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'owners' AND column_name = 'version');
+PREPARE add_version FROM @add_version;
+EXECUTE add_version;
+DEALLOCATE PREPARE add_version;
+
+SET @add_version = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE pets ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'pets' AND column_name = 'version');
+PREPARE add_version FROM @add_version;
+EXECUTE add_version;
+DEALLOCATE PREPARE add_version;
+
 CREATE TABLE IF NOT EXISTS visits (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   pet_id INT(4) UNSIGNED NOT NULL,
   visit_date DATE,
   description VARCHAR(8192),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
-) engine=InnoDB;
\ No newline at end of file
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS working_hours (
+  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  vet_id INT(4) UNSIGNED NOT NULL,
+  day_of_week INT(1) UNSIGNED NOT NULL,
+  start_time TIME NOT NULL,
+  end_time TIME NOT NULL,
+  FOREIGN KEY (vet_id) REFERENCES vets(id)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS appointments (
+  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  vet_id INT(4) UNSIGNED NOT NULL,
+  pet_id INT(4) UNSIGNED NOT NULL,
+  start_time DATETIME NOT NULL,
+  end_time DATETIME NOT NULL,
+  description VARCHAR(255),
+  INDEX(vet_id, start_time),
+  INDEX(end_time),
+  FOREIGN KEY (vet_id) REFERENCES vets(id),
+  FOREIGN KEY (pet_id) REFERENCES pets(id)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS stats_visits_per_day (
+  visit_date DATE NOT NULL PRIMARY KEY,
+  visits BIGINT UNSIGNED NOT NULL
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS stats_visits_per_pet (
+  pet_id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  visits BIGINT UNSIGNED NOT NULL
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS stats_checkpoint (
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  last_visit_id INT(4) UNSIGNED NOT NULL,
+  saved_at DATETIME NOT NULL
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  aggregate_type VARCHAR(20) NOT NULL,
+  aggregate_id INT(4) UNSIGNED NOT NULL,
+  event_type VARCHAR(20) NOT NULL,
+  created_at DATETIME(3) NOT NULL,
+  INDEX(created_at)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+  subscriber VARCHAR(80) NOT NULL PRIMARY KEY,
+  last_event_id BIGINT UNSIGNED NOT NULL
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  cache_name VARCHAR(80) NOT NULL,
+  cache_key VARCHAR(255),
+  node_id VARCHAR(36) NOT NULL,
+  created_at DATETIME(3) NOT NULL,
+  INDEX(created_at)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS owner_summary (
+  owner_id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  first_name VARCHAR(30),
+  last_name VARCHAR(30),
+  address VARCHAR(255),
+  city VARCHAR(80),
+  telephone VARCHAR(20),
+  pets VARCHAR(4000) NOT NULL,
+  pet_count INT(4) UNSIGNED NOT NULL,
+  last_visit_date DATE,
+  INDEX(last_name, owner_id)
+) engine=InnoDB;
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.allocation;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AllocationProfilerTests {
+
+    private final AllocationProfiler profiler = new AllocationProfiler();
+
+    private byte[] allocated;
+
+    @Test
+    public void shouldCountTheBytesAllocatedByTheCurrentThread() {
+        long start = this.profiler.allocatedBytes();
+        this.allocated = new byte[1_000_000];
+        this.profiler.record("GET /owners/list", start);
+
+        Map<String, Object> histogram = histogram("GET /owners/list");
+        assertThat(histogram).containsEntry("calls", 1L);
+        assertThat((Long) histogram.get("totalBytes")).isBetween(1_000_000L, 1_100_000L);
+        assertThat(histogram.get("p50Bytes")).isEqualTo(1L << 20);
+    }
+
+    @Test
+    public void shouldAggregateTheCallsInBucketsOfPowersOfTwo() {
+        AllocationHistogram histogram = new AllocationHistogram();
+        for (int call = 0; call < 99; call++) {
+            histogram.record(1000);
+        }
+        histogram.record(5000);
+
+        Map<String, Object> report = histogram.getReport();
+        assertThat(report).containsEntry("calls", 100L).containsEntry("meanBytes", 1040L)
+            .containsEntry("p50Bytes", 1024L).containsEntry("p99Bytes", 1024L).containsEntry("maxBytes", 5000L);
+        assertThat((Map<?, ?>) report.get("histogram")).containsOnlyKeys("<1024", "<8192");
+    }
+
+    @Test
+    public void shouldListTheHeaviestEndpointsFirst() {
+        this.profiler.record("GET /vets", this.profiler.allocatedBytes());
+        long start = this.profiler.allocatedBytes();
+        this.allocated = new byte[10_000];
+        this.profiler.record("GET /owners/{ownerId}", start);
+
+        assertThat(this.profiler.getReport().keySet()).containsExactly("GET /owners/{ownerId}", "GET /vets");
+
+        this.profiler.reset();
+        assertThat(this.profiler.getReport()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> histogram(String name) {
+        return (Map<String, Object>) this.profiler.getReport().get(name);
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.scheduling.AvailabilityIndex;
+import org.springframework.samples.petclinic.scheduling.AvailableSlot;
+import org.springframework.samples.petclinic.scheduling.Booking;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of <code>/vets/availability</code> searches on the in-memory {@link AvailabilityIndex}: hundreds of vets
+ * spread over three specialties, booked at 80% of their working hours for three months.
+ * <p>
+ * Run with <code>./mvnw -pl spring-petclinic-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.springframework.samples.petclinic.benchmark.AvailabilityBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final String[] SPECIALTIES = {"radiology", "surgery", "dentistry"};
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2019, 1, 7);
+
+    private static final int DAYS = 91;
+
+    @Param({"100", "500"})
+    int vets;
+
+    private AvailabilityIndex index;
+
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        index = new AvailabilityIndex();
+        random = new SplittableRandom(42);
+        int bookingId = 1;
+        for (int vet = 1; vet <= vets; vet++) {
+            index.putVet(vet, "First" + vet, "Last" + vet, Collections.singletonList(SPECIALTIES[vet % 3]));
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day != DayOfWeek.SUNDAY) {
+                    index.addWorkingHours(vet, day, LocalTime.of(8, 0), LocalTime.of(12, 0));
+                    index.addWorkingHours(vet, day, LocalTime.of(13, 0), LocalTime.of(17, 0));
+                }
+            }
+            // 30 minutes appointments, 80% of the working hours booked
+            for (int day = 0; day < DAYS; day++) {
+                LocalDate date = FIRST_DAY.plusDays(day);
+                for (int slot = 0; slot < 16; slot++) {
+                    if (random.nextInt(5) > 0) {
+                        LocalDateTime start = date.atTime(slot < 8 ? 8 : 9, 0).plusMinutes(30 * slot);
+                        index.addBooking(new Booking(bookingId++, vet, start, start.plusMinutes(30)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AvailableSlot> searchOneDay() {
+        LocalDateTime from = FIRST_DAY.plusDays(random.nextInt(DAYS - 1)).atStartOfDay();
+        return index.findAvailability(SPECIALTIES[random.nextInt(3)], from, from.plusDays(1), Duration.ofMinutes(30),
+            100);
+    }
+
+    @Benchmark
+    public List<AvailableSlot> searchOneWeek() {
+        LocalDateTime from = FIRST_DAY.plusDays(random.nextInt(DAYS - 7)).atStartOfDay();
+        return index.findAvailability(SPECIALTIES[random.nextInt(3)], from, from.plusDays(7), Duration.ofMinutes(30),
+            100);
+    }
+
+    @Benchmark
+    public List<AvailableSlot> searchThreeMonths() {
+        return index.findAvailability(SPECIALTIES[random.nextInt(3)], FIRST_DAY.atStartOfDay(),
+            FIRST_DAY.plusDays(DAYS).atStartOfDay(), Duration.ofMinutes(30), 100);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AvailabilityBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetSummary;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON with the CBOR and Smile encodings negotiated by the REST resources, on the payloads of
+ * <code>/owners/list</code> and <code>/owners/{ownerId}/pets/{petId}/visits</code>.
+ * <p>
+ * {@link #main(String[])} prints the payload sizes of each encoding before running the throughput benchmarks.
+ * Run with <code>./mvnw -pl spring-petclinic-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.springframework.samples.petclinic.benchmark.BinaryFormatBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final int OWNERS = 1000;
+
+    private static final int VISITS = 200;
+
+    private static final Date LAST_VISIT_DATE = new Date(1357000000000L);
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    private ObjectMapper mapper;
+
+    private List<OwnerSummary> owners;
+
+    private List<VisitDetails> visits;
+
+    private byte[] ownersPayload;
+
+    private byte[] visitsPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.mapper = mapper(this.format);
+        this.owners = owners();
+        this.visits = visits();
+        this.ownersPayload = this.mapper.writeValueAsBytes(this.owners);
+        this.visitsPayload = this.mapper.writeValueAsBytes(this.visits);
+    }
+
+    @Benchmark
+    public byte[] writeOwnerList() throws Exception {
+        return this.mapper.writeValueAsBytes(this.owners);
+    }
+
+    @Benchmark
+    public Object readOwnerList() throws Exception {
+        return this.mapper.readTree(this.ownersPayload);
+    }
+
+    @Benchmark
+    public byte[] writeVisits() throws Exception {
+        return this.mapper.writeValueAsBytes(this.visits);
+    }
+
+    @Benchmark
+    public Object readVisits() throws Exception {
+        return this.mapper.readTree(this.visitsPayload);
+    }
+
+    static ObjectMapper mapper(String format) {
+        JsonFactory factory;
+        switch (format) {
+            case "cbor":
+                factory = new CBORFactory();
+                break;
+            case "smile":
+                factory = new SmileFactory();
+                break;
+            default:
+                factory = new JsonFactory();
+        }
+        return Jackson2ObjectMapperBuilder.json()
+            .factory(factory)
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    static List<OwnerSummary> owners() {
+        List<OwnerSummary> owners = new ArrayList<>(OWNERS);
+        for (int o = 0; o < OWNERS; o++) {
+            OwnerSummary owner = new OwnerSummary(o, "First" + o, "Last" + o, o + " Main St.", "Madison", "6085551023",
+                2, LAST_VISIT_DATE);
+            owner.addPet(new PetSummary(o * 2, o, "Leo"));
+            owner.addPet(new PetSummary(o * 2 + 1, o, "Basil"));
+            owners.add(owner);
+        }
+        return owners;
+    }
+
+    static List<VisitDetails> visits() {
+        List<VisitDetails> visits = new ArrayList<>(VISITS);
+        long day = 24L * 60 * 60 * 1000;
+        for (int v = 0; v < VISITS; v++) {
+            visits.add(new VisitDetails(v, 7, new Date(1357000000000L + v * day),
+                "rabies shot, weight check and a short dental examination; owner reports a good appetite"));
+        }
+        return visits;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String format : new String[]{"json", "cbor", "smile"}) {
+            ObjectMapper mapper = mapper(format);
+            System.out.printf("%-5s /owners/list: %8d bytes, visits: %8d bytes%n", format,
+                mapper.writeValueAsBytes(owners()).length, mapper.writeValueAsBytes(visits()).length);
+        }
+        new Runner(new OptionsBuilder()
+            .include(BinaryFormatBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import org.springframework.samples.petclinic.web.json.PetclinicJsonModule;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the default Jackson bean serializers with the handwritten {@link PetclinicJsonModule} serializers
+ * on the owner graph returned by <code>/owners/{ownerId}</code>, both as entities and as projections.
+ * <p>
+ * Run with <code>./mvnw -pl spring-petclinic-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.springframework.samples.petclinic.benchmark.JsonSerializationBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Param({"10", "1000"})
+    int owners;
+
+    private ObjectMapper reflective;
+
+    private ObjectMapper streaming;
+
+    private List<Owner> ownerEntities;
+
+    private List<OwnerDetails> ownerDetails;
+
+    @Setup
+    public void setUp() {
+        this.reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        this.streaming = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new PetclinicJsonModule())
+            .build();
+
+        PetType dog = new PetType();
+        dog.setId(2);
+        dog.setName("dog");
+        long firstDay = 1357000000000L;
+
+        this.ownerEntities = new ArrayList<>(this.owners);
+        this.ownerDetails = new ArrayList<>(this.owners);
+        int visitId = 0;
+        for (int o = 0; o < this.owners; o++) {
+            Owner owner = new Owner();
+            owner.setId(o);
+            owner.setFirstName("First" + o);
+            owner.setLastName("Last" + o);
+            owner.setAddress(o + " Main St.");
+            owner.setCity("Madison");
+            owner.setTelephone("6085551023");
+            OwnerDetails details = new OwnerDetails(o, 0, owner.getFirstName(), owner.getLastName(),
+                owner.getAddress(), owner.getCity(), owner.getTelephone());
+            for (int p = 0; p < 3; p++) {
+                int petId = o * 3 + p;
+                Date birthDate = new Date(firstDay - (p + 1) * 365 * DAY);
+                Pet pet = new Pet();
+                pet.setId(petId);
+                pet.setName("Pet" + petId);
+                pet.setBirthDate(birthDate);
+                pet.setType(dog);
+                owner.addPet(pet);
+                PetDetails petDetails = new PetDetails(petId, 0, o, pet.getName(), owner.getFirstName(),
+                    owner.getLastName(), birthDate, dog.getId(), dog.getName());
+                List<VisitDetails> visits = new ArrayList<>();
+                for (int v = 0; v < 5; v++) {
+                    Visit visit = new Visit();
+                    visit.setId(visitId++);
+                    visit.setDate(new Date(firstDay + (visitId % 365) * DAY));
+                    visit.setDescription("rabies shot");
+                    pet.addVisit(visit);
+                    visits.add(new VisitDetails(visit.getId(), petId, visit.getDate(), visit.getDescription()));
+                }
+                petDetails.setVisits(visits);
+                details.addPet(petDetails);
+            }
+            this.ownerEntities.add(owner);
+            this.ownerDetails.add(details);
+        }
+    }
+
+    @Benchmark
+    public byte[] entitiesReflective() throws Exception {
+        return this.reflective.writeValueAsBytes(this.ownerEntities);
+    }
+
+    @Benchmark
+    public byte[] entitiesStreaming() throws Exception {
+        return this.streaming.writeValueAsBytes(this.ownerEntities);
+    }
+
+    @Benchmark
+    public byte[] projectionsReflective() throws Exception {
+        return this.reflective.writeValueAsBytes(this.ownerDetails);
+    }
+
+    @Benchmark
+    public byte[] projectionsStreaming() throws Exception {
+        return this.streaming.writeValueAsBytes(this.ownerDetails);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JsonSerializationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first successful <code>GET /vets</code>, from the launch of the JVM, for the packaging
+ * variants of the application:
+ * <ul>
+ * <li><code>jar</code>: the Spring Boot fat jar</li>
+ * <li><code>exploded</code>: the exploded jar, without class-data-sharing archive</li>
+ * <li><code>cds</code>: the exploded jar with the application class-data-sharing archive</li>
+ * <li><code>cds-lazy</code>: the same, with lazy bean initialization</li>
+ * </ul>
+ * Each variant is started <code>-Druns</code> times (5 by default) on a free port; the minimum, median and maximum
+ * durations are printed in milliseconds, the application logs go to <code>target/startup-benchmark.log</code>.
+ * Build the variants first with <code>./mvnw -pl spring-petclinic-server -Pfast-start package</code> (JDK 11+), then run
+ * <code>./mvnw -pl spring-petclinic-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.springframework.samples.petclinic.benchmark.StartupBenchmark</code>
+ */
+public class StartupBenchmark {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    public static void main(String[] args) throws Exception {
+        File target = new File(System.getProperty("target", "spring-petclinic-server/target"));
+        int runs = Integer.getInteger("runs", 5);
+        File exploded = new File(target, "fast-start");
+        String mainClass = "org.springframework.samples.petclinic.PetClinicApplication";
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jar", Arrays.asList("java", "-jar", new File(target, "petclinic.jar").getAbsolutePath()));
+        if (exploded.isDirectory()) {
+            String classpath = new String(Files.readAllBytes(new File(exploded, "classpath.txt").toPath()),
+                StandardCharsets.UTF_8).trim();
+            variants.put("exploded", Arrays.asList("java", "-Xshare:off", "-cp", classpath, mainClass));
+            variants.put("cds", Arrays.asList("java", "-XX:SharedArchiveFile=petclinic.jsa", "-cp", classpath,
+                mainClass));
+            variants.put("cds-lazy", Arrays.asList("java", "-XX:SharedArchiveFile=petclinic.jsa", "-cp", classpath,
+                mainClass, "--petclinic.startup.lazy-initialization=true"));
+        } else {
+            System.out.println("No " + exploded + " directory: build with -Pfast-start to benchmark the CDS variants");
+        }
+
+        File log = new File(target, "startup-benchmark.log");
+        System.out.printf("%-10s %8s %8s %8s%n", "variant", "min", "median", "max");
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            List<Long> durations = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                durations.add(timeToFirstRequest(variant.getValue(), exploded, log));
+            }
+            Collections.sort(durations);
+            System.out.printf("%-10s %8d %8d %8d%n", variant.getKey(), durations.get(0),
+                durations.get(durations.size() / 2), durations.get(durations.size() - 1));
+        }
+    }
+
+    private static long timeToFirstRequest(List<String> command, File directory, File log) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+        ProcessBuilder builder = new ProcessBuilder(arguments)
+            .directory(directory.isDirectory() ? directory : null)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            URL vets = new URL("http://localhost:" + port + "/vets");
+            while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(arguments + " exited with " + process.exitValue());
+                }
+                if (isOk(vets)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(arguments + " did not serve /vets within " + TIMEOUT_MILLIS + " ms");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static boolean isOk(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two instances sharing one embedded database.
+ */
+public class CacheInvalidationBusTests {
+
+    private static final Instant NOW = Instant.parse("2019-03-01T10:00:00Z");
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Node a;
+
+    private Node b;
+
+    @Before
+    public void setUp() {
+        this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.HSQL)
+            .addScript("db/hsqldb/schema.sql").build();
+        this.jdbcTemplate = new JdbcTemplate(this.database);
+        this.a = new Node("a");
+        this.b = new Node("b");
+    }
+
+    @After
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Test
+    public void shouldEvictTheKeyOnTheOtherInstance() {
+        a.cache.put(1, "George");
+        b.cache.put(1, "George");
+        b.cache.put(2, "Betty");
+
+        a.bus.invalidate("owners", 1);
+        assertThat(a.cache.get(1)).isNull();
+        assertThat(b.cache.get(1)).isNotNull();
+
+        a.bus.publish();
+        b.bus.receive();
+        assertThat(b.cache.get(1)).isNull();
+        assertThat(b.cache.get(2)).isNotNull();
+        assertThat(b.meterRegistry.get("petclinic.cache.invalidations.received").counter().count()).isEqualTo(1);
+        assertThat(b.meterRegistry.get("petclinic.cache.invalidations.propagation").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotApplyItsOwnInvalidationsTwice() {
+        a.bus.invalidate("owners", 1);
+        a.bus.publish();
+        a.cache.put(1, "George");
+
+        a.bus.receive();
+        assertThat(a.cache.get(1)).isNotNull();
+    }
+
+    @Test
+    public void shouldCoalesceTheInvalidationsBetweenTwoPublications() {
+        a.bus.invalidate("owners", 1);
+        a.bus.invalidate("owners", 1);
+        a.bus.invalidate("owners", 2);
+        a.bus.invalidate("vets", "Linda");
+        a.bus.invalidateAll("vets");
+        a.bus.invalidate("vets", "James");
+        a.bus.publish();
+
+        assertThat(this.jdbcTemplate.queryForList("SELECT cache_name || ' ' || COALESCE(cache_key, '*') "
+            + "FROM cache_invalidations ORDER BY id", String.class))
+            .containsExactly("owners i:1", "owners i:2", "vets *");
+    }
+
+    @Test
+    public void shouldWaitForARecentGap() {
+        a.bus.invalidate("owners", 1);
+        a.bus.publish();
+        // Id 1 is allocated to a transaction not committed yet
+        this.jdbcTemplate.update("DELETE FROM cache_invalidations");
+        a.bus.invalidate("owners", 2);
+        a.bus.publish();
+        b.cache.put(2, "Betty");
+
+        b.bus.receive();
+        assertThat(b.cache.get(2)).isNotNull();
+
+        b.clock = Clock.offset(b.clock, Duration.ofSeconds(11));
+        b.bus.setClock(b.clock);
+        b.bus.receive();
+        assertThat(b.cache.get(2)).isNull();
+    }
+
+    @Test
+    public void shouldEncodeTheSupportedKeys() {
+        assertThat(CacheInvalidationBus.decodeKey(CacheInvalidationBus.encodeKey("Linda"))).isEqualTo("Linda");
+        assertThat(CacheInvalidationBus.decodeKey(CacheInvalidationBus.encodeKey(3))).isEqualTo(3);
+        assertThat(CacheInvalidationBus.decodeKey(CacheInvalidationBus.encodeKey(3L))).isEqualTo(3L);
+        assertThat(CacheInvalidationBus.decodeKey("x:3")).isNull();
+        assertThatThrownBy(() -> CacheInvalidationBus.encodeKey(Collections.emptyList()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private class Node {
+
+        private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("owners", "vets");
+
+        private final Cache cache = this.cacheManager.getCache("owners");
+
+        private final CacheInvalidationBus bus;
+
+        private Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+        Node(String nodeId) {
+            PetclinicProperties properties = new PetclinicProperties();
+            properties.getCacheInvalidation().setNodeId(nodeId);
+            this.bus = new CacheInvalidationBus(new CacheInvalidationLog(jdbcTemplate), this.cacheManager,
+                this.meterRegistry, properties);
+            this.bus.setClock(this.clock);
+            // Starts at the end of the log
+            this.bus.receive();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.dataset;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DatasetGeneratorTests {
+
+    @Test
+    public void shouldGenerateTheSameDatasetForTheSameSeed() {
+        RecordingWriter first = new RecordingWriter();
+        RecordingWriter second = new RecordingWriter();
+        generator(7).generate(first);
+        generator(7).generate(second);
+        assertThat(first.rows).isEqualTo(second.rows);
+
+        RecordingWriter other = new RecordingWriter();
+        generator(8).generate(other);
+        assertThat(other.rows).isNotEqualTo(first.rows);
+    }
+
+    @Test
+    public void shouldFollowTheRatiosAndReferenceExistingRows() {
+        RecordingWriter writer = new RecordingWriter();
+        DatasetGenerator.Counts counts = generator(42).generate(writer);
+
+        assertThat(counts.getOwners()).isEqualTo(5000);
+        assertThat(counts.getVets()).isEqualTo(20);
+        assertThat(counts.getPets()).isBetween(14000, 16000);
+        assertThat(counts.getVisits()).isBetween(counts.getPets() * 4, counts.getPets() * 9);
+        assertThat(writer.rows.get(0)).startsWith("vet 7 ");
+        assertThat(writer.rows.stream().filter(row -> row.startsWith("owner")).findFirst())
+            .hasValueSatisfying(row -> assertThat(row).startsWith("owner 11 "));
+        assertThat(writer.flushed).isTrue();
+    }
+
+    private static DatasetGenerator generator(long seed) {
+        DatasetGenerator generator = new DatasetGenerator(seed);
+        generator.setOwners(5000);
+        generator.setVets(20);
+        return generator;
+    }
+
+    /**
+     * Records the rows on top of the seed data: 6 vets, 10 owners, 13 pets, 4 visits.
+     */
+    private static class RecordingWriter implements DatasetWriter {
+
+        private final List<String> rows = new ArrayList<>();
+
+        private boolean flushed;
+
+        @Override
+        public int firstId(String table) {
+            switch (table) {
+                case "vets":
+                    return 7;
+                case "owners":
+                    return 11;
+                case "pets":
+                    return 14;
+                default:
+                    return 5;
+            }
+        }
+
+        @Override
+        public List<Integer> ids(String table) {
+            return "types".equals(table) ? Arrays.asList(1, 2, 3, 4, 5, 6) : Arrays.asList(1, 2, 3);
+        }
+
+        @Override
+        public void vet(int id, String firstName, String lastName) {
+            this.rows.add("vet " + id + " " + firstName + " " + lastName);
+        }
+
+        @Override
+        public void vetSpecialty(int vetId, int specialtyId) {
+            this.rows.add("specialty " + vetId + " " + specialtyId);
+        }
+
+        @Override
+        public void workingHours(int id, int vetId, DayOfWeek day, LocalTime start, LocalTime end) {
+            assertThat(start).isBefore(end);
+            this.rows.add("hours " + id + " " + vetId + " " + day + " " + start + " " + end);
+        }
+
+        @Override
+        public void owner(int id, String firstName, String lastName, String address, String city, String telephone) {
+            assertThat(telephone).hasSize(10);
+            this.rows.add("owner " + id + " " + firstName + " " + lastName + " " + address + " " + city);
+        }
+
+        @Override
+        public void pet(int id, String name, Date birthDate, int typeId, int ownerId) {
+            assertThat(typeId).isBetween(1, 6);
+            this.rows.add("pet " + id + " " + name + " " + birthDate.getTime() + " " + typeId + " " + ownerId);
+        }
+
+        @Override
+        public void visit(int id, int petId, Date date, String description) {
+            this.rows.add("visit " + id + " " + petId + " " + date.getTime() + " " + description);
+        }
+
+        @Override
+        public void flush() {
+            this.flushed = true;
+        }
+    }
+
+}
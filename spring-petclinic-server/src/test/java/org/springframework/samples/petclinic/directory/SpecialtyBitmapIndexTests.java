@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.directory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpecialtyBitmapIndexTests {
+
+    private final SpecialtyBitmapIndex index = new SpecialtyBitmapIndex();
+
+    private final Specialty radiology = specialty(1, "radiology");
+
+    private final Specialty surgery = specialty(2, "surgery");
+
+    private final Specialty dentistry = specialty(3, "dentistry");
+
+    @Before
+    public void setUp() {
+        index.putVet(vet(1));
+        index.putVet(vet(2, radiology));
+        index.putVet(vet(3, surgery, dentistry));
+        index.putVet(vet(4, surgery));
+        index.putVet(vet(5, radiology, surgery));
+    }
+
+    @Test
+    public void shouldFindVetsHavingAllTheSpecialties() {
+        Page<Vet> vets = index.findVets(Arrays.asList("radiology", "surgery"), true, PageRequest.of(0, 10));
+
+        assertThat(vets.getContent()).extracting("id").containsExactly(5);
+        assertThat(vets.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFindVetsHavingAnyOfTheSpecialties() {
+        Page<Vet> vets = index.findVets(Arrays.asList("radiology", "dentistry"), false, PageRequest.of(0, 10));
+
+        assertThat(vets.getContent()).extracting("id").containsExactly(2, 3, 5);
+    }
+
+    @Test
+    public void shouldPageVetsById() {
+        Page<Vet> vets = index.findVets(Collections.emptyList(), true, PageRequest.of(1, 2));
+
+        assertThat(vets.getContent()).extracting("id").containsExactly(3, 4);
+        assertThat(vets.getTotalElements()).isEqualTo(5);
+        assertThat(vets.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldMatchNoVetForAnUnknownSpecialty() {
+        assertThat(index.findVets(Arrays.asList("surgery", "cardiology"), true, PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.findVets(Arrays.asList("surgery", "cardiology"), false, PageRequest.of(0, 10)))
+            .extracting("id").containsExactly(3, 4, 5);
+    }
+
+    @Test
+    public void shouldUpdateTheSpecialtiesOfAVet() {
+        index.putVet(vet(4, radiology));
+        index.removeVet(5);
+
+        assertThat(index.findVets(Collections.singletonList("surgery"), true, PageRequest.of(0, 10)))
+            .extracting("id").containsExactly(3);
+        assertThat(index.findVets(Collections.singletonList("radiology"), true, PageRequest.of(0, 10)))
+            .extracting("id").containsExactly(2, 4);
+    }
+
+    @Test
+    public void shouldFindVetsByTheNewNameOfASpecialty() {
+        index.putSpecialty(1, "imaging");
+
+        assertThat(index.findVets(Collections.singletonList("imaging"), true, PageRequest.of(0, 10)))
+            .extracting("id").containsExactly(2, 5);
+        assertThat(index.findVets(Collections.singletonList("radiology"), true, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private static Specialty specialty(int id, String name) {
+        Specialty specialty = new Specialty();
+        specialty.setId(id);
+        specialty.setName(name);
+        return specialty;
+    }
+
+    private static Vet vet(int id, Specialty... specialties) {
+        Vet vet = new Vet();
+        vet.setId(id);
+        for (Specialty specialty : specialties) {
+            vet.addSpecialty(specialty);
+        }
+        return vet;
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.feed;
+
+import org.junit.Test;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.AggregateType;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.EventType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FeedSubscriptionTests {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+
+    private final FeedSubscription subscription = new FeedSubscription(emitter, 6, null, 3, tasks::add);
+
+    @Test
+    public void shouldSendBufferedEventsInOrder() {
+        subscription.offer(visit(1));
+        subscription.offer(visit(2));
+        runTasks();
+
+        assertThat(emitter.messages).containsExactly("id:1 event:change", "id:2 event:change");
+    }
+
+    @Test
+    public void shouldDropTheOldestEventsAndResyncASlowSubscriber() {
+        for (int id = 1; id <= 5; id++) {
+            subscription.offer(visit(id));
+        }
+        runTasks();
+        subscription.offer(visit(6));
+        runTasks();
+
+        assertThat(emitter.messages).containsExactly("event:resync", "id:6 event:change");
+    }
+
+    @Test
+    public void shouldSendHeartbeatsOnlyWhenIdle() {
+        subscription.offer(visit(1));
+        subscription.heartbeat();
+        runTasks();
+        subscription.heartbeat();
+        runTasks();
+
+        assertThat(emitter.messages).containsExactly("id:1 event:change", ":heartbeat");
+    }
+
+    @Test
+    public void shouldStopSendingOnceTheBrowserIsGone() {
+        emitter.failing = true;
+        subscription.offer(visit(1));
+        runTasks();
+
+        assertThat(subscription.isClosed()).isTrue();
+        subscription.offer(visit(2));
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    public void shouldMatchTheEventsOfTheOwner() {
+        assertThat(subscription.matches(visit(1))).isTrue();
+        assertThat(subscription.matches(new FeedEvent(2, AggregateType.OWNER, 7, EventType.UPDATED, 7, null)))
+            .isFalse();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private static FeedEvent visit(long id) {
+        return new FeedEvent(id, AggregateType.VISIT, (int) id, EventType.CREATED, 6, 8);
+    }
+
+    /**
+     * Keeps the id and name of the events sent, or their comment.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> messages = new ArrayList<>();
+
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (failing) {
+                throw new IllegalStateException("Emitter already completed");
+            }
+            String text = builder.build().stream()
+                .map(DataWithMediaType::getData)
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .collect(Collectors.joining());
+            messages.add(Arrays.stream(text.split("\n"))
+                .filter(line -> line.startsWith("id:") || line.startsWith("event:") || line.startsWith(":"))
+                .collect(Collectors.joining(" ")));
+        }
+    }
+
+}
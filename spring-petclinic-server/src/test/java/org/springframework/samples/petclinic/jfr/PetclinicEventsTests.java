@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.jfr;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.repository.VetRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Records the petclinic events without thresholds, and reads them back from the dump of the recording.
+ */
+public class PetclinicEventsTests {
+
+    private Recording recording;
+
+    private Path dump;
+
+    @Before
+    public void setUp() throws Exception {
+        PetclinicEvents.register();
+        this.recording = new Recording();
+        PetclinicEvents.TYPES.forEach(type -> this.recording.enable(type).withThreshold(Duration.ZERO));
+        this.recording.start();
+        this.dump = Files.createTempFile("petclinic", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.recording.close();
+        Files.deleteIfExists(this.dump);
+    }
+
+    @Test
+    public void shouldRecordTheRepositoryCalls() throws Exception {
+        Vet vet = new Vet();
+        VetRepository target = (VetRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {VetRepository.class}, (proxy, method, arguments) ->
+                method.getName().equals("findAll") ? Arrays.asList(vet, vet) : Optional.empty());
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new RepositoryEventsAspect());
+        VetRepository vetRepository = proxyFactory.getProxy();
+
+        vetRepository.findAll();
+        vetRepository.findAndLockById(7);
+
+        List<RecordedEvent> events = recordedEvents(PetclinicEvents.PREFIX + "RepositoryCall");
+        assertThat(events).extracting(event -> event.getString("repository")).containsOnly("VetRepository");
+        assertThat(events).extracting(event -> event.getString("method"), event -> event.getLong("entityId"),
+            event -> event.getInt("rows"))
+            .containsExactly(
+                tuple("findAll", 0L, 2),
+                tuple("findAndLockById", 7L, 0));
+    }
+
+    @Test
+    public void shouldRecordTheCacheLookups() throws Exception {
+        CacheManager cacheManager = (CacheManager) new CacheEventsBeanPostProcessor()
+            .postProcessAfterInitialization(new ConcurrentMapCacheManager("vets"), "cacheManager");
+        Cache cache = cacheManager.getCache("vets");
+        cache.put("default[]", "vets");
+
+        assertThat(cache).isInstanceOf(ConcurrentMapCache.class).isSameAs(cacheManager.getCache("vets"));
+        cache.get("default[]");
+        cache.get("east[]");
+
+        List<RecordedEvent> events = recordedEvents(PetclinicEvents.PREFIX + "CacheLookup");
+        assertThat(events).extracting(event -> event.getString("cache"), event -> event.getString("key"),
+            event -> event.getBoolean("hit"))
+            .containsExactly(
+                tuple("vets", "default[]", true),
+                tuple("vets", "east[]", false));
+    }
+
+    private List<RecordedEvent> recordedEvents(String type) throws Exception {
+        this.recording.stop();
+        this.recording.dump(this.dump);
+        List<RecordedEvent> events = new ArrayList<>(RecordingFile.readAllEvents(this.dump));
+        events.removeIf(event -> !event.getEventType().getName().equals(type));
+        events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+        return events;
+    }
+
+}
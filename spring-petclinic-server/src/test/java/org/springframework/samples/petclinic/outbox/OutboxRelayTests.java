@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.config.PetclinicProperties;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.AggregateType;
+import org.springframework.samples.petclinic.outbox.OutboxEvent.EventType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class OutboxRelayTests {
+
+    private static final Instant NOW = Instant.parse("2019-01-07T08:00:00Z");
+
+    private final Outbox outbox = mock(Outbox.class);
+
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxRelay relay;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ObjectProvider<OutboxSubscriber> subscribers = mock(ObjectProvider.class);
+        given(subscribers.orderedStream()).willAnswer(invocation -> Stream.of(subscriber));
+        relay = new OutboxRelay(outbox, subscribers, meterRegistry, new PetclinicProperties());
+        relay.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        given(outbox.findOffset("recorder")).willReturn(10L);
+    }
+
+    @Test
+    public void shouldDeliverEventsInOrderAndSaveTheOffset() {
+        given(outbox.findLastEventId()).willReturn(12L);
+        given(outbox.findEventsAfter(10L, 500)).willReturn(Arrays.asList(event(11, 60), event(12, 60)));
+
+        relay.relay();
+
+        assertThat(subscriber.events).extracting("id").containsExactly(11L, 12L);
+        assertThat(relay.getOffset("recorder")).isEqualTo(12L);
+        verify(outbox).saveOffset("recorder", 12L);
+        assertThat(meterRegistry.get("petclinic.outbox.lag.events").gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldWaitForARecentGap() {
+        given(outbox.findLastEventId()).willReturn(14L);
+        given(outbox.findEventsAfter(10L, 500)).willReturn(Arrays.asList(event(11, 60), event(13, 2), event(14, 1)));
+
+        relay.relay();
+
+        assertThat(subscriber.events).extracting("id").containsExactly(11L);
+        assertThat(meterRegistry.get("petclinic.outbox.lag.events").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("petclinic.outbox.lag.seconds").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSkipAnOldGap() {
+        given(outbox.findLastEventId()).willReturn(14L);
+        given(outbox.findEventsAfter(10L, 500)).willReturn(Arrays.asList(event(11, 60), event(13, 30), event(14, 1)));
+
+        relay.relay();
+
+        assertThat(subscriber.events).extracting("id").containsExactly(11L, 13L, 14L);
+    }
+
+    @Test
+    public void shouldDeliverTheSameEventsAgainAfterAFailure() {
+        given(outbox.findLastEventId()).willReturn(12L);
+        given(outbox.findEventsAfter(10L, 500)).willReturn(Arrays.asList(event(11, 60), event(12, 60)));
+        subscriber.failures = 1;
+
+        relay.relay();
+        assertThat(relay.getOffset("recorder")).isEqualTo(10L);
+
+        relay.relay();
+        assertThat(subscriber.events).extracting("id").containsExactly(11L, 12L);
+        assertThat(relay.getOffset("recorder")).isEqualTo(12L);
+    }
+
+    @Test
+    public void shouldStartANewSubscriberAtTheEndOfTheOutbox() {
+        given(outbox.findOffset("recorder")).willReturn(null);
+        given(outbox.findLastEventId()).willReturn(42L);
+
+        relay.relay();
+
+        verify(outbox).saveOffset("recorder", 42L);
+        assertThat(relay.getOffset("recorder")).isEqualTo(42L);
+        assertThat(subscriber.events).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepEventsNotDeliveredToEverySubscriber() {
+        given(outbox.findLastEventId()).willReturn(10L);
+        relay.relay();
+        given(outbox.findLastEventId()).willReturn(12L);
+
+        relay.cleanUp();
+
+        verify(outbox).deleteEvents(10L, NOW.minus(new PetclinicProperties().getOutbox().getRetention()));
+    }
+
+    private static OutboxEvent event(long id, int secondsAgo) {
+        return new OutboxEvent(id, AggregateType.VISIT, (int) id, EventType.CREATED, NOW.minusSeconds(secondsAgo));
+    }
+
+    private static class RecordingSubscriber implements OutboxSubscriber {
+
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        private int failures;
+
+        @Override
+        public String getName() {
+            return "recorder";
+        }
+
+        @Override
+        public void onEvents(List<OutboxEvent> events) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Failing on purpose");
+            }
+            this.events.addAll(events);
+        }
+    }
+
+}
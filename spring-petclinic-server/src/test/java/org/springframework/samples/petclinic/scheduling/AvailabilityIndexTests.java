@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.scheduling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvailabilityIndexTests {
+
+    private static final LocalDate MONDAY = LocalDate.of(2019, 1, 7);
+
+    private final AvailabilityIndex index = new AvailabilityIndex();
+
+    @Before
+    public void setUp() {
+        index.putVet(1, "Linda", "Douglas", Arrays.asList("surgery", "dentistry"));
+        index.putVet(2, "Henry", "Stevens", Collections.singletonList("radiology"));
+        index.addWorkingHours(1, DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0));
+        index.addWorkingHours(1, DayOfWeek.MONDAY, LocalTime.of(13, 0), LocalTime.of(17, 0));
+        index.addWorkingHours(2, DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0));
+    }
+
+    @Test
+    public void shouldFindFreeSlotsBetweenBookings() {
+        index.addBooking(new Booking(1, 1, MONDAY.atTime(9, 0), MONDAY.atTime(9, 20)));
+        index.addBooking(new Booking(2, 1, MONDAY.atTime(11, 45), MONDAY.atTime(13, 30)));
+
+        List<AvailableSlot> slots = index.findAvailability("surgery", MONDAY.atStartOfDay(),
+            MONDAY.plusDays(7).atStartOfDay(), Duration.ofMinutes(30), 10);
+
+        assertThat(slots).extracting("start").containsExactly(MONDAY.atTime(8, 0), MONDAY.atTime(9, 20),
+            MONDAY.atTime(13, 30));
+        assertThat(slots).extracting("end").containsExactly(MONDAY.atTime(9, 0), MONDAY.atTime(11, 45),
+            MONDAY.atTime(17, 0));
+        assertThat(slots).extracting("vetId").containsOnly(1);
+    }
+
+    @Test
+    public void shouldSkipSlotsShorterThanTheDuration() {
+        index.addBooking(new Booking(1, 1, MONDAY.atTime(8, 20), MONDAY.atTime(12, 0)));
+
+        List<AvailableSlot> slots = index.findAvailability("dentistry", MONDAY.atTime(8, 0), MONDAY.atTime(12, 0),
+            Duration.ofMinutes(30), 10);
+
+        assertThat(slots).isEmpty();
+    }
+
+    @Test
+    public void shouldOrderSlotsByStartAndLimitThem() {
+        List<AvailableSlot> slots = index.findAvailability(null, MONDAY.atTime(10, 0), MONDAY.atTime(18, 0),
+            Duration.ofMinutes(30), 2);
+
+        assertThat(slots).extracting("vetId").containsExactly(1, 2);
+        assertThat(slots).extracting("start").containsOnly(MONDAY.atTime(10, 0));
+    }
+
+    @Test
+    public void shouldDetectOverlapsAndWorkingHours() {
+        index.addBooking(new Booking(1, 1, MONDAY.atTime(9, 0), MONDAY.atTime(9, 30)));
+        VetSchedule schedule = index.getSchedule(1);
+
+        assertThat(schedule.overlaps(MONDAY.atTime(8, 30), MONDAY.atTime(9, 0))).isFalse();
+        assertThat(schedule.overlaps(MONDAY.atTime(9, 30), MONDAY.atTime(10, 0))).isFalse();
+        assertThat(schedule.overlaps(MONDAY.atTime(9, 29), MONDAY.atTime(10, 0))).isTrue();
+        assertThat(schedule.overlaps(MONDAY.atTime(8, 0), MONDAY.atTime(12, 0))).isTrue();
+        assertThat(schedule.isWithinWorkingHours(MONDAY.atTime(11, 30), MONDAY.atTime(12, 0))).isTrue();
+        assertThat(schedule.isWithinWorkingHours(MONDAY.atTime(11, 30), MONDAY.atTime(13, 30))).isFalse();
+        assertThat(schedule.isWithinWorkingHours(MONDAY.plusDays(1).atTime(9, 0),
+            MONDAY.plusDays(1).atTime(9, 30))).isFalse();
+    }
+
+    @Test
+    public void shouldFreeTheSlotOfACancelledBooking() {
+        Booking booking = new Booking(1, 2, MONDAY.atTime(8, 0), MONDAY.atTime(12, 0));
+        index.addBooking(booking);
+        assertThat(index.findAvailability("radiology", MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(),
+            Duration.ofMinutes(30), 10)).isEmpty();
+
+        index.removeBooking(booking);
+        assertThat(index.findAvailability("radiology", MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(),
+            Duration.ofMinutes(30), 10)).hasSize(1);
+    }
+
+    @Test
+    public void shouldFreeTheSlotOfABookingCancelledById() {
+        index.addBooking(new Booking(1, 2, MONDAY.atTime(8, 0), MONDAY.atTime(12, 0)));
+
+        index.removeBooking(1);
+        index.removeBooking(3);
+        assertThat(index.findAvailability("radiology", MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(),
+            Duration.ofMinutes(30), 10)).hasSize(1);
+    }
+
+}
@@ -15,20 +15,34 @@
  */
 package org.springframework.samples.petclinic.service;
 
+import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.dataset.DatasetGenerator;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.sql.MaxStatements;
+import org.springframework.samples.petclinic.sql.StatementBudget;
+import org.springframework.samples.petclinic.summary.OwnerSummaryStore;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * <p> Base class for {@link ClinicService} integration tests. </p> <p> Subclasses should specify Spring context
@@ -50,9 +64,18 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public abstract class AbstractClinicServiceTests {
 
+    @Rule
+    public StatementBudget statementBudget = new StatementBudget();
+
     @Autowired
     protected ClinicService clinicService;
 
+    @Autowired
+    protected DataSource dataSource;
+
+    @Autowired
+    protected OwnerSummaryStore ownerSummaryStore;
+
     @Test
     public void shouldFindSingleOwnerWithPet() {
         Owner owner = this.clinicService.findOwnerById(1);
@@ -100,6 +123,34 @@ public abstract class AbstractClinicServiceTests {
         assertThat(owner.getLastName()).isEqualTo(newLastName);
     }
 
+    @Test
+    @Transactional
+    public void shouldPatchOwnerOnlyAtItsVersion() {
+        OwnerDetails owner = this.clinicService.findOwnerDetailsById(1);
+
+        int version = this.clinicService.patchOwner(1, owner.getVersion(), Collections.singletonMap("city", "Monona"));
+
+        OwnerDetails patched = this.clinicService.findOwnerDetailsById(1);
+        assertThat(patched.getCity()).isEqualTo("Monona");
+        assertThat(patched.getLastName()).isEqualTo(owner.getLastName());
+        assertThat(patched.getVersion()).isEqualTo(version).isEqualTo(owner.getVersion() + 1);
+        assertThatThrownBy(() -> this.clinicService.patchOwner(1, owner.getVersion(),
+            Collections.singletonMap("city", "Madison"))).isInstanceOf(VersionConflictException.class);
+    }
+
+    @Test
+    @Transactional
+    public void shouldNotPatchAPetThroughAnotherOwner() {
+        PetDetails samantha = this.clinicService.findPetDetailsById(7);
+
+        assertThatThrownBy(() -> this.clinicService.patchPet(1, 7, samantha.getVersion(),
+            Collections.singletonMap("name", "Leo II"))).isInstanceOf(ObjectRetrievalFailureException.class);
+
+        PetDetails unchanged = this.clinicService.findPetDetailsById(7);
+        assertThat(unchanged.getName()).isEqualTo("Samantha");
+        assertThat(unchanged.getVersion()).isEqualTo(samantha.getVersion());
+    }
+
 	@Test
 	public void shouldFindPetWithCorrectId() {
 	    Pet pet7 = this.clinicService.findPetById(7);
@@ -155,6 +206,33 @@ public abstract class AbstractClinicServiceTests {
 	    assertThat(pet7.getName()).isEqualTo(newName);
 	}
 
+    @Test
+    @Transactional
+    public void shouldAddPetAndVisitByReference() {
+        int pets = this.clinicService.findOwnerDetailsById(6).getPets().size();
+        Pet pet = new Pet();
+        pet.setName("bowser");
+        pet.setType(EntityUtils.getById(this.clinicService.findPetTypes(), PetType.class, 2));
+        pet.setBirthDate(new Date());
+
+        this.clinicService.addPet(6, pet);
+        Visit visit = new Visit();
+        visit.setDescription("first check-up");
+        this.clinicService.addVisit(pet.getId(), visit);
+
+        assertThat(visit.getId()).isNotNull();
+        assertThat(this.clinicService.findOwnerDetailsById(6).getPets()).hasSize(pets + 1);
+        assertThat(this.clinicService.findVisitsByPetId(pet.getId())).extracting("description")
+            .containsExactly("first check-up");
+    }
+
+    @Test
+    @Transactional
+    public void shouldNotAddVisitToUnknownPet() {
+        assertThatThrownBy(() -> this.clinicService.addVisit(999, new Visit()))
+            .isInstanceOf(ObjectRetrievalFailureException.class);
+    }
+
 	@Test
 	public void shouldFindVets() {
 	    Collection<Vet> vets = this.clinicService.findVets();
@@ -182,5 +260,107 @@ public abstract class AbstractClinicServiceTests {
 	    assertThat(visit.getId()).isNotNull();
 	}
 
+	@Test
+	@MaxStatements(3)
+	public void shouldFindOwnerDetailsWithPetsAndVisits() {
+	    OwnerDetails owner6 = this.clinicService.findOwnerDetailsById(6);
+	    assertThat(owner6.getLastName()).isEqualTo("Coleman");
+	    assertThat(owner6.getPets()).extracting("name").containsExactly("Max", "Samantha");
+
+	    PetDetails samantha = owner6.getPets().get(1);
+	    assertThat(samantha.getVisits()).extracting("description").containsExactly("spayed", "rabies shot");
+	}
+
+	@Test
+	@MaxStatements(2)
+	public void shouldFindOwnerDetailsWithoutVisits() {
+	    OwnerDetails owner6 = this.clinicService.findOwnerDetailsById(6, true, false);
+	    assertThat(owner6.getPets()).extracting("name").containsExactly("Max", "Samantha");
+	    assertThat(owner6.getPets().get(1).getVisits()).isEmpty();
+	}
+
+	@Test
+	@MaxStatements(1)
+	public void shouldFindOwnerDetailsWithoutPets() {
+	    OwnerDetails owner6 = this.clinicService.findOwnerDetailsById(6, false, false);
+	    assertThat(owner6.getLastName()).isEqualTo("Coleman");
+	    assertThat(owner6.getPets()).isEmpty();
+	}
+
+	@Test
+	@MaxStatements(3)
+	public void shouldFindSeveralOwnersWithOneStatementPerEntityType() {
+	    Map<Integer, OwnerDetails> owners =
+	        this.clinicService.findOwnerDetailsByIds(Arrays.asList(6, 1, -1), true, true);
+	    assertThat(owners).containsOnlyKeys(6, 1);
+	    assertThat(owners.get(1).getPets()).extracting("name").containsExactly("Leo");
+	    assertThat(owners.get(6).getPets()).extracting("name").containsExactly("Max", "Samantha");
+	    assertThat(owners.get(6).getPets().get(1).getVisits()).extracting("description")
+	        .containsExactly("spayed", "rabies shot");
+	}
+
+	@Test
+	@MaxStatements(1)
+	public void shouldFindSeveralVetsWithTheirSpecialtiesInOneStatement() {
+	    Map<Integer, Vet> vets = this.clinicService.findVetsByIds(Arrays.asList(3, 1, -1));
+	    assertThat(vets).containsOnlyKeys(3, 1);
+	    assertThat(vets.get(3).getSpecialties()).extracting("name").containsExactlyInAnyOrder("dentistry", "surgery");
+	    assertThat(vets.get(1).getNrOfSpecialties()).isZero();
+	}
+
+	@Test
+	public void shouldFindPetDetailsWithCorrectId() {
+	    PetDetails pet7 = this.clinicService.findPetDetailsById(7);
+	    assertThat(pet7.getName()).isEqualTo("Samantha");
+	    assertThat(pet7.getOwner()).isEqualTo("Jean Coleman");
+	    assertThat(pet7.getType().getName()).isEqualTo("cat");
+	}
+
+	@Test
+	@Transactional
+	public void shouldFindOwnersOfGeneratedDataset() {
+	    int found = this.clinicService.findOwnerSummaries().size();
+
+	    DatasetGenerator.Counts counts = loadDataset(200);
+	    assertThat(counts.getOwners()).isEqualTo(200);
+	    this.ownerSummaryStore.rebuild();
+	    assertThat(this.clinicService.findOwnerSummaries()).hasSize(found + 200);
+
+	    OwnerDetails last = this.clinicService.findOwnerDetailsById(found + 200);
+	    assertThat(last.getPets()).isNotEmpty();
+	    assertThat(last.getPets().get(0).getVisits()).isNotEmpty();
+	}
+
+	@Test
+	@Transactional
+	public void shouldRefreshOwnerSummaryOnWrites() {
+	    this.ownerSummaryStore.rebuild();
+	    Pet pet = new Pet();
+	    pet.setName("Ace");
+	    pet.setBirthDate(new Date());
+	    pet.setType(EntityUtils.getById(this.clinicService.findPetTypes(), PetType.class, 2));
+	    this.clinicService.addPet(1, pet);
+	    Visit visit = new Visit();
+	    visit.setDescription("test");
+	    this.clinicService.addVisit(pet.getId(), visit);
+
+	    Collection<OwnerSummary> owners = this.clinicService.findOwnerSummariesByLastName("Frank");
+	    assertThat(owners).extracting("id").containsExactly(1);
+	    OwnerSummary owner = owners.iterator().next();
+	    assertThat(owner.getPets()).extracting("name").containsExactly("Ace", "Leo");
+	    assertThat(owner.getPetCount()).isEqualTo(2);
+	    assertThat(owner.getLastVisitDate()).isInSameDayAs(visit.getDate());
+	}
+
+	/**
+	 * Appends a synthetic dataset to the seed data. Within a transactional test, it is rolled back with the test.
+	 */
+	protected DatasetGenerator.Counts loadDataset(int owners) {
+	    DatasetGenerator generator = new DatasetGenerator(42);
+	    generator.setOwners(owners);
+	    generator.setVets(10);
+	    return generator.load(this.dataSource);
+	}
+
 
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.sql;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Fails the test methods annotated with {@link MaxStatements} which run more SQL statements than their budget,
+ * listing the statements run. Counts the statements of the datasources proxied by the
+ * {@link StatementCountingBeanPostProcessor}, run by the thread of the test: the calls of a <code>ClinicService</code>
+ * as well as the requests of a <code>MockMvc</code>.
+ * <pre class="code">
+ * &#064;Rule
+ * public StatementBudget statementBudget = new StatementBudget();
+ *
+ * &#064;Test
+ * &#064;MaxStatements(3)
+ * public void shouldFindOwnerDetails() {
+ * </pre>
+ */
+public class StatementBudget implements TestRule {
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        MaxStatements budget = description.getAnnotation(MaxStatements.class);
+        if (budget == null) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                StatementLog log = StatementLog.start();
+                try {
+                    base.evaluate();
+                } finally {
+                    log.stop();
+                }
+                if (log.getCount() > budget.value()) {
+                    throw new AssertionError(description.getMethodName() + " ran " + log.getCount()
+                        + " statements, over its budget of " + budget.value() + ": " + log.getStatements());
+                }
+            }
+        };
+    }
+
+}
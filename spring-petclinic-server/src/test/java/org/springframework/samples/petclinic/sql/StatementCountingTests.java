@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.sql;
+
+import java.util.UUID;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * The seed data on an embedded database, whose datasource is proxied as in the application.
+ */
+public class StatementCountingTests {
+
+    @Rule
+    public StatementBudget statementBudget = new StatementBudget();
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        String name = UUID.randomUUID().toString();
+        this.database = new EmbeddedDatabaseBuilder().setName(name).setType(EmbeddedDatabaseType.HSQL)
+            .addScripts("db/hsqldb/schema.sql", "db/hsqldb/data.sql").build();
+        DataSource dataSource = (DataSource) new StatementCountingBeanPostProcessor().postProcessAfterInitialization(
+            new DriverManagerDataSource("jdbc:hsqldb:mem:" + name, "sa", ""), "dataSource");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Test
+    public void shouldCountTheStatementsByShape() {
+        StatementLog log = StatementLog.start();
+        try {
+            for (int petId = 1; petId <= 3; petId++) {
+                this.jdbcTemplate.queryForList("SELECT * FROM visits WHERE pet_id = ?", petId);
+            }
+            this.jdbcTemplate.queryForList("SELECT * FROM pets WHERE id IN (1, 2, 3)");
+            this.jdbcTemplate.queryForList("SELECT * FROM pets WHERE id IN (4, 5)");
+        } finally {
+            log.stop();
+        }
+
+        assertThat(log.getCount()).isEqualTo(5);
+        assertThat(log.getStatements()).containsExactly(
+            entry("SELECT * FROM visits WHERE pet_id = ?", 3),
+            entry("SELECT * FROM pets WHERE id IN (?)", 2));
+        assertThat(log.getRepeatedStatements(2)).containsOnlyKeys("SELECT * FROM visits WHERE pet_id = ?");
+        assertThat(StatementLog.current()).isNull();
+    }
+
+    @Test
+    public void shouldCountTheStatementsOfTheNestedLogsInTheOuterOnes() {
+        StatementLog outer = StatementLog.start();
+        this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners", Integer.class);
+        StatementLog inner = StatementLog.start();
+        this.jdbcTemplate.update("UPDATE owners SET city = 'Madison' WHERE id = 1");
+        inner.stop();
+        outer.stop();
+
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isEqualTo(2);
+        assertThat(outer.getStatements()).containsKey("UPDATE owners SET city = ? WHERE id = ?");
+    }
+
+    @Test
+    @MaxStatements(1)
+    public void shouldReportTheStatementsOfTheRequestInItsHeaders() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new StatementCountingFilter(10).doFilter(new MockHttpServletRequest("GET", "/owners/list"), response,
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) {
+                    jdbcTemplate.queryForList("SELECT * FROM owners");
+                }
+            }));
+
+        assertThat(response.getHeader(StatementCountingFilter.COUNT_HEADER)).isEqualTo("1");
+        assertThat(response.getHeader(StatementCountingFilter.TIME_HEADER)).isNotNull();
+    }
+
+}
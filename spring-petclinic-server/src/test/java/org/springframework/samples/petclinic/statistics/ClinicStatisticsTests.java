@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.statistics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class ClinicStatisticsTests {
+
+    private static final LocalDate DAY = LocalDate.of(2019, 1, 7);
+
+    private final ClinicStatistics statistics = new ClinicStatistics();
+
+    @Before
+    public void setUp() {
+        statistics.putPetType(1, "cat");
+        statistics.putPetType(2, "dog");
+        statistics.ownerSaved(1, "Madison");
+        statistics.ownerSaved(2, "Monona");
+        statistics.petSaved(1, 1, 1);
+        statistics.petSaved(2, 1, 2);
+        statistics.petSaved(3, 2, 2);
+        statistics.visitSaved(1, 1, DAY);
+        statistics.visitSaved(2, 2, DAY);
+        statistics.visitSaved(3, 3, DAY.plusDays(1));
+        statistics.visitSaved(4, 3, DAY.plusDays(1));
+        statistics.visitSaved(5, 3, DAY.plusDays(3));
+    }
+
+    @Test
+    public void shouldCountVisitsByDayPetTypeAndCity() {
+        assertThat(statistics.getTotalVisits()).isEqualTo(5);
+        assertThat(statistics.getVisitsByDay(DAY, DAY.plusDays(3))).containsExactly(entry(DAY, 2L),
+            entry(DAY.plusDays(1), 2L), entry(DAY.plusDays(2), 0L), entry(DAY.plusDays(3), 1L));
+        assertThat(statistics.getVisitsByPetType()).containsExactly(entry("dog", 4L), entry("cat", 1L));
+        assertThat(statistics.getVisitsByCity()).containsExactly(entry("Monona", 3L), entry("Madison", 2L));
+    }
+
+    @Test
+    public void shouldRankOwnersByVisits() {
+        assertThat(statistics.getTopOwners(10)).extracting("ownerId", "visits")
+            .containsExactly(tuple(2, 3L), tuple(1, 2L));
+
+        statistics.visitSaved(6, 1, DAY);
+        statistics.visitSaved(7, 2, DAY);
+
+        assertThat(statistics.getTopOwners(1)).extracting("ownerId", "visits").containsExactly(tuple(1, 4L));
+    }
+
+    @Test
+    public void shouldMoveVisitsWhenAPetOrAnOwnerChanges() {
+        statistics.petSaved(3, 1, 1);
+        statistics.ownerSaved(1, "Windsor");
+
+        assertThat(statistics.getVisitsByPetType()).containsExactly(entry("cat", 4L), entry("dog", 1L));
+        assertThat(statistics.getVisitsByCity()).containsEntry("Windsor", 5L).containsEntry("Monona", 0L);
+        assertThat(statistics.getTopOwners(10)).extracting("ownerId", "visits").startsWith(tuple(1, 5L));
+    }
+
+    @Test
+    public void shouldIgnoreVisitsCountedWhenLoading() {
+        statistics.loaded(5);
+
+        statistics.visitSaved(5, 1, DAY);
+        statistics.visitSaved(6, 1, DAY);
+
+        assertThat(statistics.getTotalVisits()).isEqualTo(6);
+        assertThat(statistics.getLastVisitId()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldKeepTheOwnersWithTheMostVisits() {
+        for (int ownerId = 10; ownerId < 10 + 2 * ClinicStatistics.TOP_OWNERS; ownerId++) {
+            statistics.ownerSaved(ownerId, "Sun Prairie");
+            statistics.petSaved(ownerId, ownerId, 1);
+            statistics.addVisits(ownerId, ownerId);
+        }
+
+        assertThat(statistics.getTopOwners(ClinicStatistics.TOP_OWNERS)).hasSize(ClinicStatistics.TOP_OWNERS)
+            .extracting("ownerId").startsWith(9 + 2 * ClinicStatistics.TOP_OWNERS)
+            .endsWith(10 + ClinicStatistics.TOP_OWNERS);
+    }
+
+}
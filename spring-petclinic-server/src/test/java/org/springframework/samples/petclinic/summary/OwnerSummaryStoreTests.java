@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.summary;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.projection.OwnerSummary;
+import org.springframework.samples.petclinic.tenancy.ShardRouting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class OwnerSummaryStoreTests {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OwnerSummaryStore store;
+
+    @Before
+    public void setUp() {
+        this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.HSQL)
+            .addScripts("db/hsqldb/schema.sql", "db/hsqldb/data.sql").build();
+        this.jdbcTemplate = new JdbcTemplate(this.database);
+        this.store = new OwnerSummaryStore(this.jdbcTemplate, new DataSourceTransactionManager(this.database));
+    }
+
+    @After
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Test
+    public void shouldRebuildEveryOwner() {
+        int owners = this.store.rebuild();
+
+        List<OwnerSummary> summaries = this.store.findAll();
+        assertThat(summaries).hasSize(owners);
+        assertThat(owners).isEqualTo(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners", Integer.class));
+        OwnerSummary coleman = summaries.get(5);
+        assertThat(coleman.getId()).isEqualTo(6);
+        assertThat(coleman.getPets()).extracting("id", "name").containsExactly(
+            tuple(8, "Max"), tuple(7, "Samantha"));
+        assertThat(coleman.getPetCount()).isEqualTo(2);
+        assertThat(coleman.getLastVisitDate()).isEqualTo(Date.valueOf("2013-01-04"));
+        assertThat(summaries.get(0).getLastVisitDate()).isNull();
+    }
+
+    @Test
+    public void shouldFindByLastNamePrefix() {
+        this.store.rebuild();
+
+        assertThat(this.store.findByLastName("Davis")).extracting("id").containsExactly(2, 4);
+        assertThat(this.store.findByLastName("D")).extracting("lastName").containsExactly("Davis", "Davis");
+        assertThat(this.store.findByLastName("D_vis")).isEmpty();
+        assertThat(this.store.findByLastName("%")).isEmpty();
+    }
+
+    @Test
+    public void shouldRefreshOneOwner() {
+        this.store.rebuild();
+        this.jdbcTemplate.update("UPDATE pets SET name = 'Aldo' WHERE id = 7");
+        this.jdbcTemplate.update("INSERT INTO visits (pet_id, visit_date, description) VALUES (7, '2014-02-01', 'x')");
+
+        this.store.refreshByPetId(7);
+
+        OwnerSummary coleman = this.store.findByLastName("Coleman").get(0);
+        assertThat(coleman.getPets()).extracting("name").containsExactly("Aldo", "Max");
+        assertThat(coleman.getLastVisitDate()).isEqualTo(Date.valueOf("2014-02-01"));
+        assertThat(this.store.findAll()).hasSize(this.store.rebuild());
+    }
+
+    @Test
+    public void shouldCountThePetsLeftOutOfALongList() {
+        for (int pet = 0; pet < 200; pet++) {
+            this.jdbcTemplate.update("INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, NULL, 1, 1)",
+                String.format("Pet with a long name %03d", pet));
+        }
+
+        this.store.refresh(1);
+
+        OwnerSummary franklin = this.store.findByLastName("Franklin").get(0);
+        assertThat(franklin.getPetCount()).isEqualTo(201);
+        assertThat(franklin.getPets().size()).isBetween(1, 200);
+    }
+
+    @Test
+    public void shouldBeOutOfServiceUntilRebuilt() {
+        OwnerSummaryRebuild rebuild = new OwnerSummaryRebuild(new OwnerSummaryEndpoint(this.store,
+            Collections.singleton(ShardRouting.DEFAULT_SHARD)));
+        OwnerSummaryRebuildHealthIndicator health = new OwnerSummaryRebuildHealthIndicator(rebuild);
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        rebuild.run();
+
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(rebuild.getOwners()).containsEntry(ShardRouting.DEFAULT_SHARD, this.store.findAll().size());
+    }
+
+}
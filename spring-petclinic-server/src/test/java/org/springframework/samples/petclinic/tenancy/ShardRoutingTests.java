@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tenancy;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.samples.petclinic.service.ClinicService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two clinics on two embedded databases: the seed data on the <code>east</code> shard, a single owner on the default
+ * one.
+ */
+public class ShardRoutingTests {
+
+    private EmbeddedDatabase defaultShard;
+
+    private EmbeddedDatabase eastShard;
+
+    private TenantRoutingDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ShardFanOut shardFanOut;
+
+    @Before
+    public void setUp() {
+        this.defaultShard = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.HSQL)
+            .addScript("db/hsqldb/schema.sql").build();
+        this.eastShard = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.HSQL)
+            .addScripts("db/hsqldb/schema.sql", "db/hsqldb/data.sql").build();
+        this.dataSource = new TenantRoutingDataSource(this.defaultShard,
+            Collections.singletonMap("east", this.eastShard));
+        this.dataSource.afterPropertiesSet();
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        new JdbcTemplate(this.defaultShard).update(
+            "INSERT INTO owners VALUES (1, 'George', 'Franklin', '110 W. Liberty St.', 'Madison', '6085551023', 0)");
+        this.shardFanOut = new ShardFanOut(this.dataSource.getShardNames(), Duration.ofSeconds(10));
+    }
+
+    @After
+    public void tearDown() {
+        this.shardFanOut.shutdown();
+        this.defaultShard.shutdown();
+        this.eastShard.shutdown();
+    }
+
+    @Test
+    public void shouldQueryTheDefaultShardUnlessRouted() {
+        assertThat(ShardRouting.getCurrentShard()).isEqualTo(ShardRouting.DEFAULT_SHARD);
+        assertThat(countOwners()).isEqualTo(1);
+
+        assertThat(ShardRouting.callOn("east", this::countOwners)).isEqualTo(10);
+        assertThat(ShardRouting.isDefaultShard()).isTrue();
+    }
+
+    @Test
+    public void shouldRejectAnUnknownShard() {
+        assertThatThrownBy(() -> ShardRouting.callOn("west", this::countOwners))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new TenantRoutingDataSource(this.defaultShard,
+            Collections.singletonMap(ShardRouting.DEFAULT_SHARD, this.eastShard)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldMergeTheCountsOfEveryShard() {
+        Map<String, Object> report = new CrossClinicReports(this.shardFanOut, this.jdbcTemplate).countRecords();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Long>> shards = (Map<String, Map<String, Long>>) report.get("shards");
+        assertThat(shards).containsOnlyKeys(ShardRouting.DEFAULT_SHARD, "east");
+        assertThat(shards.get(ShardRouting.DEFAULT_SHARD)).containsEntry("owners", 1L).containsEntry("pets", 0L);
+        assertThat(shards.get("east")).containsEntry("owners", 10L).containsEntry("pets", 13L);
+        assertThat(report.get("total")).isEqualTo(sum(shards));
+        assertThat(ShardRouting.isDefaultShard()).isTrue();
+    }
+
+    @Test
+    public void shouldRouteTheClinicServiceCallsOfTheTenant() throws Exception {
+        ClinicService target = mock(ClinicService.class);
+        given(target.findOwnerSummaries()).willAnswer(invocation -> {
+            assertThat(ShardRouting.getCurrentShard()).isEqualTo("east");
+            return Collections.emptyList();
+        });
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new ShardRoutingAspect());
+        ClinicService clinicService = proxyFactory.getProxy();
+        TenantFilter filter = new TenantFilter("X-Clinic-Id", Collections.singletonMap("boston", "east"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/list");
+        request.addHeader("X-Clinic-Id", "boston");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                assertThat(TenantContext.getTenant()).isEqualTo("boston");
+                clinicService.findOwnerSummaries();
+            }
+        }));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(TenantContext.getShard()).isNull();
+        assertThat(ShardRouting.isDefaultShard()).isTrue();
+    }
+
+    @Test
+    public void shouldRejectAnUnknownClinic() throws Exception {
+        TenantFilter filter = new TenantFilter("X-Clinic-Id", Collections.singletonMap("boston", "east"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/list");
+        request.addHeader("X-Clinic-Id", "chicago");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private int countOwners() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners", Integer.class);
+    }
+
+    private static Map<String, Long> sum(Map<String, Map<String, Long>> shards) {
+        Map<String, Long> total = new LinkedHashMap<>();
+        shards.values().forEach(counts -> counts.forEach((table, count) -> total.merge(table, count, Long::sum)));
+        return total;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.tracing;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class FlightRecorderTests {
+
+    @Test
+    public void shouldRecordTheNestedSpansOfATracedRequest() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(10, 5, 8, 1, Duration.ofSeconds(1));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new TracingFilter(recorder).doFilter(new MockHttpServletRequest("GET", "/owners/list"), response,
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) {
+                    int service = Tracer.enter(Tracer.SERVICE, "ClinicService.findOwners");
+                    Tracer.exit(Tracer.enter(Tracer.JDBC, "SELECT * FROM owners"));
+                    Tracer.exit(service);
+                    Tracer.enter(Tracer.SERIALIZATION, MockHttpServletResponse.class);
+                }
+            }));
+
+        List<Trace> traces = recorder.getRecentTraces();
+        assertThat(traces).hasSize(1);
+        Trace trace = traces.get(0);
+        assertThat(trace.getName()).isEqualTo("GET /owners/list");
+        assertThat(trace.getStatus()).isEqualTo(200);
+        assertThat(trace.getSpans()).extracting(Trace.Span::getKind, Trace.Span::getName, Trace.Span::getDepth)
+            .containsExactly(
+                tuple(Tracer.SERVICE, "ClinicService.findOwners", 0),
+                tuple(Tracer.JDBC, "SELECT * FROM owners", 1),
+                tuple(Tracer.SERIALIZATION, "MockHttpServletResponse", 0));
+        assertThat(trace.getSpans().get(2).getOffset() + trace.getSpans().get(2).getDuration())
+            .isLessThanOrEqualTo(trace.getDuration());
+        assertThat(recorder.getTrace(trace.getId())).isSameAs(trace);
+        assertThat(Tracer.enter(Tracer.JDBC, "SELECT 1")).isEqualTo(Tracer.NOT_TRACED);
+    }
+
+    @Test
+    public void shouldCountTheSpansBeyondTheCapacity() {
+        FlightRecorder recorder = new FlightRecorder(10, 5, 2, 1, Duration.ofSeconds(1));
+
+        Trace trace = record(recorder, 3, 0);
+
+        assertThat(trace.getSpans()).hasSize(2);
+        assertThat(trace.getDroppedSpans()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepTheMostRecentTracesOnly() {
+        FlightRecorder recorder = new FlightRecorder(3, 5, 8, 1, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 5; i++) {
+            record(recorder, 1, 0);
+        }
+
+        assertThat(recorder.getRecentTraces()).extracting(Trace::getId).containsExactly(5L, 4L, 3L);
+        assertThat(recorder.getTrace(2)).isNull();
+        assertThat(recorder.getSlowestTraces()).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepTheSlowestTracesAboveTheThreshold() {
+        FlightRecorder recorder = new FlightRecorder(10, 2, 8, 1, Duration.ZERO);
+
+        record(recorder, 1, 0);
+        record(recorder, 1, 60);
+        record(recorder, 1, 30);
+
+        assertThat(recorder.getSlowestTraces()).extracting(Trace::getId).containsExactly(2L, 3L);
+        assertThat(recorder.getTrace(2)).isNotNull();
+    }
+
+    @Test
+    public void shouldTraceNoRequestAtAZeroSampleRate() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(10, 5, 8, 1, Duration.ofSeconds(1));
+        recorder.setSampleRate(0);
+
+        new TracingFilter(recorder).doFilter(new MockHttpServletRequest("GET", "/vets"),
+            new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(recorder.getRecentTraces()).isEmpty();
+        assertThatThrownBy(() -> recorder.setSampleRate(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Trace record(FlightRecorder recorder, int spans, long sleepMillis) {
+        TraceBuffer buffer = Tracer.begin(recorder.getMaxSpans());
+        try {
+            for (int i = 0; i < spans; i++) {
+                Tracer.exit(Tracer.enter(Tracer.REPOSITORY, "OwnerRepository.findById"));
+            }
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Tracer.end();
+        }
+        return recorder.record(buffer, "GET /owners/{ownerId}", 200);
+    }
+
+}
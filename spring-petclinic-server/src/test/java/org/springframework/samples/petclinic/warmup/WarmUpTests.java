@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.service.ClinicService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+
+public class WarmUpTests {
+
+    private EmbeddedDatabase database;
+
+    private final ClinicService clinicService = mock(ClinicService.class);
+
+    @Before
+    public void setUp() {
+        this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.HSQL)
+            .addScripts("db/hsqldb/schema.sql", "db/hsqldb/data.sql").build();
+    }
+
+    @After
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Test
+    public void shouldReportOutOfServiceUntilWarm() {
+        WarmUp warmUp = new WarmUp(this.database, this.clinicService, 2, Collections.singletonList("/vets"), 10, 1,
+            Duration.ofSeconds(10));
+        WarmUpHealthIndicator healthIndicator = new WarmUpHealthIndicator(warmUp);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmUp.run(null);
+
+        Health health = healthIndicator.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("timedOut", false).containsEntry("requests", 0);
+        then(this.clinicService).should().findVets();
+        then(this.clinicService).should().findPetTypes();
+    }
+
+    @Test
+    public void shouldReportUpWhenTheWarmUpFails() {
+        given(this.clinicService.findVets()).willThrow(new IllegalStateException("No vets"));
+        WarmUp warmUp = new WarmUp(this.database, this.clinicService, 1, Collections.emptyList(), 0, 1,
+            Duration.ofSeconds(10));
+
+        warmUp.run(null);
+
+        assertThat(new WarmUpHealthIndicator(warmUp).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Appointment;
+import org.springframework.samples.petclinic.scheduling.AppointmentConflictException;
+import org.springframework.samples.petclinic.scheduling.AppointmentScheduler;
+import org.springframework.samples.petclinic.scheduling.AvailableSlot;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(AppointmentResource.class)
+public class AppointmentResourceTests {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2019, 1, 7, 0, 0);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    AppointmentScheduler appointmentScheduler;
+
+    @Test
+    public void shouldFindAvailableSlotsOfASpecialty() throws Exception {
+        AvailableSlot slot = new AvailableSlot(3, "Linda", "Douglas", MONDAY.withHour(8), MONDAY.withHour(12));
+        given(appointmentScheduler.findAvailability("surgery", MONDAY, MONDAY.plusDays(7), Duration.ofMinutes(30),
+            100)).willReturn(Collections.singletonList(slot));
+
+        mvc.perform(get("/vets/availability?specialty=surgery&from=2019-01-07T00:00:00&to=2019-01-14T00:00:00")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].vetId").value(3))
+            .andExpect(jsonPath("$[0].start").value("2019-01-07T08:00:00"));
+    }
+
+    @Test
+    public void shouldRejectAnInvertedPeriod() throws Exception {
+        mvc.perform(get("/vets/availability?from=2019-01-14T00:00:00&to=2019-01-07T00:00:00")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldReportAConflictingAppointment() throws Exception {
+        given(appointmentScheduler.book(eq(3), eq(7), any(), any(), anyString()))
+            .willThrow(new AppointmentConflictException("Vet 3 is already booked"));
+
+        mvc.perform(post("/vets/3/appointments")
+            .content("{\"petId\": 7, \"start\": \"2019-01-07T09:00:00\", \"end\": \"2019-01-07T09:30:00\", "
+                + "\"description\": \"checkup\"}")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void shouldCancelAnAppointmentOfTheVet() throws Exception {
+        mvc.perform(delete("/vets/3/appointments/12"))
+            .andExpect(status().isNoContent());
+
+        verify(appointmentScheduler).cancel(3, 12);
+    }
+
+    @Test
+    public void shouldNotFindTheAppointmentOfAnotherVetToCancel() throws Exception {
+        willThrow(new ObjectRetrievalFailureException(Appointment.class, 12)).given(appointmentScheduler).cancel(4, 12);
+
+        mvc.perform(delete("/vets/4/appointments/12"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void shouldRejectAnAppointmentWithoutPet() throws Exception {
+        mvc.perform(post("/vets/3/appointments")
+            .content("{\"start\": \"2019-01-07T09:00:00\", \"end\": \"2019-01-07T09:30:00\"}")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+}
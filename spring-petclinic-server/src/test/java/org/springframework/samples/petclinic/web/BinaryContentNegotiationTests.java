@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.config.JacksonConfig;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(VisitResource.class)
+@Import(JacksonConfig.class)
+public class BinaryContentNegotiationTests {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    ClinicService clinicService;
+
+    @Test
+    public void shouldGetVisitsInCborFormat() throws Exception {
+        given(clinicService.findVisitsByPetId(7))
+            .willReturn(Collections.singletonList(new VisitDetails(4, 7, new Date(), "spayed")));
+
+        byte[] body = mvc.perform(get("/owners/6/pets/7/visits").accept(CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode visits = cborMapper.readTree(body);
+        assertThat(visits.get(0).get("id").asInt()).isEqualTo(4);
+        assertThat(visits.get(0).get("description").asText()).isEqualTo("spayed");
+    }
+
+    @Test
+    public void shouldCreateVisitFromSmileBody() throws Exception {
+        byte[] body = smileMapper.writeValueAsBytes(
+            smileMapper.createObjectNode().put("date", "2013-01-04").put("description", "spayed"));
+
+        mvc.perform(post("/owners/6/pets/7/visits").contentType(SMILE).content(body))
+            .andExpect(status().isNoContent());
+
+        ArgumentCaptor<Visit> visit = ArgumentCaptor.forClass(Visit.class);
+        verify(clinicService).addVisit(eq(7), visit.capture());
+        assertThat(visit.getValue().getDescription()).isEqualTo("spayed");
+    }
+
+}
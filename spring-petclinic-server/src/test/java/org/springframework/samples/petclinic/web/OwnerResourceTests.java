@@ -0,0 +1,69 @@
+package org.springframework.samples.petclinic.web;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.VersionConflictException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(OwnerResource.class)
+public class OwnerResourceTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    ClinicService clinicService;
+
+    @Test
+    public void shouldPatchOnlyThePresentMembers() throws Exception {
+        given(clinicService.patchOwner(eq(1), eq(2), anyMap())).willReturn(3);
+
+        mvc.perform(patch("/owners/1").contentType("application/merge-patch+json")
+            .content("{\"version\": 2, \"city\": \"Madison\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.version").value(3));
+
+        verify(clinicService).patchOwner(1, 2, Collections.singletonMap("city", "Madison"));
+    }
+
+    @Test
+    public void shouldReportAConflictOnAStaleVersion() throws Exception {
+        given(clinicService.patchOwner(anyInt(), anyInt(), anyMap()))
+            .willThrow(new VersionConflictException("Owner 1 is no longer at version 2"));
+
+        mvc.perform(patch("/owners/1").contentType("application/merge-patch+json")
+            .content("{\"version\": 2, \"city\": \"Madison\"}"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void shouldNotFindAnUnknownOwnerToPatch() throws Exception {
+        given(clinicService.patchOwner(eq(999), eq(0), anyMap()))
+            .willThrow(new ObjectRetrievalFailureException(Owner.class, 999));
+
+        mvc.perform(patch("/owners/999").contentType("application/merge-patch+json")
+            .content("{\"version\": 0, \"city\": \"Madison\"}"))
+            .andExpect(status().isNotFound());
+    }
+
+}
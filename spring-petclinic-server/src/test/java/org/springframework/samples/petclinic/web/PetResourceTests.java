@@ -6,15 +6,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.VersionConflictException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -32,9 +44,9 @@ public class PetResourceTests {
     @Test
     public void shouldGetAPetInJSonFormat() throws Exception {
 
-        Pet pet = setupPet();
+        PetDetails pet = setupPet();
 
-        given(clinicService.findPetById(2)).willReturn(pet);
+        given(clinicService.findPetDetailsById(2)).willReturn(pet);
 
 
         mvc.perform(get("/owners/2/pets/2").accept(MediaType.APPLICATION_JSON))
@@ -45,20 +57,82 @@ public class PetResourceTests {
                 .andExpect(jsonPath("$.type.id").value(6));
     }
 
-    private Pet setupPet() {Owner owner = new Owner();
-        owner.setFirstName("George");
-        owner.setLastName("Bush");
+    @Test
+    public void shouldGetOnlyTheRequestedFields() throws Exception {
+        given(clinicService.findPetDetailsById(2)).willReturn(setupPet());
+
+        mvc.perform(get("/owners/2/pets/2").param("fields", "name,type.name").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Basil"))
+            .andExpect(jsonPath("$.type.name").value("hamster"))
+            .andExpect(jsonPath("$.id").doesNotExist())
+            .andExpect(jsonPath("$.type.id").doesNotExist());
+    }
+
+    @Test
+    public void shouldRejectAnInvalidFieldPath() throws Exception {
+        given(clinicService.findPetDetailsById(2)).willReturn(setupPet());
+
+        mvc.perform(get("/owners/2/pets/2").param("fields", "type..name").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldPatchOnlyThePresentMembers() throws Exception {
+        PetType hamster = new PetType();
+        hamster.setId(6);
+        hamster.setName("hamster");
+        given(clinicService.findPetTypes()).willReturn(Collections.singletonList(hamster));
+        given(clinicService.patchPet(eq(1), eq(2), eq(3), anyMap())).willReturn(4);
+
+        mvc.perform(patch("/owners/1/pets/2").contentType("application/merge-patch+json")
+            .content("{\"version\": 3, \"name\": \"Basil II\", \"typeId\": 6}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(2))
+            .andExpect(jsonPath("$.version").value(4));
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("name", "Basil II");
+        attributes.put("type", hamster);
+        verify(clinicService).patchPet(1, 2, 3, attributes);
+    }
+
+    @Test
+    public void shouldRejectAPatchRemovingOrInvalidatingAMember() throws Exception {
+        mvc.perform(patch("/owners/1/pets/2").contentType("application/merge-patch+json")
+            .content("{\"version\": 3, \"birthDate\": null}"))
+            .andExpect(status().isBadRequest());
+        mvc.perform(patch("/owners/1/pets/2").contentType("application/merge-patch+json")
+            .content("{\"version\": 3, \"name\": \"\"}"))
+            .andExpect(status().isBadRequest());
+        mvc.perform(patch("/owners/1/pets/2").contentType("application/merge-patch+json")
+            .content("{\"name\": \"Basil II\"}"))
+            .andExpect(status().isBadRequest());
 
-        Pet pet = new Pet();
+        verifyZeroInteractions(clinicService);
+    }
 
-        pet.setName("Basil");
-        pet.setId(2);
+    @Test
+    public void shouldReportAConflictOnAStaleVersion() throws Exception {
+        given(clinicService.patchPet(anyInt(), anyInt(), anyInt(), anyMap()))
+            .willThrow(new VersionConflictException("Pet 2 is no longer at version 3"));
 
-        PetType petType = new PetType();
-        petType.setId(6);
-        pet.setType(petType);
+        mvc.perform(patch("/owners/1/pets/2").contentType("application/merge-patch+json")
+            .content("{\"version\": 3, \"birthDate\": \"2012-08-06\"}"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void shouldNotFindAPetOfAnotherOwnerToPatch() throws Exception {
+        given(clinicService.patchPet(eq(1), eq(7), eq(0), anyMap()))
+            .willThrow(new ObjectRetrievalFailureException(Pet.class, 7));
+
+        mvc.perform(patch("/owners/1/pets/7").contentType("application/merge-patch+json")
+            .content("{\"version\": 0, \"name\": \"Leo II\"}"))
+            .andExpect(status().isNotFound());
+    }
 
-        owner.addPet(pet);
-        return pet;
+    private PetDetails setupPet() {
+        return new PetDetails(2, 0, 1, "Basil", "George", "Bush", null, 6, "hamster");
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SpringRunner.class)
+@WebFluxTest(ReactivePetResource.class)
+public class ReactivePetResourceTests {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    ReactiveClinicService clinicService;
+
+    @Test
+    public void shouldGetAPetInJSonFormat() {
+        given(clinicService.findPetDetailsById(2))
+            .willReturn(Mono.just(new PetDetails(2, 0, 1, "Basil", "George", "Bush", null, 6, "hamster")));
+
+        client.get().uri("/owners/2/pets/2").accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.id").isEqualTo(2)
+            .jsonPath("$.name").isEqualTo("Basil")
+            .jsonPath("$.type.id").isEqualTo(6);
+    }
+
+    @Test
+    public void shouldUpdateThePetWithItsNewType() {
+        Pet pet = new Pet();
+        pet.setId(2);
+        PetType hamster = new PetType();
+        hamster.setId(6);
+        given(clinicService.findPetById(2)).willReturn(Mono.just(pet));
+        given(clinicService.findPetTypes()).willReturn(Flux.just(hamster));
+        given(clinicService.savePet(any())).willReturn(Mono.empty());
+
+        client.put().uri("/owners/1/pets/2").contentType(MediaType.APPLICATION_JSON)
+            .syncBody("{\"id\":2,\"name\":\"Basil\",\"birthDate\":\"2012-08-06\",\"typeId\":6}")
+            .exchange()
+            .expectStatus().isNoContent();
+
+        verify(clinicService).savePet(pet);
+        assertThat(pet.getName()).isEqualTo("Basil");
+        assertThat(pet.getType()).isSameAs(hamster);
+    }
+
+    @Test
+    public void shouldFailWithoutSavingWhenThePetIsUnknown() {
+        given(clinicService.findPetById(3)).willReturn(Mono.error(new ObjectRetrievalFailureException(Pet.class, 3)));
+
+        client.put().uri("/owners/1/pets/3").contentType(MediaType.APPLICATION_JSON)
+            .syncBody("{\"id\":3,\"name\":\"Basil\",\"typeId\":6}")
+            .exchange()
+            .expectStatus().is5xxServerError();
+
+        verify(clinicService, never()).savePet(any());
+    }
+}
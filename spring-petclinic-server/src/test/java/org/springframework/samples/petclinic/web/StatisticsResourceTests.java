@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.statistics.OwnerVisits;
+import org.springframework.samples.petclinic.statistics.StatisticsService;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(StatisticsResource.class)
+public class StatisticsResourceTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    StatisticsService statisticsService;
+
+    @Test
+    public void shouldGetTheVisitsOfEveryDay() throws Exception {
+        Map<LocalDate, Long> visits = new LinkedHashMap<>();
+        visits.put(LocalDate.of(2019, 1, 7), 12L);
+        visits.put(LocalDate.of(2019, 1, 8), 0L);
+        given(statisticsService.getVisitsByDay(LocalDate.of(2019, 1, 7), LocalDate.of(2019, 1, 8)))
+            .willReturn(visits);
+
+        mvc.perform(get("/stats/visits/days?from=2019-01-07&to=2019-01-08").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$['2019-01-07']").value(12))
+            .andExpect(jsonPath("$['2019-01-08']").value(0));
+    }
+
+    @Test
+    public void shouldRejectAPeriodOfMoreThanAYear() throws Exception {
+        mvc.perform(get("/stats/visits/days?from=2018-01-01&to=2019-12-31").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldGetTheTopOwners() throws Exception {
+        given(statisticsService.getTopOwners(3)).willReturn(Collections.singletonList(new OwnerVisits(6, 42)));
+
+        mvc.perform(get("/stats/owners/top?limit=3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].ownerId").value(6))
+            .andExpect(jsonPath("$[0].visits").value(42));
+    }
+
+}
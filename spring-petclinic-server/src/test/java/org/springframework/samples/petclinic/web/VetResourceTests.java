@@ -4,17 +4,31 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.directory.VetDirectory;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.tenancy.TenantFilter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -22,12 +36,25 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(VetResource.class)
 public class VetResourceTests {
 
+    @TestConfiguration
+    static class TenantFilterConfig {
+
+        @Bean
+        TenantFilter tenantFilter() {
+            return new TenantFilter("X-Clinic-Id", Collections.singletonMap("boston", "east"));
+        }
+
+    }
+
     @Autowired
     private MockMvc mvc;
 
     @MockBean
     ClinicService clinicService;
 
+    @MockBean
+    VetDirectory vetDirectory;
+
     @Test
     public void shouldGetAListOfVetsInJSonFormat() throws Exception {
 
@@ -41,5 +68,64 @@ public class VetResourceTests {
                 .andExpect(jsonPath("$[0].id").value(1));
     }
 
+    @Test
+    public void shouldGetAPageOfVetsHavingAnyOfTheSpecialties() throws Exception {
+
+        Vet vet = new Vet();
+        vet.setId(3);
+
+        given(vetDirectory.findVets(eq(Arrays.asList("radiology", "surgery")), eq(false), eq(PageRequest.of(1, 2))))
+            .willReturn(new PageImpl<>(Arrays.asList(vet), PageRequest.of(1, 2), 3));
+
+        mvc.perform(get("/vets?specialty=radiology&specialty=surgery&match=any&page=1&size=2")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    public void shouldGetSeveralVetsInTheOrderOfTheIds() throws Exception {
+        Vet vet = new Vet();
+        vet.setId(3);
+
+        given(clinicService.findVetsByIds(new LinkedHashSet<>(Arrays.asList(3, 42))))
+            .willReturn(Collections.singletonMap(3, vet));
+
+        mvc.perform(get("/vets?ids=3,42,3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(3))
+            .andExpect(jsonPath("$[0].found").value(true))
+            .andExpect(jsonPath("$[0].value.id").value(3))
+            .andExpect(jsonPath("$[1].id").value(42))
+            .andExpect(jsonPath("$[1].found").value(false))
+            .andExpect(jsonPath("$[1].value").doesNotExist())
+            .andExpect(jsonPath("$[2].value.id").value(3));
+    }
+
+    @Test
+    public void shouldRejectMoreIdsThanTheLimit() throws Exception {
+        StringBuilder ids = new StringBuilder("1");
+        for (int id = 2; id <= 101; id++) {
+            ids.append(',').append(id);
+        }
+        mvc.perform(get("/vets").param("ids", ids.toString()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldRejectAnUnknownMatch() throws Exception {
+        mvc.perform(get("/vets?specialty=radiology&match=some").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldRejectASpecialtySearchOutOfTheDefaultShard() throws Exception {
+        mvc.perform(get("/vets?specialty=radiology").header("X-Clinic-Id", "boston")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+
+        then(vetDirectory).should(never()).findVets(any(), anyBoolean(), any());
+    }
 
 }
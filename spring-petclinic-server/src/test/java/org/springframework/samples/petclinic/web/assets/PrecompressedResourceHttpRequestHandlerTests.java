@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.assets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.autoconfigure.web.ResourceProperties;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.samples.petclinic.config.StaticResourceConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serves a temporary directory of assets through the handler of {@link StaticResourceConfig}, with content versioning
+ * and a cache period of one hour.
+ */
+public class PrecompressedResourceHttpRequestHandlerTests {
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    private static final byte[] SCRIPT = "angular.module('petClinicApp', []);".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] BROTLI_SCRIPT = {(byte) 0x8b, 0x10, (byte) 0x80, 0x61, 0x6e, 0x67, 0x03};
+
+    @Rule
+    public TemporaryFolder assets = new TemporaryFolder();
+
+    private GenericWebApplicationContext context;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() throws IOException {
+        write("scripts/app.js", SCRIPT);
+        write("scripts/app.js.gz", gzip(SCRIPT));
+        write("scripts/app.js.br", BROTLI_SCRIPT);
+        write("scripts/owner-list/owner-list.template.html",
+            "<h2>Owners</h2>".getBytes(StandardCharsets.UTF_8));
+
+        ResourceProperties properties = new ResourceProperties();
+        properties.setStaticLocations(new String[]{this.assets.getRoot().toURI().toString()});
+        properties.getCache().setPeriod(Duration.ofHours(1));
+        properties.getChain().getStrategy().getContent().setEnabled(true);
+        properties.getChain().getStrategy().getContent().setPaths(new String[]{"/**"});
+
+        StaticResourceConfig config = new StaticResourceConfig();
+        this.context = new GenericWebApplicationContext(new MockServletContext());
+        this.context.registerBean(PrecompressedResourceHttpRequestHandler.class,
+            () -> config.staticResourceHandler(properties));
+        this.context.registerBean(SimpleUrlHandlerMapping.class, () -> config.staticResourceHandlerMapping(
+            this.context.getBean(PrecompressedResourceHttpRequestHandler.class)));
+        this.context.refresh();
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    }
+
+    @After
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Test
+    public void shouldServeTheBrotliVariantFirst() throws Exception {
+        mvc.perform(get("/scripts/app.js").header("Accept-Encoding", "br, gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "br"))
+            .andExpect(header().string("Vary", "Accept-Encoding"))
+            .andExpect(content().bytes(BROTLI_SCRIPT));
+    }
+
+    @Test
+    public void shouldServeTheGzipVariant() throws Exception {
+        mvc.perform(get("/scripts/app.js").header("Accept-Encoding", "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().string("Vary", "Accept-Encoding"))
+            .andExpect(content().bytes(gzip(SCRIPT)));
+    }
+
+    @Test
+    public void shouldServeTheUncompressedAssetToOtherClients() throws Exception {
+        mvc.perform(get("/scripts/app.js"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(content().bytes(SCRIPT));
+    }
+
+    @Test
+    public void shouldMarkContentVersionedUrlsImmutable() throws Exception {
+        String version = DigestUtils.md5DigestAsHex(SCRIPT);
+
+        mvc.perform(get("/scripts/app-" + version + ".js"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control",
+                PrecompressedResourceHttpRequestHandler.IMMUTABLE_CACHE_CONTROL))
+            .andExpect(header().string("ETag", "\"" + version + "\""))
+            .andExpect(content().bytes(SCRIPT));
+    }
+
+    @Test
+    public void shouldKeepTheCachePeriodOfUnversionedTemplates() throws Exception {
+        mvc.perform(get("/scripts/owner-list/owner-list.template.html"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=3600"))
+            .andExpect(header().string("Cache-Control", not(containsString("immutable"))));
+    }
+
+    @Test
+    public void shouldHandLargeFilesOverToSendfile() throws Exception {
+        File bundle = write("scripts/bundle.js",
+            new byte[(int) SendfileResourceHttpMessageConverter.SENDFILE_MIN_SIZE]);
+
+        mvc.perform(get("/scripts/bundle.js").requestAttr(SENDFILE_SUPPORTED_ATTR, true))
+            .andExpect(status().isOk())
+            .andExpect(request().attribute(SENDFILE_FILENAME_ATTR, bundle.getCanonicalPath()))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.end", bundle.length()))
+            .andExpect(header().longValue("Content-Length", bundle.length()))
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void shouldCopySmallFiles() throws Exception {
+        mvc.perform(get("/scripts/app.js").requestAttr(SENDFILE_SUPPORTED_ATTR, true))
+            .andExpect(status().isOk())
+            .andExpect(request().attribute(SENDFILE_FILENAME_ATTR, nullValue()))
+            .andExpect(content().bytes(SCRIPT));
+    }
+
+    private File write(String path, byte[] content) throws IOException {
+        File file = new File(this.assets.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.web.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.projection.OwnerDetails;
+import org.springframework.samples.petclinic.model.projection.PetDetails;
+import org.springframework.samples.petclinic.model.projection.VisitDetails;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the handwritten serializers produce the same documents as the Jackson bean serializers.
+ */
+public class PetclinicJsonModuleTests {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    private final ObjectMapper streaming = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .modulesToInstall(new PetclinicJsonModule())
+        .build();
+
+    @Test
+    public void shouldSerializeOwnerGraphLikeBeanSerializers() throws Exception {
+        Owner owner = new Owner();
+        owner.setId(1);
+        owner.setFirstName("George");
+        owner.setLastName("Franklin");
+        owner.setAddress("110 W. Liberty St.");
+        owner.setCity("Madison");
+        owner.setTelephone("6085551023");
+
+        PetType cat = new PetType();
+        cat.setId(1);
+        cat.setName("cat");
+        Pet pet = new Pet();
+        pet.setId(1);
+        pet.setName("Leo");
+        pet.setBirthDate(new Date(1283817600000L));
+        pet.setType(cat);
+        owner.addPet(pet);
+
+        Visit visit = new Visit();
+        visit.setId(1);
+        visit.setDate(new Date(1357000000000L));
+        visit.setDescription("rabies shot");
+        pet.addVisit(visit);
+
+        assertSameJson(owner);
+    }
+
+    @Test
+    public void shouldSerializeVetLikeBeanSerializers() throws Exception {
+        Specialty surgery = new Specialty();
+        surgery.setId(2);
+        surgery.setName("surgery");
+        Vet vet = new Vet();
+        vet.setId(3);
+        vet.setFirstName("Linda");
+        vet.setLastName("Douglas");
+        vet.addSpecialty(surgery);
+
+        assertSameJson(Collections.singletonList(vet));
+    }
+
+    @Test
+    public void shouldSerializeProjectionsLikeBeanSerializers() throws Exception {
+        OwnerDetails owner = new OwnerDetails(6, 0, "Jean", "Coleman", "105 N. Lake St.", "Monona", "6085552654");
+        PetDetails pet = new PetDetails(7, 0, 6, "Samantha", "Jean", "Coleman", new Date(1346716800000L), 1, "cat");
+        pet.setVisits(Collections.singletonList(new VisitDetails(1, 7, new Date(1357000000000L), null)));
+        owner.addPet(pet);
+        owner.addPet(new PetDetails(8, 0, 6, "Max", "Jean", "Coleman", null, 1, "cat"));
+
+        assertSameJson(owner);
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        String expected = this.reflective.writeValueAsString(value);
+        String actual = this.streaming.writeValueAsString(value);
+        assertThat(this.streaming.readTree(actual)).isEqualTo(this.reflective.readTree(expected));
+    }
+
+}